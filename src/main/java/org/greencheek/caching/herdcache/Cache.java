@@ -6,10 +6,17 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.greencheek.caching.herdcache.await.AwaitOnFuture;
 import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+import org.greencheek.caching.herdcache.util.futures.AsyncSuppliers;
+import org.greencheek.caching.herdcache.util.futures.KeyedFutures;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -58,6 +65,135 @@ public interface Cache<V> extends AwaitOnFuture<V> {
 
     public ListenableFuture<V> get(String key,ListeningExecutorService executorService);
 
+    /**
+     * Obtains the value from the cache, within the given deadline.  The read from the cache is bounded by the
+     * time remaining until the deadline; and the returned future fails if there is no value by the deadline.
+     * Implementations that do not support deadlines ignore the deadline.
+     *
+     * @param key The key to obtain the value for
+     * @param deadline The time by which the value is needed
+     * @param executorService The executor service in which to run the futures.
+     * @return
+     */
+    default public ListenableFuture<V> get(String key, Deadline deadline, ListeningExecutorService executorService) {
+        return get(key, executorService);
+    }
+
+    /**
+     * Prepares the key for repeated use with the apply and get overloads that take a {@link CacheKey}; so that
+     * the work done on each request to turn the key into the key the value is stored under is done once.
+     * Implementations that have nothing to prepare return {@link CacheKey#of(String)}.
+     *
+     * @param key The key to obtain/cache a value under
+     * @return The prepared key
+     */
+    default public CacheKey createKey(String key) {
+        return CacheKey.of(key);
+    }
+
+    default public ListenableFuture<V> get(CacheKey key) {
+        return get(key, MoreExecutors.newDirectExecutorService());
+    }
+
+    /**
+     * As {@link #get(String, ListeningExecutorService)}, for a key prepared by {@link #createKey(String)}
+     */
+    default public ListenableFuture<V> get(CacheKey key, ListeningExecutorService executorService) {
+        return get(key.getKey(), executorService);
+    }
+
+    default public ListenableFuture<V> apply(CacheKey key, Supplier<V> computation) {
+        return apply(key, computation, MoreExecutors.newDirectExecutorService());
+    }
+
+    /**
+     * As {@link #apply(String, Supplier, ListeningExecutorService)}, for a key prepared by {@link #createKey(String)}
+     */
+    default public ListenableFuture<V> apply(CacheKey key, Supplier<V> computation, ListeningExecutorService executorService) {
+        return apply(key.getKey(), computation, executorService);
+    }
+
+    /**
+     * Obtains the value from the cache, or from the future returned by the given supplier.  The supplier starts
+     * the calculation of the value, and returns a future that is completed when the value is available; allowing
+     * the value to be generated without holding a thread from the executor for the duration of the calculation.
+     *
+     * @param key The key to obtain/cache a value under
+     * @param computation Starts the calculation of the value to be cached, returning the future for the value
+     * @param executorService The executor service in which to run the futures.
+     * @return
+     */
+    default public ListenableFuture<V> applyAsync(String key, Supplier<ListenableFuture<V>> computation,
+                                                  ListeningExecutorService executorService) {
+        return applyAsync(key, computation, executorService, CAN_ALWAYS_CACHE_VALUE);
+    }
+
+    /**
+     * Obtains the value from the cache, or from the future returned by the given supplier.
+     * Implementations that do not support asynchronous suppliers wait, on a thread from the executor,
+     * for the supplier's future to complete.
+     *
+     * @param key The key to obtain/cache a value under
+     * @param computation Starts the calculation of the value to be cached, returning the future for the value
+     * @param executorService The executor service in which to run the futures.
+     * @param canCacheValueEvalutor Should the value of the #computation's future be cached or not
+     * @return
+     */
+    default public ListenableFuture<V> applyAsync(String key, Supplier<ListenableFuture<V>> computation,
+                                                  ListeningExecutorService executorService,
+                                                  Predicate<V> canCacheValueEvalutor) {
+        return apply(key, AsyncSuppliers.blocking(computation), executorService, canCacheValueEvalutor);
+    }
+
+    /**
+     * Obtains the value from the cache, or from the {@link CompletionStage} returned by the given supplier.
+     * @see #applyAsync(String, Supplier, ListeningExecutorService)
+     */
+    default public ListenableFuture<V> applyCompletionStage(String key, Supplier<? extends CompletionStage<V>> computation,
+                                                            ListeningExecutorService executorService) {
+        return applyAsync(key, AsyncSuppliers.fromCompletionStage(computation), executorService);
+    }
+
+    default public ListenableFuture<Map<String,V>> getAll(Collection<String> keys) {
+        return getAll(keys, MoreExecutors.newDirectExecutorService());
+    }
+
+    /**
+     * Obtains the values for the given keys from the cache.  The returned map only contains the keys
+     * for which a value was found.  Implementations may fetch the values in bulk.
+     *
+     * @param keys The keys to obtain the values for
+     * @param executorService The executor service in which to run the futures.
+     * @return future containing a map of the keys that were found, to their value
+     */
+    default public ListenableFuture<Map<String,V>> getAll(Collection<String> keys, ListeningExecutorService executorService) {
+        List<String> orderedKeys = new ArrayList<>(keys);
+        List<ListenableFuture<V>> futures = new ArrayList<>(orderedKeys.size());
+        for(String key : orderedKeys) {
+            futures.add(get(key, executorService));
+        }
+        return KeyedFutures.successfulAsMap(orderedKeys, futures);
+    }
+
+    /**
+     * Obtains the values for each of the keys in the given map, from the cache; or from the associated
+     * {@link java.util.function.Supplier} if the key is not in the cache.  Implementations may fetch the values in bulk.
+     * The returned future fails if the value for any of the keys could not be obtained.
+     *
+     * @param computations The keys to obtain/cache a value under, and the function that would calculate the value
+     * @param executorService The executor service in which to run the futures.
+     * @return future containing a map of each key to its value
+     */
+    default public ListenableFuture<Map<String,V>> applyAll(Map<String,Supplier<V>> computations, ListeningExecutorService executorService) {
+        List<String> orderedKeys = new ArrayList<>(computations.size());
+        List<ListenableFuture<V>> futures = new ArrayList<>(computations.size());
+        for(Map.Entry<String,Supplier<V>> computation : computations.entrySet()) {
+            orderedKeys.add(computation.getKey());
+            futures.add(apply(computation.getKey(), computation.getValue(), executorService));
+        }
+        return KeyedFutures.allAsMap(orderedKeys, futures);
+    }
+
 
     /**
      * Set the cache value under that given key with the specified value
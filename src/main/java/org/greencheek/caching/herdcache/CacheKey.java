@@ -0,0 +1,96 @@
+package org.greencheek.caching.herdcache;
+
+/**
+ * A key that has been prepared, once, by the cache that is to use it; for keys that are requested many times.
+ * Obtained from {@link Cache#createKey(String)}, and passed to the apply and get overloads that take a CacheKey.
+ *
+ * For the memcached caches the key holds the memcached key (the key after prefixing and hashing), the stale
+ * cache key, and the hash of the memcached key used to locate its node in the ketama ring; none of which are
+ * then recalculated on each request.  A CacheKey is only prepared for the cache that created it, other caches
+ * treat it as the plain {@link #getKey()}.
+ */
+public final class CacheKey {
+
+    private final String key;
+    private final String memcachedKey;
+    private final String staleKey;
+    private final long ketamaHash;
+    private final boolean hasKetamaHash;
+    private final Object createdBy;
+
+    private CacheKey(String key, String memcachedKey, String staleKey,
+                     long ketamaHash, boolean hasKetamaHash, Object createdBy) {
+        this.key = key;
+        this.memcachedKey = memcachedKey;
+        this.staleKey = staleKey;
+        this.ketamaHash = ketamaHash;
+        this.hasKetamaHash = hasKetamaHash;
+        this.createdBy = createdBy;
+    }
+
+    /**
+     * A key that carries nothing but the given key
+     */
+    public static CacheKey of(String key) {
+        return new CacheKey(key, key, null, 0, false, null);
+    }
+
+    /**
+     * @param createdBy The cache that prepared the key
+     * @param key The key requested by the caller
+     * @param memcachedKey The key the item is stored under in memcached
+     * @param staleKey The key the stale item is stored under, or null if the cache has no stale items
+     * @param ketamaHash The hash of the memcachedKey, for the cache's hash algorithm
+     */
+    public static CacheKey prepared(Object createdBy, String key, String memcachedKey, String staleKey, long ketamaHash) {
+        return new CacheKey(key, memcachedKey, staleKey, ketamaHash, true, createdBy);
+    }
+
+    /**
+     * The key as given by the caller
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public String getMemcachedKey() {
+        return memcachedKey;
+    }
+
+    public String getStaleKey() {
+        return staleKey;
+    }
+
+    public boolean hasKetamaHash() {
+        return hasKetamaHash;
+    }
+
+    public long getKetamaHash() {
+        return ketamaHash;
+    }
+
+    /**
+     * Was the key prepared by the given cache
+     */
+    public boolean isPreparedBy(Object cache) {
+        return createdBy != null && createdBy == cache;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CacheKey cacheKey = (CacheKey) o;
+        return key.equals(cacheKey.key) && memcachedKey.equals(cacheKey.memcachedKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * key.hashCode() + memcachedKey.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -3,8 +3,14 @@ package org.greencheek.caching.herdcache;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import org.greencheek.caching.herdcache.util.futures.AsyncSuppliers;
+import org.greencheek.caching.herdcache.util.futures.KeyedFutures;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -15,6 +21,64 @@ public interface CacheWithExpiry<V> extends Cache<V> {
 
     public ListenableFuture<V> apply(String key, Supplier<V> computation, Duration timeToLive, ListeningExecutorService executorService);
 
+    /**
+     * As {@link #apply(String, Supplier, Duration, ListeningExecutorService)}, for a key prepared by
+     * {@link #createKey(String)}
+     */
+    default public ListenableFuture<V> apply(CacheKey key, Supplier<V> computation, Duration timeToLive,
+                                             ListeningExecutorService executorService) {
+        return apply(key.getKey(), computation, timeToLive, executorService);
+    }
+
+    /**
+     * As {@link #apply(String, Supplier, Duration, ListeningExecutorService)}, but the calculation of the value
+     * is abandoned if it does not complete within the given computation timeout.  Callers waiting on an abandoned
+     * calculation are completed with the stale value (if available), or a
+     * {@link org.greencheek.caching.herdcache.exceptions.SupplierTimeoutException}.
+     * Implementations that do not support supplier timeouts ignore the computation timeout.
+     *
+     * @param computationTimeout The max time the #computation Supplier can run for
+     */
+    default public ListenableFuture<V> apply(String key, Supplier<V> computation, Duration timeToLive,
+                                             Duration computationTimeout, ListeningExecutorService executorService) {
+        return apply(key, computation, timeToLive, executorService);
+    }
+
+    /**
+     * As {@link #apply(String, Supplier, Duration, ListeningExecutorService)}, but the value is needed by the given
+     * deadline.  The time remaining until the deadline bounds the read from the cache, the lookup of a stale value,
+     * the calculation of the value and the wait for the value to be written to the cache.  Stages that cannot be
+     * started before the deadline are skipped, and the returned future fails if there is no value by the deadline.
+     * Implementations that do not support deadlines ignore the deadline.
+     *
+     * @param deadline The time by which the value is needed
+     */
+    default public ListenableFuture<V> apply(String key, Supplier<V> computation, Duration timeToLive,
+                                             Deadline deadline, ListeningExecutorService executorService) {
+        return apply(key, computation, timeToLive, executorService);
+    }
+
+    /**
+     * Obtains the values for each of the keys in the given map, from the cache; or from the associated
+     * {@link java.util.function.Supplier} if the key is not in the cache.  Values generated by the suppliers
+     * are cached for the given time to live.
+     *
+     * @param computations The keys to obtain/cache a value under, and the function that would calculate the value
+     * @param timeToLive How long the generated values should be cached for
+     * @param executorService The executor service in which to run the futures.
+     * @return future containing a map of each key to its value
+     */
+    default public ListenableFuture<Map<String,V>> applyAll(Map<String,Supplier<V>> computations, Duration timeToLive,
+                                                           ListeningExecutorService executorService) {
+        List<String> orderedKeys = new ArrayList<>(computations.size());
+        List<ListenableFuture<V>> futures = new ArrayList<>(computations.size());
+        for(Map.Entry<String,Supplier<V>> computation : computations.entrySet()) {
+            orderedKeys.add(computation.getKey());
+            futures.add(apply(computation.getKey(), computation.getValue(), timeToLive, executorService));
+        }
+        return KeyedFutures.allAsMap(orderedKeys, futures);
+    }
+
     /**
      * @param key The key to obtain/cache a value under
      * @param computation The function that would calculate the value to be cached
@@ -26,6 +90,42 @@ public interface CacheWithExpiry<V> extends Cache<V> {
     public ListenableFuture<V> apply(String key, Supplier<V> computation, Duration timeToLive,
                                      ListeningExecutorService executorService, Predicate<V> isSupplierValueCachable);
 
+    /**
+     * Obtains the value from the cache, or from the future returned by the given supplier.  The value of the
+     * future is cached for the given time to live.
+     * @see Cache#applyAsync(String, Supplier, ListeningExecutorService)
+     */
+    default public ListenableFuture<V> applyAsync(String key, Supplier<ListenableFuture<V>> computation, Duration timeToLive,
+                                                  ListeningExecutorService executorService) {
+        return applyAsync(key, computation, timeToLive, executorService, CAN_ALWAYS_CACHE_VALUE);
+    }
+
+    /**
+     * Obtains the value from the cache, or from the future returned by the given supplier.
+     * Implementations that do not support asynchronous suppliers wait, on a thread from the executor,
+     * for the supplier's future to complete.
+     *
+     * @param key The key to obtain/cache a value under
+     * @param computation Starts the calculation of the value to be cached, returning the future for the value
+     * @param timeToLive How long the value should be cached for
+     * @param executorService The executor service in which to run the futures.
+     * @param isSupplierValueCachable Should the value of the #computation's future be cached or not
+     * @return
+     */
+    default public ListenableFuture<V> applyAsync(String key, Supplier<ListenableFuture<V>> computation, Duration timeToLive,
+                                                  ListeningExecutorService executorService, Predicate<V> isSupplierValueCachable) {
+        return apply(key, AsyncSuppliers.blocking(computation), timeToLive, executorService, isSupplierValueCachable);
+    }
+
+    /**
+     * Obtains the value from the cache, or from the {@link CompletionStage} returned by the given supplier.
+     * The value is cached for the given time to live.
+     */
+    default public ListenableFuture<V> applyCompletionStage(String key, Supplier<? extends CompletionStage<V>> computation,
+                                                            Duration timeToLive, ListeningExecutorService executorService) {
+        return applyAsync(key, AsyncSuppliers.fromCompletionStage(computation), timeToLive, executorService);
+    }
+
 
     /**
      * obtain a value from the cache.  The cached value is only used if the @link #isCachedValueValid predict returns
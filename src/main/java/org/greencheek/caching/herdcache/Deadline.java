@@ -0,0 +1,64 @@
+package org.greencheek.caching.herdcache;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The point in time by which the caller of a cache operation needs a response.  The cache uses the
+ * time remaining to bound the timeouts of the stages of the operation (memcached gets, the supplier and
+ * the wait for the memcached set), and to skip stages that cannot complete before the deadline.
+ */
+public final class Deadline {
+
+    /**
+     * No deadline; the operation is only bounded by the cache's configured timeouts
+     */
+    public static final Deadline NONE = new Deadline(0, false);
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+
+    private Deadline(long deadlineNanos, boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    /**
+     * @param timeout the time from now by which the response is needed.  null means no deadline
+     */
+    public static Deadline after(Duration timeout) {
+        if(timeout==null) {
+            return NONE;
+        }
+        return new Deadline(System.nanoTime() + timeout.toNanos(), true);
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout), true);
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    /**
+     * @return the time remaining until the deadline, negative once it has passed; or Long.MAX_VALUE if there is no deadline
+     */
+    public long remainingNanos() {
+        return bounded ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    public boolean hasExpired() {
+        return bounded && remainingNanos() <= 0;
+    }
+
+    /**
+     * @return the lower of the given timeout and the time remaining until the deadline; never less than zero
+     */
+    public long capTimeoutInMillis(long timeoutInMillis) {
+        if(!bounded) {
+            return timeoutInMillis;
+        }
+        return Math.max(0, Math.min(timeoutInMillis, TimeUnit.NANOSECONDS.toMillis(remainingNanos())));
+    }
+}
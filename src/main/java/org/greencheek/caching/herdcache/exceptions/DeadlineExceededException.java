@@ -0,0 +1,16 @@
+package org.greencheek.caching.herdcache.exceptions;
+
+/**
+ * Represents a cache operation not being performed, as the caller's deadline had
+ * passed before the operation (or the calling of the supplier) could be started
+ */
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package org.greencheek.caching.herdcache.exceptions;
+
+/**
+ * Represents the user provided {@link java.util.function.Supplier} not being run, as the max number of
+ * concurrently running suppliers was reached, and no slot became free within the allowed wait time
+ */
+public class SupplierConcurrencyLimitExceededException extends RuntimeException {
+    public SupplierConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return null;
+    }
+}
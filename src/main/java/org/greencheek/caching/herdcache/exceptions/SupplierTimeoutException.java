@@ -0,0 +1,16 @@
+package org.greencheek.caching.herdcache.exceptions;
+
+/**
+ * Represents the user provided {@link java.util.function.Supplier} not having generated
+ * a value within the allowed computation time
+ */
+public class SupplierTimeoutException extends RuntimeException {
+    public SupplierTimeoutException(String message) {
+        super(message);
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return null;
+    }
+}
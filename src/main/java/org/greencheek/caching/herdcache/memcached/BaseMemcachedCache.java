@@ -6,32 +6,51 @@ import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import net.spy.memcached.ConnectionFactory;
 import org.greencheek.caching.herdcache.*;
 import org.greencheek.caching.herdcache.callables.GetFromDistributedCache;
+import org.greencheek.caching.herdcache.exceptions.DeadlineExceededException;
+import org.greencheek.caching.herdcache.exceptions.SupplierConcurrencyLimitExceededException;
+import org.greencheek.caching.herdcache.exceptions.SupplierTimeoutException;
 import org.greencheek.caching.herdcache.exceptions.UnableToScheduleCacheGetExecutionException;
 import org.greencheek.caching.herdcache.exceptions.UnableToSubmitSupplierForExecutionException;
 import org.greencheek.caching.herdcache.lru.CacheRequestFutureComputationCompleteNotifier;
 import org.greencheek.caching.herdcache.lru.CacheValueComputationFailureHandler;
 import org.greencheek.caching.herdcache.memcached.config.ElastiCacheCacheConfig;
 import org.greencheek.caching.herdcache.memcached.config.MemcachedCacheConfig;
+import org.greencheek.caching.herdcache.memcached.config.StaleCacheStorageType;
+import org.greencheek.caching.herdcache.memcached.domain.CachedValueEnvelope;
+import org.greencheek.caching.herdcache.memcached.domain.NegativeCacheTombstone;
 import org.greencheek.caching.herdcache.memcached.factory.*;
 import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+import org.greencheek.caching.herdcache.memcached.nearcache.ExpiringNearCache;
+import org.greencheek.caching.herdcache.memcached.nearcache.NearCache;
+import org.greencheek.caching.herdcache.memcached.nearcache.NoOpNearCache;
 import org.greencheek.caching.herdcache.memcached.operations.*;
 import org.greencheek.caching.herdcache.memcached.spy.extensions.connection.NoValidationConnectionFactory;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.locator.PrecomputedKeyHashes;
 import org.greencheek.caching.herdcache.memcached.spyconnectionfactory.SpyConnectionFactoryBuilder;
 import org.greencheek.caching.herdcache.memcached.util.CacheMetricStrings;
 import org.greencheek.caching.herdcache.util.CacheKeyCreatorFactory;
 import org.greencheek.caching.herdcache.util.DurationToSeconds;
+import org.greencheek.caching.herdcache.util.LeaseKeyCreator;
+import org.greencheek.caching.herdcache.util.ReplicaKeyCreator;
 import org.greencheek.caching.herdcache.util.StaleCacheKeyCreator;
+import org.greencheek.caching.herdcache.util.VirtualThreads;
+import org.greencheek.caching.herdcache.util.futures.AsyncSuppliers;
 import org.greencheek.caching.herdcache.util.futures.FutureCompleter;
 import org.greencheek.caching.herdcache.util.futures.SettableFuture;
 import org.greencheek.caching.herdcache.util.futures.DoNothingSettableFuture;
 import org.greencheek.caching.herdcache.util.futures.GuavaSettableFuture;
+import org.greencheek.caching.herdcache.util.futures.HerdPromise;
+import org.greencheek.caching.herdcache.util.futures.KeyedFutures;
 import org.greencheek.caching.herdcache.util.keycreators.CacheKeyCreator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 import java.time.Duration;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -48,24 +67,30 @@ import java.util.function.Supplier;
                 config.getFailureMode(),
                 config.getHashAlgorithm(), config.getSerializingTranscoder(),
                 config.getProtocol(),config.getReadBufferSize(),config.getKeyHashType(),
-                config.getLocatorFactory(),config.getKeyValidationType(), config.getListenerCallbackExecutor());
+                config.getLocatorFactory(),config.getKeyValidationType(), config.getListenerCallbackExecutor(),
+                config.isUseQuietWrites(), config.isUseHedgedReads());
     }
 
     public static ReferencedClientFactory createReferenceClientFactory(ElastiCacheCacheConfig config) {
+        ReferencedClientFactory factory;
         switch(config.getClientType()) {
             case SPY:
-                return new SpyMemcachedReferencedClientFactory<>(createMemcachedConnectionFactory(config.getMemcachedCacheConfig()));
+                factory = new SpyMemcachedReferencedClientFactory<>(createMemcachedConnectionFactory(config.getMemcachedCacheConfig()));
+                break;
             case FOLSOM:
-                return new FolsomReferencedClientFactory<>(config);
+                factory = new FolsomReferencedClientFactory<>(config);
+                break;
             default:
-                return new SpyMemcachedReferencedClientFactory<>(createMemcachedConnectionFactory(config.getMemcachedCacheConfig()));
+                factory = new SpyMemcachedReferencedClientFactory<>(createMemcachedConnectionFactory(config.getMemcachedCacheConfig()));
         }
+        return TransitionReferencedClientFactory.create(factory, config.getMemcachedCacheConfig());
     }
 
 
 
     private final CacheWrite cacheWriter;
     private final CacheWrite staleCacheWriter;
+    private final WriteBehindCacheWrite writeBehindCacheWriter;
     private final CacheRead<V> cacheReader;
     private static final Logger logger  = LoggerFactory.getLogger(BaseMemcachedCache.class);
 
@@ -73,6 +98,8 @@ import java.util.function.Supplier;
 
     private final ConcurrentMap<String,ListenableFuture<V>> DO_NOTHING_MAP = new NoOpConcurrentMap<>();
 
+    private static final Runnable DO_NOTHING = () -> {};
+
     private final MemcachedCacheConfig config;
     private final MemcachedClientFactory clientFactory;
     private final ConcurrentMap<String,ListenableFuture<V>> store;
@@ -83,14 +110,46 @@ import java.util.function.Supplier;
 
 
 
-    private final long memcachedGetTimeoutInMillis;
-    private final long staleCacheMemachedGetTimeoutInMillis;
+    private final GetTimeout memcachedGetTimeout;
+    private final GetTimeout staleCacheMemcachedGetTimeout;
 
     private final CacheValueComputationFailureHandler failureHandler;
 
     private final MetricRecorder metricRecorder;
     private final CacheKeyCreator cacheKeyCreator;
 
+    private final ScheduledExecutorService distributedCacheReadTimeoutScheduler;
+
+    private final NearCache<V> nearCache;
+
+    private final boolean storeValuesInEnvelope;
+    private final boolean unwrapCachedItems;
+    private final boolean useStaleCacheKey;
+    private final boolean useStaleCacheEnvelope;
+
+    private final ListeningExecutorService virtualThreadExecutorService;
+    private final SupplierBulkhead supplierBulkhead;
+    private final ListeningExecutorService defaultExecutorService;
+    private final ExecutorService supplierHandoffExecutorService;
+
+    private final String distributedLeaseToken = UUID.randomUUID().toString();
+    private final int distributedLeaseTimeToLiveInSeconds;
+
+    private final boolean useStaleIfError;
+    private final int staleIfErrorTimeToLiveInSeconds;
+
+    private static final ThreadFactory DAEMON_THREAD_FACTORY = (r) -> {
+        final Thread t = new Thread(r);
+        t.setDaemon(true);
+        return t;
+    };
+
+    private static final ThreadFactory SUPPLIER_HANDOFF_THREAD_FACTORY = (r) -> {
+        final Thread t = new Thread(r, "SupplierHandoff");
+        t.setDaemon(true);
+        return t;
+    };
+
 
     public BaseMemcachedCache(MemcachedCacheConfig config) {
         this(null,config);
@@ -129,32 +188,148 @@ import java.util.function.Supplier;
             staleCacheAdditionalTimeToLiveValue = staleDuration;
         }
 
-        staleStore = config.isUseStaleCache() ? createInternalCache(config.isUseStaleCache(),staleMaxCapacityValue,staleMaxCapacityValue) : null;
+        useStaleCacheKey = config.isUseStaleCache() && config.getStaleCacheStorageType() == StaleCacheStorageType.SEPARATE_KEY;
+        useStaleCacheEnvelope = config.isUseStaleCache() && config.getStaleCacheStorageType() == StaleCacheStorageType.ENVELOPE;
+
+        staleStore = useStaleCacheKey ? createInternalCache(true,staleMaxCapacityValue,staleMaxCapacityValue) : null;
+
+        distributedLeaseTimeToLiveInSeconds = Math.max(1,DurationToSeconds.getSeconds(config.getDistributedLeaseTimeToLive()));
+
+        if(config.isUseStaleIfError() && !useStaleCacheKey) {
+            logger.warn("Stale-if-error requires the stale cache, with the {} storage type. " +
+                    "Supplier failures will be returned to the callers", StaleCacheStorageType.SEPARATE_KEY);
+        }
+        useStaleIfError = config.isUseStaleIfError() && useStaleCacheKey;
+        staleIfErrorTimeToLiveInSeconds = DurationToSeconds.getSeconds(config.getStaleIfErrorTimeToLive());
+
 
+        failureHandler = (String key, Throwable t) -> { store.remove(key); };
 
-        memcachedGetTimeoutInMillis = config.getMemcachedGetTimeout().toMillis();
+        metricRecorder = config.getMetricsRecorder();
 
+        long memcachedGetTimeoutInMillis = config.getMemcachedGetTimeout().toMillis();
+        long staleCacheMemachedGetTimeoutInMillis;
         if(config.getStaleCacheMemachedGetTimeout().compareTo(Duration.ZERO) <=0) {
             staleCacheMemachedGetTimeoutInMillis = memcachedGetTimeoutInMillis;
         } else {
             staleCacheMemachedGetTimeoutInMillis = config.getStaleCacheMemachedGetTimeout().toMillis();
         }
 
-        failureHandler = (String key, Throwable t) -> { store.remove(key); };
+        memcachedGetTimeout = createGetTimeout(memcachedGetTimeoutInMillis,
+                CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_GET_TIMEOUT);
+        staleCacheMemcachedGetTimeout = createGetTimeout(staleCacheMemachedGetTimeoutInMillis,
+                CacheMetricStrings.CACHE_TYPE_STALE_CACHE_GET_TIMEOUT);
+
+        Map<String,GetTimeout> timeoutsByCacheType = new HashMap<>(4);
+        timeoutsByCacheType.put(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE,memcachedGetTimeout);
+        timeoutsByCacheType.put(CacheMetricStrings.CACHE_TYPE_STALE_CACHE,staleCacheMemcachedGetTimeout);
+
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, DAEMON_THREAD_FACTORY);
+        // supplier watchdogs are cancelled on completion, and should not be held until their timeout
+        scheduler.setRemoveOnCancelPolicy(true);
+        distributedCacheReadTimeoutScheduler = scheduler;
+
+        CacheRead<V> reader;
+        if(config.isUseGetBatching()) {
+            reader = new BatchingCacheRead<>(new BasicCacheRead<>(distributedCacheReadTimeoutScheduler,timeoutsByCacheType),
+                    distributedCacheReadTimeoutScheduler,
+                    config.getGetBatchingWindow().toNanos(),
+                    config.getGetBatchingMaxBatchSize(),
+                    metricRecorder,
+                    timeoutsByCacheType);
+        } else {
+            reader = new BasicCacheRead<>(distributedCacheReadTimeoutScheduler,timeoutsByCacheType);
+        }
 
-        metricRecorder = config.getMetricsRecorder();
+        if(config.isUseHedgedReads()) {
+            reader = new HedgingCacheRead<>(reader,
+                    distributedCacheReadTimeoutScheduler,
+                    CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE,
+                    new RollingPercentile(config.getHedgedReadDelayPercentile(),
+                            config.getAdaptiveGetTimeoutWindowSize(),
+                            config.getHedgedReadInitialDelay().toNanos()),
+                    metricRecorder);
+        }
+        cacheReader = reader;
+
+        storeValuesInEnvelope = config.isUseProbabilisticEarlyRecomputation() || useStaleCacheEnvelope;
+        unwrapCachedItems = storeValuesInEnvelope || config.isUseNegativeCaching();
+
+        if(config.isUseNearCache()) {
+            nearCache = new ExpiringNearCache<>(config.getNearCacheMaxWeightedCapacity(),
+                    config.getNearCacheTimeToLive(),config.getNearCacheWeigher(),metricRecorder);
+        } else {
+            nearCache = new NoOpNearCache<>();
+        }
 
-        cacheReader = new BasicCacheRead<>();
+        if(config.isUseWriteBehind()) {
+            writeBehindCacheWriter = new WriteBehindCacheWrite(metricRecorder,
+                    config.getWriteBehindMaxQueueSize(),
+                    config.getWriteBehindMaxBatchSize(),
+                    config.getWriteBehindFlushInterval().toNanos());
+            staleCacheWriter = writeBehindCacheWriter;
+        } else {
+            writeBehindCacheWriter = null;
+            staleCacheWriter = new NoWaitForCacheWrite(metricRecorder);
+        }
 
-        cacheWriter = config.isWaitForMemcachedSet() ?
-                new WaitForCacheWrite(metricRecorder,config.getSetWaitDuration().toMillis()) :
-                new NoWaitForCacheWrite(metricRecorder);
+        if(config.isWaitForMemcachedSet()) {
+            cacheWriter = new WaitForCacheWrite(metricRecorder,config.getSetWaitDuration().toMillis());
+        } else {
+            cacheWriter = writeBehindCacheWriter == null ? new NoWaitForCacheWrite(metricRecorder) : writeBehindCacheWriter;
+        }
 
-        staleCacheWriter = new NoWaitForCacheWrite(metricRecorder);
+        virtualThreadExecutorService = createVirtualThreadExecutorService(config.isUseVirtualThreads());
+        SupplierBulkhead bulkhead = new SupplierBulkhead(config.getSupplierConcurrencyLimit(),
+                config.getSupplierConcurrencyLimitByKeyPrefix(), config.getSupplierConcurrencyLimitWait());
+        supplierBulkhead = bulkhead.isLimiting() ? bulkhead : null;
+        defaultExecutorService = virtualThreadExecutorService == null ?
+                MoreExecutors.newDirectExecutorService() : virtualThreadExecutorService;
+        supplierHandoffExecutorService = virtualThreadExecutorService == null ?
+                createSupplierHandoffExecutorService(config.getSupplierHandoffThreads(), config.getSupplierHandoffQueueSize())
+                : virtualThreadExecutorService;
+    }
+
+    /**
+     * A bounded pool of threads, that time out when idle; once the threads are busy, and the queue is full,
+     * suppliers are rejected.
+     */
+    private static ExecutorService createSupplierHandoffExecutorService(int threads, int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads),
+                60, TimeUnit.SECONDS,
+                queueSize > 0 ? new LinkedBlockingQueue<>(queueSize) : new SynchronousQueue<>(),
+                SUPPLIER_HANDOFF_THREAD_FACTORY);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ListeningExecutorService createVirtualThreadExecutorService(boolean useVirtualThreads) {
+        if(!useVirtualThreads) {
+            return null;
+        }
+        if(!VirtualThreads.isAvailable()) {
+            logger.warn("Virtual threads requested, but are not supported by jvm version {}. " +
+                    "Blocking operations will run on the calling thread", System.getProperty("java.version"));
+            return null;
+        }
+        return VirtualThreads.newVirtualThreadPerTaskExecutor();
     }
 
     public abstract MemcachedClientFactory buildClientFactory(Object cfg);
 
+    private GetTimeout createGetTimeout(long timeoutInMillis, String metricName) {
+        if(config.isUseAdaptiveGetTimeout()) {
+            return new AdaptiveGetTimeout(config.getAdaptiveGetTimeoutMinimum().toMillis(),
+                    timeoutInMillis,
+                    config.getAdaptiveGetTimeoutMultiplier(),
+                    config.getAdaptiveGetTimeoutWindowSize(),
+                    metricRecorder,
+                    metricName);
+        } else {
+            return new FixedGetTimeout(timeoutInMillis);
+        }
+    }
+
 
     private ConcurrentMap createInternalCache(boolean createCache,
                                             int initialCapacity,
@@ -186,10 +361,23 @@ import java.util.function.Supplier;
         return cacheKeyCreator.createKey(key);
     }
 
+    /**
+     * Creates the memcached key, the stale cache key and the ketama hash of the memcached key; for use with
+     * the apply and get overloads that take a {@link CacheKey}
+     */
+    @Override
+    public CacheKey createKey(String key) {
+        String keyString = getHashedKey(key);
+        return CacheKey.prepared(this, key, keyString,
+                useStaleCacheKey ? StaleCacheKeyCreator.createKey(config, keyString) : null,
+                config.getHashAlgorithm().hash(keyString));
+    }
+
     /**
      * Used when the cache is disabled (all hosts are down for maintenance, etc).
      * The {@link java.util.function.Supplier} is submitted to the executor, and
-     * a Future returned
+     * a Future returned.  The future is completed by whichever of the supplier, or the supplier
+     * timeout, completes first
      *
      * @param key The key for the item generated by the supplier
      * @param computation The supplier that generates the value
@@ -197,32 +385,64 @@ import java.util.function.Supplier;
      * @return
      */
     private ListenableFuture<V> scheduleValueComputation(final String key,
-                                                         final Supplier<V> computation,
+                                                         final ValueComputation<V> computation,
                                                          final ListeningExecutorService executorService) {
         com.google.common.util.concurrent.SettableFuture<V> toBeComputedFuture =  com.google.common.util.concurrent.SettableFuture.create();
-        ListenableFuture<V> previousFuture = store.putIfAbsent(key, toBeComputedFuture);
+        ListenableFuture<V> previousFuture = putInHerdOrJoin(key, toBeComputedFuture);
         if(previousFuture==null) {
             Cache.logCacheMiss(metricRecorder, key, CacheMetricStrings.CACHE_TYPE_CACHE_DISABLED);
+            final AtomicBoolean outstanding = new AtomicBoolean(true);
+            if(computation.hasTimeout()) {
+                watchComputation(key, computation, toBeComputedFuture, outstanding,
+                        () -> {
+                            store.remove(key, toBeComputedFuture);
+                            toBeComputedFuture.setException(createSupplierTimeoutException(key, computation));
+                        });
+            }
             try {
                 executorService.submit(
                         () -> {
-                            CacheRequestFutureComputationCompleteNotifier notifier = new CacheRequestFutureComputationCompleteNotifier<V>(key,
+                            CacheRequestFutureComputationCompleteNotifier<V> completeNotifier = new CacheRequestFutureComputationCompleteNotifier<V>(key,
                                     toBeComputedFuture, failureHandler,
-                                    (V result) -> store.remove(key));
+                                    (V result) -> store.remove(key, toBeComputedFuture));
+                            // the callers are completed by the supplier only if the watchdog has not abandoned it
+                            FutureCallback<V> notifier = new FutureCallback<V>() {
+                                @Override
+                                public void onSuccess(V result) {
+                                    if(outstanding.compareAndSet(true,false)) {
+                                        completeNotifier.onSuccess(result);
+                                    }
+                                }
+
+                                @Override
+                                public void onFailure(Throwable t) {
+                                    if(outstanding.compareAndSet(true,false)) {
+                                        completeNotifier.onFailure(t);
+                                    }
+                                }
+                            };
 
-                            V results = null;
                             try {
-                                results = computation.get();
-                                notifier.onSuccess(results);
+                                ListenableFuture<V> pendingValue = computation.get();
+                                if(pendingValue==null) {
+                                    notifier.onSuccess(null);
+                                } else {
+                                    Futures.addCallback(pendingValue, notifier, MoreExecutors.directExecutor());
+                                }
+                            } catch(SupplierConcurrencyLimitExceededException e) {
+                                metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_CONCURRENCY_LIMITED_COUNTER);
+                                notifier.onFailure(e);
                             } catch(Throwable e) {
                                 notifier.onFailure(e);
                             }
-                            return results;
                         });
             } catch(Throwable failedToSubmit) {
                 metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_CACHE_DISABLED_REJECTION);
                 logger.warn("Unable able to submit computation (Supplier) to executor in order to obtain the value for key {}", key, failedToSubmit);
-                toBeComputedFuture.setException(failedToSubmit);
+                if(outstanding.compareAndSet(true,false)) {
+                    store.remove(key, toBeComputedFuture);
+                    toBeComputedFuture.setException(failedToSubmit);
+                }
             }
 
 
@@ -235,12 +455,13 @@ import java.util.function.Supplier;
 
     private ListenableFuture<V> getFromDistributedCache(final ReferencedClient client,
                                                         final String key,
+                                                        final long timeoutInMillis,
                                                         final ListeningExecutorService ec) {
         try {
             return ec.submit(
                             new GetFromDistributedCache<V>(key,
                                     metricRecorder,
-                                    memcachedGetTimeoutInMillis,
+                                    timeoutInMillis,
                                     client,
                                     CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE,
                                     cacheReader)
@@ -255,19 +476,124 @@ import java.util.function.Supplier;
         }
     }
 
+    /**
+     * Performs the memcached lookup without submitting a task to an executor, or
+     * blocking the calling thread.
+     */
+    private ListenableFuture<V> getFromDistributedCacheWithoutBlocking(final ReferencedClient client,
+                                                                        final String key,
+                                                                        final long timeoutInMillis) {
+        final ListenableFuture<V> lookup = cacheReader.getFromDistributedCacheAsync(client,
+                key,
+                timeoutInMillis,
+                CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE,
+                metricRecorder);
+
+        lookup.addListener(() -> {
+            if(getLookupResult(lookup)!=null) {
+                Cache.logCacheHit(metricRecorder,key, CacheMetricStrings.CACHE_TYPE_ALL);
+            } else {
+                Cache.logCacheMiss(metricRecorder, key, CacheMetricStrings.CACHE_TYPE_ALL);
+            }
+        }, MoreExecutors.directExecutor());
+
+        return lookup;
+    }
+
     @Override
     public ListenableFuture<V> get(String key) {
-        return get(key, MoreExecutors.newDirectExecutorService());
+        return get(key, defaultExecutorService);
+    }
+
+    @Override
+    public ListenableFuture<Map<String,V>> getAll(Collection<String> keys) {
+        return getAll(keys, defaultExecutorService);
+    }
+
+    @Override
+    public ListenableFuture<V> apply(String key, Supplier<V> computation) {
+        return apply(key, computation, defaultExecutorService);
+    }
+
+    @Override
+    public ListenableFuture<V> set(String keyString, V value) {
+        return set(keyString, value, defaultExecutorService);
+    }
+
+    @Override
+    public ListenableFuture<V> set(String keyString, Supplier<V> value) {
+        return set(keyString, value, defaultExecutorService);
+    }
+
+    @Override
+    public ListenableFuture<V> set(String keyString, Supplier<V> value, Duration timeToLive) {
+        return set(keyString, value, timeToLive, defaultExecutorService);
+    }
+
+    @Override
+    public ListenableFuture<V> set(String keyString, V value, Duration timeToLive) {
+        return set(keyString, value, timeToLive, defaultExecutorService);
     }
 
 
     @Override
     public ListenableFuture<V> get(String key, ListeningExecutorService executorService) {
-        final String keyString = getHashedKey(key);
+        return getWithinDeadline(key, Deadline.NONE, executorService);
+    }
+
+    /**
+     * Obtains the value from the near cache or memcached, with the read from memcached (and any stale value lookup)
+     * bounded by the time remaining until the deadline.  The returned future fails if there is no value by the deadline.
+     */
+    @Override
+    public ListenableFuture<V> get(String key, Deadline deadline, ListeningExecutorService executorService) {
+        if(deadline.hasExpired()) {
+            return deadlineExceeded(key);
+        }
+        return boundByDeadline(getWithinDeadline(key, deadline, executorService), deadline);
+    }
+
+    private ListenableFuture<V> getWithinDeadline(String key, Deadline deadline, ListeningExecutorService executorService) {
+        return getWithinDeadline(getHashedKey(key), null, deadline, executorService);
+    }
+
+    @Override
+    public ListenableFuture<V> get(CacheKey key) {
+        return get(key, defaultExecutorService);
+    }
+
+    /**
+     * As {@link #get(String, ListeningExecutorService)}, without recreating the memcached key, stale cache key,
+     * or the hash of the key for locating its memcached node.
+     */
+    @Override
+    public ListenableFuture<V> get(CacheKey key, ListeningExecutorService executorService) {
+        if(!key.isPreparedBy(this)) {
+            return get(key.getKey(), executorService);
+        }
+        CacheKey previous = PrecomputedKeyHashes.set(key);
+        try {
+            return getWithinDeadline(key.getMemcachedKey(), key.getStaleKey(), Deadline.NONE, executorService);
+        } finally {
+            PrecomputedKeyHashes.restore(previous);
+        }
+    }
+
+    /**
+     * @param keyString The memcached key
+     * @param staleKey The stale cache key for the memcached key, or null to create it when needed
+     */
+    private ListenableFuture<V> getWithinDeadline(final String keyString, String staleKey, Deadline deadline,
+                                                  ListeningExecutorService executorService) {
+        V nearCachedValue = nearCache.get(keyString);
+        if(nearCachedValue!=null) {
+            return Futures.immediateFuture(nearCachedValue);
+        }
+
         ReferencedClient client = clientFactory.getClient();
         if(!client.isAvailable()) {
             warnCacheDisabled();
-            ListenableFuture<V> previousFuture = store.get(keyString);
+            ListenableFuture<V> previousFuture = joinHerd(store.get(keyString));
             if(previousFuture==null) {
                 Cache.logCacheMiss(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_CACHE_DISABLED);
                 return Futures.immediateCheckedFuture(null);
@@ -276,17 +602,31 @@ import java.util.function.Supplier;
                 return previousFuture;
             }
         } else {
-            ListenableFuture<V> future = store.get(keyString);
+            ListenableFuture<V> future = joinHerd(store.get(keyString));
             if(future==null) {
                 Cache.logCacheMiss(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION);
-                ListenableFuture<V> futureForCacheLookup = getFromDistributedCache(client,keyString,executorService);
+                ListenableFuture<V> futureForCacheLookup;
+                long timeoutInMillis = deadline.capTimeoutInMillis(memcachedGetTimeout.getTimeoutInMillis());
+                if(config.isUseNonBlockingGet()) {
+                    futureForCacheLookup = getFromDistributedCacheWithoutBlocking(client,keyString,timeoutInMillis);
+                } else {
+                    futureForCacheLookup = getFromDistributedCache(client, keyString, timeoutInMillis, executorService);
+                }
+                if(config.isUseNearCache()) {
+                    futureForCacheLookup.addListener(
+                            () -> nearCache.put(keyString, unwrap(getLookupResult(futureForCacheLookup)), config.getTimeToLive()),
+                            MoreExecutors.directExecutor());
+                }
+                if(unwrapCachedItems) {
+                    return Futures.transform(futureForCacheLookup, this::unwrap, MoreExecutors.directExecutor());
+                }
                 return futureForCacheLookup;
             }
             else {
                 Cache.logCacheHit(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION);
-                if(config.isUseStaleCache()) {
+                if(useStaleCacheKey) {
                     return getFutureForStaleDistributedCacheLookup(client,
-                            StaleCacheKeyCreator.createKey(config, keyString), future);
+                            staleKey == null ? StaleCacheKeyCreator.createKey(config, keyString) : staleKey, future, deadline);
                 } else {
                     return future;
                 }
@@ -294,11 +634,187 @@ import java.util.function.Supplier;
         }
     }
 
+    /**
+     * Obtains the values for the given keys.  The keys that are not in the near cache, or currently being
+     * calculated, are requested from memcached in a single multi get; that the memcached client splits per
+     * owning node.
+     */
+    @Override
+    public ListenableFuture<Map<String,V>> getAll(Collection<String> keys, ListeningExecutorService executorService) {
+        final List<String> orderedKeys = new ArrayList<>(keys);
+        final List<ListenableFuture<V>> futures = new ArrayList<>(orderedKeys.size());
+
+        ReferencedClient client = clientFactory.getClient();
+        if(!client.isAvailable()) {
+            for(String key : orderedKeys) {
+                futures.add(get(key, executorService));
+            }
+            return KeyedFutures.successfulAsMap(orderedKeys, futures);
+        }
+
+        final Map<String,SettableFuture<V>> toFetch = new LinkedHashMap<>(orderedKeys.size()*2);
+        for(String key : orderedKeys) {
+            final String keyString = getHashedKey(key);
+            V nearCachedValue = nearCache.get(keyString);
+            if(nearCachedValue!=null) {
+                futures.add(Futures.immediateFuture(nearCachedValue));
+                continue;
+            }
+
+            ListenableFuture<V> future = joinHerd(store.get(keyString));
+            if(future==null) {
+                Cache.logCacheMiss(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION);
+                SettableFuture<V> promise = toFetch.get(keyString);
+                if(promise==null) {
+                    promise = new GuavaSettableFuture<>();
+                    toFetch.put(keyString,promise);
+                }
+                futures.add(promise);
+            } else {
+                futures.add(returnStaleOrCachedItem(client,keyString,future,executorService,Deadline.NONE));
+            }
+        }
+
+        if(!toFetch.isEmpty()) {
+            final ListenableFuture<Map<String,V>> bulkLookup = cacheReader.getBulkFromDistributedCacheAsync(client,
+                    toFetch.keySet(),
+                    memcachedGetTimeout.getTimeoutInMillis(),
+                    CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE,
+                    metricRecorder);
+
+            bulkLookup.addListener(() -> {
+                Map<String,V> found = getBulkLookupResult(bulkLookup);
+                for(Map.Entry<String,SettableFuture<V>> entry : toFetch.entrySet()) {
+                    V value = unwrap(found.get(entry.getKey()));
+                    if(value!=null) {
+                        Cache.logCacheHit(metricRecorder, entry.getKey(), CacheMetricStrings.CACHE_TYPE_ALL);
+                        nearCache.put(entry.getKey(), value, config.getTimeToLive());
+                    } else {
+                        Cache.logCacheMiss(metricRecorder, entry.getKey(), CacheMetricStrings.CACHE_TYPE_ALL);
+                    }
+                    entry.getValue().set(value);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+
+        return KeyedFutures.successfulAsMap(orderedKeys, futures);
+    }
+
+    @Override
+    public ListenableFuture<Map<String,V>> applyAll(Map<String,Supplier<V>> computations, ListeningExecutorService executorService) {
+        return applyAll(computations,config.getTimeToLive(),executorService);
+    }
+
+    /**
+     * Obtains the values for the given keys.  The keys that are not in the near cache, or currently being
+     * calculated, are requested from memcached in a single multi get; that the memcached client splits per
+     * owning node.  Each missing key is then calculated via its {@link java.util.function.Supplier}, with the
+     * same herd protection as {@link #apply(String, Supplier, Duration, ListeningExecutorService)}
+     */
+    @Override
+    public ListenableFuture<Map<String,V>> applyAll(Map<String,Supplier<V>> computations,
+                                                    Duration timeToLive,
+                                                    ListeningExecutorService executorService) {
+        final List<String> orderedKeys = new ArrayList<>(computations.size());
+        final List<ListenableFuture<V>> futures = new ArrayList<>(computations.size());
+
+        ReferencedClient client = clientFactory.getClient();
+        if(!client.isAvailable()) {
+            for(Map.Entry<String,Supplier<V>> computation : computations.entrySet()) {
+                orderedKeys.add(computation.getKey());
+                futures.add(apply(computation.getKey(), computation.getValue(), timeToLive, executorService));
+            }
+            return KeyedFutures.allAsMap(orderedKeys, futures);
+        }
+
+        final Map<String,SettableFuture<V>> toFetch = new LinkedHashMap<>(computations.size()*2);
+        final Map<String,ValueComputation<V>> toCalculate = new HashMap<>(computations.size()*2);
+        for(Map.Entry<String,Supplier<V>> computation : computations.entrySet()) {
+            orderedKeys.add(computation.getKey());
+            final String keyString = getHashedKey(computation.getKey());
+
+            V nearCachedValue = nearCache.get(keyString);
+            if(nearCachedValue!=null) {
+                futures.add(Futures.immediateFuture(nearCachedValue));
+                continue;
+            }
+
+            final SettableFuture<V> promise = new HerdPromise<>();
+            ListenableFuture<V> existingFuture  = putInHerdOrJoin(keyString, promise);
+            if(existingFuture==null) {
+                Cache.logCacheMiss(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION);
+                toFetch.put(keyString,promise);
+                toCalculate.put(keyString,limitConcurrency(computation.getKey(),
+                        ValueComputation.blocking(computation.getValue(),config.getSupplierTimeout())));
+                futures.add(promise);
+            } else {
+                futures.add(returnStaleOrCachedItem(client,keyString,existingFuture,executorService,Deadline.NONE));
+            }
+        }
+
+        if(!toFetch.isEmpty()) {
+            final ListenableFuture<Map<String,V>> bulkLookup = cacheReader.getBulkFromDistributedCacheAsync(client,
+                    toFetch.keySet(),
+                    memcachedGetTimeout.getTimeoutInMillis(),
+                    CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE,
+                    metricRecorder);
+
+            bulkLookup.addListener(() -> {
+                Map<String,V> found = getBulkLookupResult(bulkLookup);
+                for(Map.Entry<String,SettableFuture<V>> entry : toFetch.entrySet()) {
+                    String keyString = entry.getKey();
+                    try {
+                        completeFromDistributedCacheLookup(client, keyString, found.get(keyString),
+                                toCalculate.get(keyString), timeToLive, executorService, CAN_ALWAYS_CACHE_VALUE,
+                                CACHED_VALUE_IS_ALWAYS_VALID, false, entry.getValue(), true);
+                    } catch (Throwable e) {
+                        FutureCompleter.completeWithException(entry.getValue(), keyString, e, store,
+                                config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+                    }
+                }
+            }, MoreExecutors.directExecutor());
+        }
+
+        return KeyedFutures.allAsMap(orderedKeys, futures);
+    }
+
     @Override
     public ListenableFuture<V> apply(String key, Supplier<V> computation, ListeningExecutorService executorService) {
         return apply(key,computation,config.getTimeToLive(),executorService);
     }
 
+    @Override
+    public ListenableFuture<V> apply(CacheKey key, Supplier<V> computation) {
+        return apply(key, computation, defaultExecutorService);
+    }
+
+    @Override
+    public ListenableFuture<V> apply(CacheKey key, Supplier<V> computation, ListeningExecutorService executorService) {
+        return apply(key,computation,config.getTimeToLive(),executorService);
+    }
+
+    /**
+     * As {@link #apply(String, Supplier, Duration, ListeningExecutorService)}, without recreating the memcached key,
+     * stale cache key, or the hash of the key for locating its memcached node.
+     */
+    @Override
+    public ListenableFuture<V> apply(CacheKey key,
+                                     Supplier<V> computation,
+                                     Duration timeToLive,
+                                     ListeningExecutorService executorService) {
+        if(!key.isPreparedBy(this)) {
+            return apply(key.getKey(), computation, timeToLive, executorService);
+        }
+        CacheKey previous = PrecomputedKeyHashes.set(key);
+        try {
+            return applyWithAsyncComputation(key.getMemcachedKey(), key.getStaleKey(),
+                    limitConcurrency(key.getKey(), ValueComputation.blocking(computation, config.getSupplierTimeout())),
+                    timeToLive, executorService, CAN_ALWAYS_CACHE_VALUE, CACHED_VALUE_IS_ALWAYS_VALID, false);
+        } finally {
+            PrecomputedKeyHashes.restore(previous);
+        }
+    }
+
     @Override
     public ListenableFuture<V> apply(String key, Supplier<V> computation, ListeningExecutorService executorService,
                                      Predicate<V> canCacheValueEvalutor) {
@@ -358,74 +874,533 @@ import java.util.function.Supplier;
         return apply(key,computation,config.getTimeToLive(),executorService,canCacheValueEvalutor,isCachedValueValid,returnInvalidCachedItemWhileRevalidate);
     }
 
-    @Override
-    public ListenableFuture<V> apply(String key,
-                                     Supplier<V> computation,
-                                     Duration timeToLive,
-                                     ListeningExecutorService executorService,
-                                     Predicate<V> canCacheValueEvalutor,Predicate<V> isCachedValueValid,
-                                     boolean returnInvalidCachedItemWhileRevalidate)
-    {
-
-        String keyString = getHashedKey(key);
+    @Override
+    public ListenableFuture<V> apply(String key,
+                                     Supplier<V> computation,
+                                     Duration timeToLive,
+                                     ListeningExecutorService executorService,
+                                     Predicate<V> canCacheValueEvalutor,Predicate<V> isCachedValueValid,
+                                     boolean returnInvalidCachedItemWhileRevalidate)
+    {
+        return applyWithAsyncComputation(key, limitConcurrency(key, ValueComputation.blocking(computation, config.getSupplierTimeout())),
+                timeToLive, executorService, canCacheValueEvalutor, isCachedValueValid, returnInvalidCachedItemWhileRevalidate);
+    }
+
+    /**
+     * As {@link #apply(String, Supplier, Duration, ListeningExecutorService)}, but the value calculation is abandoned
+     * if the supplier has not returned within the given computation timeout; rather than the cache's supplier timeout.
+     */
+    @Override
+    public ListenableFuture<V> apply(String key,
+                                     Supplier<V> computation,
+                                     Duration timeToLive,
+                                     Duration computationTimeout,
+                                     ListeningExecutorService executorService) {
+        return applyWithAsyncComputation(key, limitConcurrency(key, ValueComputation.blocking(computation, computationTimeout)),
+                timeToLive, executorService, CAN_ALWAYS_CACHE_VALUE, CACHED_VALUE_IS_ALWAYS_VALID, false);
+    }
+
+    /**
+     * As {@link #apply(String, Supplier, Duration, ListeningExecutorService)}, but the memcached get, the stale
+     * value lookup, the supplier and the wait for the memcached set are bounded by the time remaining until the
+     * deadline.  The supplier is not called if the deadline has passed by the time the item is found to be missing;
+     * and the returned future fails if there is no value by the deadline.
+     */
+    @Override
+    public ListenableFuture<V> apply(String key,
+                                     Supplier<V> computation,
+                                     Duration timeToLive,
+                                     Deadline deadline,
+                                     ListeningExecutorService executorService) {
+        if(deadline.hasExpired()) {
+            return deadlineExceeded(key);
+        }
+        ValueComputation<V> computationWithDeadline =
+                ValueComputation.blocking(computation, config.getSupplierTimeout()).withDeadline(deadline);
+        return boundByDeadline(applyWithAsyncComputation(key, limitConcurrency(key, computationWithDeadline),
+                timeToLive, executorService, CAN_ALWAYS_CACHE_VALUE, CACHED_VALUE_IS_ALWAYS_VALID, false), deadline);
+    }
+
+    @Override
+    public ListenableFuture<V> applyAsync(String key,
+                                          Supplier<ListenableFuture<V>> computation,
+                                          ListeningExecutorService executorService,
+                                          Predicate<V> canCacheValueEvalutor) {
+        return applyAsync(key,computation,config.getTimeToLive(),executorService,canCacheValueEvalutor);
+    }
+
+    /**
+     * Obtains the value from the near cache, or memcached; or from the future returned by the given supplier.
+     * The supplier is called on a thread from the executor, but the thread is not held whilst the future is
+     * outstanding.  The writing of the value to memcached, and the completion of the waiting callers, happen
+     * when the supplier's future completes.
+     */
+    @Override
+    public ListenableFuture<V> applyAsync(String key,
+                                          Supplier<ListenableFuture<V>> computation,
+                                          Duration timeToLive,
+                                          ListeningExecutorService executorService,
+                                          Predicate<V> canCacheValueEvalutor) {
+        return applyWithAsyncComputation(key, limitConcurrency(key, ValueComputation.async(computation, config.getSupplierTimeout())),
+                timeToLive, executorService, canCacheValueEvalutor, CACHED_VALUE_IS_ALWAYS_VALID, false);
+    }
+
+    private ListenableFuture<V> applyWithAsyncComputation(final String key,
+                                                          final ValueComputation<V> computation,
+                                                          final Duration timeToLive,
+                                                          final ListeningExecutorService executorService,
+                                                          final Predicate<V> canCacheValueEvalutor,
+                                                          final Predicate<V> isCachedValueValid,
+                                                          final boolean returnInvalidCachedItemWhileRevalidate)
+    {
+        return applyWithAsyncComputation(getHashedKey(key), null, computation, timeToLive, executorService,
+                canCacheValueEvalutor, isCachedValueValid, returnInvalidCachedItemWhileRevalidate);
+    }
+
+    /**
+     * @param keyString The memcached key
+     * @param staleKey The stale cache key for the memcached key, or null to create it when needed
+     */
+    private ListenableFuture<V> applyWithAsyncComputation(final String keyString,
+                                                          final String staleKey,
+                                                          final ValueComputation<V> computation,
+                                                          final Duration timeToLive,
+                                                          final ListeningExecutorService executorService,
+                                                          final Predicate<V> canCacheValueEvalutor,
+                                                          final Predicate<V> isCachedValueValid,
+                                                          final boolean returnInvalidCachedItemWhileRevalidate)
+    {
+        V nearCachedValue = nearCache.get(keyString);
+        if(nearCachedValue!=null) {
+            if(isCachedValueValid.test(nearCachedValue)) {
+                return Futures.immediateFuture(nearCachedValue);
+            } else {
+                nearCache.remove(keyString);
+            }
+        }
+
+        ReferencedClient client = clientFactory.getClient();
+        if(!client.isAvailable()) {
+            warnCacheDisabled();
+            return scheduleValueComputation(keyString,computation,executorService);
+        }
+        else {
+            final SettableFuture<V> promise = new HerdPromise<>();
+            // create and store a new future for the to be generated value
+            // first checking against local a cache to see if the computation is already
+            // occurring
+            ListenableFuture<V> existingFuture  = putInHerdOrJoin(keyString, promise);
+            if(existingFuture==null) {
+                Cache.logCacheMiss(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION);
+                // check memcached.
+                final long timeoutInMillis = computation.getDeadline().capTimeoutInMillis(memcachedGetTimeout.getTimeoutInMillis());
+                if(config.isUseNonBlockingGet()) {
+                    final ListenableFuture<V> cacheLookup = cacheReader.getFromDistributedCacheAsync(client,
+                            keyString,
+                            timeoutInMillis,
+                            CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE,
+                            metricRecorder);
+
+                    // completes on the memcached client's callback thread
+                    cacheLookup.addListener(() -> {
+                        try {
+                            completeFromDistributedCacheLookup(client, keyString, getLookupResult(cacheLookup),
+                                    computation, timeToLive, executorService, canCacheValueEvalutor,
+                                    isCachedValueValid, returnInvalidCachedItemWhileRevalidate, promise, true);
+                        } catch (Throwable e) {
+                            FutureCompleter.completeWithException(promise, keyString, e, store,
+                                    config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+                        }
+                    }, MoreExecutors.directExecutor());
+                } else {
+                    Runnable blockingLookup = () -> {
+                        V cachedObject = cacheReader.getFromDistributedCache(client,
+                                keyString,
+                                timeoutInMillis,
+                                CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE,
+                                metricRecorder);
+
+                        completeFromDistributedCacheLookup(client, keyString, cachedObject, computation, timeToLive,
+                                executorService, canCacheValueEvalutor, isCachedValueValid,
+                                returnInvalidCachedItemWhileRevalidate, promise, false);
+                    };
+
+                    if(virtualThreadExecutorService==null) {
+                        blockingLookup.run();
+                    } else {
+                        runOnVirtualThread(keyString, blockingLookup, promise);
+                    }
+                }
+
+                return promise;
+
+            } else {
+                return returnStaleOrCachedItem(client,keyString,staleKey,existingFuture,executorService,computation.getDeadline());
+            }
+        }
+    }
+
+    /**
+     * Runs the blocking memcached lookup on a virtual thread, rather than the calling thread.
+     * If the virtual thread cannot be started the lookup is run on the calling thread.
+     */
+    private void runOnVirtualThread(final String keyString, final Runnable blockingLookup, final SettableFuture<V> promise) {
+        Runnable lookup = () -> {
+            try {
+                blockingLookup.run();
+            } catch (Throwable e) {
+                FutureCompleter.completeWithException(promise, keyString, e, store,
+                        config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+            }
+        };
+
+        try {
+            virtualThreadExecutorService.execute(lookup);
+        } catch (RejectedExecutionException e) {
+            lookup.run();
+        }
+    }
+
+    /**
+     * Given the result of the lookup for the item in memcached, either completes the promise
+     * with the cached value, or submits the supplier to the executor to generate the value.
+     *
+     * @param fromCallbackThread the lookup has completed on the memcached client's callback thread; the supplier
+     *                           is not to be run on it ({@link #offCallbackThread(Runnable, Consumer)})
+     */
+    private void completeFromDistributedCacheLookup(final ReferencedClient client,
+                                                    final String keyString,
+                                                    final Object cachedItem,
+                                                    final ValueComputation<V> computation,
+                                                    final Duration timeToLive,
+                                                    final ListeningExecutorService executorService,
+                                                    final Predicate<V> canCacheValueEvalutor,
+                                                    final Predicate<V> isCachedValueValid,
+                                                    final boolean returnInvalidCachedItemWhileRevalidate,
+                                                    final SettableFuture<V> promise,
+                                                    final boolean fromCallbackThread) {
+        if(cachedItem instanceof NegativeCacheTombstone) {
+            // the supplier has recently returned a value that could not be cached
+            Cache.logCacheHit(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_ALL);
+            Cache.logCacheHit(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_NEGATIVE_CACHE);
+            FutureCompleter.completeWithValue(promise, keyString, null, store,
+                    config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+            return;
+        }
+
+        final V cachedObject = unwrap(cachedItem);
+        boolean cachedObjectFoundInCache = cachedObject!=null;
+        boolean validCachedObject = (cachedObjectFoundInCache && isCachedValueValid.test(cachedObject));
+        boolean softExpired = validCachedObject && hasSoftExpired(cachedItem);
+        boolean doRevalidationInBackground = (returnInvalidCachedItemWhileRevalidate && cachedObjectFoundInCache && !validCachedObject)
+                || softExpired;
+        boolean doEarlyRecomputation = validCachedObject && !softExpired && shouldRecomputeEarly(cachedItem);
+
+        if(validCachedObject || doRevalidationInBackground) {
+            Cache.logCacheHit(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_ALL);
+            if(softExpired) {
+                Cache.logCacheHit(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_STALE_CACHE);
+            }
+
+            FutureCompleter.completeWithValue(promise, keyString, cachedObject, store,
+                    config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+
+            if(doRevalidationInBackground || doEarlyRecomputation) {
+                if(doEarlyRecomputation) {
+                    metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_EARLY_RECOMPUTATION_COUNTER);
+                }
+                // return the future, but schedule update in background
+                // without tying to current future to the background update
+                //
+                performBackgroundRevalidationIfNeeded(keyString, client, computation, timeToLive, executorService,
+                        canCacheValueEvalutor, fromCallbackThread);
+            } else {
+                nearCache.put(keyString, cachedObject, timeToLive);
+            }
+        }
+        else {
+            // write with normal semantics
+            logger.debug("set requested for {}", keyString);
+            Cache.logCacheMiss(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_ALL);
+            if(config.isUseDistributedLease()) {
+                computeValueWithDistributedLease(client, keyString, computation, timeToLive, executorService,
+                        canCacheValueEvalutor, isCachedValueValid, promise, fromCallbackThread);
+            } else {
+                computeValue(client, keyString, computation, timeToLive, executorService,
+                        canCacheValueEvalutor, promise, fromCallbackThread);
+            }
+        }
+    }
+
+    /**
+     * Submits the supplier to the executor to generate the value, completing the promise with an exception if
+     * the supplier could not be submitted
+     *
+     * @param fromCallbackThread called from the memcached client's callback thread, or the scheduler's thread
+     */
+    private void computeValue(final ReferencedClient client,
+                              final String keyString,
+                              final ValueComputation<V> computation,
+                              final Duration timeToLive,
+                              final ListeningExecutorService executorService,
+                              final Predicate<V> canCacheValueEvalutor,
+                              final SettableFuture<V> promise,
+                              final boolean fromCallbackThread) {
+        computeValue(client, keyString, computation, timeToLive, executorService, canCacheValueEvalutor, promise,
+                fromCallbackThread, DO_NOTHING);
+    }
+
+    /**
+     * @param onComputed run once the supplier's future has completed, and its value has been written to memcached;
+     *                   or once the supplier is not to be called
+     */
+    private void computeValue(final ReferencedClient client,
+                              final String keyString,
+                              final ValueComputation<V> computation,
+                              final Duration timeToLive,
+                              final ListeningExecutorService executorService,
+                              final Predicate<V> canCacheValueEvalutor,
+                              final SettableFuture<V> promise,
+                              final boolean fromCallbackThread,
+                              final Runnable onComputed) {
+        Throwable exceptionDuringWrite = cacheWriteFunction(client, computation,
+                keyString, timeToLive, executorService,
+                canCacheValueEvalutor, promise, store, fromCallbackThread, onComputed);
+
+        if(exceptionDuringWrite!=null) {
+            FutureCompleter.completeWithException(promise, keyString, exceptionDuringWrite, store,
+                    config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+        }
+    }
+
+    /**
+     * Attempts to take out a lease in memcached (an atomic add of the lease key), so that only one
+     * instance, across all the jvms using the memcached cluster, calls the supplier for the key.
+     * If the lease is obtained the value is generated, and the lease removed once the value has been written; when
+     * the supplier's future has completed, rather than the callers' promise (which may have been completed earlier, with
+     * the stale value, or by the supplier timeout).
+     * If another instance holds the lease, the stale value is returned if one exists, otherwise memcached is
+     * polled until the value written by the lease holder appears.  If no value appears within the max wait,
+     * or the lease could not be requested, the value is generated locally.
+     */
+    private void computeValueWithDistributedLease(final ReferencedClient client,
+                                                  final String keyString,
+                                                  final ValueComputation<V> computation,
+                                                  final Duration timeToLive,
+                                                  final ListeningExecutorService executorService,
+                                                  final Predicate<V> canCacheValueEvalutor,
+                                                  final Predicate<V> isCachedValueValid,
+                                                  final SettableFuture<V> promise,
+                                                  final boolean fromCallbackThread) {
+        final String leaseKey = LeaseKeyCreator.createKey(config, keyString);
+        final ListenableFuture<Boolean> lease;
+        try {
+            lease = Futures.withTimeout(client.add(leaseKey, distributedLeaseTimeToLiveInSeconds, distributedLeaseToken),
+                    memcachedGetTimeout.getTimeoutInMillis(), TimeUnit.MILLISECONDS, distributedCacheReadTimeoutScheduler);
+        } catch (Throwable e) {
+            logger.warn("Exception requesting lease {} from memcached: {}", leaseKey, e.getMessage());
+            computeValue(client, keyString, computation, timeToLive, executorService, canCacheValueEvalutor, promise,
+                    fromCallbackThread);
+            return;
+        }
+
+        lease.addListener(() -> {
+            boolean leaseObtained;
+            try {
+                leaseObtained = Futures.getUnchecked(lease);
+            } catch (Throwable e) {
+                logger.warn("Exception requesting lease {} from memcached: {}", leaseKey, e.getMessage());
+                // unable to determine who holds the lease, so generate the value locally
+                leaseObtained = true;
+            }
+
+            if(leaseObtained) {
+                metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_LEASE_ACQUIRED_COUNTER);
+                computeValue(client, keyString, computation, timeToLive, executorService, canCacheValueEvalutor, promise,
+                        true, () -> releaseDistributedLease(client, leaseKey));
+            } else {
+                metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_LEASE_CONTENDED_COUNTER);
+                long deadlineNanos = System.nanoTime() + config.getDistributedLeaseMaxWait().toNanos();
+                if(useStaleCacheKey) {
+                    waitForDistributedLeaseHolderOrStale(client, keyString, computation, timeToLive, executorService,
+                            canCacheValueEvalutor, isCachedValueValid, promise, deadlineNanos);
+                } else {
+                    pollForDistributedLeaseHolderValue(client, keyString, computation, timeToLive, executorService,
+                            canCacheValueEvalutor, isCachedValueValid, promise, deadlineNanos);
+                }
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Another instance holds the lease.  Returns the stale value if one exists, otherwise waits for the
+     * lease holder to write the value.
+     */
+    private void waitForDistributedLeaseHolderOrStale(final ReferencedClient client,
+                                                      final String keyString,
+                                                      final ValueComputation<V> computation,
+                                                      final Duration timeToLive,
+                                                      final ListeningExecutorService executorService,
+                                                      final Predicate<V> canCacheValueEvalutor,
+                                                      final Predicate<V> isCachedValueValid,
+                                                      final SettableFuture<V> promise,
+                                                      final long deadlineNanos) {
+        final ListenableFuture<V> staleLookup = cacheReader.getFromDistributedCacheAsync(client,
+                StaleCacheKeyCreator.createKey(config, keyString),
+                staleCacheMemcachedGetTimeout.getTimeoutInMillis(),
+                CacheMetricStrings.CACHE_TYPE_STALE_CACHE,
+                metricRecorder);
+
+        staleLookup.addListener(() -> {
+            V staleValue = unwrap(getLookupResult(staleLookup));
+            if(staleValue!=null) {
+                FutureCompleter.completeWithValue(promise, keyString, staleValue, store,
+                        config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+            } else {
+                pollForDistributedLeaseHolderValue(client, keyString, computation, timeToLive, executorService,
+                        canCacheValueEvalutor, isCachedValueValid, promise, deadlineNanos);
+            }
+        }, MoreExecutors.directExecutor());
+    }
 
-        ReferencedClient client = clientFactory.getClient();
-        if(!client.isAvailable()) {
-            warnCacheDisabled();
-            return scheduleValueComputation(keyString,computation,executorService);
+    /**
+     * Another instance holds the lease.  Polls memcached, every poll interval, for the value written by the
+     * lease holder.  If the value does not appear before the deadline, the value is generated locally.
+     */
+    private void pollForDistributedLeaseHolderValue(final ReferencedClient client,
+                                                    final String keyString,
+                                                    final ValueComputation<V> computation,
+                                                    final Duration timeToLive,
+                                                    final ListeningExecutorService executorService,
+                                                    final Predicate<V> canCacheValueEvalutor,
+                                                    final Predicate<V> isCachedValueValid,
+                                                    final SettableFuture<V> promise,
+                                                    final long deadlineNanos) {
+        if(System.nanoTime() >= deadlineNanos) {
+            metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_LEASE_WAIT_TIMEOUT_COUNTER);
+            computeValue(client, keyString, computation, timeToLive, executorService, canCacheValueEvalutor, promise, true);
+            return;
         }
-        else {
-            final SettableFuture<V> promise = new GuavaSettableFuture<>();
-            // create and store a new future for the to be generated value
-            // first checking against local a cache to see if the computation is already
-            // occurring
-            ListenableFuture<V> existingFuture  = store.putIfAbsent(keyString, promise);
-            if(existingFuture==null) {
-                Cache.logCacheMiss(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION);
-                // check memcached.
 
-                V cachedObject = cacheReader.getFromDistributedCache(client,
+        try {
+            distributedCacheReadTimeoutScheduler.schedule(() -> {
+                final ListenableFuture<V> lookup = cacheReader.getFromDistributedCacheAsync(client,
                         keyString,
-                        memcachedGetTimeoutInMillis,
+                        memcachedGetTimeout.getTimeoutInMillis(),
                         CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE,
                         metricRecorder);
 
-                boolean cachedObjectFoundInCache = cachedObject!=null;
-                boolean validCachedObject = (cachedObjectFoundInCache && isCachedValueValid.test(cachedObject));
-                boolean doRevalidationInBackground = returnInvalidCachedItemWhileRevalidate && cachedObjectFoundInCache && !validCachedObject;
+                lookup.addListener(() -> {
+                    Object cachedItem = getLookupResult(lookup);
+                    V value = unwrap(cachedItem);
+                    if(cachedItem instanceof NegativeCacheTombstone) {
+                        FutureCompleter.completeWithValue(promise, keyString, null, store,
+                                config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+                    } else if(value!=null && isCachedValueValid.test(value)) {
+                        FutureCompleter.completeWithValue(promise, keyString, value, store,
+                                config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+                        nearCache.put(keyString, value, timeToLive);
+                    } else {
+                        pollForDistributedLeaseHolderValue(client, keyString, computation, timeToLive, executorService,
+                                canCacheValueEvalutor, isCachedValueValid, promise, deadlineNanos);
+                    }
+                }, MoreExecutors.directExecutor());
+            }, config.getDistributedLeasePollInterval().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (Throwable e) {
+            computeValue(client, keyString, computation, timeToLive, executorService, canCacheValueEvalutor, promise, true);
+        }
+    }
 
-                if(validCachedObject || doRevalidationInBackground) {
-                    Cache.logCacheHit(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_ALL);
+    private void releaseDistributedLease(ReferencedClient client, String leaseKey) {
+        try {
+            client.delete(leaseKey);
+        } catch (Throwable e) {
+            logger.warn("Exception releasing lease {} in memcached: {}", leaseKey, e.getMessage());
+        }
+    }
 
-                    FutureCompleter.completeWithValue(promise, keyString, cachedObject, store,
-                            config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+    /**
+     * Returns the value held in memcached; which may have been stored within a {@link CachedValueEnvelope}.
+     * A {@link NegativeCacheTombstone} is returned as null
+     */
+    private V unwrap(Object cachedItem) {
+        if(cachedItem instanceof CachedValueEnvelope) {
+            return ((CachedValueEnvelope<V>)cachedItem).getValue();
+        }
+        if(cachedItem instanceof NegativeCacheTombstone) {
+            return null;
+        }
+        return (V)cachedItem;
+    }
 
-                    if(doRevalidationInBackground) {
-                        // return the future, but schedule update in background
-                        // without tying to current future to the background update
-                        //
-                        performBackgroundRevalidationIfNeeded(keyString, client, computation, timeToLive, executorService, canCacheValueEvalutor);
-                    }
-                }
-                else {
-                    // write with normal semantics
-                    logger.debug("set requested for {}", keyString);
-                    Cache.logCacheMiss(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_ALL);
-                    Throwable exceptionDuringWrite = cacheWriteFunction(client, computation,
-                            keyString, timeToLive, executorService,
-                            canCacheValueEvalutor, promise,store);
-
-                    if(exceptionDuringWrite!=null) {
-                        FutureCompleter.completeWithException(promise, keyString, exceptionDuringWrite, store,
-                                config.isRemoveFutureFromInternalCacheBeforeSettingValue());
-                    }
-                }
+    /**
+     * Has the item passed its soft expiry, when stale values are stored in a {@link CachedValueEnvelope}
+     */
+    private boolean hasSoftExpired(Object cachedItem) {
+        if(useStaleCacheEnvelope && cachedItem instanceof CachedValueEnvelope) {
+            return ((CachedValueEnvelope<V>)cachedItem).hasExpired(System.currentTimeMillis());
+        }
+        return false;
+    }
 
-                return promise;
+    /**
+     * The expiry of the item in memcached.  When stale values are stored in a {@link CachedValueEnvelope}
+     * the item is held in memcached for the stale cache additional time to live, after its soft expiry.
+     */
+    private int getMemcachedExpiryInSeconds(Duration timeToLive) {
+        int ttlInSeconds = DurationToSeconds.getSeconds(timeToLive);
+        if(useStaleCacheEnvelope && ttlInSeconds > 0) {
+            return DurationToSeconds.getSeconds(timeToLive.plus(staleCacheAdditionalTimeToLiveValue));
+        }
+        return ttlInSeconds;
+    }
 
-            } else {
-                return returnStaleOrCachedItem(client,keyString,existingFuture,executorService);
-            }
+    /**
+     * Should the item be recomputed in the background, before it expires (XFetch)
+     */
+    private boolean shouldRecomputeEarly(Object cachedItem) {
+        if(config.isUseProbabilisticEarlyRecomputation() && cachedItem instanceof CachedValueEnvelope) {
+            return ((CachedValueEnvelope<V>)cachedItem).shouldRecomputeEarly(System.currentTimeMillis(),
+                    config.getProbabilisticEarlyRecomputationBeta(),
+                    1.0 - ThreadLocalRandom.current().nextDouble());
+        }
+        return false;
+    }
+
+    /**
+     * The item to store in memcached for the given value.  Which is either the value, or the value
+     * within a {@link CachedValueEnvelope}
+     */
+    private Object createItemToStore(V value, Duration timeToLive, long computeDurationNanos) {
+        if(!storeValuesInEnvelope) {
+            return value;
+        }
+        long now = System.currentTimeMillis();
+        long ttlInMillis = DurationToSeconds.getSeconds(timeToLive) * 1000L;
+        return new CachedValueEnvelope<>(value, now, TimeUnit.NANOSECONDS.toMillis(computeDurationNanos),
+                ttlInMillis > 0 ? now + ttlInMillis : CachedValueEnvelope.NO_EXPIRY);
+    }
+
+    /**
+     * Obtains the value of a completed non blocking cache lookup.  A failed lookup is a cache miss.
+     */
+    private V getLookupResult(ListenableFuture<V> completedLookup) {
+        try {
+            return Futures.getUnchecked(completedLookup);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * Obtains the values of a completed non blocking multi get.  A failed lookup is a cache miss for all keys.
+     */
+    private Map<String,V> getBulkLookupResult(ListenableFuture<Map<String,V>> completedLookup) {
+        try {
+            Map<String,V> found = Futures.getUnchecked(completedLookup);
+            return found == null ? Collections.emptyMap() : found;
+        } catch (Throwable e) {
+            return Collections.emptyMap();
         }
     }
 
@@ -444,7 +1419,8 @@ import java.util.function.Supplier;
         ReferencedClient client = clientFactory.getClient();
         if(!client.isAvailable()) {
             warnCacheDisabled();
-            return scheduleValueComputation(keyString,computation,executorService);
+            return scheduleValueComputation(keyString,
+                    limitConcurrency(key,ValueComputation.blocking(computation,config.getSupplierTimeout())),executorService);
         }
         else {
             // write with normal semantics
@@ -452,9 +1428,10 @@ import java.util.function.Supplier;
 
             logger.debug("set requested for {}", keyString);
             Cache.logCacheMiss(metricRecorder, keyString, CacheMetricStrings.CACHE_TYPE_ALL);
-            Throwable exceptionDuringWrite = cacheWriteFunction(client, computation,
+            Throwable exceptionDuringWrite = cacheWriteFunction(client,
+                    limitConcurrency(key,ValueComputation.blocking(computation,config.getSupplierTimeout())),
                     keyString, timeToLive, executorService,
-                    canCacheValueEvalutor, promise, DO_NOTHING_MAP);
+                    canCacheValueEvalutor, promise, DO_NOTHING_MAP, false, DO_NOTHING);
 
 
             if (exceptionDuringWrite != null) {
@@ -470,10 +1447,11 @@ import java.util.function.Supplier;
 
     private void performBackgroundRevalidationIfNeeded(final String keyString,
                                                        final ReferencedClient client,
-                                                       final Supplier<V> computation,
+                                                       final ValueComputation<V> computation,
                                                        final Duration timeToLive,
                                                        final ListeningExecutorService executorService,
-                                                       final Predicate<V> canCacheValueEvalutor) {
+                                                       final Predicate<V> canCacheValueEvalutor,
+                                                       final boolean fromCallbackThread) {
 
         ListenableFuture<V> previousEntry = backgroundRevalidationStore.putIfAbsent(keyString,DUMMY_FUTURE_NOT_TO_RETURN);
 
@@ -483,7 +1461,7 @@ import java.util.function.Supplier;
             Throwable ableSubmitForExecution = cacheWriteFunction(client, computation,
                                                                 keyString, timeToLive, executorService,
                                                                 canCacheValueEvalutor,
-                    DUMMY_FUTURE_NOT_TO_RETURN,backgroundRevalidationStore);
+                    DUMMY_FUTURE_NOT_TO_RETURN,backgroundRevalidationStore,fromCallbackThread,DO_NOTHING);
 
             if(ableSubmitForExecution!=null) {
                 backgroundRevalidationStore.remove(keyString);
@@ -501,14 +1479,24 @@ import java.util.function.Supplier;
      * @param keyRequested The key that has been request
      * @param cachedFuture the existing apply(..) lookup
      * @param executor The executor service to run any futures on.
+     * @param deadline The deadline of the request, that bounds the stale value lookup
      * @return
      */
     private  ListenableFuture<V> returnStaleOrCachedItem(ReferencedClient client, String keyRequested,ListenableFuture<V> cachedFuture,
-                                                         ListeningExecutorService executor) {
+                                                         ListeningExecutorService executor, Deadline deadline) {
+        return returnStaleOrCachedItem(client, keyRequested, null, cachedFuture, executor, deadline);
+    }
+
+    /**
+     * As above, with the stale cache key when it is already known (null to create it when needed)
+     */
+    private  ListenableFuture<V> returnStaleOrCachedItem(ReferencedClient client, String keyRequested, String staleKey,
+                                                         ListenableFuture<V> cachedFuture,
+                                                         ListeningExecutorService executor, Deadline deadline) {
         Cache.logCacheHit(metricRecorder, keyRequested, CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION);
-        if(config.isUseStaleCache()) {
-            String staleCacheKey = StaleCacheKeyCreator.createKey(config, keyRequested);
-            return getFutureForStaleDistributedCacheLookup(client, staleCacheKey, cachedFuture);
+        if(useStaleCacheKey) {
+            String staleCacheKey = staleKey == null ? StaleCacheKeyCreator.createKey(config, keyRequested) : staleKey;
+            return getFutureForStaleDistributedCacheLookup(client, staleCacheKey, cachedFuture, deadline);
         } else {
             return cachedFuture;
         }
@@ -524,11 +1512,23 @@ import java.util.function.Supplier;
      *
      * @param key The stale cache key
      * @param backendFuture The future that is actually calculating the fresh cache entry
+     * @param deadline The deadline of the request.  The stale lookup is skipped if the deadline has passed
      * @return  A future that will contain the result
      */
     private ListenableFuture<V> getFutureForStaleDistributedCacheLookup(ReferencedClient client,
                                                                         String key,
-                                                                        ListenableFuture<V> backendFuture) {
+                                                                        ListenableFuture<V> backendFuture,
+                                                                        Deadline deadline) {
+
+        if(deadline.hasExpired()) {
+            return backendFuture;
+        }
+
+        final long timeoutInMillis = deadline.capTimeoutInMillis(staleCacheMemcachedGetTimeout.getTimeoutInMillis());
+
+        if(config.isUseNonBlockingGet()) {
+            return getFutureForStaleDistributedCacheLookupWithoutBlocking(client,key,backendFuture,timeoutInMillis);
+        }
 
         // protection against thundering herd on stale memcached
         SettableFuture<V> promise = new GuavaSettableFuture<>();
@@ -538,11 +1538,11 @@ import java.util.function.Supplier;
         if (existingFuture == null) {
             Cache.logCacheMiss(metricRecorder, key, CacheMetricStrings.CACHE_TYPE_STALE_VALUE_CALCULATION);
 
-            V item = cacheReader.getFromDistributedCache(client,
+            V item = unwrap(cacheReader.getFromDistributedCache(client,
                     key,
-                    this.staleCacheMemachedGetTimeoutInMillis,
+                    timeoutInMillis,
                     CacheMetricStrings.CACHE_TYPE_STALE_CACHE,
-                    metricRecorder);
+                    metricRecorder));
 
             if(item==null) {
                 FutureCompleter.completeWithValue(promise, key, null, staleStore,
@@ -570,98 +1570,524 @@ import java.util.function.Supplier;
     }
 
 
+    /**
+     * Non blocking version of {@link #getFutureForStaleDistributedCacheLookup(ReferencedClient, String, ListenableFuture, Deadline)}.
+     * The returned future is completed with the stale value if one exists, otherwise with the result of
+     * the future that is calculating the fresh cache entry.
+     */
+    private ListenableFuture<V> getFutureForStaleDistributedCacheLookupWithoutBlocking(ReferencedClient client,
+                                                                                       String key,
+                                                                                       ListenableFuture<V> backendFuture,
+                                                                                       long timeoutInMillis) {
+        // protection against thundering herd on stale memcached
+        final SettableFuture<V> promise = new GuavaSettableFuture<>();
+
+        ListenableFuture<V> staleLookup = staleStore.putIfAbsent(key, promise);
+
+        if (staleLookup == null) {
+            Cache.logCacheMiss(metricRecorder, key, CacheMetricStrings.CACHE_TYPE_STALE_VALUE_CALCULATION);
+
+            final ListenableFuture<V> item = cacheReader.getFromDistributedCacheAsync(client,
+                    key,
+                    timeoutInMillis,
+                    CacheMetricStrings.CACHE_TYPE_STALE_CACHE,
+                    metricRecorder);
+
+            item.addListener(() -> FutureCompleter.completeWithValue(promise, key, unwrap(getLookupResult(item)), staleStore,
+                    config.isRemoveFutureFromInternalCacheBeforeSettingValue()), MoreExecutors.directExecutor());
+
+            staleLookup = promise;
+        } else {
+            Cache.logCacheHit(metricRecorder, key, CacheMetricStrings.CACHE_TYPE_STALE_VALUE_CALCULATION);
+        }
+
+        return Futures.transformAsync(staleLookup,
+                (V item) -> item == null ? backendFuture : Futures.immediateFuture(item));
+    }
+
     private Runnable createCacheWriteRunnable(final ReferencedClient client,
-                                              final Supplier<V> computation,
+                                              final ValueComputation<V> computation,
                                               final String key,
                                               final Duration itemExpiry,
+                                              final ListeningExecutorService executorService,
                                               final Predicate<V> canCacheValue,
                                               final SettableFuture<V> future,
-                                              final ConcurrentMap<String, ListenableFuture<V>> cachedFutures)
+                                              final ConcurrentMap<String, ListenableFuture<V>> cachedFutures,
+                                              final AtomicBoolean outstanding,
+                                              final Runnable onComputed)
     {
         return () -> {
             final long startNanos =  System.nanoTime();
-            Throwable throwable = null;
+            final ListenableFuture<V> pendingValue;
             try {
-                V results = computation.get();
-                long time = System.nanoTime()-startNanos;
-                boolean isNotNullResults = (results != null);
-                boolean isCacheable = canCacheValue.test(results);
-                if (isNotNullResults & isCacheable) {
-                    writeToDistributedStaleCache(client, key, itemExpiry, results);
-                    // write the cache entry
-                    cacheWriter.writeToDistributedCache(client,
-                            key,
-                            results,
-                            DurationToSeconds.getSeconds(itemExpiry));
-                } else {
-                    logger.debug("Cache Value cannot be cached.  It has to be either not null:({}), or cachable as determine by predicate:({}). " +
-                            "Therefore, not storing in memcached",isNotNullResults,isCacheable);
+                pendingValue = computation.get();
+            } catch(SupplierConcurrencyLimitExceededException limited) {
+                metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_CONCURRENCY_LIMITED_COUNTER);
+                try {
+                    if (outstanding.compareAndSet(true, false)) {
+                        // sets and background revalidations have no callers waiting for a stale value
+                        if (cachedFutures == store) {
+                            completeWithStaleValueOrException(client, key, limited, future, cachedFutures);
+                        } else {
+                            FutureCompleter.completeWithException(future, key, limited, cachedFutures,
+                                    config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+                        }
+                    }
+                } finally {
+                    onComputed.run();
+                }
+                return;
+            } catch(Throwable err) {
+                try {
+                    completeCacheWriteWithException(client, key, err, System.nanoTime() - startNanos, future, cachedFutures, outstanding);
+                } finally {
+                    onComputed.run();
+                }
+                return;
+            }
+
+            if(pendingValue==null) {
+                try {
+                    completeCacheWrite(client, key, null, System.nanoTime() - startNanos, itemExpiry,
+                            canCacheValue, future, cachedFutures, outstanding, computation.getDeadline());
+                } finally {
+                    onComputed.run();
+                }
+                return;
+            }
+
+            // the value is written to memcached once the supplier's future has completed;
+            // on the executor, so that the thread completing the future is not used for the write
+            Futures.addCallback(pendingValue, new FutureCallback<V>() {
+                @Override
+                public void onSuccess(V results) {
+                    try {
+                        completeCacheWrite(client, key, results, System.nanoTime() - startNanos, itemExpiry,
+                                canCacheValue, future, cachedFutures, outstanding, computation.getDeadline());
+                    } finally {
+                        onComputed.run();
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable err) {
+                    try {
+                        completeCacheWriteWithException(client, key, err, System.nanoTime() - startNanos, future, cachedFutures, outstanding);
+                    } finally {
+                        onComputed.run();
+                    }
                 }
+            }, AsyncSuppliers.listenerExecutor(pendingValue, executorService));
+        };
+    }
+
+    /**
+     * Writes the value generated by the supplier to memcached (if it can be cached), and completes the
+     * future on which the callers are waiting.  If the computation has been abandoned, as it exceeded the supplier
+     * timeout, the value is still written to memcached; but the callers have already been completed.
+     * The wait for the write to memcached is bounded by the time remaining until the deadline.
+     */
+    private void completeCacheWrite(final ReferencedClient client,
+                                    final String key,
+                                    final V results,
+                                    final long time,
+                                    final Duration itemExpiry,
+                                    final Predicate<V> canCacheValue,
+                                    final SettableFuture<V> future,
+                                    final ConcurrentMap<String, ListenableFuture<V>> cachedFutures,
+                                    final AtomicBoolean outstanding,
+                                    final Deadline deadline) {
+        try {
+            boolean isNotNullResults = (results != null);
+            boolean isCacheable = canCacheValue.test(results);
+            if (isNotNullResults & isCacheable) {
+                Object itemToStore = createItemToStore(results, itemExpiry, time);
+                writeToDistributedStaleCache(client, key, itemExpiry, itemToStore);
+                // write the cache entry
+                writeToDistributedCache(client,
+                        key,
+                        itemToStore,
+                        getMemcachedExpiryInSeconds(itemExpiry),
+                        deadline);
+                nearCache.put(key, results, itemExpiry);
+            } else {
+                nearCache.remove(key);
+                logger.debug("Cache Value cannot be cached.  It has to be either not null:({}), or cachable as determine by predicate:({}). " +
+                        "Therefore, not storing in memcached",isNotNullResults,isCacheable);
+                writeNegativeCacheTombstone(client, key);
+            }
 
-                setCacheWriteMetrics(CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_SUCCESS_TIMER,
-                        time,
-                        CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_SUCCESS_COUNTER);
+            setCacheWriteMetrics(CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_SUCCESS_TIMER,
+                    time,
+                    CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_SUCCESS_COUNTER);
 
+            if(outstanding.compareAndSet(true,false)) {
                 FutureCompleter.completeWithValue(future, key, results, cachedFutures,
                         config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+            }
 
-            } catch(Throwable err){
-                throwable = err;
-                long time = System.nanoTime()-startNanos;
-
-                setCacheWriteMetrics(CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_FAILURE_TIMER,
-                        time,
-                        CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_FAILURE_COUNTER);
+        } catch(Throwable err){
+            completeCacheWriteWithException(client, key, err, time, future, cachedFutures, outstanding);
+        }
+    }
 
+    /**
+     * Completes the future on which the callers are waiting with the supplier's failure.  With stale-if-error
+     * enabled the callers waiting on an apply are given the stale value, if one exists, instead.
+     */
+    private void completeCacheWriteWithException(final ReferencedClient client,
+                                                 final String key,
+                                                 final Throwable throwable,
+                                                 final long time,
+                                                 final SettableFuture<V> future,
+                                                 final ConcurrentMap<String, ListenableFuture<V>> cachedFutures,
+                                                 final AtomicBoolean outstanding) {
+        setCacheWriteMetrics(CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_FAILURE_TIMER,
+                time,
+                CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_FAILURE_COUNTER);
+
+        if(outstanding.compareAndSet(true,false)) {
+            // background revalidations and sets have no callers waiting for a stale value
+            if(useStaleIfError && cachedFutures == store) {
+                completeWithStaleValueOrException(client, key, throwable, future, cachedFutures);
+            } else {
                 FutureCompleter.completeWithException(future, key, throwable, cachedFutures,
                         config.isRemoveFutureFromInternalCacheBeforeSettingValue());
             }
+        }
+    }
+
+    /**
+     * The task, for submission to the executor from the memcached client's callback thread, or the scheduler's
+     * thread.  Should the executor run the task on the submitting thread (a direct executor, such as the default
+     * executor), the task is handed off to the supplier handoff executor; so that the supplier does not block the
+     * thread that completes the memcached operations, or that times them out.
+     *
+     * @param onRejected called, rather than running the task, if the supplier handoff executor rejects the task
+     */
+    private Runnable offCallbackThread(final Runnable task, final Consumer<RejectedExecutionException> onRejected) {
+        final Thread callbackThread = Thread.currentThread();
+        return () -> {
+            if(Thread.currentThread() != callbackThread) {
+                task.run();
+                return;
+            }
+            try {
+                supplierHandoffExecutorService.execute(task);
+            } catch (RejectedExecutionException e) {
+                onRejected.accept(e);
+            }
         };
     }
 
+    /**
+     * Completes the callers with an {@link UnableToSubmitSupplierForExecutionException}, as the supplier could not
+     * be handed off from the memcached client's callback thread
+     */
+    private void rejectSupplierHandoff(final String key,
+                                       final RejectedExecutionException rejected,
+                                       final SettableFuture<V> future,
+                                       final ConcurrentMap<String, ListenableFuture<V>> cachedFutures,
+                                       final AtomicBoolean outstanding,
+                                       final Runnable onComputed) {
+        try {
+            metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_REJECTION_COUNTER);
+            String message = "Unable able to hand off computation (Supplier) from the memcached client's thread in order to obtain the value for key: " + key;
+            logger.warn(message, rejected);
+            if(outstanding.compareAndSet(true,false)) {
+                FutureCompleter.completeWithException(future, key,
+                        new UnableToSubmitSupplierForExecutionException(message, rejected), cachedFutures,
+                        config.isRemoveFutureFromInternalCacheBeforeSettingValue());
+            }
+        } finally {
+            onComputed.run();
+        }
+    }
+
+    /**
+     * Schedules the abandoning of the computation, if it has not completed within the computation's timeout.
+     * The watchdog is cancelled when the future completes.
+     *
+     * @param outstanding set to false by whichever of the computation, or the watchdog, completes first
+     * @param onAbandon completes the callers waiting on the abandoned computation
+     * @return the watchdog, or null if it could not be scheduled
+     */
+    private ScheduledFuture<?> watchComputation(final String key,
+                                                final ValueComputation<V> computation,
+                                                final ListenableFuture<V> future,
+                                                final AtomicBoolean outstanding,
+                                                final Runnable onAbandon) {
+        try {
+            final ScheduledFuture<?> watchdog = distributedCacheReadTimeoutScheduler.schedule(() -> {
+                if(outstanding.compareAndSet(true,false)) {
+                    metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_ABANDONED_COUNTER);
+                    logger.warn("Supplier for key {} did not complete within {}ms, abandoning the computation",
+                            key, TimeUnit.NANOSECONDS.toMillis(computation.getTimeoutInNanos()));
+                    onAbandon.run();
+                }
+            }, computation.getTimeoutInNanos(), TimeUnit.NANOSECONDS);
+            future.addListener(() -> watchdog.cancel(false), MoreExecutors.directExecutor());
+            return watchdog;
+        } catch (Throwable e) {
+            logger.warn("Unable to schedule the supplier timeout for key {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The callers waiting on the abandoned computation are given the stale value, if one exists,
+     * otherwise they are completed with a {@link SupplierTimeoutException}
+     */
+    private void abandonComputation(final ReferencedClient client,
+                                    final String key,
+                                    final ValueComputation<V> computation,
+                                    final SettableFuture<V> future,
+                                    final ConcurrentMap<String,ListenableFuture<V>> cachedFutureStore) {
+        completeWithStaleValueOrException(client, key, createSupplierTimeoutException(key, computation),
+                future, cachedFutureStore);
+    }
+
+    /**
+     * Completes the callers, whose value could not be generated, with the stale value if one exists;
+     * otherwise with the given exception
+     */
+    private void completeWithStaleValueOrException(final ReferencedClient client,
+                                                   final String key,
+                                                   final Throwable failure,
+                                                   final SettableFuture<V> future,
+                                                   final ConcurrentMap<String,ListenableFuture<V>> cachedFutureStore) {
+        // later requests for the key no longer wait on the failed computation
+        cachedFutureStore.remove(key, future);
+        if(!useStaleCacheKey) {
+            future.setException(failure);
+            return;
+        }
+
+        final ListenableFuture<V> staleLookup = cacheReader.getFromDistributedCacheAsync(client,
+                StaleCacheKeyCreator.createKey(config, key),
+                staleCacheMemcachedGetTimeout.getTimeoutInMillis(),
+                CacheMetricStrings.CACHE_TYPE_STALE_CACHE,
+                metricRecorder);
+
+        staleLookup.addListener(() -> {
+            Object staleItem = getLookupResult(staleLookup);
+            V staleValue = unwrap(staleItem);
+            if(staleValue!=null) {
+                metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_STALE_IF_ERROR_COUNTER);
+                extendStaleValueTimeToLive(client, key, staleItem);
+                future.set(staleValue);
+            } else {
+                future.setException(failure);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * With stale-if-error enabled, re-writes the stale item that has been returned in place of a failed
+     * computation; so that it remains available whilst the supplier continues to fail.
+     */
+    private void extendStaleValueTimeToLive(final ReferencedClient client,
+                                            final String key,
+                                            final Object staleItem) {
+        if(useStaleIfError && staleIfErrorTimeToLiveInSeconds > 0) {
+            staleCacheWriter.writeToDistributedCache(client,
+                    StaleCacheKeyCreator.createKey(config, key),
+                    staleItem,
+                    staleIfErrorTimeToLiveInSeconds);
+        }
+    }
+
+    /**
+     * @return the computation, limited by the number of suppliers that can be running at the same time;
+     * if a limit has been configured.
+     */
+    private ValueComputation<V> limitConcurrency(String key, ValueComputation<V> computation) {
+        return supplierBulkhead == null ? computation : computation.limitedBy(supplierBulkhead, key);
+    }
+
+    /**
+     * @return a future that fails if the given future has not completed by the deadline.  The given future, which may
+     * be shared with other callers, is not cancelled.
+     */
+    private ListenableFuture<V> boundByDeadline(ListenableFuture<V> future, Deadline deadline) {
+        if(!deadline.isBounded() || future.isDone()) {
+            return future;
+        }
+        try {
+            return Futures.withTimeout(Futures.nonCancellationPropagating(future),
+                    Math.max(0,deadline.remainingNanos()), TimeUnit.NANOSECONDS, distributedCacheReadTimeoutScheduler);
+        } catch (RejectedExecutionException e) {
+            return future;
+        }
+    }
+
+    private ListenableFuture<V> deadlineExceeded(String key) {
+        metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DEADLINE_EXCEEDED_COUNTER);
+        return Futures.immediateFailedFuture(new DeadlineExceededException("Deadline passed before the request for key " +
+                key + " was made"));
+    }
+
+    private SupplierTimeoutException createSupplierTimeoutException(String key, ValueComputation<V> computation) {
+        return new SupplierTimeoutException("Supplier for key " + key + " did not complete within " +
+                TimeUnit.NANOSECONDS.toMillis(computation.getTimeoutInNanos()) + "ms");
+    }
+
     private void setCacheWriteMetrics(String timerMetricName, long duration, String counterMetricName) {
         metricRecorder.setDuration(CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_ALL_TIMER,duration);
         metricRecorder.setDuration(timerMetricName,duration);
         metricRecorder.incrementCounter(counterMetricName);
     }
 
+    /**
+     * Puts the promise in the herd store for the key, if there is no future for the key; otherwise joins the
+     * existing future.  A future that has been withdrawn, and is to be failed, is replaced.
+     *
+     * @return the existing future, that the caller is to wait on; or null if the promise has been put in the store
+     */
+    private ListenableFuture<V> putInHerdOrJoin(String keyString, ListenableFuture<V> promise) {
+        while(true) {
+            ListenableFuture<V> existingFuture = store.putIfAbsent(keyString, promise);
+            if(existingFuture==null || joinHerd(existingFuture)!=null) {
+                return existingFuture;
+            }
+            store.remove(keyString, existingFuture);
+        }
+    }
+
+    /**
+     * Records that the caller is waiting on the herd future
+     *
+     * @return the herd future; or null if there is none, or it has been withdrawn (and is to be failed)
+     */
+    private ListenableFuture<V> joinHerd(ListenableFuture<V> herdFuture) {
+        if(herdFuture instanceof HerdPromise && !((HerdPromise<V>) herdFuture).join()) {
+            return null;
+        }
+        return herdFuture;
+    }
+
+    /**
+     * Whether callers, other than the one that started the computation, are waiting on the future.
+     * If not, the future is withdrawn from being joined.
+     */
+    private boolean isJoinedByOtherCallers(SettableFuture<V> future) {
+        return future instanceof HerdPromise && !((HerdPromise<V>) future).withdrawUnlessJoined();
+    }
+
     /**
      * write to memcached when the future completes, the generated value,
      * against the given key, with the specified expiry
      * @param computation  The future that will generate the value
      * @param key The key against which to store an item
      * @param itemExpiry the expiry for the item
+     * @param fromCallbackThread called from the memcached client's callback thread, or the scheduler's thread;
+     *                           on which the supplier is not to be run
+     * @param onComputed run once the supplier's future has completed, and the value has been written to memcached;
+     *                   or once the supplier is not to be called
      * @return true if the computation has been successfully submitted to the executorService for
      *              obtaining of the value from the {@code computation}.  false if the computation could not be
      *              scheduled for computation
      */
     private Throwable cacheWriteFunction(final ReferencedClient client,
-                                                   final Supplier<V> computation,
+                                                   final ValueComputation<V> computation,
                                                    final String key,
                                                    final Duration itemExpiry,
                                                    final ListeningExecutorService executorService,
                                                    final Predicate<V> canCacheValue,
                                                    final SettableFuture<V> future,
-                                                   final ConcurrentMap<String,ListenableFuture<V>> cachedFutureStore
+                                                   final ConcurrentMap<String,ListenableFuture<V>> cachedFutureStore,
+                                                   final boolean fromCallbackThread,
+                                                   final Runnable onComputed
 
     ) {
+        final ValueComputation<V> computationToRun;
+        if(!computation.getDeadline().hasExpired()) {
+            computationToRun = computation;
+        } else if(isJoinedByOtherCallers(future)) {
+            // the deadline is of the caller that started the computation; the other callers waiting on it
+            // are bounded by their own deadlines
+            computationToRun = computation.withDeadline(Deadline.NONE);
+        } else {
+            metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_DEADLINE_EXCEEDED_COUNTER);
+            onComputed.run();
+            return new DeadlineExceededException("Deadline passed before the Supplier for key " + key + " could be called");
+        }
+
+        final AtomicBoolean outstanding = new AtomicBoolean(true);
+        // the watchdog is scheduled before the submit; a direct executor runs the supplier within the submit
+        final ScheduledFuture<?> watchdog = computationToRun.hasTimeout() ?
+                watchComputation(key, computationToRun, future, outstanding,
+                        () -> abandonComputation(client, key, computationToRun, future, cachedFutureStore)) : null;
         try {
-            executorService.submit(
-                    createCacheWriteRunnable(client, computation, key, itemExpiry, canCacheValue, future, cachedFutureStore));
+            Runnable cacheWrite = createCacheWriteRunnable(client, computationToRun, key, itemExpiry, executorService,
+                    canCacheValue, future, cachedFutureStore, outstanding, onComputed);
+            executorService.submit(fromCallbackThread ? offCallbackThread(cacheWrite,
+                    rejected -> rejectSupplierHandoff(key, rejected, future, cachedFutureStore, outstanding, onComputed))
+                    : cacheWrite);
 
         } catch(Throwable failedToSubmit) {
+            outstanding.set(false);
+            if(watchdog!=null) {
+                watchdog.cancel(false);
+            }
             metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_VALUE_CALCULATION_REJECTION_COUNTER);
             String message = "Unable able to submit computation (Supplier) to executor in order to obtain the value for key: " + key;
             logger.warn(message,failedToSubmit);
+            onComputed.run();
             return new UnableToSubmitSupplierForExecutionException(message,failedToSubmit);
         }
 
         return null;
     }
 
+    /**
+     * Records in memcached, for the negative cache time to live, that the value for the key could not be cached
+     */
+    private void writeNegativeCacheTombstone(ReferencedClient client, String key) {
+        if(config.isUseNegativeCaching()) {
+            metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_NEGATIVE_CACHE_WRITES_COUNTER);
+            writeToDistributedCache(client,
+                    key,
+                    NegativeCacheTombstone.INSTANCE,
+                    DurationToSeconds.getSeconds(config.getNegativeCacheTimeToLive()));
+        }
+    }
+
+    /**
+     * Writes the item to memcached, and when hedged reads are enabled, to the replica key on the next node
+     */
+    private void writeToDistributedCache(ReferencedClient client,String key,Object itemToStore,int expiryInSeconds) {
+        writeToDistributedCache(client, key, itemToStore, expiryInSeconds, Deadline.NONE);
+    }
+
+    /**
+     * Writes the item to memcached, waiting for the write no longer than the time remaining until the deadline
+     */
+    private void writeToDistributedCache(ReferencedClient client,String key,Object itemToStore,int expiryInSeconds,
+                                         Deadline deadline) {
+        if(config.isUseHedgedReads()) {
+            staleCacheWriter.writeToDistributedCache(client,
+                    ReplicaKeyCreator.createKey(key),
+                    itemToStore,
+                    expiryInSeconds);
+        }
+        if(deadline.isBounded()) {
+            cacheWriter.writeToDistributedCache(client,
+                    key,
+                    itemToStore,
+                    expiryInSeconds,
+                    deadline.capTimeoutInMillis(Long.MAX_VALUE));
+        } else {
+            cacheWriter.writeToDistributedCache(client,
+                    key,
+                    itemToStore,
+                    expiryInSeconds);
+        }
+    }
+
     private void writeToDistributedStaleCache(ReferencedClient client,String key,Duration ttl,
-                                   V valueToWriteToCache) {
-        if (config.isUseStaleCache()) {
+                                   Object valueToWriteToCache) {
+        if (useStaleCacheKey) {
             String staleCacheKey = StaleCacheKeyCreator.createKey(config,key);
             Duration staleCacheExpiry = ttl.plus(staleCacheAdditionalTimeToLiveValue);
             // overwrite the stale cache entry
@@ -677,13 +2103,20 @@ import java.util.function.Supplier;
     @Override
     public void shutdown() {
         clearInternalCaches();
+        if(writeBehindCacheWriter!=null) {
+            writeBehindCacheWriter.shutdown();
+        }
         clientFactory.shutdown();
+        distributedCacheReadTimeoutScheduler.shutdownNow();
+        defaultExecutorService.shutdown();
+        supplierHandoffExecutorService.shutdown();
     }
 
 
     private void clearInternalCaches() {
         store.clear();
-        if(config.isUseStaleCache()) {
+        nearCache.clear();
+        if(useStaleCacheKey) {
             staleStore.clear();
         }
         backgroundRevalidationStore.clear();
@@ -696,6 +2129,9 @@ import java.util.function.Supplier;
     @Override
     public void clear(boolean waitForClear) {
         clearInternalCaches();
+        if(writeBehindCacheWriter!=null) {
+            writeBehindCacheWriter.discardAll();
+        }
         ReferencedClient client = clientFactory.getClient();
         if (client.isAvailable()) {
             Future<Boolean> future = client.flush();
@@ -721,6 +2157,19 @@ import java.util.function.Supplier;
     }
 
 
+    /**
+     * Removes any queued writes for the key, so that they are not written after the delete
+     */
+    private void discardPendingWrites(String key) {
+        if(writeBehindCacheWriter!=null) {
+            writeBehindCacheWriter.discard(key);
+            writeBehindCacheWriter.discard(ReplicaKeyCreator.createKey(key));
+            if(useStaleCacheKey) {
+                writeBehindCacheWriter.discard(StaleCacheKeyCreator.createKey(config, key));
+            }
+        }
+    }
+
     private void waitForDelete(Future<Boolean> future,long millisToWait,
                                String key,String cacheBeingCleared
                 ) {
@@ -745,16 +2194,24 @@ import java.util.function.Supplier;
      */
     @Override
     public void clear(String key) {
+        key = getHashedKey(key);
+        nearCache.remove(key);
+        discardPendingWrites(key);
         ReferencedClient client = clientFactory.getClient();
         if (client.isAvailable()) {
-            key = getHashedKey(key);
             long millisToWait = config.getWaitForRemove().toMillis();
-            if (config.isUseStaleCache()) {
+            if (useStaleCacheKey) {
                 Future<Boolean> staleCacheFuture = client.delete(StaleCacheKeyCreator.createKey(config, key));
                 if (staleCacheFuture != null) {
                     waitForDelete(staleCacheFuture, millisToWait, key, "stale cache");
                 }
             }
+            if (config.isUseHedgedReads()) {
+                Future<Boolean> replicaFuture = client.delete(ReplicaKeyCreator.createKey(key));
+                if (replicaFuture != null) {
+                    waitForDelete(replicaFuture, millisToWait, key, "replica");
+                }
+            }
             Future<Boolean> future = client.delete(key);
             if (future != null) {
                 waitForDelete(future, millisToWait, key, "cache");
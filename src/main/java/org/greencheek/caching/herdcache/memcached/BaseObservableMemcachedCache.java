@@ -45,11 +45,14 @@ abstract class BaseObservableMemcachedCache<V extends Serializable> implements O
                 config.getFailureMode(),
                 config.getHashAlgorithm(), config.getSerializingTranscoder(),
                 config.getProtocol(),config.getReadBufferSize(),config.getKeyHashType(),
-                config.getLocatorFactory(), config.getKeyValidationType(), config.getListenerCallbackExecutor());
+                config.getLocatorFactory(), config.getKeyValidationType(), config.getListenerCallbackExecutor(),
+                config.isUseQuietWrites(), config.isUseHedgedReads());
     }
 
     public static ReferencedClientFactory createReferenceClientFactory(ElastiCacheCacheConfig config) {
-        return new SpyMemcachedReferencedClientFactory<>(createMemcachedConnectionFactory(config.getMemcachedCacheConfig()));
+        return TransitionReferencedClientFactory.create(
+                new SpyMemcachedReferencedClientFactory<>(createMemcachedConnectionFactory(config.getMemcachedCacheConfig())),
+                config.getMemcachedCacheConfig());
     }
 
 
@@ -5,6 +5,7 @@ import org.greencheek.caching.herdcache.memcached.factory.DynamicSpyMemcachedCli
 import org.greencheek.caching.herdcache.memcached.factory.MemcachedClientFactory;
 import org.greencheek.caching.herdcache.memcached.factory.SpyMemcachedClientFactory;
 import org.greencheek.caching.herdcache.memcached.factory.SpyMemcachedReferencedClientFactory;
+import org.greencheek.caching.herdcache.memcached.factory.TransitionReferencedClientFactory;
 
 import java.io.Serializable;
 
@@ -21,7 +22,8 @@ public class SpyMemcachedCache<V extends Serializable> extends BaseMemcachedCach
         if (config.resolveHostsFromDns()) {
             return new DynamicSpyMemcachedClientFactory<V>(config.getMemcachedHosts(),
                     config.getDurationForResolvingHostsFromDns(),config.getHostStringParser(),
-                    new SpyMemcachedReferencedClientFactory<V>(createMemcachedConnectionFactory(config)));
+                    TransitionReferencedClientFactory.create(
+                            new SpyMemcachedReferencedClientFactory<V>(createMemcachedConnectionFactory(config)),config));
         } else {
             return new SpyMemcachedClientFactory<V>(config.getMemcachedHosts(),
                     config.getDnsConnectionTimeout(),config.getHostStringParser(),
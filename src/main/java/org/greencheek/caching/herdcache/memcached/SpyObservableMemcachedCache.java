@@ -5,6 +5,7 @@ import org.greencheek.caching.herdcache.memcached.factory.DynamicSpyMemcachedCli
 import org.greencheek.caching.herdcache.memcached.factory.MemcachedClientFactory;
 import org.greencheek.caching.herdcache.memcached.factory.SpyMemcachedClientFactory;
 import org.greencheek.caching.herdcache.memcached.factory.SpyMemcachedReferencedClientFactory;
+import org.greencheek.caching.herdcache.memcached.factory.TransitionReferencedClientFactory;
 
 import java.io.Serializable;
 import java.time.Duration;
@@ -24,7 +25,8 @@ public class SpyObservableMemcachedCache<V extends Serializable> extends BaseObs
         MemcachedCacheConfig config = (MemcachedCacheConfig)cfg;
         if (config.resolveHostsFromDns()) {
             return new DynamicSpyMemcachedClientFactory<V>(config.getMemcachedHosts(),
-                    config.getDurationForResolvingHostsFromDns(),config.getHostStringParser(),new SpyMemcachedReferencedClientFactory<V>(createMemcachedConnectionFactory(config)));
+                    config.getDurationForResolvingHostsFromDns(),config.getHostStringParser(),TransitionReferencedClientFactory.create(
+                            new SpyMemcachedReferencedClientFactory<V>(createMemcachedConnectionFactory(config)),config));
         } else {
            return new SpyMemcachedClientFactory<V>(config.getMemcachedHosts(),
                     config.getDnsConnectionTimeout(),config.getHostStringParser(),
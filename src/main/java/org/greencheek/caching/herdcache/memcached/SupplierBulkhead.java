@@ -0,0 +1,135 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.greencheek.caching.herdcache.exceptions.SupplierConcurrencyLimitExceededException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of suppliers that are running at the same time; so that when memcached is unavailable,
+ * and every request is a miss, the backend the suppliers call is not overwhelmed.
+ *
+ * There is an optional limit for all the suppliers, and optional limits for groups of keys that share a prefix.
+ * A key is in the group of the longest prefix it starts with.  A supplier holds its slots until the future it
+ * returns completes.  When no slot is free the supplier waits, up to the max wait time, for one to be released;
+ * after which a {@link SupplierConcurrencyLimitExceededException} is thrown.
+ */
+class SupplierBulkhead {
+
+    private static class PrefixLimit {
+        private final String prefix;
+        private final Semaphore permits;
+
+        private PrefixLimit(String prefix, int limit) {
+            this.prefix = prefix;
+            this.permits = new Semaphore(limit);
+        }
+    }
+
+    private final Semaphore globalPermits;
+    private final List<PrefixLimit> prefixLimits;
+    private final long maxWaitInNanos;
+
+    /**
+     * @param globalLimit the max number of running suppliers, zero or less for no limit
+     * @param limitByKeyPrefix the max number of running suppliers for the keys starting with each prefix
+     * @param maxWait how long a supplier waits for a slot to be released
+     */
+    SupplierBulkhead(int globalLimit, Map<String,Integer> limitByKeyPrefix, Duration maxWait) {
+        this.globalPermits = globalLimit > 0 ? new Semaphore(globalLimit) : null;
+        List<PrefixLimit> limits = new ArrayList<>(limitByKeyPrefix.size());
+        for(Map.Entry<String,Integer> limit : limitByKeyPrefix.entrySet()) {
+            if(limit.getValue()!=null && limit.getValue() > 0) {
+                limits.add(new PrefixLimit(limit.getKey(), limit.getValue()));
+            }
+        }
+        // longest prefix first, so the most specific group is matched
+        limits.sort((a,b) -> b.prefix.length() - a.prefix.length());
+        this.prefixLimits = limits;
+        this.maxWaitInNanos = maxWait == null ? 0 : Math.max(0,maxWait.toNanos());
+    }
+
+    /**
+     * @return true if there is at least one limit to apply
+     */
+    boolean isLimiting() {
+        return globalPermits!=null || prefixLimits.size() > 0;
+    }
+
+    /**
+     * Runs the supplier once it has obtained a slot, and releases the slot when the supplier's future completes.
+     *
+     * @param key the key (before hashing) for which the supplier generates the value
+     * @throws SupplierConcurrencyLimitExceededException if a slot was not obtained within the max wait time
+     */
+    <V> ListenableFuture<V> execute(String key, Supplier<ListenableFuture<V>> supplier) {
+        final Semaphore prefixPermits = findPrefixPermits(key);
+        final long waitUntil = System.nanoTime() + maxWaitInNanos;
+
+        if(!acquire(globalPermits, waitUntil)) {
+            throw new SupplierConcurrencyLimitExceededException("Concurrent supplier limit reached, unable to generate value for key: " + key);
+        }
+
+        if(!acquire(prefixPermits, waitUntil)) {
+            release(globalPermits);
+            throw new SupplierConcurrencyLimitExceededException("Concurrent supplier limit reached for the group of key: " + key);
+        }
+
+        final ListenableFuture<V> future;
+        try {
+            future = supplier.get();
+        } catch (RuntimeException | Error e) {
+            release(prefixPermits);
+            release(globalPermits);
+            throw e;
+        }
+
+        if(future==null) {
+            release(prefixPermits);
+            release(globalPermits);
+        } else {
+            future.addListener(() -> {
+                release(prefixPermits);
+                release(globalPermits);
+            }, MoreExecutors.directExecutor());
+        }
+        return future;
+    }
+
+    private Semaphore findPrefixPermits(String key) {
+        for(PrefixLimit limit : prefixLimits) {
+            if(key.startsWith(limit.prefix)) {
+                return limit.permits;
+            }
+        }
+        return null;
+    }
+
+    private boolean acquire(Semaphore permits, long waitUntil) {
+        if(permits==null) {
+            return true;
+        }
+        if(permits.tryAcquire()) {
+            return true;
+        }
+        try {
+            return permits.tryAcquire(Math.max(0, waitUntil - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void release(Semaphore permits) {
+        if(permits!=null) {
+            permits.release();
+        }
+    }
+}
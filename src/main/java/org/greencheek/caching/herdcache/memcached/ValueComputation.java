@@ -0,0 +1,80 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.greencheek.caching.herdcache.Deadline;
+import org.greencheek.caching.herdcache.util.futures.AsyncSuppliers;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * The user supplied {@link Supplier} that generates a value, along with the max amount of time the
+ * generation of the value is allowed to take; and the deadline of the caller that requested the value.
+ * The deadline only bounds that caller's wait (and whether the supplier is started, if no other caller is waiting on it);
+ * the computation is shared with the other callers for the key, and is only abandoned after the timeout.
+ */
+class ValueComputation<V> implements Supplier<ListenableFuture<V>> {
+
+    public static final long NO_TIMEOUT = 0;
+
+    private final Supplier<ListenableFuture<V>> supplier;
+    private final long timeoutInNanos;
+    private final Deadline deadline;
+
+    private ValueComputation(Supplier<ListenableFuture<V>> supplier, long timeoutInNanos, Deadline deadline) {
+        this.supplier = supplier;
+        this.timeoutInNanos = timeoutInNanos;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @param supplier starts the generation of the value, returning the future for the value
+     * @param timeout the max time the value can take to be generated, zero for no limit
+     */
+    public static <V> ValueComputation<V> async(Supplier<ListenableFuture<V>> supplier, Duration timeout) {
+        return new ValueComputation<>(supplier, timeout == null ? NO_TIMEOUT : Math.max(NO_TIMEOUT, timeout.toNanos()),
+                Deadline.NONE);
+    }
+
+    /**
+     * @param supplier generates the value on the calling thread
+     * @param timeout the max time the value can take to be generated, zero for no limit
+     */
+    public static <V> ValueComputation<V> blocking(Supplier<V> supplier, Duration timeout) {
+        return async(AsyncSuppliers.immediate(supplier), timeout);
+    }
+
+    /**
+     * @return the computation, that only runs the supplier once it has obtained a slot from the bulkhead
+     */
+    public ValueComputation<V> limitedBy(SupplierBulkhead bulkhead, String key) {
+        return new ValueComputation<>(() -> bulkhead.execute(key, supplier), timeoutInNanos, deadline);
+    }
+
+    /**
+     * @return the computation, that is not started if the given deadline has passed
+     */
+    public ValueComputation<V> withDeadline(Deadline deadline) {
+        return new ValueComputation<>(supplier, timeoutInNanos, deadline);
+    }
+
+    @Override
+    public ListenableFuture<V> get() {
+        return supplier.get();
+    }
+
+    public boolean hasTimeout() {
+        return timeoutInNanos > NO_TIMEOUT;
+    }
+
+    /**
+     * @return the max time the value can take to be generated
+     */
+    public long getTimeoutInNanos() {
+        return timeoutInNanos;
+    }
+
+    public Deadline getDeadline() {
+        return deadline;
+    }
+}
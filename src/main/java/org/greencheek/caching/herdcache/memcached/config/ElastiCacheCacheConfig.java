@@ -34,6 +34,7 @@ public class ElastiCacheCacheConfig {
     private final int folsomConnections;
     private final long folsomRequestTimeout;
     private final int folsomOutstandingRequests;
+    private final boolean useFolsomValueCodecs;
 
     public ElastiCacheCacheConfig(MemcachedCacheConfig memcachedConf,
                                   String elastiCacheConfigHosts,
@@ -53,7 +54,8 @@ public class ElastiCacheCacheConfig {
                                   Charset folsomCharset,
                                   int folsomConnections,
                                   long folsomRequestTimeout,
-                                  int folsomMaxOutstandingRequests) {
+                                  int folsomMaxOutstandingRequests,
+                                  boolean useFolsomValueCodecs) {
         this.memcachedCacheConfig = memcachedConf;
         this.elastiCacheConfigHosts = elastiCacheConfigHosts;
         this.configPollingTime = configPollingTime;
@@ -75,6 +77,7 @@ public class ElastiCacheCacheConfig {
         this.folsomConnections = folsomConnections;
         this.folsomRequestTimeout = folsomRequestTimeout;
         this.folsomOutstandingRequests = folsomMaxOutstandingRequests;
+        this.useFolsomValueCodecs = useFolsomValueCodecs;
     }
 
     public MemcachedCacheConfig getMemcachedCacheConfig() {
@@ -152,4 +155,12 @@ public class ElastiCacheCacheConfig {
     public int getFolsomOutstandingRequests() {
         return folsomOutstandingRequests;
     }
+
+    /**
+     * Whether the folsom transcoder writes strings, byte arrays, boxed primitives and small string maps with
+     * the value codecs, rather than fst.  Changes the format of the values stored in memcached.
+     */
+    public boolean useFolsomValueCodecs() {
+        return useFolsomValueCodecs;
+    }
 }
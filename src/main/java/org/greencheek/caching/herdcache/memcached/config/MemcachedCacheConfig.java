@@ -1,5 +1,6 @@
 package org.greencheek.caching.herdcache.memcached.config;
 
+import com.googlecode.concurrentlinkedhashmap.Weigher;
 import net.spy.memcached.*;
 import net.spy.memcached.transcoders.Transcoder;
 import org.greencheek.caching.herdcache.memcached.config.hostparsing.HostStringParser;
@@ -10,6 +11,7 @@ import org.greencheek.caching.herdcache.memcached.spy.extensions.locator.Locator
 import rx.Scheduler;
 
 import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
@@ -52,6 +54,47 @@ public class MemcachedCacheConfig {
     private final boolean resolveHostsFromDns;
     private final Duration resolveHostsFromDnsEvery;
     private final ExecutorService listenerCallbackExecutor;
+    private final boolean useNonBlockingGet;
+    private final boolean useNearCache;
+    private final int nearCacheMaxWeightedCapacity;
+    private final Duration nearCacheTimeToLive;
+    private final Weigher<Object> nearCacheWeigher;
+    private final boolean useGetBatching;
+    private final Duration getBatchingWindow;
+    private final int getBatchingMaxBatchSize;
+    private final boolean useProbabilisticEarlyRecomputation;
+    private final double probabilisticEarlyRecomputationBeta;
+    private final StaleCacheStorageType staleCacheStorageType;
+    private final boolean useDistributedLease;
+    private final String distributedLeasePrefix;
+    private final Duration distributedLeaseTimeToLive;
+    private final Duration distributedLeasePollInterval;
+    private final Duration distributedLeaseMaxWait;
+    private final boolean useNegativeCaching;
+    private final Duration negativeCacheTimeToLive;
+    private final boolean useAdaptiveGetTimeout;
+    private final double adaptiveGetTimeoutMultiplier;
+    private final Duration adaptiveGetTimeoutMinimum;
+    private final int adaptiveGetTimeoutWindowSize;
+    private final boolean useHedgedReads;
+    private final double hedgedReadDelayPercentile;
+    private final Duration hedgedReadInitialDelay;
+    private final boolean useVirtualThreads;
+    private final boolean useWriteBehind;
+    private final int writeBehindMaxQueueSize;
+    private final int writeBehindMaxBatchSize;
+    private final Duration writeBehindFlushInterval;
+    private final boolean useQuietWrites;
+    private final Duration supplierTimeout;
+    private final int supplierConcurrencyLimit;
+    private final Map<String,Integer> supplierConcurrencyLimitByKeyPrefix;
+    private final Duration supplierConcurrencyLimitWait;
+    private final boolean useStaleIfError;
+    private final Duration staleIfErrorTimeToLive;
+    private final Duration topologyTransitionWindow;
+    private final Duration topologyTransitionCopyTimeToLive;
+    private final int supplierHandoffThreads;
+    private final int supplierHandoffQueueSize;
 
 
     public MemcachedCacheConfig(Duration timeToLive,
@@ -86,7 +129,48 @@ public class MemcachedCacheConfig {
                                 KeyValidationType keyValidationType,
                                 boolean resolveHostsFromDns,
                                 Duration resolveHostsFromDnsEvery,
-                                ExecutorService listenerCallbackExecutor) {
+                                ExecutorService listenerCallbackExecutor,
+                                boolean useNonBlockingGet,
+                                boolean useNearCache,
+                                int nearCacheMaxWeightedCapacity,
+                                Duration nearCacheTimeToLive,
+                                Weigher<Object> nearCacheWeigher,
+                                boolean useGetBatching,
+                                Duration getBatchingWindow,
+                                int getBatchingMaxBatchSize,
+                                boolean useProbabilisticEarlyRecomputation,
+                                double probabilisticEarlyRecomputationBeta,
+                                StaleCacheStorageType staleCacheStorageType,
+                                boolean useDistributedLease,
+                                String distributedLeasePrefix,
+                                Duration distributedLeaseTimeToLive,
+                                Duration distributedLeasePollInterval,
+                                Duration distributedLeaseMaxWait,
+                                boolean useNegativeCaching,
+                                Duration negativeCacheTimeToLive,
+                                boolean useAdaptiveGetTimeout,
+                                double adaptiveGetTimeoutMultiplier,
+                                Duration adaptiveGetTimeoutMinimum,
+                                int adaptiveGetTimeoutWindowSize,
+                                boolean useHedgedReads,
+                                double hedgedReadDelayPercentile,
+                                Duration hedgedReadInitialDelay,
+                                boolean useVirtualThreads,
+                                boolean useWriteBehind,
+                                int writeBehindMaxQueueSize,
+                                int writeBehindMaxBatchSize,
+                                Duration writeBehindFlushInterval,
+                                boolean useQuietWrites,
+                                Duration supplierTimeout,
+                                int supplierConcurrencyLimit,
+                                Map<String,Integer> supplierConcurrencyLimitByKeyPrefix,
+                                Duration supplierConcurrencyLimitWait,
+                                boolean useStaleIfError,
+                                Duration staleIfErrorTimeToLive,
+                                Duration topologyTransitionWindow,
+                                Duration topologyTransitionCopyTimeToLive,
+                                int supplierHandoffThreads,
+                                int supplierHandoffQueueSize) {
         this.timeToLive =  timeToLive;
         this.maxCapacity = maxCapacity;
         this.memcachedHosts = hosts;
@@ -121,6 +205,47 @@ public class MemcachedCacheConfig {
         this.resolveHostsFromDns = resolveHostsFromDns;
         this.resolveHostsFromDnsEvery = resolveHostsFromDnsEvery;
         this.listenerCallbackExecutor = listenerCallbackExecutor;
+        this.useNonBlockingGet = useNonBlockingGet;
+        this.useNearCache = useNearCache;
+        this.nearCacheMaxWeightedCapacity = nearCacheMaxWeightedCapacity;
+        this.nearCacheTimeToLive = nearCacheTimeToLive;
+        this.nearCacheWeigher = nearCacheWeigher;
+        this.useGetBatching = useGetBatching;
+        this.getBatchingWindow = getBatchingWindow;
+        this.getBatchingMaxBatchSize = getBatchingMaxBatchSize;
+        this.useProbabilisticEarlyRecomputation = useProbabilisticEarlyRecomputation;
+        this.probabilisticEarlyRecomputationBeta = probabilisticEarlyRecomputationBeta;
+        this.staleCacheStorageType = staleCacheStorageType;
+        this.useDistributedLease = useDistributedLease;
+        this.distributedLeasePrefix = distributedLeasePrefix;
+        this.distributedLeaseTimeToLive = distributedLeaseTimeToLive;
+        this.distributedLeasePollInterval = distributedLeasePollInterval;
+        this.distributedLeaseMaxWait = distributedLeaseMaxWait;
+        this.useNegativeCaching = useNegativeCaching;
+        this.negativeCacheTimeToLive = negativeCacheTimeToLive;
+        this.useAdaptiveGetTimeout = useAdaptiveGetTimeout;
+        this.adaptiveGetTimeoutMultiplier = adaptiveGetTimeoutMultiplier;
+        this.adaptiveGetTimeoutMinimum = adaptiveGetTimeoutMinimum;
+        this.adaptiveGetTimeoutWindowSize = adaptiveGetTimeoutWindowSize;
+        this.useHedgedReads = useHedgedReads;
+        this.hedgedReadDelayPercentile = hedgedReadDelayPercentile;
+        this.hedgedReadInitialDelay = hedgedReadInitialDelay;
+        this.useVirtualThreads = useVirtualThreads;
+        this.useWriteBehind = useWriteBehind;
+        this.writeBehindMaxQueueSize = writeBehindMaxQueueSize;
+        this.writeBehindMaxBatchSize = writeBehindMaxBatchSize;
+        this.writeBehindFlushInterval = writeBehindFlushInterval;
+        this.useQuietWrites = useQuietWrites;
+        this.supplierTimeout = supplierTimeout;
+        this.supplierConcurrencyLimit = supplierConcurrencyLimit;
+        this.supplierConcurrencyLimitByKeyPrefix = supplierConcurrencyLimitByKeyPrefix;
+        this.supplierConcurrencyLimitWait = supplierConcurrencyLimitWait;
+        this.useStaleIfError = useStaleIfError;
+        this.staleIfErrorTimeToLive = staleIfErrorTimeToLive;
+        this.topologyTransitionWindow = topologyTransitionWindow;
+        this.topologyTransitionCopyTimeToLive = topologyTransitionCopyTimeToLive;
+        this.supplierHandoffThreads = supplierHandoffThreads;
+        this.supplierHandoffQueueSize = supplierHandoffQueueSize;
     }
 
     public Duration getTimeToLive() {
@@ -273,4 +398,240 @@ public class MemcachedCacheConfig {
     }
 
     public ExecutorService getListenerCallbackExecutor() { return listenerCallbackExecutor; }
+
+    /**
+     * Should reads from memcached, performed during apply and get, be performed without blocking the calling thread.
+     * The lookup future is completed from the memcached client's callback thread; and the supplier is only
+     * submitted to the executor when the item is not found in memcached.
+     * @return
+     */
+    public boolean isUseNonBlockingGet() {
+        return useNonBlockingGet;
+    }
+
+    /**
+     * Should decoded values be held in an in process near cache, in front of memcached.
+     * @return
+     */
+    public boolean isUseNearCache() {
+        return useNearCache;
+    }
+
+    public int getNearCacheMaxWeightedCapacity() {
+        return nearCacheMaxWeightedCapacity;
+    }
+
+    /**
+     * The local time to live of items in the near cache.  This is capped by the time to live of the item in memcached
+     * @return
+     */
+    public Duration getNearCacheTimeToLive() {
+        return nearCacheTimeToLive;
+    }
+
+    public Weigher<Object> getNearCacheWeigher() {
+        return nearCacheWeigher;
+    }
+
+    /**
+     * Should concurrent single key gets be coalesced into memcached multi gets
+     * @return
+     */
+    public boolean isUseGetBatching() {
+        return useGetBatching;
+    }
+
+    public Duration getGetBatchingWindow() {
+        return getBatchingWindow;
+    }
+
+    public int getGetBatchingMaxBatchSize() {
+        return getBatchingMaxBatchSize;
+    }
+
+    /**
+     * Should items be stored with their creation time and compute time, so that apply can refresh them in
+     * the background, with increasing probability, as their expiry approaches (XFetch)
+     * @return
+     */
+    public boolean isUseProbabilisticEarlyRecomputation() {
+        return useProbabilisticEarlyRecomputation;
+    }
+
+    public double getProbabilisticEarlyRecomputationBeta() {
+        return probabilisticEarlyRecomputationBeta;
+    }
+
+    public StaleCacheStorageType getStaleCacheStorageType() {
+        return staleCacheStorageType;
+    }
+
+    /**
+     * Should a lease be taken out in memcached (an atomic add of a lease key), before the supplier is called on a cache miss.
+     * Only the holder of the lease calls the supplier, other instances wait for the value to appear, or return the stale value
+     * @return
+     */
+    public boolean isUseDistributedLease() {
+        return useDistributedLease;
+    }
+
+    public String getDistributedLeasePrefix() {
+        return distributedLeasePrefix;
+    }
+
+    public Duration getDistributedLeaseTimeToLive() {
+        return distributedLeaseTimeToLive;
+    }
+
+    public Duration getDistributedLeasePollInterval() {
+        return distributedLeasePollInterval;
+    }
+
+    public Duration getDistributedLeaseMaxWait() {
+        return distributedLeaseMaxWait;
+    }
+
+    /**
+     * Should a tombstone be stored in memcached, when the supplier returns null or a value that cannot be cached.
+     * Subsequent reads of the key return null, rather than calling the supplier, until the tombstone expires
+     * @return
+     */
+    public boolean isUseNegativeCaching() {
+        return useNegativeCaching;
+    }
+
+    public Duration getNegativeCacheTimeToLive() {
+        return negativeCacheTimeToLive;
+    }
+
+    /**
+     * Should the timeout of memcached gets adapt to the observed latency of the gets; being a multiple of the p99 latency,
+     * bounded by the adaptive minimum and the configured memcached get timeout
+     * @return
+     */
+    public boolean isUseAdaptiveGetTimeout() {
+        return useAdaptiveGetTimeout;
+    }
+
+    public double getAdaptiveGetTimeoutMultiplier() {
+        return adaptiveGetTimeoutMultiplier;
+    }
+
+    public Duration getAdaptiveGetTimeoutMinimum() {
+        return adaptiveGetTimeoutMinimum;
+    }
+
+    public int getAdaptiveGetTimeoutWindowSize() {
+        return adaptiveGetTimeoutWindowSize;
+    }
+
+    /**
+     * Should each item also be written to a replica on the next memcached node in the ring, and reads hedged against the
+     * replica.  If the read has not completed within the hedge delay, the replica is read, and the first value returned is used
+     * @return
+     */
+    public boolean isUseHedgedReads() {
+        return useHedgedReads;
+    }
+
+    public double getHedgedReadDelayPercentile() {
+        return hedgedReadDelayPercentile;
+    }
+
+    public Duration getHedgedReadInitialDelay() {
+        return hedgedReadInitialDelay;
+    }
+
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    public boolean isUseWriteBehind() {
+        return useWriteBehind;
+    }
+
+    public int getWriteBehindMaxQueueSize() {
+        return writeBehindMaxQueueSize;
+    }
+
+    public int getWriteBehindMaxBatchSize() {
+        return writeBehindMaxBatchSize;
+    }
+
+    public Duration getWriteBehindFlushInterval() {
+        return writeBehindFlushInterval;
+    }
+
+    public boolean isUseQuietWrites() {
+        return useQuietWrites;
+    }
+
+    public Duration getSupplierTimeout() {
+        return supplierTimeout;
+    }
+
+    public int getSupplierConcurrencyLimit() {
+        return supplierConcurrencyLimit;
+    }
+
+    public Map<String,Integer> getSupplierConcurrencyLimitByKeyPrefix() {
+        return supplierConcurrencyLimitByKeyPrefix;
+    }
+
+    public Duration getSupplierConcurrencyLimitWait() {
+        return supplierConcurrencyLimitWait;
+    }
+
+    /**
+     * Should the stale value be returned to the callers, when the supplier fails or times out.
+     * Requires the stale cache, stored under a separate key
+     * @return
+     */
+    public boolean isUseStaleIfError() {
+        return useStaleIfError;
+    }
+
+    /**
+     * When a stale value is returned due to an error, the stale value is re-written with this expiry.
+     * Zero leaves the expiry of the stale value unchanged
+     * @return
+     */
+    public Duration getStaleIfErrorTimeToLive() {
+        return staleIfErrorTimeToLive;
+    }
+
+    /**
+     * After the cluster's nodes change, for this long a miss on the new memcached client is read from the previous
+     * client, and a value found is copied to the new client.  Zero disables the transition window
+     * @return
+     */
+    public Duration getTopologyTransitionWindow() {
+        return topologyTransitionWindow;
+    }
+
+    /**
+     * The expiry of the values copied from the previous memcached client to the new client, during the transition
+     * window.  Zero uses the cache's time to live
+     * @return
+     */
+    public Duration getTopologyTransitionCopyTimeToLive() {
+        return topologyTransitionCopyTimeToLive;
+    }
+
+    /**
+     * The max number of threads the supplier is handed off to, when submitted from the memcached client's
+     * callback thread, or the scheduler's thread, to a direct executor
+     * @return
+     */
+    public int getSupplierHandoffThreads() {
+        return supplierHandoffThreads;
+    }
+
+    /**
+     * The max number of suppliers waiting for a handoff thread; further suppliers are rejected
+     * @return
+     */
+    public int getSupplierHandoffQueueSize() {
+        return supplierHandoffQueueSize;
+    }
 }
@@ -0,0 +1,13 @@
+package org.greencheek.caching.herdcache.memcached.config;
+
+/**
+ * How stale values are stored in memcached, when the stale cache is enabled.
+ * <ul>
+ *     <li>SEPARATE_KEY: the value is written a second time, under the stale cache key, with a longer expiry</li>
+ *     <li>ENVELOPE: the value is written once, within an envelope that holds the soft expiry of the value.
+ *     The memcached (hard) expiry is the time to live plus the stale cache additional time to live</li>
+ * </ul>
+ */
+public enum StaleCacheStorageType {
+    SEPARATE_KEY,ENVELOPE
+}
@@ -36,6 +36,7 @@ public class ElastiCacheCacheConfigBuilder extends MemcachedCacheConfigBuilder<E
     int folsomConnections = 10;
     long folsomRequestTimeout = 3000;
     int folsomMaxOutstandingRequests = 1000;
+    private boolean useFolsomValueCodecs = false;
 
 
     public ElastiCacheCacheConfigBuilder setElastiCacheConfigHosts(String urls) {
@@ -128,6 +129,11 @@ public class ElastiCacheCacheConfigBuilder extends MemcachedCacheConfigBuilder<E
         return self();
     }
 
+    public ElastiCacheCacheConfigBuilder setUseFolsomValueCodecs(boolean useValueCodecs) {
+        this.useFolsomValueCodecs = useValueCodecs;
+        return self();
+    }
+
     @Override
     public ElastiCacheCacheConfig buildElastiCacheMemcachedConfig() {
         return new ElastiCacheCacheConfig(buildMemcachedConfig(),
@@ -148,7 +154,8 @@ public class ElastiCacheCacheConfigBuilder extends MemcachedCacheConfigBuilder<E
                 folsomCharset,
                 folsomConnections,
                 folsomRequestTimeout,
-                folsomMaxOutstandingRequests
+                folsomMaxOutstandingRequests,
+                useFolsomValueCodecs
         );
 
     }
@@ -1,9 +1,12 @@
 package org.greencheek.caching.herdcache.memcached.config.builder;
 
+import com.googlecode.concurrentlinkedhashmap.Weigher;
+import com.googlecode.concurrentlinkedhashmap.Weighers;
 import net.spy.memcached.*;
 import net.spy.memcached.transcoders.Transcoder;
 import org.greencheek.caching.herdcache.memcached.config.KeyValidationType;
 import org.greencheek.caching.herdcache.memcached.config.MemcachedCacheConfig;
+import org.greencheek.caching.herdcache.memcached.config.StaleCacheStorageType;
 import org.greencheek.caching.herdcache.memcached.config.hostparsing.CommaSeparatedHostAndPortStringParser;
 import org.greencheek.caching.herdcache.memcached.config.hostparsing.HostStringParser;
 import org.greencheek.caching.herdcache.memcached.dns.lookup.AddressByNameHostResolver;
@@ -23,6 +26,8 @@ import rx.Scheduler;
 import rx.schedulers.Schedulers;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
@@ -66,6 +71,47 @@ public abstract class MemcachedCacheConfigBuilder<T extends MemcachedCacheConfig
     private Scheduler waitForMemcachedSetRxScheduler = Schedulers.io();
     private KeyValidationType keyValidationType = KeyValidationType.BY_HASHING_TYPE;
     private Optional<ExecutorService> listenerCallbackService = Optional.empty();
+    private boolean useNonBlockingGet = false;
+    private boolean useNearCache = false;
+    private int nearCacheMaxWeightedCapacity = 1000;
+    private Duration nearCacheTimeToLive = Duration.ofSeconds(1);
+    private Weigher<Object> nearCacheWeigher = Weighers.singleton();
+    private boolean useGetBatching = false;
+    private Duration getBatchingWindow = Duration.ofNanos(200000);
+    private int getBatchingMaxBatchSize = 64;
+    private boolean useProbabilisticEarlyRecomputation = false;
+    private double probabilisticEarlyRecomputationBeta = 1.0;
+    private StaleCacheStorageType staleCacheStorageType = StaleCacheStorageType.SEPARATE_KEY;
+    private boolean useDistributedLease = false;
+    private String distributedLeasePrefix = "lease";
+    private Duration distributedLeaseTimeToLive = Duration.ofSeconds(10);
+    private Duration distributedLeasePollInterval = Duration.ofMillis(50);
+    private Duration distributedLeaseMaxWait = Duration.ofSeconds(1);
+    private boolean useNegativeCaching = false;
+    private Duration negativeCacheTimeToLive = Duration.ofSeconds(5);
+    private boolean useAdaptiveGetTimeout = false;
+    private double adaptiveGetTimeoutMultiplier = 3.0;
+    private Duration adaptiveGetTimeoutMinimum = Duration.ofMillis(5);
+    private int adaptiveGetTimeoutWindowSize = 1000;
+    private boolean useHedgedReads = false;
+    private double hedgedReadDelayPercentile = 0.95;
+    private Duration hedgedReadInitialDelay = Duration.ofMillis(10);
+    private boolean useVirtualThreads = false;
+    private boolean useWriteBehind = false;
+    private int writeBehindMaxQueueSize = 10000;
+    private int writeBehindMaxBatchSize = 100;
+    private Duration writeBehindFlushInterval = Duration.ofMillis(5);
+    private boolean useQuietWrites = false;
+    private Duration supplierTimeout = Duration.ZERO;
+    private int supplierConcurrencyLimit = 0;
+    private Map<String,Integer> supplierConcurrencyLimitByKeyPrefix = Collections.emptyMap();
+    private Duration supplierConcurrencyLimitWait = Duration.ZERO;
+    private boolean useStaleIfError = false;
+    private Duration staleIfErrorTimeToLive = Duration.ZERO;
+    private Duration topologyTransitionWindow = Duration.ZERO;
+    private Duration topologyTransitionCopyTimeToLive = Duration.ZERO;
+    private int supplierHandoffThreads = 16;
+    private int supplierHandoffQueueSize = 1000;
 
     public MemcachedCacheConfig buildMemcachedConfig()
     {
@@ -91,7 +137,48 @@ public abstract class MemcachedCacheConfigBuilder<T extends MemcachedCacheConfig
                keyValidationType,
                resolveHostsFromDns,
                resolveHostsFromDnsEvery,
-               listenerCallbackService.orElse(null)
+               listenerCallbackService.orElse(null),
+               useNonBlockingGet,
+               useNearCache,
+               nearCacheMaxWeightedCapacity,
+               nearCacheTimeToLive,
+               nearCacheWeigher,
+               useGetBatching,
+               getBatchingWindow,
+               getBatchingMaxBatchSize,
+               useProbabilisticEarlyRecomputation,
+               probabilisticEarlyRecomputationBeta,
+               staleCacheStorageType,
+               useDistributedLease,
+               distributedLeasePrefix,
+               distributedLeaseTimeToLive,
+               distributedLeasePollInterval,
+               distributedLeaseMaxWait,
+               useNegativeCaching,
+               negativeCacheTimeToLive,
+               useAdaptiveGetTimeout,
+               adaptiveGetTimeoutMultiplier,
+               adaptiveGetTimeoutMinimum,
+               adaptiveGetTimeoutWindowSize,
+               useHedgedReads,
+               hedgedReadDelayPercentile,
+               hedgedReadInitialDelay,
+               useVirtualThreads,
+               useWriteBehind,
+               writeBehindMaxQueueSize,
+               writeBehindMaxBatchSize,
+               writeBehindFlushInterval,
+               useQuietWrites,
+               supplierTimeout,
+               supplierConcurrencyLimit,
+               supplierConcurrencyLimitByKeyPrefix,
+               supplierConcurrencyLimitWait,
+               useStaleIfError,
+               staleIfErrorTimeToLive,
+               topologyTransitionWindow,
+               topologyTransitionCopyTimeToLive,
+               supplierHandoffThreads,
+               supplierHandoffQueueSize
        );
     }
 
@@ -302,4 +389,209 @@ public abstract class MemcachedCacheConfigBuilder<T extends MemcachedCacheConfig
         this.listenerCallbackService = executorService;
         return self();
     }
+
+    public T setUseNonBlockingGet(boolean useNonBlockingGet) {
+        this.useNonBlockingGet = useNonBlockingGet;
+        return self();
+    }
+
+    public T setUseNearCache(boolean useNearCache) {
+        this.useNearCache = useNearCache;
+        return self();
+    }
+
+    public T setNearCacheMaxWeightedCapacity(int nearCacheMaxWeightedCapacity) {
+        this.nearCacheMaxWeightedCapacity = nearCacheMaxWeightedCapacity;
+        return self();
+    }
+
+    public T setNearCacheTimeToLive(Duration nearCacheTimeToLive) {
+        this.nearCacheTimeToLive = nearCacheTimeToLive;
+        return self();
+    }
+
+    public T setNearCacheWeigher(Weigher<Object> nearCacheWeigher) {
+        this.nearCacheWeigher = nearCacheWeigher;
+        return self();
+    }
+
+    public T setUseGetBatching(boolean useGetBatching) {
+        this.useGetBatching = useGetBatching;
+        return self();
+    }
+
+    public T setGetBatchingWindow(Duration getBatchingWindow) {
+        this.getBatchingWindow = getBatchingWindow;
+        return self();
+    }
+
+    public T setGetBatchingMaxBatchSize(int getBatchingMaxBatchSize) {
+        this.getBatchingMaxBatchSize = getBatchingMaxBatchSize;
+        return self();
+    }
+
+    public T setUseProbabilisticEarlyRecomputation(boolean useProbabilisticEarlyRecomputation) {
+        this.useProbabilisticEarlyRecomputation = useProbabilisticEarlyRecomputation;
+        return self();
+    }
+
+    public T setProbabilisticEarlyRecomputationBeta(double probabilisticEarlyRecomputationBeta) {
+        this.probabilisticEarlyRecomputationBeta = probabilisticEarlyRecomputationBeta;
+        return self();
+    }
+
+    public T setStaleCacheStorageType(StaleCacheStorageType staleCacheStorageType) {
+        this.staleCacheStorageType = staleCacheStorageType;
+        return self();
+    }
+
+    public T setUseDistributedLease(boolean useDistributedLease) {
+        this.useDistributedLease = useDistributedLease;
+        return self();
+    }
+
+    public T setDistributedLeasePrefix(String distributedLeasePrefix) {
+        this.distributedLeasePrefix = distributedLeasePrefix;
+        return self();
+    }
+
+    public T setDistributedLeaseTimeToLive(Duration distributedLeaseTimeToLive) {
+        this.distributedLeaseTimeToLive = distributedLeaseTimeToLive;
+        return self();
+    }
+
+    public T setDistributedLeasePollInterval(Duration distributedLeasePollInterval) {
+        this.distributedLeasePollInterval = distributedLeasePollInterval;
+        return self();
+    }
+
+    public T setDistributedLeaseMaxWait(Duration distributedLeaseMaxWait) {
+        this.distributedLeaseMaxWait = distributedLeaseMaxWait;
+        return self();
+    }
+
+    public T setUseNegativeCaching(boolean useNegativeCaching) {
+        this.useNegativeCaching = useNegativeCaching;
+        return self();
+    }
+
+    public T setNegativeCacheTimeToLive(Duration negativeCacheTimeToLive) {
+        this.negativeCacheTimeToLive = negativeCacheTimeToLive;
+        return self();
+    }
+
+    public T setUseAdaptiveGetTimeout(boolean useAdaptiveGetTimeout) {
+        this.useAdaptiveGetTimeout = useAdaptiveGetTimeout;
+        return self();
+    }
+
+    public T setAdaptiveGetTimeoutMultiplier(double adaptiveGetTimeoutMultiplier) {
+        this.adaptiveGetTimeoutMultiplier = adaptiveGetTimeoutMultiplier;
+        return self();
+    }
+
+    public T setAdaptiveGetTimeoutMinimum(Duration adaptiveGetTimeoutMinimum) {
+        this.adaptiveGetTimeoutMinimum = adaptiveGetTimeoutMinimum;
+        return self();
+    }
+
+    public T setAdaptiveGetTimeoutWindowSize(int adaptiveGetTimeoutWindowSize) {
+        this.adaptiveGetTimeoutWindowSize = adaptiveGetTimeoutWindowSize;
+        return self();
+    }
+
+    public T setUseHedgedReads(boolean useHedgedReads) {
+        this.useHedgedReads = useHedgedReads;
+        return self();
+    }
+
+    public T setHedgedReadDelayPercentile(double hedgedReadDelayPercentile) {
+        this.hedgedReadDelayPercentile = hedgedReadDelayPercentile;
+        return self();
+    }
+
+    public T setHedgedReadInitialDelay(Duration hedgedReadInitialDelay) {
+        this.hedgedReadInitialDelay = hedgedReadInitialDelay;
+        return self();
+    }
+
+    public T setUseVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+        return self();
+    }
+
+    public T setUseWriteBehind(boolean useWriteBehind) {
+        this.useWriteBehind = useWriteBehind;
+        return self();
+    }
+
+    public T setWriteBehindMaxQueueSize(int writeBehindMaxQueueSize) {
+        this.writeBehindMaxQueueSize = writeBehindMaxQueueSize;
+        return self();
+    }
+
+    public T setWriteBehindMaxBatchSize(int writeBehindMaxBatchSize) {
+        this.writeBehindMaxBatchSize = writeBehindMaxBatchSize;
+        return self();
+    }
+
+    public T setWriteBehindFlushInterval(Duration writeBehindFlushInterval) {
+        this.writeBehindFlushInterval = writeBehindFlushInterval;
+        return self();
+    }
+
+    public T setUseQuietWrites(boolean useQuietWrites) {
+        this.useQuietWrites = useQuietWrites;
+        return self();
+    }
+
+    public T setSupplierTimeout(Duration supplierTimeout) {
+        this.supplierTimeout = supplierTimeout;
+        return self();
+    }
+
+    public T setSupplierConcurrencyLimit(int supplierConcurrencyLimit) {
+        this.supplierConcurrencyLimit = supplierConcurrencyLimit;
+        return self();
+    }
+
+    public T setSupplierConcurrencyLimitByKeyPrefix(Map<String,Integer> supplierConcurrencyLimitByKeyPrefix) {
+        this.supplierConcurrencyLimitByKeyPrefix = supplierConcurrencyLimitByKeyPrefix;
+        return self();
+    }
+
+    public T setSupplierConcurrencyLimitWait(Duration supplierConcurrencyLimitWait) {
+        this.supplierConcurrencyLimitWait = supplierConcurrencyLimitWait;
+        return self();
+    }
+
+    public T setUseStaleIfError(boolean useStaleIfError) {
+        this.useStaleIfError = useStaleIfError;
+        return self();
+    }
+
+    public T setStaleIfErrorTimeToLive(Duration staleIfErrorTimeToLive) {
+        this.staleIfErrorTimeToLive = staleIfErrorTimeToLive;
+        return self();
+    }
+
+    public T setTopologyTransitionWindow(Duration topologyTransitionWindow) {
+        this.topologyTransitionWindow = topologyTransitionWindow;
+        return self();
+    }
+
+    public T setTopologyTransitionCopyTimeToLive(Duration topologyTransitionCopyTimeToLive) {
+        this.topologyTransitionCopyTimeToLive = topologyTransitionCopyTimeToLive;
+        return self();
+    }
+
+    public T setSupplierHandoffThreads(int supplierHandoffThreads) {
+        this.supplierHandoffThreads = supplierHandoffThreads;
+        return self();
+    }
+
+    public T setSupplierHandoffQueueSize(int supplierHandoffQueueSize) {
+        this.supplierHandoffQueueSize = supplierHandoffQueueSize;
+        return self();
+    }
 }
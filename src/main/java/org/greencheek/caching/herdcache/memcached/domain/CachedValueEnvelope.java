@@ -0,0 +1,61 @@
+package org.greencheek.caching.herdcache.memcached.domain;
+
+import java.io.Serializable;
+
+/**
+ * Wraps the value stored in memcached, with the time at which the value was created,
+ * the time it took to compute the value, and the time at which the value expires.
+ */
+public class CachedValueEnvelope<V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final long NO_EXPIRY = 0;
+
+    private final V value;
+    private final long createdAtMillis;
+    private final long computeDurationMillis;
+    private final long expiresAtMillis;
+
+    public CachedValueEnvelope(V value, long createdAtMillis, long computeDurationMillis, long expiresAtMillis) {
+        this.value = value;
+        this.createdAtMillis = createdAtMillis;
+        this.computeDurationMillis = computeDurationMillis;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public V getValue() {
+        return value;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public long getComputeDurationMillis() {
+        return computeDurationMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public boolean hasExpired(long nowMillis) {
+        return expiresAtMillis != NO_EXPIRY && nowMillis >= expiresAtMillis;
+    }
+
+    /**
+     * XFetch (Optimal Probabilistic Cache Stampede Prevention, Vattani et al).  Returns true, with an
+     * increasing probability as the expiry approaches, if the value should be recomputed before it expires.
+     * The probability is scaled by the time it took to compute the value, and by beta.
+     *
+     * @param nowMillis the current time
+     * @param beta &gt; 1.0 favours earlier recomputation, &lt; 1.0 later recomputation
+     * @param random a random number in the range (0,1]
+     */
+    public boolean shouldRecomputeEarly(long nowMillis, double beta, double random) {
+        if(expiresAtMillis == NO_EXPIRY) {
+            return false;
+        }
+        return nowMillis - (computeDurationMillis * beta * Math.log(random)) >= expiresAtMillis;
+    }
+}
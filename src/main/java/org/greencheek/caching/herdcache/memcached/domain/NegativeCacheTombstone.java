@@ -0,0 +1,10 @@
+package org.greencheek.caching.herdcache.memcached.domain;
+
+/**
+ * Marker stored in memcached, in place of a value, to record that the supplier returned null or a
+ * value that could not be cached.  Being an enum, the marker serializes to a few bytes and
+ * deserializes to the same instance.
+ */
+public enum NegativeCacheTombstone {
+    INSTANCE
+}
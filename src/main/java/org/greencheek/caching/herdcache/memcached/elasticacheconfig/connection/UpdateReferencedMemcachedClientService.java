@@ -121,6 +121,7 @@ public class UpdateReferencedMemcachedClientService implements UpdateClientServi
                 referencedClient = SpyReferencedClient.UNAVAILABLE_REFERENCE_CLIENT;
             }
         }
+        memcachedConnectionFactory.shutdown();
     }
 
     private List<InetSocketAddress> getSocketAddresses(List<ElastiCacheHost> hosts) {
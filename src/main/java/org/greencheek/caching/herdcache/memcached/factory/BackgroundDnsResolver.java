@@ -175,6 +175,7 @@ public class BackgroundDnsResolver implements ReferencedClientHolder {
         scheduledExecutorService.shutdownNow();
         shutdownOldClientExecutor.shutdownNow();
         client.get().client.shutdown();
+        connnectionFactory.shutdown();
     }
 
     private static class Holder {
@@ -1,6 +1,10 @@
 package org.greencheek.caching.herdcache.memcached.factory;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.spotify.folsom.MemcacheClient;
+import com.spotify.folsom.MemcacheStatus;
 import net.spy.memcached.MemcachedClientIF;
 import net.spy.memcached.OperationTimeoutException;
 import net.spy.memcached.internal.CheckedOperationTimeoutException;
@@ -8,7 +12,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -60,12 +68,42 @@ public class FolsomReferencedClient implements ReferencedClient {
         return value;
     }
 
+    @Override
+    public ListenableFuture<Object> getAsync(String key) {
+        return client.get(key);
+    }
+
+    /**
+     * Folsom's multi get returns the values in the order of the requested keys, with null for
+     * a key that was not found.
+     */
+    @Override
+    public ListenableFuture<Map<String,Object>> getBulkAsync(Collection<String> keys) {
+        final List<String> orderedKeys = new ArrayList<>(keys);
+        return Futures.transform(client.get(orderedKeys), (List<Object> values) -> {
+            Map<String,Object> found = new HashMap<>(orderedKeys.size());
+            for(int i=0;i<orderedKeys.size();i++) {
+                Object value = values.get(i);
+                if(value!=null) {
+                    found.put(orderedKeys.get(i),value);
+                }
+            }
+            return found;
+        }, MoreExecutors.directExecutor());
+    }
+
     @Override
     public Future set(String key, int ttlInSeconds, Object value) {
 
         return client.set(key, value, ttlInSeconds);
     }
 
+    @Override
+    public ListenableFuture<Boolean> add(String key, int ttlInSeconds, Object value) {
+        return Futures.transform(client.add(key, value, ttlInSeconds),
+                (MemcacheStatus status) -> status == MemcacheStatus.OK, MoreExecutors.directExecutor());
+    }
+
     @Override
     public Future delete(String key) {
         return client.delete(key);
@@ -7,6 +7,7 @@ import net.spy.memcached.ConnectionFactoryBuilder;
 import org.greencheek.caching.herdcache.memcached.config.ElastiCacheCacheConfig;
 import org.greencheek.caching.herdcache.memcached.folsom.transcoder.FastTranscoder;
 import org.greencheek.caching.herdcache.memcached.folsom.transcoder.StringTranscoder;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs.ValueCodecRegistry;
 
 import java.net.InetSocketAddress;
 import java.util.List;
@@ -37,7 +38,8 @@ public class FolsomReferencedClientFactory<V> implements ReferencedClientFactory
             builder = new MemcacheClientBuilder<>(new StringTranscoder(config.getFolsomStringClientCharset()));
 
         } else {
-            builder = new MemcacheClientBuilder(new FastTranscoder());
+            builder = new MemcacheClientBuilder(new FastTranscoder(true,
+                    config.useFolsomValueCodecs() ? ValueCodecRegistry.EXTENDED : null));
         }
 
         builder = builder.withAddresses(hosts)
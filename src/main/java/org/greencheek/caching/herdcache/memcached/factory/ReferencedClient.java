@@ -1,7 +1,15 @@
 package org.greencheek.caching.herdcache.memcached.factory;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -14,7 +22,62 @@ public interface ReferencedClient {
     List<InetSocketAddress> getResolvedHosts();
 
     Object get(String key, long time,TimeUnit unit);
+
+    /**
+     * Requests the value for the given key, without blocking the calling thread.
+     * The returned future is completed from the memcached client's callback thread.
+     * If the item does not exist in memcached, the future is completed with null.
+     *
+     * @param key the key to look up
+     * @return future that is completed with the value, null, or the exception raised by the client.
+     *         By default, the future fails with an {@link UnsupportedOperationException}; a client implemented
+     *         before getAsync was added has no non blocking get to call.
+     */
+    default ListenableFuture<Object> getAsync(String key) {
+        return Futures.immediateFailedFuture(new UnsupportedOperationException(getClass().getName() +
+                " does not implement getAsync; which is required by useNonBlockingGet, batched gets and hedged reads"));
+    }
+
+    /**
+     * Requests the values for the given keys in a single multi get, without blocking the calling thread.
+     * The keys are split by the client per owning memcached node, and each node is queried in parallel.
+     * The returned map only contains the keys that were found in memcached.
+     *
+     * @param keys the keys to look up
+     * @return future that is completed with the found key/values, or the exception raised by the client.
+     *         By default, a {@link #getAsync(String)} is made for each key.
+     */
+    default ListenableFuture<Map<String,Object>> getBulkAsync(Collection<String> keys) {
+        final List<String> orderedKeys = new ArrayList<>(keys);
+        List<ListenableFuture<Object>> lookups = new ArrayList<>(orderedKeys.size());
+        for(String key : orderedKeys) {
+            lookups.add(getAsync(key));
+        }
+        return Futures.transform(Futures.allAsList(lookups), values -> {
+            Map<String,Object> found = new HashMap<>(values.size() * 2);
+            for(int i=0;i<values.size();i++) {
+                if(values.get(i)!=null) {
+                    found.put(orderedKeys.get(i), values.get(i));
+                }
+            }
+            return found;
+        }, MoreExecutors.directExecutor());
+    }
+
     Future set(String key, int ttlInSeconds, Object value);
+
+    /**
+     * Stores the value against the key, only if the key does not already exist in memcached.
+     *
+     * @return future that is completed with true if the value was stored, false if the key already existed.
+     *         By default, the future fails with an {@link UnsupportedOperationException}; a set cannot stand in
+     *         for an add, as it does not tell whether the key existed.
+     */
+    default ListenableFuture<Boolean> add(String key, int ttlInSeconds, Object value) {
+        return Futures.immediateFailedFuture(new UnsupportedOperationException(getClass().getName() +
+                " does not implement add; which is required by useDistributedLease"));
+    }
+
     Future delete(String key);
     Future flush();
 
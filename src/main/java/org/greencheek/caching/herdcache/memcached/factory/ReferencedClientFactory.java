@@ -8,4 +8,10 @@ import java.util.List;
  */
 public interface ReferencedClientFactory<V> {
     ReferencedClient createClient(List<InetSocketAddress> resolvedHosts);
+
+    /**
+     * Called by the holder of the clients, when it is shutdown.  Releases the factory's resources, and shuts down
+     * any client the factory is still keeping open.
+     */
+    default void shutdown() {}
 }
@@ -1,14 +1,24 @@
 package org.greencheek.caching.herdcache.memcached.factory;
 
+import com.google.common.util.concurrent.JdkFutureAdapters;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import net.spy.memcached.MemcachedClientIF;
 import net.spy.memcached.OperationTimeoutException;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.internal.BulkGetFuture;
 import net.spy.memcached.internal.CheckedOperationTimeoutException;
+import net.spy.memcached.internal.GetFuture;
+import net.spy.memcached.internal.OperationFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -62,11 +72,71 @@ public class SpyReferencedClient<V> implements ReferencedClient {
         return value;
     }
 
+    @Override
+    public ListenableFuture<Object> getAsync(String key) {
+        Future<Object> future = client.asyncGet(key);
+        if(future instanceof GetFuture) {
+            final SettableFuture<Object> promise = SettableFuture.create();
+            ((GetFuture<Object>)future).addListener(completed -> {
+                try {
+                    promise.set(completed.get());
+                } catch (ExecutionException e) {
+                    promise.setException(e.getCause() == null ? e : e.getCause());
+                } catch (Throwable e) {
+                    promise.setException(e);
+                }
+            });
+            return promise;
+        } else {
+            return JdkFutureAdapters.listenInPoolThread(future);
+        }
+    }
+
+    @Override
+    public ListenableFuture<Map<String,Object>> getBulkAsync(Collection<String> keys) {
+        BulkFuture<Map<String,Object>> future = client.asyncGetBulk(keys);
+        if(future instanceof BulkGetFuture) {
+            final SettableFuture<Map<String,Object>> promise = SettableFuture.create();
+            ((BulkGetFuture<Object>)future).addListener(completed -> {
+                try {
+                    promise.set((Map<String,Object>)completed.get());
+                } catch (ExecutionException e) {
+                    promise.setException(e.getCause() == null ? e : e.getCause());
+                } catch (Throwable e) {
+                    promise.setException(e);
+                }
+            });
+            return promise;
+        } else {
+            return JdkFutureAdapters.listenInPoolThread(future);
+        }
+    }
+
     @Override
     public Future set(String key, int entryTTLInSeconds, Object value) {
         return client.set(key, entryTTLInSeconds, value);
     }
 
+    @Override
+    public ListenableFuture<Boolean> add(String key, int entryTTLInSeconds, Object value) {
+        Future<Boolean> future = client.add(key, entryTTLInSeconds, value);
+        if(future instanceof OperationFuture) {
+            final SettableFuture<Boolean> promise = SettableFuture.create();
+            ((OperationFuture<Boolean>)future).addListener(completed -> {
+                try {
+                    promise.set((Boolean)completed.get());
+                } catch (ExecutionException e) {
+                    promise.setException(e.getCause() == null ? e : e.getCause());
+                } catch (Throwable e) {
+                    promise.setException(e);
+                }
+            });
+            return promise;
+        } else {
+            return JdkFutureAdapters.listenInPoolThread(future);
+        }
+    }
+
     @Override
     public Future delete(String key) {
         return client.delete(key);
@@ -0,0 +1,323 @@
+package org.greencheek.caching.herdcache.memcached.factory;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+import org.greencheek.caching.herdcache.memcached.util.CacheMetricStrings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The client for the cluster's current nodes, that for a window after the cluster's nodes have changed reads
+ * the keys it does not have from the client of the previous nodes.  A value found by the previous client is
+ * copied, asynchronously, to the current client (with an add, so a value that has since been written is not
+ * replaced).  Deletes and flushes are sent to both clients during the window, so that a removed item is not
+ * read back from the previous client.
+ *
+ * Created by {@link TransitionReferencedClientFactory}, which keeps the previous client from being shutdown
+ * until the window has ended; or until the factory is shutdown.
+ */
+public class TransitionReferencedClient implements ReferencedClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransitionReferencedClient.class);
+
+    private final ReferencedClient client;
+    private final ReferencedClient previousClient;
+    private final long transitionEndsAtNanos;
+    private final int copyTimeToLiveInSeconds;
+    private final MetricRecorder metricRecorder;
+    private final ScheduledExecutorService shutdownScheduler;
+
+    private volatile boolean retained = false;
+    private volatile long retainedUntilNanos;
+    private volatile boolean isShutdown = false;
+    private final AtomicBoolean isClosed = new AtomicBoolean(false);
+
+    /**
+     * @param client The client for the cluster's current nodes
+     * @param previousClient The client for the previous nodes, or null if there is no transition
+     * @param transitionEndsAtNanos The {@link System#nanoTime()} at which the previous client is no longer read
+     * @param copyTimeToLiveInSeconds The expiry of the values copied to the current client
+     * @param shutdownScheduler Runs the shutdown of the client, when it is shutdown whilst still being read
+     *                          as the previous client of another
+     */
+    TransitionReferencedClient(ReferencedClient client, ReferencedClient previousClient,
+                               long transitionEndsAtNanos, int copyTimeToLiveInSeconds,
+                               MetricRecorder metricRecorder, ScheduledExecutorService shutdownScheduler) {
+        this.client = client;
+        this.previousClient = previousClient;
+        this.transitionEndsAtNanos = transitionEndsAtNanos;
+        this.copyTimeToLiveInSeconds = copyTimeToLiveInSeconds;
+        this.metricRecorder = metricRecorder;
+        this.shutdownScheduler = shutdownScheduler;
+    }
+
+    /**
+     * Is the previous client still to be read
+     */
+    public boolean isInTransition() {
+        return previousClient != null && System.nanoTime() - transitionEndsAtNanos < 0;
+    }
+
+    /**
+     * The client for the cluster's current nodes
+     */
+    ReferencedClient getClient() {
+        return client;
+    }
+
+    boolean isShutdown() {
+        return isShutdown;
+    }
+
+    /**
+     * Has the client for the cluster's current nodes been shutdown
+     */
+    boolean isClosed() {
+        return isClosed.get();
+    }
+
+    /**
+     * Shuts down the client for the cluster's current nodes now; whether or not it is still retained
+     */
+    void close() {
+        if (isClosed.compareAndSet(false, true)) {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * Keeps the client from being shutdown, before the given {@link System#nanoTime()}, as it is the
+     * previous client of another.
+     */
+    void retainUntil(long nanos) {
+        retainedUntilNanos = nanos;
+        retained = true;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return client.isAvailable();
+    }
+
+    @Override
+    public List<InetSocketAddress> getResolvedHosts() {
+        return client.getResolvedHosts();
+    }
+
+    @Override
+    public Object get(String key, long time, TimeUnit unit) {
+        Object value = client.get(key, time, unit);
+        if (value != null || !isInTransition()) {
+            return value;
+        }
+
+        metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_TRANSITION_READS_COUNTER);
+        value = previousClient.get(key, time, unit);
+        if (value != null) {
+            copyToClient(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public ListenableFuture<Object> getAsync(String key) {
+        ListenableFuture<Object> future = client.getAsync(key);
+        if (!isInTransition()) {
+            return future;
+        }
+
+        final SettableFuture<Object> promise = SettableFuture.create();
+        Futures.addCallback(future, new FutureCallback<Object>() {
+            @Override
+            public void onSuccess(Object value) {
+                if (value != null || !isInTransition()) {
+                    promise.set(value);
+                } else {
+                    getFromPreviousClient(key, promise);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                promise.setException(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return promise;
+    }
+
+    private void getFromPreviousClient(String key, SettableFuture<Object> promise) {
+        metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_TRANSITION_READS_COUNTER);
+        ListenableFuture<Object> previous;
+        try {
+            previous = previousClient.getAsync(key);
+        } catch (Throwable e) {
+            logger.debug("Unable to read key {} from the previous memcached client", key, e);
+            promise.set(null);
+            return;
+        }
+
+        Futures.addCallback(previous, new FutureCallback<Object>() {
+            @Override
+            public void onSuccess(Object value) {
+                if (value != null) {
+                    copyToClient(key, value);
+                }
+                promise.set(value);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                logger.debug("Unable to read key {} from the previous memcached client", key, t);
+                promise.set(null);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public ListenableFuture<Map<String, Object>> getBulkAsync(Collection<String> keys) {
+        ListenableFuture<Map<String, Object>> future = client.getBulkAsync(keys);
+        if (!isInTransition()) {
+            return future;
+        }
+
+        final SettableFuture<Map<String, Object>> promise = SettableFuture.create();
+        Futures.addCallback(future, new FutureCallback<Map<String, Object>>() {
+            @Override
+            public void onSuccess(Map<String, Object> values) {
+                List<String> missing = new ArrayList<>();
+                for (String key : keys) {
+                    if (values == null || values.get(key) == null) {
+                        missing.add(key);
+                    }
+                }
+
+                if (missing.isEmpty() || !isInTransition()) {
+                    promise.set(values);
+                } else {
+                    getBulkFromPreviousClient(missing, values, promise);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                promise.setException(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return promise;
+    }
+
+    private void getBulkFromPreviousClient(List<String> keys, Map<String, Object> found,
+                                           SettableFuture<Map<String, Object>> promise) {
+        for (int i = 0; i < keys.size(); i++) {
+            metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_TRANSITION_READS_COUNTER);
+        }
+
+        ListenableFuture<Map<String, Object>> previous;
+        try {
+            previous = previousClient.getBulkAsync(keys);
+        } catch (Throwable e) {
+            logger.debug("Unable to read keys from the previous memcached client", e);
+            promise.set(found);
+            return;
+        }
+
+        Futures.addCallback(previous, new FutureCallback<Map<String, Object>>() {
+            @Override
+            public void onSuccess(Map<String, Object> previousValues) {
+                Map<String, Object> values = found == null ? new HashMap<>() : new HashMap<>(found);
+                if (previousValues != null) {
+                    for (Map.Entry<String, Object> entry : previousValues.entrySet()) {
+                        if (entry.getValue() != null) {
+                            values.put(entry.getKey(), entry.getValue());
+                            copyToClient(entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
+                promise.set(values);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                logger.debug("Unable to read keys from the previous memcached client", t);
+                promise.set(found);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private void copyToClient(String key, Object value) {
+        try {
+            client.add(key, copyTimeToLiveInSeconds, value);
+            metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_TRANSITION_COPIES_COUNTER);
+        } catch (Throwable e) {
+            logger.debug("Unable to copy key {} from the previous memcached client", key, e);
+        }
+    }
+
+    @Override
+    public Future set(String key, int ttlInSeconds, Object value) {
+        return client.set(key, ttlInSeconds, value);
+    }
+
+    @Override
+    public ListenableFuture<Boolean> add(String key, int ttlInSeconds, Object value) {
+        return client.add(key, ttlInSeconds, value);
+    }
+
+    @Override
+    public Future delete(String key) {
+        if (isInTransition()) {
+            try {
+                previousClient.delete(key);
+            } catch (Throwable e) {
+                logger.debug("Unable to delete key {} from the previous memcached client", key, e);
+            }
+        }
+        return client.delete(key);
+    }
+
+    @Override
+    public Future flush() {
+        if (isInTransition()) {
+            try {
+                previousClient.flush();
+            } catch (Throwable e) {
+                logger.debug("Unable to flush the previous memcached client", e);
+            }
+        }
+        return client.flush();
+    }
+
+    /**
+     * Shuts down the client; once it is no longer read as the previous client of another.
+     */
+    @Override
+    public void shutdown() {
+        isShutdown = true;
+        long remainingNanos = retained ? retainedUntilNanos - System.nanoTime() : 0;
+        if (remainingNanos > 0) {
+            try {
+                shutdownScheduler.schedule(this::close, remainingNanos, TimeUnit.NANOSECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                logger.debug("Unable to schedule shutdown of memcached client, shutting down now");
+            }
+        }
+        close();
+    }
+}
@@ -0,0 +1,107 @@
+package org.greencheek.caching.herdcache.memcached.factory;
+
+import org.greencheek.caching.herdcache.memcached.config.MemcachedCacheConfig;
+import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+import org.greencheek.caching.herdcache.util.DurationToSeconds;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the clients as {@link TransitionReferencedClient}s.  When a client is created for the cluster's new nodes
+ * (by the {@link BackgroundDnsResolver}, or the ElastiCache configuration polling), the previously created client is
+ * read for the keys the new client does not have, for the transition window.  The previous client is not shutdown
+ * until the window has ended.
+ *
+ * The holder of the clients shuts down the factory when it is shutdown ({@link #shutdown()}); the clients that are
+ * still open, including those retained as the previous client of another, are then shutdown immediately.
+ */
+public class TransitionReferencedClientFactory<V> implements ReferencedClientFactory<V> {
+
+    private static final ThreadFactory DEFAULT_THREAD_FACTORY = (r) -> {
+        final Thread t = new Thread(r, "TransitionClientShutdown");
+        t.setDaemon(true);
+        return t;
+    };
+
+    private final ReferencedClientFactory<V> factory;
+    private final long transitionWindowNanos;
+    private final int copyTimeToLiveInSeconds;
+    private final MetricRecorder metricRecorder;
+    private final ScheduledExecutorService shutdownScheduler = Executors.newSingleThreadScheduledExecutor(DEFAULT_THREAD_FACTORY);
+
+    private final List<TransitionReferencedClient> openClients = new ArrayList<>();
+
+    private TransitionReferencedClient currentClient = null;
+    private boolean isShutdown = false;
+
+    public TransitionReferencedClientFactory(ReferencedClientFactory<V> factory, Duration transitionWindow,
+                                             int copyTimeToLiveInSeconds, MetricRecorder metricRecorder) {
+        this.factory = factory;
+        this.transitionWindowNanos = transitionWindow.toNanos();
+        this.copyTimeToLiveInSeconds = copyTimeToLiveInSeconds;
+        this.metricRecorder = metricRecorder;
+    }
+
+    /**
+     * Returns the given factory, or if the config has a transition window, the factory wrapped in a
+     * TransitionReferencedClientFactory
+     */
+    public static <V> ReferencedClientFactory<V> create(ReferencedClientFactory<V> factory, MemcachedCacheConfig config) {
+        Duration window = config.getTopologyTransitionWindow();
+        if (window == null || window.compareTo(Duration.ZERO) <= 0) {
+            return factory;
+        }
+
+        Duration copyTimeToLive = config.getTopologyTransitionCopyTimeToLive();
+        if (copyTimeToLive == null || copyTimeToLive.compareTo(Duration.ZERO) <= 0) {
+            copyTimeToLive = config.getTimeToLive();
+        }
+        return new TransitionReferencedClientFactory<>(factory, window,
+                DurationToSeconds.getSeconds(copyTimeToLive), config.getMetricsRecorder());
+    }
+
+    @Override
+    public synchronized ReferencedClient createClient(List<InetSocketAddress> resolvedHosts) {
+        ReferencedClient client = factory.createClient(resolvedHosts);
+        if (!client.isAvailable() || isShutdown) {
+            return client;
+        }
+
+        TransitionReferencedClient previous = currentClient;
+        TransitionReferencedClient transitionClient;
+        if (previous == null || previous.isShutdown() || !previous.isAvailable()) {
+            transitionClient = new TransitionReferencedClient(client, null, 0,
+                    copyTimeToLiveInSeconds, metricRecorder, shutdownScheduler);
+        } else {
+            long transitionEndsAtNanos = System.nanoTime() + transitionWindowNanos;
+            previous.retainUntil(transitionEndsAtNanos);
+            transitionClient = new TransitionReferencedClient(client, previous.getClient(), transitionEndsAtNanos,
+                    copyTimeToLiveInSeconds, metricRecorder, shutdownScheduler);
+        }
+        currentClient = transitionClient;
+        openClients.removeIf(TransitionReferencedClient::isClosed);
+        openClients.add(transitionClient);
+        return transitionClient;
+    }
+
+    /**
+     * Stops the scheduled shutdowns, and shuts down the clients that are still open
+     */
+    @Override
+    public synchronized void shutdown() {
+        isShutdown = true;
+        shutdownScheduler.shutdownNow();
+        for (TransitionReferencedClient client : openClients) {
+            client.close();
+        }
+        openClients.clear();
+        currentClient = null;
+        factory.shutdown();
+    }
+}
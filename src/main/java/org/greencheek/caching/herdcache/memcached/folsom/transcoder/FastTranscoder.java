@@ -4,21 +4,46 @@ import com.spotify.folsom.Transcoder;
 import de.ruedigermoeller.serialization.FSTConfiguration;
 import de.ruedigermoeller.serialization.FSTObjectInput;
 import de.ruedigermoeller.serialization.FSTObjectOutput;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.BaseSerializingTranscoder;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs.ValueCodec;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs.ValueCodecRegistry;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.SnappyCompression;
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
+import org.greencheek.caching.herdcache.memcached.util.ThreadLocalResizeableByteBuffers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xerial.snappy.Snappy;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Created by dominictootell on 05/04/2015.
+ *
+ * When created with a {@link ValueCodecRegistry}, values that have a codec are written by the codec rather than
+ * by fst.  Folsom has no item flags, so the first byte identifies the codec that wrote the value (the codec's flags
+ * shifted down by 8 bits), or {@link #SERIALIZED_TYPE} for fst; with the {@link #COMPRESSED} bit set when the
+ * remaining bytes are snappy compressed.  Values written with codecs cannot be read by a transcoder without them.
  */
 public class FastTranscoder implements Transcoder {
 
     private static final Logger logger = LoggerFactory.getLogger(FastTranscoder.class);
 
+    static final int SERIALIZED_TYPE = 0x7f;
+    static final int COMPRESSED = 0x80;
+
+    // with codecs, values at or below this size are not compressed
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = BaseSerializingTranscoder.DEFAULT_COMPRESSION_THRESHOLD;
+
+    private static final ThreadLocalResizeableByteBuffers SERIALIZATION_BUFFERS = new ThreadLocalResizeableByteBuffers();
+    private static final ThreadLocalResizeableByteBuffers COMPRESSION_BUFFERS = new ThreadLocalResizeableByteBuffers();
+    private static final ThreadLocalResizeableByteBuffers DECOMPRESSION_BUFFERS = new ThreadLocalResizeableByteBuffers();
+
     private final boolean compress;
 
+    private final SnappyCompression snappy = new SnappyCompression();
+
+    // null when all values are serialized by fst
+    private final ValueCodecRegistry codecs;
 
     // ! reuse this Object, it caches metadata. Performance degrades massively
     // if you create a new Configuration Object with each serialization !
@@ -29,20 +54,34 @@ public class FastTranscoder implements Transcoder {
     }
 
     public FastTranscoder(boolean compress) {
+        this(compress, null);
+    }
+
+    public FastTranscoder(boolean compress, ValueCodecRegistry codecs) {
         conf = FSTConfiguration.createDefaultConfiguration();
         conf.setShareReferences(true);
         this.compress = compress;
+        this.codecs = codecs;
     }
 
     @Override
     public Object decode(byte[] in) {
-        Object rv = null;
+        if (in != null && codecs != null) {
+            return decodeWithCodecs(in);
+        }
 
+        Object rv = null;
+        ResizeableByteBuffer buffer = null;
         try {
             if (in != null) {
                 FSTObjectInput is = null;
                 if(compress) {
-                    is = conf.getObjectInput(Snappy.uncompress(in));
+                    // decompress straight into a pooled buffer that fst reads from
+                    buffer = DECOMPRESSION_BUFFERS.acquire();
+                    if(!snappy.decompress(in, buffer)) {
+                        return null;
+                    }
+                    is = conf.getObjectInput(buffer.getBuf(), buffer.size());
                 } else {
                     is = conf.getObjectInput(in);
                 }
@@ -54,6 +93,10 @@ public class FastTranscoder implements Transcoder {
         } catch (ClassNotFoundException e) {
             logger.warn("Caught CNFE decoding {} bytes of data",
                     in == null ? 0 : in.length, e);
+        } finally {
+            if(buffer!=null) {
+                DECOMPRESSION_BUFFERS.release(buffer);
+            }
         }
         return rv;
     }
@@ -63,20 +106,150 @@ public class FastTranscoder implements Transcoder {
         if (o == null) {
             throw new NullPointerException("Can't serialize null");
         }
+        if (codecs != null) {
+            return encodeWithCodecs(o);
+        }
         byte[] rv = null;
+        FSTObjectOutput os = null;
         try {
-            FSTObjectOutput os = conf.getObjectOutput();
+            os = conf.getObjectOutput();
             os.writeObject(o);
             os.flush();
-            rv = os.getCopyOfWrittenBuffer();
 
             if(compress) {
-                rv = Snappy.compress(rv);
+                // compress straight from fst's buffer, via a pooled buffer, into the returned array
+                ResizeableByteBuffer buffer = COMPRESSION_BUFFERS.acquire();
+                try {
+                    snappy.compress(os.getBuffer(), 0, os.getWritten(), buffer);
+                    rv = buffer.toByteArray();
+                } finally {
+                    COMPRESSION_BUFFERS.release(buffer);
+                }
+            } else {
+                rv = Arrays.copyOf(os.getBuffer(), os.getWritten());
             }
 
         } catch (IOException e) {
             throw new IllegalArgumentException("Non-serializable object", e);
+        } finally {
+            releaseObjectOutput(os);
         }
         return rv;
     }
+
+    private Object decodeWithCodecs(byte[] in) {
+        if (in.length == 0) {
+            logger.warn("Undecodeable empty value");
+            return null;
+        }
+
+        final int header = in[0] & 0xff;
+        final int type = header & SERIALIZED_TYPE;
+        final boolean compressed = (header & COMPRESSED) != 0;
+
+        ValueCodec<Object> codec = null;
+        if (type != SERIALIZED_TYPE) {
+            codec = codecs.codecForFlags(type << 8);
+            if (codec == null) {
+                logger.warn("Undecodeable with type {}", type);
+                return null;
+            }
+
+            if (!compressed) {
+                return codec.decode(in, 1, in.length - 1);
+            }
+
+            if (codec.retainsDecodedBytes()) {
+                byte[] decompressed = snappy.decompress(Arrays.copyOfRange(in, 1, in.length));
+                return decompressed == null ? null : codec.decode(decompressed, 0, decompressed.length);
+            }
+        }
+
+        ResizeableByteBuffer buffer = DECOMPRESSION_BUFFERS.acquire();
+        try {
+            if (compressed) {
+                if (!snappy.decompress(in, 1, in.length - 1, buffer)) {
+                    return null;
+                }
+            } else {
+                // fst reads from the start of the array
+                buffer.append(in, 1, in.length - 1);
+            }
+
+            if (codec != null) {
+                return codec.decode(buffer.getBuf(), 0, buffer.size());
+            }
+            return readObject(buffer.getBuf(), buffer.size());
+        } finally {
+            DECOMPRESSION_BUFFERS.release(buffer);
+        }
+    }
+
+    private byte[] encodeWithCodecs(Object o) {
+        ValueCodec<Object> codec = codecs.codecFor(o);
+        int type = codec == null ? SERIALIZED_TYPE : codec.getFlags() >>> 8;
+        if (type >= SERIALIZED_TYPE) {
+            // the codec's flags do not fit in the type byte
+            codec = null;
+            type = SERIALIZED_TYPE;
+        }
+
+        ResizeableByteBuffer buffer = SERIALIZATION_BUFFERS.acquire();
+        try {
+            buffer.append((byte) type);
+            if (codec == null) {
+                writeObject(o, buffer);
+            } else {
+                buffer.append(codec.encode(o));
+            }
+
+            final int length = buffer.size() - 1;
+            if (compress && length > DEFAULT_COMPRESSION_THRESHOLD) {
+                ResizeableByteBuffer compressed = COMPRESSION_BUFFERS.acquire();
+                try {
+                    compressed.append((byte) (type | COMPRESSED));
+                    snappy.compress(buffer.getBuf(), 1, length, compressed);
+                    if (compressed.size() < buffer.size()) {
+                        return compressed.toByteArray();
+                    }
+                } finally {
+                    COMPRESSION_BUFFERS.release(compressed);
+                }
+            }
+            return buffer.toByteArray();
+        } finally {
+            SERIALIZATION_BUFFERS.release(buffer);
+        }
+    }
+
+    private Object readObject(byte[] in, int length) {
+        try {
+            return conf.getObjectInput(in, length).readObject();
+        } catch (IOException e) {
+            logger.warn("Caught IOException decoding {} bytes of data", length, e);
+        } catch (ClassNotFoundException e) {
+            logger.warn("Caught CNFE decoding {} bytes of data", length, e);
+        }
+        return null;
+    }
+
+    private void writeObject(Object o, ResizeableByteBuffer out) {
+        FSTObjectOutput os = null;
+        try {
+            os = conf.getObjectOutput();
+            os.writeObject(o);
+            os.flush();
+            out.append(os.getBuffer(), 0, os.getWritten());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Non-serializable object", e);
+        } finally {
+            releaseObjectOutput(os);
+        }
+    }
+
+    private void releaseObjectOutput(FSTObjectOutput os) {
+        if(os!=null && os.getBuffer().length > ThreadLocalResizeableByteBuffers.DEFAULT_MAX_RETAINED_CAPACITY) {
+            os.resetForReUse(new byte[ThreadLocalResizeableByteBuffers.DEFAULT_INITIAL_CAPACITY]);
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package org.greencheek.caching.herdcache.memcached.keyhashing;
+
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
+
+/**
+ * Hashes the utf-8 bytes of a key, written into the thread's {@link KeyBytes} buffer
+ * rather than a new byte[] per key.
+ */
+public abstract class AbstractKeyHashing implements KeyHashing {
+
+    @Override
+    public String hash(String key) {
+        ResizeableByteBuffer buffer = KeyBytes.acquire();
+        try {
+            KeyBytes.append(key, buffer);
+            return hash(buffer.getBuf(), 0, buffer.size());
+        } finally {
+            KeyBytes.release(buffer);
+        }
+    }
+
+    @Override
+    public String hash(String prefix, String key) {
+        ResizeableByteBuffer buffer = KeyBytes.acquire();
+        try {
+            KeyBytes.append(prefix, buffer);
+            KeyBytes.append(key, buffer);
+            return hash(buffer.getBuf(), 0, buffer.size());
+        } finally {
+            KeyBytes.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.greencheek.caching.herdcache.memcached.keyhashing;
+
+/**
+ * Url safe base64 ('-' and '_' rather than '+' and '/'), without padding.  A fixed width, compact, string for a hash:
+ * 6 chars for a 32bit hash, 11 for 64bit, 22 for MD5 and 43 for SHA-256.  None of the chars need escaping
+ * in a memcached key.
+ */
+public class Base64ToString implements ToHexString {
+    public static final char[] DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    public static final Base64ToString INSTANCE = new Base64ToString();
+
+    public static int encodedLength(int bytes) {
+        return (bytes * 8 + 5) / 6;
+    }
+
+    @Override
+    public String bytesToHex(byte[] data) {
+        return bytesToHex(data, 0, data.length);
+    }
+
+    @Override
+    public String bytesToHex(byte[] data, int offset, int length) {
+        int encodedLength = encodedLength(length);
+        char[] out = ToHexStringUtil.charBuffer(encodedLength);
+
+        int i = offset;
+        int end = offset + length;
+        int j = 0;
+        while (end - i >= 3) {
+            int bits = (data[i++] & 0xff) << 16 | (data[i++] & 0xff) << 8 | (data[i++] & 0xff);
+            out[j++] = DIGITS[bits >>> 18];
+            out[j++] = DIGITS[(bits >>> 12) & 0x3f];
+            out[j++] = DIGITS[(bits >>> 6) & 0x3f];
+            out[j++] = DIGITS[bits & 0x3f];
+        }
+
+        int remaining = end - i;
+        if (remaining > 0) {
+            int bits = (data[i++] & 0xff) << 16;
+            if (remaining == 2) {
+                bits |= (data[i] & 0xff) << 8;
+            }
+            out[j++] = DIGITS[bits >>> 18];
+            out[j++] = DIGITS[(bits >>> 12) & 0x3f];
+            if (remaining == 2) {
+                out[j++] = DIGITS[(bits >>> 6) & 0x3f];
+            }
+        }
+        return new String(out, 0, encodedLength);
+    }
+
+    /**
+     * The encoding of the 8 big endian bytes of the long
+     */
+    public String longToString(long value) {
+        char[] out = ToHexStringUtil.charBuffer(11);
+        for (int j = 0; j < 10; j++) {
+            out[j] = DIGITS[(int) (value >>> (58 - 6 * j)) & 0x3f];
+        }
+        out[10] = DIGITS[(int) (value & 0xf) << 2];
+        return new String(out, 0, 11);
+    }
+
+    /**
+     * The encoding of the 4 big endian bytes of the int
+     */
+    public String intToString(int value) {
+        char[] out = ToHexStringUtil.charBuffer(6);
+        for (int j = 0; j < 5; j++) {
+            out[j] = DIGITS[(value >>> (26 - 6 * j)) & 0x3f];
+        }
+        out[5] = DIGITS[(value & 0x3) << 4];
+        return new String(out, 0, 6);
+    }
+}
@@ -0,0 +1,72 @@
+package org.greencheek.caching.herdcache.memcached.keyhashing;
+
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
+import org.greencheek.caching.herdcache.memcached.util.ThreadLocalResizeableByteBuffers;
+
+/**
+ * Writes the utf-8 bytes of a key into a per thread buffer, straight from the String's chars; so
+ * that hashing a key does not allocate a byte[] (String.getBytes) or concatenate the prefix and key.
+ *
+ * The bytes written are the same as {@code String.getBytes("UTF-8")}, an unpaired surrogate is written as '?'
+ */
+public final class KeyBytes {
+
+    public static final int DEFAULT_INITIAL_CAPACITY = 256;
+    public static final int DEFAULT_MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocalResizeableByteBuffers BUFFERS =
+            new ThreadLocalResizeableByteBuffers(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_RETAINED_CAPACITY);
+
+    private KeyBytes() {
+    }
+
+    /**
+     * Returns the calling thread's key buffer, empty.  Must be given back with {@link #release(ResizeableByteBuffer)}
+     */
+    public static ResizeableByteBuffer acquire() {
+        return BUFFERS.acquire();
+    }
+
+    public static void release(ResizeableByteBuffer buffer) {
+        BUFFERS.release(buffer);
+    }
+
+    /**
+     * Appends the utf-8 bytes of the given chars to the buffer
+     */
+    public static void append(CharSequence chars, ResizeableByteBuffer buffer) {
+        int length = chars.length();
+        if (!buffer.ensureWritable(length * 3)) {
+            throw new IllegalArgumentException("Key too large to be hashed: " + length + " chars");
+        }
+
+        byte[] out = buffer.getBuf();
+        int pos = buffer.size();
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                out[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xc0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                char low;
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(low = chars.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, low);
+                    out[pos++] = (byte) (0xf0 | (codePoint >> 18));
+                    out[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    out[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    out[pos++] = (byte) (0x80 | (codePoint & 0x3f));
+                    i++;
+                } else {
+                    out[pos++] = '?';
+                }
+            } else {
+                out[pos++] = (byte) (0xe0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                out[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        buffer.setSize(pos);
+    }
+}
@@ -9,4 +9,12 @@ public interface KeyHashing {
 
     public String hash(String key);
     public String hash(byte[] bytes, int offset, int length);
+
+    /**
+     * The hash of the prefix followed by the key.  Implementations that hash bytes do so
+     * without creating the concatenated string.
+     */
+    default String hash(String prefix, String key) {
+        return hash(prefix.concat(key));
+    }
 }
@@ -12,5 +12,9 @@ public enum KeyHashingType {
     MD5_UPPER,
     SHA256_UPPER,
     MD5_LOWER,
-    SHA256_LOWER
+    SHA256_LOWER,
+    NATIVE_XXHASH_64_BASE64,
+    JAVA_XXHASH_64_BASE64,
+    MD5_BASE64,
+    SHA256_BASE64
 }
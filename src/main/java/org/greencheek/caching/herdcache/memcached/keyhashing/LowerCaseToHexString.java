@@ -11,4 +11,9 @@ public class LowerCaseToHexString implements ToHexString {
     public String bytesToHex(byte[] data) {
         return ToHexStringUtil.bytesToHex(data,DIGITS_LOWER);
     }
+
+    @Override
+    public String bytesToHex(byte[] data, int offset, int length) {
+        return ToHexStringUtil.bytesToHex(data,offset,length,DIGITS_LOWER);
+    }
 }
@@ -1,19 +1,27 @@
 package org.greencheek.caching.herdcache.memcached.keyhashing;
 
-import java.io.UnsupportedEncodingException;
+import org.greencheek.caching.herdcache.util.VirtualThreads;
+
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.concurrent.ArrayBlockingQueue;
 
 /**
  * Created by dominictootell on 09/04/2014.
+ *
+ * Each thread hashes with its own MessageDigest, and digests into its own scratch array.
+ * A virtual thread usually hashes a single key, so virtual threads instead share a pool of MessageDigests,
+ * bounded by the given number of message digests.
  */
-public class MessageDigestHashing implements KeyHashing {
-
-    private final boolean upperCase;
+public class MessageDigestHashing extends AbstractKeyHashing {
 
     private final ToHexString byteToHexStringConverter;
-    private final ArrayBlockingQueue<MessageDigest> digesters;
+    private final String algorithm;
+    private final ThreadLocal<MessageDigest> digesters;
+    private final ThreadLocal<byte[]> digests;
+    private final ArrayBlockingQueue<MessageDigest> sharedDigesters;
+    private final int digestLength;
 
     public MessageDigestHashing() {
         this(KeyHashing.MD5);
@@ -27,55 +35,70 @@ public class MessageDigestHashing implements KeyHashing {
         this(algorithm,messageDigests,true);
     }
 
+    /**
+     * @param messageDigests the max number of digests retained for use by virtual threads; other threads each
+     *                       have their own
+     */
     public MessageDigestHashing(String algorithm,int messageDigests,boolean toUpper) {
-        this.upperCase = toUpper;
+        this(algorithm, toUpper ? UpperCaseToHexString.INSTANCE : LowerCaseToHexString.INSTANCE, messageDigests);
+    }
 
-        if(upperCase) {
-            byteToHexStringConverter = UpperCaseToHexString.INSTANCE;
-        } else {
-            byteToHexStringConverter = LowerCaseToHexString.INSTANCE;
-        }
+    public MessageDigestHashing(String algorithm,ToHexString byteToHexStringConverter) {
+        this(algorithm, byteToHexStringConverter, Runtime.getRuntime().availableProcessors()*2);
+    }
+
+    public MessageDigestHashing(String algorithm,ToHexString byteToHexStringConverter,int messageDigests) {
+        this.byteToHexStringConverter = byteToHexStringConverter;
+        this.algorithm = algorithm;
+        this.sharedDigesters = new ArrayBlockingQueue<>(Math.max(1, messageDigests));
 
         try {
-            digesters = createDigests(messageDigests, algorithm);
+            digestLength = createDigest(algorithm).getDigestLength();
         } catch (NoSuchAlgorithmException e) {
             throw new InstantiationError("Unable to create MessageDigest for algo: " + algorithm);
         }
-    }
 
+        digesters = ThreadLocal.withInitial(() -> createDigestOrFail(algorithm));
+        digests = ThreadLocal.withInitial(() -> new byte[digestLength]);
+    }
 
-    private final ArrayBlockingQueue<MessageDigest> createDigests(int numToCreate, String algorithm)
-    throws NoSuchAlgorithmException {
-        ArrayBlockingQueue<MessageDigest> queue = new ArrayBlockingQueue<MessageDigest>(numToCreate);
-        for(int i = 0;i<numToCreate;i++) {
-            queue.add(MessageDigest.getInstance(algorithm));
-        }
-        return queue;
+    private static MessageDigest createDigest(String algorithm) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance(algorithm);
     }
 
-    @Override
-    public String hash(String key) {
-        byte[] bytes;
+    private static MessageDigest createDigestOrFail(String algorithm) {
         try {
-            bytes = key.getBytes("UTF-8");
-        } catch(UnsupportedEncodingException e) {
-            bytes = key.getBytes();
+            return createDigest(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new InstantiationError("Unable to create MessageDigest for algo: " + algorithm);
         }
-        return hash(bytes,0,bytes.length);
     }
 
     @Override
     public String hash(byte[] bytes,int offset, int length) {
-        MessageDigest md;
+        if(VirtualThreads.isCurrentThreadVirtual()) {
+            return hashWithSharedDigest(bytes, offset, length);
+        }
+        MessageDigest md = digesters.get();
+        byte[] result = digests.get();
+        md.update(bytes, offset, length);
         try {
-            md = digesters.take();
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+            md.digest(result, 0, digestLength);
+        } catch (DigestException e) {
+            md.reset();
+            throw new IllegalStateException(e);
+        }
+        return byteToHexStringConverter.bytesToHex(result, 0, digestLength);
+    }
+
+    private String hashWithSharedDigest(byte[] bytes,int offset, int length) {
+        MessageDigest md = sharedDigesters.poll();
+        if(md==null) {
+            md = createDigestOrFail(algorithm);
         }
         md.update(bytes, offset, length);
         byte[] result = md.digest();
-        md.reset();
-        digesters.add(md);
-        return byteToHexStringConverter.bytesToHex(result);
+        sharedDigesters.offer(md);
+        return byteToHexStringConverter.bytesToHex(result, 0, digestLength);
     }
 }
@@ -1,9 +1,15 @@
 package org.greencheek.caching.herdcache.memcached.keyhashing;
 
+import java.util.Arrays;
+
 /**
  * Created by dominictootell on 08/04/2014.
  */
 public interface ToHexString {
 
     public String bytesToHex(byte[] data);
+
+    default String bytesToHex(byte[] data, int offset, int length) {
+        return bytesToHex(Arrays.copyOfRange(data, offset, offset + length));
+    }
 }
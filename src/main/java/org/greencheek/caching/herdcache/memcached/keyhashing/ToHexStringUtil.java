@@ -1,18 +1,40 @@
 package org.greencheek.caching.herdcache.memcached.keyhashing;
 
+import org.greencheek.caching.herdcache.util.VirtualThreads;
+
 /**
  * Created by dominictootell on 13/04/2014.
  */
 public class ToHexStringUtil {
+
+    // scratch chars, the returned String takes its own copy.  Not kept for virtual threads, which rarely reuse them
+    private static final ThreadLocal<char[]> CHARS = ThreadLocal.withInitial(() -> new char[128]);
+
     public static String bytesToHex(byte[] data, char[] chars) {
+        return bytesToHex(data, 0, data.length, chars);
+    }
 
-        int length = data.length;
-        char[] out = new char[length << 1];
+    public static String bytesToHex(byte[] data, int offset, int length, char[] chars) {
+        char[] out = charBuffer(length << 1);
 
-        for(int i=0,j=0;i<length;i++) {
+        for(int i=offset,j=0;i<offset+length;i++) {
             out[j++] = chars[(0xF0 & data[i]) >>> 4];
             out[j++] = chars[0x0F & data[i]];
         }
-        return new String(out);
+        return new String(out, 0, length << 1);
+    }
+
+    static char[] charBuffer(int length) {
+        if (VirtualThreads.isCurrentThreadVirtual()) {
+            return new char[length];
+        }
+        char[] out = CHARS.get();
+        if (out.length < length) {
+            out = new char[length];
+            if (length <= 1024) {
+                CHARS.set(out);
+            }
+        }
+        return out;
     }
 }
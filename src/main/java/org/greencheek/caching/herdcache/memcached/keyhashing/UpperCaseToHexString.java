@@ -11,4 +11,9 @@ public class UpperCaseToHexString implements ToHexString {
     public String bytesToHex(byte[] data) {
         return ToHexStringUtil.bytesToHex(data,DIGITS_UPPER);
     }
+
+    @Override
+    public String bytesToHex(byte[] data, int offset, int length) {
+        return ToHexStringUtil.bytesToHex(data,offset,length,DIGITS_UPPER);
+    }
 }
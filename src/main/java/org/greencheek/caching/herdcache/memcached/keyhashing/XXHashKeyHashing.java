@@ -2,21 +2,27 @@ package org.greencheek.caching.herdcache.memcached.keyhashing;
 
 import net.jpountz.xxhash.XXHashFactory;
 
-import java.io.UnsupportedEncodingException;
-
 /**
  * Created by dominictootell on 04/05/2014.
  */
-public class XXHashKeyHashing implements KeyHashing {
+public class XXHashKeyHashing extends AbstractKeyHashing {
 
     private final XXHashFactory factory;
     private final boolean use64BitHashing;
+    private final boolean base64Encode;
 
     public XXHashKeyHashing(boolean allowNative) {
-         this(true,false);
+         this(allowNative,false);
     }
 
     public XXHashKeyHashing(boolean allowNative, boolean use64BitHashing) {
+        this(allowNative,use64BitHashing,false);
+    }
+
+    /**
+     * @param base64Encode output the hash as fixed width {@link Base64ToString}, rather than as a decimal number
+     */
+    public XXHashKeyHashing(boolean allowNative, boolean use64BitHashing, boolean base64Encode) {
         if(allowNative) {
             factory = XXHashFactory.fastestInstance();
         } else {
@@ -24,26 +30,17 @@ public class XXHashKeyHashing implements KeyHashing {
         }
 
         this.use64BitHashing = use64BitHashing;
-    }
-
-    @Override
-    public String hash(String key) {
-        byte[] bytes;
-        try {
-            bytes = key.getBytes("UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            bytes = key.getBytes();
-        }
-
-        return hash(bytes,0,bytes.length);
+        this.base64Encode = base64Encode;
     }
 
     @Override
     public String hash(byte[] bytes, int offset, int length) {
         if(use64BitHashing) {
-            return Long.toString(factory.hash64().hash(bytes, offset, length, 0));
+            long hash = factory.hash64().hash(bytes, offset, length, 0);
+            return base64Encode ? Base64ToString.INSTANCE.longToString(hash) : Long.toString(hash);
         } else {
-            return Integer.toString(factory.hash32().hash(bytes, offset, length, 0));
+            int hash = factory.hash32().hash(bytes, offset, length, 0);
+            return base64Encode ? Base64ToString.INSTANCE.intToString(hash) : Integer.toString(hash);
         }
     }
 }
@@ -9,4 +9,5 @@ public interface MetricRecorder {
     public void incrementCounter(String metricName);
     public void setDuration(String metricName,long nanos);
     public void updateHistogram(String metricName,long update);
+    public void setGauge(String metricName,long value);
 }
@@ -28,4 +28,9 @@ public class NoOpMetricRecorder implements MetricRecorder {
     public void updateHistogram(String metricName,long update) {
 
     }
+
+    @Override
+    public void setGauge(String metricName,long value) {
+
+    }
 }
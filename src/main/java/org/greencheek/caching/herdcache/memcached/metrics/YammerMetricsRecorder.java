@@ -1,8 +1,12 @@
 package org.greencheek.caching.herdcache.memcached.metrics;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * uses https://dropwizard.github.io/metrics to record metrics
@@ -11,6 +15,7 @@ public class YammerMetricsRecorder implements MetricRecorder {
     private final MetricRegistry registry;
     private final String prefix;
     private final boolean hasPrefix;
+    private final ConcurrentMap<String,AtomicLong> gauges = new ConcurrentHashMap<>();
 
     public YammerMetricsRecorder(MetricRegistry registry) {
         this(registry,null);
@@ -62,4 +67,19 @@ public class YammerMetricsRecorder implements MetricRecorder {
         metricName = getMetricName(metricName);
         registry.histogram(metricName).update(update);
     }
+
+    @Override
+    public void setGauge(String metricName, long value) {
+        metricName = getMetricName(metricName);
+        AtomicLong gaugeValue = gauges.get(metricName);
+        if(gaugeValue==null) {
+            AtomicLong newGaugeValue = new AtomicLong();
+            gaugeValue = gauges.putIfAbsent(metricName,newGaugeValue);
+            if(gaugeValue==null) {
+                gaugeValue = newGaugeValue;
+                registry.gauge(metricName, () -> (Gauge<Long>) newGaugeValue::get);
+            }
+        }
+        gaugeValue.set(value);
+    }
 }
@@ -0,0 +1,99 @@
+package org.greencheek.caching.herdcache.memcached.nearcache;
+
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.EntryWeigher;
+import com.googlecode.concurrentlinkedhashmap.Weigher;
+import org.greencheek.caching.herdcache.Cache;
+import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+import org.greencheek.caching.herdcache.memcached.util.CacheMetricStrings;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Near cache that is bounded by a maximum weighted capacity (lru eviction), and by
+ * a time to live for each entry.  The time to live of an entry is the smaller of the configured
+ * near cache time to live and the time to live of the item in memcached.
+ */
+public class ExpiringNearCache<V> implements NearCache<V> {
+
+    private static class NearCacheEntry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+
+        private NearCacheEntry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean hasExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+
+    private final ConcurrentMap<String,NearCacheEntry<V>> store;
+    private final long timeToLiveInNanos;
+    private final MetricRecorder metricRecorder;
+
+    public ExpiringNearCache(int maxWeightedCapacity, Duration timeToLive,
+                             Weigher<Object> weigher, MetricRecorder metricRecorder) {
+        if(timeToLive==null || timeToLive.compareTo(Duration.ZERO)<=0) {
+            throw new IllegalArgumentException("Near cache time to live must be greater than 0");
+        }
+        this.timeToLiveInNanos = timeToLive.toNanos();
+        this.metricRecorder = metricRecorder;
+
+        EntryWeigher<String,NearCacheEntry<V>> entryWeigher = (String key, NearCacheEntry<V> entry) -> weigher.weightOf(entry.value);
+        this.store = new ConcurrentLinkedHashMap.Builder<String,NearCacheEntry<V>>()
+                .maximumWeightedCapacity(maxWeightedCapacity)
+                .weigher(entryWeigher)
+                .build();
+    }
+
+    @Override
+    public V get(String key) {
+        NearCacheEntry<V> entry = store.get(key);
+        if(entry==null) {
+            Cache.logCacheMiss(metricRecorder, key, CacheMetricStrings.CACHE_TYPE_NEAR_CACHE);
+            return null;
+        }
+
+        if(entry.hasExpired(System.nanoTime())) {
+            store.remove(key,entry);
+            Cache.logCacheMiss(metricRecorder, key, CacheMetricStrings.CACHE_TYPE_NEAR_CACHE);
+            return null;
+        }
+
+        Cache.logCacheHit(metricRecorder, key, CacheMetricStrings.CACHE_TYPE_NEAR_CACHE);
+        return entry.value;
+    }
+
+    @Override
+    public void put(String key, V value, Duration memcachedTimeToLive) {
+        if(value==null) {
+            return;
+        }
+
+        long ttl = timeToLiveInNanos;
+        // zero in memcached means the item does not expire
+        if(memcachedTimeToLive!=null && memcachedTimeToLive.compareTo(Duration.ZERO)>0) {
+            ttl = Math.min(ttl,memcachedTimeToLive.toNanos());
+        }
+
+        store.put(key,new NearCacheEntry<>(value,System.nanoTime()+ttl));
+    }
+
+    @Override
+    public void remove(String key) {
+        store.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    public int size() {
+        return store.size();
+    }
+}
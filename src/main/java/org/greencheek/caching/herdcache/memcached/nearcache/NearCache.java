@@ -0,0 +1,29 @@
+package org.greencheek.caching.herdcache.memcached.nearcache;
+
+import java.time.Duration;
+
+/**
+ * An in process cache of decoded values that sits in front of memcached.
+ * Values are held for a short local time to live, so that hot keys can be returned
+ * without a network round trip.
+ */
+public interface NearCache<V> {
+
+    /**
+     * Returns the locally held value for the key, or null if there is no value, or the value has expired.
+     */
+    V get(String key);
+
+    /**
+     * Stores the value locally.  The local time to live is capped by the time to live of the item in memcached.
+     *
+     * @param key the key of the item
+     * @param value the decoded value
+     * @param memcachedTimeToLive the time to live of the item in memcached.
+     */
+    void put(String key, V value, Duration memcachedTimeToLive);
+
+    void remove(String key);
+
+    void clear();
+}
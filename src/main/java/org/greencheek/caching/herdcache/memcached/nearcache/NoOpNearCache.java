@@ -0,0 +1,28 @@
+package org.greencheek.caching.herdcache.memcached.nearcache;
+
+import java.time.Duration;
+
+/**
+ * Does nothing.  Used when the near cache is disabled
+ */
+public class NoOpNearCache<V> implements NearCache<V> {
+    @Override
+    public V get(String key) {
+        return null;
+    }
+
+    @Override
+    public void put(String key, V value, Duration memcachedTimeToLive) {
+
+    }
+
+    @Override
+    public void remove(String key) {
+
+    }
+
+    @Override
+    public void clear() {
+
+    }
+}
@@ -0,0 +1,63 @@
+package org.greencheek.caching.herdcache.memcached.operations;
+
+import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timeout that is a multiple of the p99 latency of the most recent reads, bounded by a min and max timeout.
+ * Until enough reads have been seen ({@link RollingPercentile#MIN_SAMPLES}), the max timeout is used.
+ * The current timeout, in millis, is recorded as a gauge on the {@link MetricRecorder}
+ */
+public class AdaptiveGetTimeout implements GetTimeout {
+
+    private final long minTimeoutInMillis;
+    private final long maxTimeoutInMillis;
+    private final double multiplier;
+    private final RollingPercentile p99;
+    private final MetricRecorder metricRecorder;
+    private final String metricName;
+
+    private volatile long timeoutInMillis;
+
+    /**
+     * @param minTimeoutInMillis the lowest the timeout will be set to
+     * @param maxTimeoutInMillis the highest the timeout will be set to, and the initial timeout
+     * @param multiplier the multiple of the p99 latency that the timeout is set to
+     * @param windowSize the number of most recent read latencies from which the p99 is calculated
+     * @param metricRecorder records the current timeout
+     * @param metricName the name of the gauge recording the current timeout
+     */
+    public AdaptiveGetTimeout(long minTimeoutInMillis,
+                              long maxTimeoutInMillis,
+                              double multiplier,
+                              int windowSize,
+                              MetricRecorder metricRecorder,
+                              String metricName) {
+        this.minTimeoutInMillis = Math.min(minTimeoutInMillis,maxTimeoutInMillis);
+        this.maxTimeoutInMillis = maxTimeoutInMillis;
+        this.multiplier = multiplier;
+        this.p99 = new RollingPercentile(0.99,windowSize,TimeUnit.MILLISECONDS.toNanos(maxTimeoutInMillis));
+        this.metricRecorder = metricRecorder;
+        this.metricName = metricName;
+        this.timeoutInMillis = maxTimeoutInMillis;
+        metricRecorder.setGauge(metricName,timeoutInMillis);
+    }
+
+    @Override
+    public long getTimeoutInMillis() {
+        return timeoutInMillis;
+    }
+
+    @Override
+    public void recordLatency(long nanos) {
+        if(p99.record(nanos)) {
+            long timeout = (long)Math.ceil(TimeUnit.NANOSECONDS.toMicros(p99.getValue()) * multiplier / 1000.0);
+            timeout = Math.max(minTimeoutInMillis,Math.min(maxTimeoutInMillis,timeout));
+            if(timeout!=timeoutInMillis) {
+                timeoutInMillis = timeout;
+                metricRecorder.setGauge(metricName,timeout);
+            }
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package org.greencheek.caching.herdcache.memcached.operations;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import org.greencheek.caching.herdcache.Cache;
 import org.greencheek.caching.herdcache.memcached.factory.ReferencedClient;
 import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -14,6 +23,31 @@ public class BasicCacheRead<V> implements CacheRead<V> {
 
     private static Logger LOGGER = LoggerFactory.getLogger(CacheRead.class);
 
+    private final ScheduledExecutorService timeoutScheduler;
+    private final Map<String,GetTimeout> timeoutsByCacheType;
+
+    public BasicCacheRead() {
+        this(null);
+    }
+
+    /**
+     * @param timeoutScheduler Used to time out the non blocking reads.  When null,
+     *                         only the timeouts of the memcached client apply to non blocking reads
+     */
+    public BasicCacheRead(ScheduledExecutorService timeoutScheduler) {
+        this(timeoutScheduler,Collections.emptyMap());
+    }
+
+    /**
+     * @param timeoutScheduler Used to time out the non blocking reads.  When null,
+     *                         only the timeouts of the memcached client apply to non blocking reads
+     * @param timeoutsByCacheType The latency of each read is recorded against the timeout for the read's cache type
+     */
+    public BasicCacheRead(ScheduledExecutorService timeoutScheduler, Map<String,GetTimeout> timeoutsByCacheType) {
+        this.timeoutScheduler = timeoutScheduler;
+        this.timeoutsByCacheType = timeoutsByCacheType;
+    }
+
     @Override
     public V getFromDistributedCache(ReferencedClient client,
                                      String key,
@@ -32,10 +66,112 @@ public class BasicCacheRead<V> implements CacheRead<V> {
         } catch(Throwable e) {
             LOGGER.warn("Exception thrown when communicating with memcached for get({}): {}", key, e.getMessage());
         } finally {
-            metricRecorder.incrementCounter(cacheType);
-            metricRecorder.setDuration(cacheType,System.nanoTime()-nanos);
+            recordReadMetrics(metricRecorder, cacheType, nanos);
         }
 
         return serialisedObj;
     }
+
+    @Override
+    public ListenableFuture<V> getFromDistributedCacheAsync(ReferencedClient client,
+                                                            String key,
+                                                            long timeoutInMillis,
+                                                            String cacheType,
+                                                            MetricRecorder metricRecorder) {
+        final long nanos = System.nanoTime();
+        final SettableFuture<V> result = SettableFuture.create();
+        ListenableFuture<Object> lookup;
+        try {
+            lookup = client.getAsync(key);
+            if(timeoutScheduler!=null) {
+                lookup = Futures.withTimeout(lookup, timeoutInMillis, TimeUnit.MILLISECONDS, timeoutScheduler);
+            }
+        } catch(Throwable e) {
+            LOGGER.warn("Exception thrown when communicating with memcached for get({}): {}", key, e.getMessage());
+            recordReadMetrics(metricRecorder, cacheType, nanos);
+            result.set(null);
+            return result;
+        }
+
+        Futures.addCallback(lookup, new FutureCallback<Object>() {
+            @Override
+            public void onSuccess(Object serialisedObj) {
+                if(serialisedObj==null){
+                    Cache.logCacheMiss(metricRecorder, key, cacheType);
+                } else {
+                    Cache.logCacheHit(metricRecorder, key, cacheType);
+                }
+                recordReadMetrics(metricRecorder, cacheType, nanos);
+                result.set((V) serialisedObj);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                LOGGER.warn("Exception thrown when communicating with memcached for get({}): {}", key, e.getMessage());
+                recordReadMetrics(metricRecorder, cacheType, nanos);
+                result.set(null);
+            }
+        }, MoreExecutors.directExecutor());
+
+        return result;
+    }
+
+    @Override
+    public ListenableFuture<Map<String,V>> getBulkFromDistributedCacheAsync(ReferencedClient client,
+                                                                        Collection<String> keys,
+                                                                        long timeoutInMillis,
+                                                                        String cacheType,
+                                                                        MetricRecorder metricRecorder) {
+        final long nanos = System.nanoTime();
+        final SettableFuture<Map<String,V>> result = SettableFuture.create();
+        ListenableFuture<Map<String,Object>> lookup;
+        try {
+            lookup = client.getBulkAsync(keys);
+            if(timeoutScheduler!=null) {
+                lookup = Futures.withTimeout(lookup, timeoutInMillis, TimeUnit.MILLISECONDS, timeoutScheduler);
+            }
+        } catch(Throwable e) {
+            LOGGER.warn("Exception thrown when communicating with memcached for getBulk({}): {}", keys, e.getMessage());
+            recordReadMetrics(metricRecorder, cacheType, nanos);
+            result.set(Collections.emptyMap());
+            return result;
+        }
+
+        Futures.addCallback(lookup, new FutureCallback<Map<String,Object>>() {
+            @Override
+            public void onSuccess(Map<String,Object> found) {
+                if(found==null) {
+                    found = Collections.emptyMap();
+                }
+                for(String key : keys) {
+                    if(found.get(key)==null){
+                        Cache.logCacheMiss(metricRecorder, key, cacheType);
+                    } else {
+                        Cache.logCacheHit(metricRecorder, key, cacheType);
+                    }
+                }
+                recordReadMetrics(metricRecorder, cacheType, nanos);
+                result.set((Map<String,V>) found);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                LOGGER.warn("Exception thrown when communicating with memcached for getBulk({}): {}", keys, e.getMessage());
+                recordReadMetrics(metricRecorder, cacheType, nanos);
+                result.set(Collections.emptyMap());
+            }
+        }, MoreExecutors.directExecutor());
+
+        return result;
+    }
+
+    private void recordReadMetrics(MetricRecorder metricRecorder, String cacheType, long startNanos) {
+        long latency = System.nanoTime()-startNanos;
+        metricRecorder.incrementCounter(cacheType);
+        metricRecorder.setDuration(cacheType,latency);
+        GetTimeout timeout = timeoutsByCacheType.get(cacheType);
+        if(timeout!=null) {
+            timeout.recordLatency(latency);
+        }
+    }
 }
@@ -0,0 +1,259 @@
+package org.greencheek.caching.herdcache.memcached.operations;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import org.greencheek.caching.herdcache.Cache;
+import org.greencheek.caching.herdcache.memcached.factory.ReferencedClient;
+import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+import org.greencheek.caching.herdcache.memcached.util.CacheMetricStrings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces the single key gets, that are requested concurrently, into multi gets.
+ * Pending keys are gathered for up to the batching window, or until the max batch size is reached.
+ * A multi get is then issued, per memcached client, and the results fanned back out to the waiting
+ * callers.  Multi gets are delegated to the given {@link CacheRead}
+ */
+public class BatchingCacheRead<V> implements CacheRead<V> {
+
+    private static Logger LOGGER = LoggerFactory.getLogger(CacheRead.class);
+
+    private static class PendingGet {
+        private final ReferencedClient client;
+        private final String key;
+        private final long timeoutInMillis;
+        private final SettableFuture<Object> promise = SettableFuture.create();
+
+        private PendingGet(ReferencedClient client, String key, long timeoutInMillis) {
+            this.client = client;
+            this.key = key;
+            this.timeoutInMillis = timeoutInMillis;
+        }
+    }
+
+    private final CacheRead<V> delegate;
+    private final ScheduledExecutorService scheduler;
+    private final long batchingWindowInNanos;
+    private final int maxBatchSize;
+    private final MetricRecorder metricRecorder;
+    private final Map<String,GetTimeout> timeoutsByCacheType;
+
+    private final ConcurrentLinkedQueue<PendingGet> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    /**
+     * @param delegate performs the multi gets, and any reads that are not batched
+     * @param scheduler schedules the sending of the batch at the end of the batching window, and the timeouts of the reads
+     * @param batchingWindowInNanos the max amount of time a get waits for other gets, before the batch is sent
+     * @param maxBatchSize the number of pending gets at which the batch is sent
+     * @param metricRecorder records the size of each batch that is sent
+     */
+    public BatchingCacheRead(CacheRead<V> delegate,
+                             ScheduledExecutorService scheduler,
+                             long batchingWindowInNanos,
+                             int maxBatchSize,
+                             MetricRecorder metricRecorder) {
+        this(delegate,scheduler,batchingWindowInNanos,maxBatchSize,metricRecorder,Collections.emptyMap());
+    }
+
+    /**
+     * @param delegate performs the multi gets, and any reads that are not batched
+     * @param scheduler schedules the sending of the batch at the end of the batching window, and the timeouts of the reads
+     * @param batchingWindowInNanos the max amount of time a get waits for other gets, before the batch is sent
+     * @param maxBatchSize the number of pending gets at which the batch is sent
+     * @param metricRecorder records the size of each batch that is sent
+     * @param timeoutsByCacheType The latency of each read is recorded against the timeout for the read's cache type
+     */
+    public BatchingCacheRead(CacheRead<V> delegate,
+                             ScheduledExecutorService scheduler,
+                             long batchingWindowInNanos,
+                             int maxBatchSize,
+                             MetricRecorder metricRecorder,
+                             Map<String,GetTimeout> timeoutsByCacheType) {
+        this.timeoutsByCacheType = timeoutsByCacheType;
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.batchingWindowInNanos = batchingWindowInNanos;
+        this.maxBatchSize = Math.max(1,maxBatchSize);
+        this.metricRecorder = metricRecorder;
+    }
+
+    @Override
+    public V getFromDistributedCache(ReferencedClient client,
+                                     String key,
+                                     long timeoutInMillis,
+                                     String cacheType,
+                                     MetricRecorder metricRecorder) {
+        V serialisedObj = null;
+        long nanos = System.nanoTime();
+        try {
+            serialisedObj = (V) enqueue(client, key, timeoutInMillis).get(timeoutInMillis, TimeUnit.MILLISECONDS);
+            if(serialisedObj==null){
+                Cache.logCacheMiss(metricRecorder, key, cacheType);
+            } else {
+                Cache.logCacheHit(metricRecorder, key, cacheType);
+            }
+        } catch(Throwable e) {
+            LOGGER.warn("Exception thrown when communicating with memcached for get({}): {}", key, e.getMessage());
+        } finally {
+            recordReadMetrics(metricRecorder, cacheType, nanos);
+        }
+
+        return serialisedObj;
+    }
+
+    @Override
+    public ListenableFuture<V> getFromDistributedCacheAsync(ReferencedClient client,
+                                                            String key,
+                                                            long timeoutInMillis,
+                                                            String cacheType,
+                                                            MetricRecorder metricRecorder) {
+        final long nanos = System.nanoTime();
+        final SettableFuture<V> result = SettableFuture.create();
+        ListenableFuture<Object> lookup = Futures.withTimeout(enqueue(client, key, timeoutInMillis),
+                timeoutInMillis, TimeUnit.MILLISECONDS, scheduler);
+
+        Futures.addCallback(lookup, new FutureCallback<Object>() {
+            @Override
+            public void onSuccess(Object serialisedObj) {
+                if(serialisedObj==null){
+                    Cache.logCacheMiss(metricRecorder, key, cacheType);
+                } else {
+                    Cache.logCacheHit(metricRecorder, key, cacheType);
+                }
+                recordReadMetrics(metricRecorder, cacheType, nanos);
+                result.set((V) serialisedObj);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                LOGGER.warn("Exception thrown when communicating with memcached for get({}): {}", key, e.getMessage());
+                recordReadMetrics(metricRecorder, cacheType, nanos);
+                result.set(null);
+            }
+        }, MoreExecutors.directExecutor());
+
+        return result;
+    }
+
+    @Override
+    public ListenableFuture<Map<String,V>> getBulkFromDistributedCacheAsync(ReferencedClient client,
+                                                                        Collection<String> keys,
+                                                                        long timeoutInMillis,
+                                                                        String cacheType,
+                                                                        MetricRecorder metricRecorder) {
+        return delegate.getBulkFromDistributedCacheAsync(client, keys, timeoutInMillis, cacheType, metricRecorder);
+    }
+
+    private ListenableFuture<Object> enqueue(ReferencedClient client, String key, long timeoutInMillis) {
+        PendingGet get = new PendingGet(client, key, timeoutInMillis);
+        pending.add(get);
+
+        if(pendingCount.incrementAndGet() >= maxBatchSize) {
+            flush();
+        } else if(flushScheduled.compareAndSet(false,true)) {
+            try {
+                scheduler.schedule(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                }, batchingWindowInNanos, TimeUnit.NANOSECONDS);
+            } catch (Throwable e) {
+                flushScheduled.set(false);
+                flush();
+            }
+        }
+        return get.promise;
+    }
+
+    /**
+     * Sends all the pending gets, in batches of at most the max batch size.
+     */
+    private void flush() {
+        List<PendingGet> batch = new ArrayList<>(maxBatchSize);
+        PendingGet get;
+        while((get = pending.poll())!=null) {
+            pendingCount.decrementAndGet();
+            batch.add(get);
+            if(batch.size()==maxBatchSize) {
+                send(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+
+        if(batch.size()>0) {
+            send(batch);
+        }
+    }
+
+    private void send(List<PendingGet> batch) {
+        metricRecorder.updateHistogram(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_BATCH_SIZE, batch.size());
+
+        // clients are replaced when the cluster changes, a batch may contain gets for more than one client.
+        Map<ReferencedClient,Map<String,List<PendingGet>>> byClient = new IdentityHashMap<>(2);
+        Map<ReferencedClient,Long> timeouts = new IdentityHashMap<>(2);
+        for(PendingGet get : batch) {
+            byClient.computeIfAbsent(get.client, c -> new HashMap<>()).computeIfAbsent(get.key, k -> new ArrayList<>(1)).add(get);
+            timeouts.merge(get.client, get.timeoutInMillis, Math::max);
+        }
+
+        for(Map.Entry<ReferencedClient,Map<String,List<PendingGet>>> clientGets : byClient.entrySet()) {
+            sendToClient(clientGets.getKey(), clientGets.getValue(), timeouts.get(clientGets.getKey()));
+        }
+    }
+
+    private void sendToClient(ReferencedClient client, Map<String,List<PendingGet>> gets, long timeoutInMillis) {
+        ListenableFuture<Map<String,Object>> lookup;
+        try {
+            lookup = Futures.withTimeout(client.getBulkAsync(gets.keySet()),
+                    timeoutInMillis, TimeUnit.MILLISECONDS, scheduler);
+        } catch (Throwable e) {
+            LOGGER.warn("Exception thrown when communicating with memcached for getBulk({}): {}", gets.keySet(), e.getMessage());
+            complete(gets, Collections.emptyMap());
+            return;
+        }
+
+        Futures.addCallback(lookup, new FutureCallback<Map<String,Object>>() {
+            @Override
+            public void onSuccess(Map<String,Object> found) {
+                complete(gets, found == null ? Collections.emptyMap() : found);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                LOGGER.warn("Exception thrown when communicating with memcached for getBulk({}): {}", gets.keySet(), e.getMessage());
+                complete(gets, Collections.emptyMap());
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private void complete(Map<String,List<PendingGet>> gets, Map<String,Object> found) {
+        for(Map.Entry<String,List<PendingGet>> keyGets : gets.entrySet()) {
+            Object value = found.get(keyGets.getKey());
+            for(PendingGet get : keyGets.getValue()) {
+                get.promise.set(value);
+            }
+        }
+    }
+
+    private void recordReadMetrics(MetricRecorder metricRecorder, String cacheType, long startNanos) {
+        long latency = System.nanoTime()-startNanos;
+        metricRecorder.incrementCounter(cacheType);
+        metricRecorder.setDuration(cacheType,latency);
+        GetTimeout timeout = timeoutsByCacheType.get(cacheType);
+        if(timeout!=null) {
+            timeout.recordLatency(latency);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package org.greencheek.caching.herdcache.memcached.operations;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import org.greencheek.caching.herdcache.memcached.factory.ReferencedClient;
 import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
 
+import java.util.Collection;
+import java.util.Map;
+
 
 /**
  * Performs the read from the distributed
@@ -14,4 +18,26 @@ public interface CacheRead<V> {
                                      long timeoutInMillis,
                                      String cacheType,
                                      MetricRecorder metricRecorder);
+
+    /**
+     * Performs the read from the distributed cache without blocking the calling thread.
+     * The returned future is never completed exceptionally; a failure or timeout in talking to
+     * the distributed cache is represented as a cache miss (a null value).
+     */
+    public ListenableFuture<V> getFromDistributedCacheAsync(ReferencedClient client,
+                                                            String key,
+                                                            long timeoutInMillis,
+                                                            String cacheType,
+                                                            MetricRecorder metricRecorder);
+
+    /**
+     * Performs a multi get for the given keys against the distributed cache, without blocking the calling thread.
+     * The returned future is never completed exceptionally; a failure or timeout in talking to
+     * the distributed cache is represented as all keys being missed (an empty map).
+     */
+    public ListenableFuture<Map<String,V>> getBulkFromDistributedCacheAsync(ReferencedClient client,
+                                                                        Collection<String> keys,
+                                                                        long timeoutInMillis,
+                                                                        String cacheType,
+                                                                        MetricRecorder metricRecorder);
 }
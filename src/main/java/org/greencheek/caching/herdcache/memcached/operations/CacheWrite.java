@@ -11,4 +11,16 @@ public interface CacheWrite {
                                          Object valueToCache,
                                          int entryTTLInSeconds);
 
+    /**
+     * As {@link #writeToDistributedCache(ReferencedClient, String, Object, int)}, but waits no longer than the
+     * given time for the write to complete.  Implementations that do not wait for the write ignore the max wait.
+     */
+    default public void writeToDistributedCache(ReferencedClient client,
+                                                String key,
+                                                Object valueToCache,
+                                                int entryTTLInSeconds,
+                                                long maxWaitInMillis) {
+        writeToDistributedCache(client, key, valueToCache, entryTTLInSeconds);
+    }
+
 }
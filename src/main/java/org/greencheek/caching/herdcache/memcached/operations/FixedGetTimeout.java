@@ -0,0 +1,22 @@
+package org.greencheek.caching.herdcache.memcached.operations;
+
+/**
+ * A timeout that does not change
+ */
+public class FixedGetTimeout implements GetTimeout {
+    private final long timeoutInMillis;
+
+    public FixedGetTimeout(long timeoutInMillis) {
+        this.timeoutInMillis = timeoutInMillis;
+    }
+
+    @Override
+    public long getTimeoutInMillis() {
+        return timeoutInMillis;
+    }
+
+    @Override
+    public void recordLatency(long nanos) {
+
+    }
+}
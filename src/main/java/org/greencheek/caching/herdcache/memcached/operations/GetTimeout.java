@@ -0,0 +1,10 @@
+package org.greencheek.caching.herdcache.memcached.operations;
+
+/**
+ * Provides the timeout to use for a read from the distributed cache.
+ * The latency of each completed read is recorded against the timeout.
+ */
+public interface GetTimeout {
+    public long getTimeoutInMillis();
+    public void recordLatency(long nanos);
+}
@@ -0,0 +1,146 @@
+package org.greencheek.caching.herdcache.memcached.operations;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import org.greencheek.caching.herdcache.memcached.factory.ReferencedClient;
+import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+import org.greencheek.caching.herdcache.memcached.util.CacheMetricStrings;
+import org.greencheek.caching.herdcache.util.ReplicaKeyCreator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hedges the reads of the given cache type against the replica copy of the item ({@link ReplicaKeyCreator}).
+ * If the read of the item has not completed within the hedge delay, the replica is also read, and the first
+ * value to be returned wins.  The hedge delay is a percentile of the latency of the recent reads of the item.
+ * Reads of other cache types, and multi gets, are delegated to the given {@link CacheRead}
+ */
+public class HedgingCacheRead<V> implements CacheRead<V> {
+
+    private static Logger LOGGER = LoggerFactory.getLogger(CacheRead.class);
+
+    private final CacheRead<V> delegate;
+    private final ScheduledExecutorService scheduler;
+    private final String hedgedCacheType;
+    private final RollingPercentile hedgeDelay;
+    private final MetricRecorder metricRecorder;
+
+    /**
+     * @param delegate performs the reads of the item and its replica
+     * @param scheduler schedules the read of the replica
+     * @param hedgedCacheType the cache type of the reads that are hedged
+     * @param hedgeDelay the percentile of the read latency after which the replica is read
+     * @param metricRecorder records the number of hedged reads, and the number won by the replica
+     */
+    public HedgingCacheRead(CacheRead<V> delegate,
+                            ScheduledExecutorService scheduler,
+                            String hedgedCacheType,
+                            RollingPercentile hedgeDelay,
+                            MetricRecorder metricRecorder) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.hedgedCacheType = hedgedCacheType;
+        this.hedgeDelay = hedgeDelay;
+        this.metricRecorder = metricRecorder;
+    }
+
+    @Override
+    public V getFromDistributedCache(ReferencedClient client,
+                                     String key,
+                                     long timeoutInMillis,
+                                     String cacheType,
+                                     MetricRecorder metricRecorder) {
+        if(!hedgedCacheType.equals(cacheType)) {
+            return delegate.getFromDistributedCache(client, key, timeoutInMillis, cacheType, metricRecorder);
+        }
+
+        try {
+            return getFromDistributedCacheAsync(client, key, timeoutInMillis, cacheType, metricRecorder)
+                    .get(timeoutInMillis, TimeUnit.MILLISECONDS);
+        } catch (Throwable e) {
+            LOGGER.warn("Exception thrown when communicating with memcached for get({}): {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public ListenableFuture<V> getFromDistributedCacheAsync(ReferencedClient client,
+                                                            String key,
+                                                            long timeoutInMillis,
+                                                            String cacheType,
+                                                            MetricRecorder metricRecorder) {
+        if(!hedgedCacheType.equals(cacheType)) {
+            return delegate.getFromDistributedCacheAsync(client, key, timeoutInMillis, cacheType, metricRecorder);
+        }
+
+        final long startNanos = System.nanoTime();
+        final SettableFuture<V> result = SettableFuture.create();
+        // the number of reads (item and replica) that have yet to complete
+        final AtomicInteger outstanding = new AtomicInteger(1);
+
+        final ListenableFuture<V> primary = delegate.getFromDistributedCacheAsync(client, key, timeoutInMillis,
+                cacheType, metricRecorder);
+        primary.addListener(() -> {
+            hedgeDelay.record(System.nanoTime()-startNanos);
+            complete(result, getResult(primary), outstanding, false);
+        }, MoreExecutors.directExecutor());
+
+        if(!primary.isDone()) {
+            try {
+                scheduler.schedule(() -> {
+                    if(result.isDone() || !outstanding.compareAndSet(1,2)) {
+                        return;
+                    }
+                    this.metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_HEDGED_READS_COUNTER);
+                    long remainingInMillis = Math.max(1,timeoutInMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime()-startNanos));
+                    ListenableFuture<V> replica = delegate.getFromDistributedCacheAsync(client,
+                            ReplicaKeyCreator.createKey(key), remainingInMillis,
+                            CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_REPLICA, metricRecorder);
+                    replica.addListener(() -> complete(result, getResult(replica), outstanding, true),
+                            MoreExecutors.directExecutor());
+                }, hedgeDelay.getValue(), TimeUnit.NANOSECONDS);
+            } catch (Throwable e) {
+                LOGGER.debug("Unable to schedule hedged read for get({}): {}", key, e.getMessage());
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public ListenableFuture<Map<String,V>> getBulkFromDistributedCacheAsync(ReferencedClient client,
+                                                                        Collection<String> keys,
+                                                                        long timeoutInMillis,
+                                                                        String cacheType,
+                                                                        MetricRecorder metricRecorder) {
+        return delegate.getBulkFromDistributedCacheAsync(client, keys, timeoutInMillis, cacheType, metricRecorder);
+    }
+
+    /**
+     * The first value found wins.  A miss only completes the result once all the reads have completed.
+     */
+    private void complete(SettableFuture<V> result, V value, AtomicInteger outstanding, boolean isReplica) {
+        if(value!=null) {
+            if(result.set(value) && isReplica) {
+                metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_HEDGED_READ_WINS_COUNTER);
+            }
+        } else if(outstanding.decrementAndGet()==0) {
+            result.set(null);
+        }
+    }
+
+    private V getResult(ListenableFuture<V> completedLookup) {
+        try {
+            return completedLookup.get();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
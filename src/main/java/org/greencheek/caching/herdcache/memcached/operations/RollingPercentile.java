@@ -0,0 +1,60 @@
+package org.greencheek.caching.herdcache.memcached.operations;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Calculates a percentile of the most recently recorded values.  The values are held in a fixed size
+ * ring buffer, the percentile of which is recalculated after every {@link #RECALCULATE_EVERY} values.
+ * Until {@link #MIN_SAMPLES} values have been recorded, the initial value is returned.
+ */
+public class RollingPercentile {
+
+    public static final int RECALCULATE_EVERY = 64;
+    public static final int MIN_SAMPLES = 100;
+
+    private final double percentile;
+    private final AtomicLongArray values;
+    private final AtomicLong samples = new AtomicLong(0);
+
+    private volatile long value;
+
+    /**
+     * @param percentile the percentile to calculate, between 0 and 1 (i.e. 0.99 for the p99)
+     * @param windowSize the number of most recent values from which the percentile is calculated
+     * @param initialValue the value returned until enough values have been recorded
+     */
+    public RollingPercentile(double percentile, int windowSize, long initialValue) {
+        this.percentile = Math.max(0.0,Math.min(1.0,percentile));
+        this.values = new AtomicLongArray(Math.max(MIN_SAMPLES,windowSize));
+        this.value = initialValue;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * @return true if the percentile was recalculated
+     */
+    public boolean record(long update) {
+        long sample = samples.getAndIncrement();
+        values.set((int)(sample % values.length()),update);
+        if(sample >= MIN_SAMPLES && (sample+1) % RECALCULATE_EVERY == 0) {
+            recalculate((int)Math.min(sample+1,values.length()));
+            return true;
+        }
+        return false;
+    }
+
+    private void recalculate(int size) {
+        long[] window = new long[size];
+        for(int i=0;i<size;i++) {
+            window[i] = values.get(i);
+        }
+        Arrays.sort(window);
+
+        value = window[Math.max(0,(int)Math.ceil(size * percentile) - 1)];
+    }
+}
@@ -28,14 +28,29 @@ public class WaitForCacheWrite implements CacheWrite {
                                         String key,
                                         Object valueToCache,
                                         int entryTTLInSeconds
+    ) {
+        writeToDistributedCache(client, key, valueToCache, entryTTLInSeconds, Long.MAX_VALUE);
+    }
+
+    @Override
+    public void writeToDistributedCache(ReferencedClient client,
+                                        String key,
+                                        Object valueToCache,
+                                        int entryTTLInSeconds,
+                                        long maxWaitInMillis
     ) {
         try {
             metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_WRITES_COUNTER);
 
             Future futureSet = client.set(key, entryTTLInSeconds, valueToCache);
 
+            if(maxWaitInMillis<=0) {
+                // no time left in which to wait for the set
+                return;
+            }
+
             try {
-                futureSet.get(waitForSetDurationInMillis, TimeUnit.MILLISECONDS);
+                futureSet.get(Math.min(waitForSetDurationInMillis, maxWaitInMillis), TimeUnit.MILLISECONDS);
             } catch (Throwable e) {
                 LOGGER.warn("Exception waiting for memcached set to occur for key {}.  Error: {}", key, e.getMessage(), e);
             }
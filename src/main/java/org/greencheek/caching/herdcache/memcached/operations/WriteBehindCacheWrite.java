@@ -0,0 +1,216 @@
+package org.greencheek.caching.herdcache.memcached.operations;
+
+import org.greencheek.caching.herdcache.memcached.factory.ReferencedClient;
+import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+import org.greencheek.caching.herdcache.memcached.util.CacheMetricStrings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queues the writes to memcached, which are sent in batches from a single background thread; rather than
+ * from the thread that generated the value.  Multiple pending writes for the same key are coalesced into the
+ * most recent write.  The queue is bounded by the number of distinct keys pending; writes for new keys are
+ * dropped when it is full.
+ *
+ * The batch is sent once the flush interval has passed since the first pending write, or as soon as the
+ * max batch size is reached.  The writes in a batch are grouped by memcached client, and issued back to back;
+ * so the client pipelines the sets for each node onto the node's connection.
+ */
+public class WriteBehindCacheWrite implements CacheWrite {
+    private static Logger LOGGER = LoggerFactory.getLogger(CacheWrite.class);
+
+    private static class PendingWrite {
+        private final ReferencedClient client;
+        private final String key;
+        private final Object value;
+        private final int ttlInSeconds;
+
+        private PendingWrite(ReferencedClient client, String key, Object value, int ttlInSeconds) {
+            this.client = client;
+            this.key = key;
+            this.value = value;
+            this.ttlInSeconds = ttlInSeconds;
+        }
+    }
+
+    private final MetricRecorder metricRecorder;
+    private final int maxQueueSize;
+    private final int maxBatchSize;
+    private final long flushIntervalInNanos;
+    private final ScheduledExecutorService flushExecutor;
+
+    private final ConcurrentHashMap<String,PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> pendingKeys = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger(0);
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean immediateFlushRequested = new AtomicBoolean(false);
+
+    /**
+     * @param metricRecorder records the queue depth, batch sizes, coalesced and dropped writes
+     * @param maxQueueSize the max number of distinct keys that can be waiting to be written
+     * @param maxBatchSize the number of pending writes at which the batch is sent
+     * @param flushIntervalInNanos the max amount of time a write waits for other writes, before the batch is sent
+     */
+    public WriteBehindCacheWrite(MetricRecorder metricRecorder,
+                                 int maxQueueSize,
+                                 int maxBatchSize,
+                                 long flushIntervalInNanos) {
+        this.metricRecorder = metricRecorder;
+        this.maxQueueSize = Math.max(1,maxQueueSize);
+        this.maxBatchSize = Math.max(1,maxBatchSize);
+        this.flushIntervalInNanos = flushIntervalInNanos;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, (r) -> {
+            final Thread t = new Thread(r, "herdcache-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        // the pending writes are sent by shutdown(), rather than waiting for the flush interval
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.flushExecutor = executor;
+    }
+
+    @Override
+    public void writeToDistributedCache(ReferencedClient client,
+                                        String key,
+                                        Object valueToCache,
+                                        int entryTTLInSeconds) {
+        PendingWrite write = new PendingWrite(client, key, valueToCache, entryTTLInSeconds);
+        for(;;) {
+            PendingWrite previous = pendingWrites.get(key);
+            if(previous!=null) {
+                if(pendingWrites.replace(key, previous, write)) {
+                    metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_WRITE_BEHIND_COALESCED_COUNTER);
+                    return;
+                }
+                continue;
+            }
+
+            if(queueDepth.incrementAndGet() > maxQueueSize) {
+                queueDepth.decrementAndGet();
+                metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_WRITE_BEHIND_DROPPED_COUNTER);
+                LOGGER.warn("Write behind queue is full, dropping memcached set for key {}", key);
+                return;
+            }
+
+            if(pendingWrites.putIfAbsent(key, write)==null) {
+                pendingKeys.offer(key);
+                scheduleFlush();
+                return;
+            }
+            queueDepth.decrementAndGet();
+        }
+    }
+
+    /**
+     * Removes any pending write for the given key; so that it is not written after the key has been deleted
+     */
+    public void discard(String key) {
+        // the key remains in the key queue, and is skipped when drained
+        if(pendingWrites.remove(key)!=null) {
+            queueDepth.decrementAndGet();
+        }
+    }
+
+    /**
+     * Removes all the pending writes
+     */
+    public void discardAll() {
+        for(String key : pendingWrites.keySet()) {
+            discard(key);
+        }
+    }
+
+    /**
+     * Stops the background thread, and sends the pending writes from the calling thread
+     */
+    public void shutdown() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void scheduleFlush() {
+        try {
+            if(queueDepth.get() >= maxBatchSize) {
+                if(immediateFlushRequested.compareAndSet(false,true)) {
+                    flushExecutor.execute(() -> {
+                        immediateFlushRequested.set(false);
+                        flush();
+                    });
+                }
+            } else if(flushScheduled.compareAndSet(false,true)) {
+                flushExecutor.schedule(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                }, flushIntervalInNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (Throwable e) {
+            LOGGER.warn("Unable to schedule the sending of the pending writes: {}", e.getMessage());
+            flushScheduled.set(false);
+            immediateFlushRequested.set(false);
+        }
+    }
+
+    /**
+     * Sends all the pending writes, in batches of at most the max batch size.
+     */
+    private void flush() {
+        metricRecorder.setGauge(CacheMetricStrings.CACHE_TYPE_WRITE_BEHIND_QUEUE_DEPTH, queueDepth.get());
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        String key;
+        while((key = pendingKeys.poll())!=null) {
+            PendingWrite write = pendingWrites.remove(key);
+            if(write==null) {
+                // discarded
+                continue;
+            }
+            queueDepth.decrementAndGet();
+            batch.add(write);
+            if(batch.size()==maxBatchSize) {
+                send(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+
+        if(batch.size()>0) {
+            send(batch);
+        }
+    }
+
+    private void send(List<PendingWrite> batch) {
+        metricRecorder.updateHistogram(CacheMetricStrings.CACHE_TYPE_WRITE_BEHIND_BATCH_SIZE, batch.size());
+
+        // clients are replaced when the cluster changes, a batch may contain writes for more than one client.
+        Map<ReferencedClient,List<PendingWrite>> byClient = new IdentityHashMap<>(2);
+        for(PendingWrite write : batch) {
+            byClient.computeIfAbsent(write.client, c -> new ArrayList<>(batch.size())).add(write);
+        }
+
+        for(List<PendingWrite> clientWrites : byClient.values()) {
+            for(PendingWrite write : clientWrites) {
+                try {
+                    metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_WRITES_COUNTER);
+                    write.client.set(write.key, write.ttlInSeconds, write.value);
+                } catch (Throwable e) {
+                    LOGGER.warn("Exception performing memcached set for key {}.  Error {}", write.key, e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
@@ -22,6 +22,8 @@ public class CustomConnectionFactoryBuilder extends ConnectionFactoryBuilder {
 
     private ExecutorService customExecutorService;
 
+    private boolean locateReplicaKeys = false;
+
     public void setCustomExecutorService(ExecutorService service) {
         if (service != null) {
             customExecutorService = service;
@@ -36,6 +38,15 @@ public class CustomConnectionFactoryBuilder extends ConnectionFactoryBuilder {
         return this;
     }
 
+    /**
+     * Whether the locator places replica keys on the node after that of the key they are a replica of;
+     * for hedged reads
+     */
+    public ConnectionFactoryBuilder setLocateReplicaKeys(boolean locateReplicaKeys) {
+        this.locateReplicaKeys = locateReplicaKeys;
+        return this;
+    }
+
     /**
      * Get the ConnectionFactory set up with the provided parameters.
      */
@@ -62,7 +73,7 @@ public class CustomConnectionFactoryBuilder extends ConnectionFactoryBuilder {
 
             @Override
             public NodeLocator createLocator(List<MemcachedNode> nodes) {
-                return locatorFactory.createNodeLocator(nodes,getHashAlg());
+                return locatorFactory.createNodeLocator(nodes,getHashAlg(),locateReplicaKeys);
             }
 
             @Override
@@ -4,6 +4,7 @@ import net.spy.memcached.*;
 import net.spy.memcached.compat.log.Logger;
 import net.spy.memcached.compat.log.SLF4JLogger;
 import net.spy.memcached.ops.Operation;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.locator.BoundedLoadKetamaNodeLocator;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -25,6 +26,8 @@ public class NoKeyValidationMemcachedConnection extends MemcachedConnection {
 
     private static final Logger logger = new SLF4JLogger(MemcachedConnection.class.getName());
 
+    private final FailureMode failureMode;
+
     /**
      * Construct a {@link net.spy.memcached.MemcachedConnection}.
      *
@@ -38,6 +41,7 @@ public class NoKeyValidationMemcachedConnection extends MemcachedConnection {
      */
     public NoKeyValidationMemcachedConnection(int bufSize, ConnectionFactory f, List<InetSocketAddress> a, Collection<ConnectionObserver> obs, FailureMode fm, OperationFactory opfactory) throws IOException {
         super(bufSize, f, a, obs, fm, opfactory);
+        this.failureMode = fm;
     }
 
     /**
@@ -51,6 +55,28 @@ public class NoKeyValidationMemcachedConnection extends MemcachedConnection {
         addOperation(key, o);
     }
 
+    /**
+     * Adds the operation to the node for the key.  With a {@link BoundedLoadKetamaNodeLocator} the node is
+     * chosen by the locator from the operation and the load on the nodes; and the operation is counted as in
+     * flight on its node.
+     */
+    @Override
+    protected void addOperation(final String key, final Operation o) {
+        NodeLocator nodeLocator = getLocator();
+        if (nodeLocator instanceof BoundedLoadKetamaNodeLocator) {
+            BoundedLoadKetamaNodeLocator boundedLoadLocator = (BoundedLoadKetamaNodeLocator) nodeLocator;
+            MemcachedNode node = boundedLoadLocator.getPrimary(key, o);
+            if (node.isActive() || failureMode == FailureMode.Retry) {
+                addOperation(node, o);
+            } else {
+                super.addOperation(key, o);
+            }
+            boundedLoadLocator.operationAdded(o);
+        } else {
+            super.addOperation(key, o);
+        }
+    }
+
     /**
      * Get a Logger instance for this class.
      *
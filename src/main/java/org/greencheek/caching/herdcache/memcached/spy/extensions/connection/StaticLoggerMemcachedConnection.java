@@ -3,6 +3,8 @@ package org.greencheek.caching.herdcache.memcached.spy.extensions.connection;
 import net.spy.memcached.*;
 import net.spy.memcached.compat.log.Logger;
 import net.spy.memcached.compat.log.SLF4JLogger;
+import net.spy.memcached.ops.Operation;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.locator.BoundedLoadKetamaNodeLocator;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -17,6 +19,8 @@ import java.util.List;
 public class StaticLoggerMemcachedConnection extends MemcachedConnection {
     private static final Logger logger = new SLF4JLogger(MemcachedConnection.class.getName());
 
+    private final FailureMode failureMode;
+
     /**
      * Construct a {@link net.spy.memcached.MemcachedConnection}.
      *
@@ -30,6 +34,29 @@ public class StaticLoggerMemcachedConnection extends MemcachedConnection {
      */
     public StaticLoggerMemcachedConnection(int bufSize, NoValidationConnectionFactory f, List<InetSocketAddress> a, Collection<ConnectionObserver> obs, FailureMode fm, OperationFactory opfactory) throws IOException {
         super(bufSize, f, a, obs, fm, opfactory);
+        this.failureMode = fm;
+    }
+
+    /**
+     * Adds the operation to the node for the key.  With a {@link BoundedLoadKetamaNodeLocator} the node is
+     * chosen by the locator from the operation and the load on the nodes; and the operation is counted as in
+     * flight on its node.
+     */
+    @Override
+    protected void addOperation(final String key, final Operation o) {
+        NodeLocator nodeLocator = getLocator();
+        if (nodeLocator instanceof BoundedLoadKetamaNodeLocator) {
+            BoundedLoadKetamaNodeLocator boundedLoadLocator = (BoundedLoadKetamaNodeLocator) nodeLocator;
+            MemcachedNode node = boundedLoadLocator.getPrimary(key, o);
+            if (node.isActive() || failureMode == FailureMode.Retry) {
+                addOperation(node, o);
+            } else {
+                super.addOperation(key, o);
+            }
+            boundedLoadLocator.operationAdded(o);
+        } else {
+            super.addOperation(key, o);
+        }
     }
 
 
@@ -6,6 +6,7 @@ import net.spy.memcached.MemcachedNode;
 import net.spy.memcached.MemcachedNodeROImpl;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Uses a sorted array of values to represent the consistent hash ring of values that are associated with
@@ -37,14 +38,14 @@ public class ArrayBasedCeilRing {
         MemcachedNode[] sortedNodes = new MemcachedNode[nodes.size()];
         this.allNodes = new ArrayList(allNodes);
 
-        Long[] sortedObjectNodePositions = nodes.keySet().toArray(new Long[nodes.size()]);
-        Arrays.sort(sortedObjectNodePositions);
-
         int i = 0;
-        for(Long position : sortedObjectNodePositions) {
-            sortedNodePositions[i] = position;
-            sortedNodes[i++] = nodes.get(position);
-            allNodes.add(nodes.get(position));
+        for(Long position : nodes.keySet()) {
+            sortedNodePositions[i++] = position;
+        }
+        Arrays.sort(sortedNodePositions);
+
+        for(i = 0; i < sortedNodePositions.length; i++) {
+            sortedNodes[i] = nodes.get(sortedNodePositions[i]);
         }
 
         this.sortedNodePositions = sortedNodePositions;
@@ -92,6 +93,45 @@ public class ArrayBasedCeilRing {
         return sortedNodes[findCeilIndex(key)];
     }
 
+    /**
+     * Returns the first memcached node, walking clockwise around the ring from the closest node to the given
+     * key, that is not the closest node.  If the ring contains only one memcached node, that node is returned.
+     */
+    public MemcachedNode findNextDistinctNode(long key) {
+        int index = findCeilIndex(key);
+        MemcachedNode closest = sortedNodes[index];
+        for(int i=1;i<=lastIndexPosition;i++) {
+            MemcachedNode next = sortedNodes[(index + i) % sortedNodes.length];
+            if(next!=closest) {
+                return next;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Returns the first memcached node, walking clockwise around the ring from the closest node to the given
+     * key (the closest node included), that is accepted by the given predicate.  Each memcached node is
+     * tested once.  Returns null if no node is accepted.
+     */
+    public MemcachedNode findFirstAcceptedNode(long key, Predicate<MemcachedNode> accept) {
+        int index = findCeilIndex(key);
+        MemcachedNode closest = sortedNodes[index];
+        if(accept.test(closest)) {
+            return closest;
+        }
+
+        Set<MemcachedNode> tested = new HashSet<MemcachedNode>();
+        tested.add(closest);
+        for(int i=1;i<=lastIndexPosition && tested.size()<allNodes.size();i++) {
+            MemcachedNode next = sortedNodes[(index + i) % sortedNodes.length];
+            if(tested.add(next) && accept.test(next)) {
+                return next;
+            }
+        }
+        return null;
+    }
+
     /**
      * Find the index in the array at which the first value greater than or equal
      * to the given hashVal is.   If hashVal is greater than the maximum value in the
@@ -0,0 +1,151 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.locator;
+
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import net.spy.memcached.HashAlgorithm;
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.StoreOperation;
+import net.spy.memcached.ops.StoreType;
+import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+import org.greencheek.caching.herdcache.memcached.metrics.NoOpMetricRecorder;
+import org.greencheek.caching.herdcache.memcached.util.CacheMetricStrings;
+import org.greencheek.caching.herdcache.util.ReplicaKeyCreator;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Ketama ring ({@link CeilingKeyKetamaNodeLocator}) with bounded loads.  The connection counts the operations
+ * in flight on each memcached node ({@link InFlightOperations}).  A node is at capacity when it has
+ * {@code loadFactor} times the average number of in flight operations (and at least the minimum capacity).
+ *
+ * A set for a key whose node is at capacity walks clockwise around the ring to the first node that is not, and
+ * the key is remembered as overflowed to that node; later operations for the key (gets, deletes) go to that node.
+ * The next set for the key, when its ring node is no longer at capacity, goes back to the ring node.
+ * Only sets are moved; add, cas, append and the like depend upon the item already held by the ring node.
+ *
+ * The overflowed keys are held by this client only, up to a maximum number (least recently used are removed),
+ * and are forgotten when the cluster's nodes change.  This locator is for a single client of the memcached nodes:
+ * other clients do not know which keys have overflowed, and read them from their ring node.  The item held by the
+ * ring node before the overflowed set is not removed; it is read by the other clients, and by this client once the
+ * key is forgotten, until it expires or the key is next set on the ring node.
+ */
+public class BoundedLoadKetamaNodeLocator extends CeilingKeyKetamaNodeLocator {
+
+    public static final double DEFAULT_LOAD_FACTOR = 1.25;
+    public static final int DEFAULT_MINIMUM_CAPACITY = 10;
+    public static final int DEFAULT_MAX_OVERFLOWED_KEYS = 10000;
+
+    private final double loadFactor;
+    private final int minimumCapacity;
+    private final MetricRecorder metricRecorder;
+    private final InFlightOperations inFlightOperations = new InFlightOperations();
+    private final ConcurrentMap<String,MemcachedNode> overflowedKeys;
+
+    public BoundedLoadKetamaNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg) {
+        this(nodes, alg, DEFAULT_LOAD_FACTOR, DEFAULT_MINIMUM_CAPACITY, DEFAULT_MAX_OVERFLOWED_KEYS, new NoOpMetricRecorder());
+    }
+
+    /**
+     * @param loadFactor The multiple of the average in flight operations at which a node is at capacity; at least 1
+     * @param minimumCapacity The number of in flight operations below which a node is never at capacity
+     * @param maxOverflowedKeys The maximum number of overflowed keys that are remembered
+     * @param metricRecorder records the overflows
+     */
+    public BoundedLoadKetamaNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg,
+                                        double loadFactor, int minimumCapacity, int maxOverflowedKeys,
+                                        MetricRecorder metricRecorder) {
+        this(nodes, alg, loadFactor, minimumCapacity, maxOverflowedKeys, metricRecorder, false);
+    }
+
+    /**
+     * @param loadFactor The multiple of the average in flight operations at which a node is at capacity; at least 1
+     * @param minimumCapacity The number of in flight operations below which a node is never at capacity
+     * @param maxOverflowedKeys The maximum number of overflowed keys that are remembered
+     * @param metricRecorder records the overflows
+     * @param locateReplicaKeys Whether replica keys ({@link ReplicaKeyCreator}) are located on the node after the
+     *                          node of the key they are a replica of; when hedged reads are enabled
+     */
+    public BoundedLoadKetamaNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg,
+                                        double loadFactor, int minimumCapacity, int maxOverflowedKeys,
+                                        MetricRecorder metricRecorder, boolean locateReplicaKeys) {
+        super(nodes, alg, locateReplicaKeys);
+        if(loadFactor<1.0) {
+            throw new IllegalArgumentException("Load factor must be at least 1");
+        }
+        this.loadFactor = loadFactor;
+        this.minimumCapacity = Math.max(1,minimumCapacity);
+        this.metricRecorder = metricRecorder == null ? new NoOpMetricRecorder() : metricRecorder;
+        this.overflowedKeys = new ConcurrentLinkedHashMap.Builder<String,MemcachedNode>()
+                .maximumWeightedCapacity(maxOverflowedKeys)
+                .build();
+    }
+
+    /**
+     * The node for the key; the node it has overflowed to, if it has.
+     */
+    @Override
+    public MemcachedNode getPrimary(final String k) {
+        MemcachedNode overflowedTo = overflowedKeys.get(k);
+        return overflowedTo == null ? super.getPrimary(k) : overflowedTo;
+    }
+
+    /**
+     * The node the operation for the key is to be sent to.  For a set, the first node from the key's position in
+     * the ring that is not at capacity.
+     */
+    public MemcachedNode getPrimary(final String k, final Operation o) {
+        if(!isSet(o) || (isLocateReplicaKeys() && ReplicaKeyCreator.isReplicaKey(k))) {
+            return getPrimary(k);
+        }
+
+        ArrayBasedCeilRing ring = getRing();
+        final int capacity = getCapacity(ring.getAllNodes().size());
+        long hash = hash(k);
+        MemcachedNode node = ring.findFirstAcceptedNode(hash, n -> inFlightOperations.get(n) < capacity);
+        MemcachedNode ringNode = ring.findClosestNode(hash);
+        if(node == null || node == ringNode) {
+            if(overflowedKeys.remove(k)!=null) {
+                metricRecorder.setGauge(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_BOUNDED_LOAD_OVERFLOWED_KEYS, overflowedKeys.size());
+            }
+            return ringNode;
+        }
+
+        overflowedKeys.put(k,node);
+        metricRecorder.incrementCounter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_BOUNDED_LOAD_OVERFLOW_COUNTER);
+        metricRecorder.setGauge(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_BOUNDED_LOAD_OVERFLOWED_KEYS, overflowedKeys.size());
+        return node;
+    }
+
+    /**
+     * Called by the connection once the operation has been added to its node
+     */
+    public void operationAdded(Operation o) {
+        inFlightOperations.added(o);
+    }
+
+    int getCapacity(int numberOfNodes) {
+        int capacity = (int)Math.ceil(loadFactor * (inFlightOperations.getTotal() + 1) / numberOfNodes);
+        return Math.max(minimumCapacity,capacity);
+    }
+
+    int getInFlightOperations(MemcachedNode node) {
+        return inFlightOperations.get(node);
+    }
+
+    int getNumberOfOverflowedKeys() {
+        return overflowedKeys.size();
+    }
+
+    @Override
+    public void updateLocator(List<MemcachedNode> nodes) {
+        super.updateLocator(nodes);
+        overflowedKeys.clear();
+        inFlightOperations.retain(nodes);
+        metricRecorder.setGauge(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_BOUNDED_LOAD_OVERFLOWED_KEYS, 0);
+    }
+
+    private static boolean isSet(Operation o) {
+        return o instanceof StoreOperation && ((StoreOperation) o).getStoreType() == StoreType.set;
+    }
+}
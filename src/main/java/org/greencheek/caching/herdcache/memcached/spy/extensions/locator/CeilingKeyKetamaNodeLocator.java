@@ -4,6 +4,7 @@ import net.spy.memcached.*;
 import net.spy.memcached.compat.SpyObject;
 import net.spy.memcached.util.DefaultKetamaNodeLocatorConfiguration;
 import net.spy.memcached.util.KetamaNodeLocatorConfiguration;
+import org.greencheek.caching.herdcache.util.ReplicaKeyCreator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,6 +24,7 @@ public class CeilingKeyKetamaNodeLocator extends SpyObject implements NodeLocato
     private final Map<InetSocketAddress, Integer> weights;
     private final boolean isWeightedKetama;
     private final KetamaNodeLocatorConfiguration config;
+    private final boolean locateReplicaKeys;
 
     /**
      * Create a new KetamaNodeLocator using specified nodes and the specifed hash
@@ -37,6 +39,23 @@ public class CeilingKeyKetamaNodeLocator extends SpyObject implements NodeLocato
         this(nodes, alg, KetamaNodeKeyFormatter.Format.SPYMEMCACHED, new HashMap<InetSocketAddress, Integer>());
     }
 
+    /**
+     * Create a new KetamaNodeLocator using specified nodes and the specifed hash
+     * algorithm.
+     *
+     * @param nodes The List of nodes to use in the Ketama consistent hash
+     *          continuum
+     * @param alg The hash algorithm to use when choosing a node in the Ketama
+     *          consistent hash continuum
+     * @param locateReplicaKeys Whether replica keys ({@link ReplicaKeyCreator}) are located on the node after the
+     *          node of the key they are a replica of; when hedged reads are enabled
+     */
+    public CeilingKeyKetamaNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg, boolean locateReplicaKeys) {
+        this(nodes, alg, new HashMap<InetSocketAddress, Integer>(),
+                new DefaultKetamaNodeLocatorConfiguration(new KetamaNodeKeyFormatter(KetamaNodeKeyFormatter.Format.SPYMEMCACHED)),
+                locateReplicaKeys);
+    }
+
     /**
      * Create a new KetamaNodeLocator with specific nodes, hash, node key format,
      * and weight
@@ -86,36 +105,83 @@ public class CeilingKeyKetamaNodeLocator extends SpyObject implements NodeLocato
     public CeilingKeyKetamaNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg,
                                        Map<InetSocketAddress, Integer> nodeWeights,
                                        KetamaNodeLocatorConfiguration configuration) {
+        this(nodes, alg, nodeWeights, configuration, false);
+    }
+
+    /**
+     * Create a new KetamaNodeLocator with specific nodes, hash, node key format,
+     * and weight
+     *
+     * @param nodes The List of nodes to use in the Ketama consistent hash
+     *          continuum
+     * @param alg The hash algorithm to use when choosing a node in the Ketama
+     *          consistent hash continuum
+     * @param nodeWeights node weights for ketama, a map from InetSocketAddress to
+     *          weight as Integer
+     * @param configuration node locator configuration
+     * @param locateReplicaKeys Whether replica keys ({@link ReplicaKeyCreator}) are located on the node after the
+     *          node of the key they are a replica of; when hedged reads are enabled
+     */
+    public CeilingKeyKetamaNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg,
+                                       Map<InetSocketAddress, Integer> nodeWeights,
+                                       KetamaNodeLocatorConfiguration configuration,
+                                       boolean locateReplicaKeys) {
         super();
         hashAlg = alg;
         config = configuration;
         weights = nodeWeights;
         isWeightedKetama = !weights.isEmpty();
+        this.locateReplicaKeys = locateReplicaKeys;
         setKetamaNodes(nodes);
     }
 
     private CeilingKeyKetamaNodeLocator(ArrayBasedCeilRing nodes,
                                         HashAlgorithm alg,
                                         Map<InetSocketAddress, Integer> nodeWeights,
-                                        KetamaNodeLocatorConfiguration conf) {
+                                        KetamaNodeLocatorConfiguration conf,
+                                        boolean locateReplicaKeys) {
         super();
         ketamaNodes = nodes;
         hashAlg = alg;
         config = conf;
         weights = nodeWeights;
         isWeightedKetama = !weights.isEmpty();
+        this.locateReplicaKeys = locateReplicaKeys;
     }
 
     public Collection<MemcachedNode> getAll() {
         return ketamaNodes.getAllNodes();
     }
 
+    /**
+     * Returns the node for the key.  When replica keys are located, a replica key ({@link ReplicaKeyCreator}) is
+     * located on the next node in the ring, after the node holding the key it is a replica of.  The hash of a key created as a
+     * {@link org.greencheek.caching.herdcache.CacheKey} is not recalculated ({@link PrecomputedKeyHashes}).
+     */
     public MemcachedNode getPrimary(final String k) {
-        MemcachedNode rv = getNodeForKey(hashAlg.hash(k));
+        if(locateReplicaKeys && ReplicaKeyCreator.isReplicaKey(k)) {
+            return ketamaNodes.findNextDistinctNode(hashAlg.hash(ReplicaKeyCreator.getKey(k)));
+        }
+        MemcachedNode rv = getNodeForKey(PrecomputedKeyHashes.hash(hashAlg, k));
         assert rv != null : "Found no node for key " + k;
         return rv;
     }
 
+    /**
+     * The hash of the key, used to find its position in the ring
+     */
+    long hash(String k) {
+        return PrecomputedKeyHashes.hash(hashAlg, k);
+    }
+
+    boolean isLocateReplicaKeys() {
+        return locateReplicaKeys;
+    }
+
+    ArrayBasedCeilRing getRing() {
+        return ketamaNodes;
+    }
+
     long getMaxKey() {
         return ketamaNodes.getMaxPosition();
     }
@@ -131,7 +197,7 @@ public class CeilingKeyKetamaNodeLocator extends SpyObject implements NodeLocato
     }
 
     public NodeLocator getReadonlyCopy() {
-        return new CeilingKeyKetamaNodeLocator(ketamaNodes.roClone(), hashAlg, weights, config);
+        return new CeilingKeyKetamaNodeLocator(ketamaNodes.roClone(), hashAlg, weights, config, locateReplicaKeys);
     }
 
 
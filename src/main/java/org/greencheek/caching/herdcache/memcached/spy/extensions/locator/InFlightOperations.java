@@ -0,0 +1,90 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.locator;
+
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationState;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the operations that are in flight (queued, being written, or awaiting their response) on each
+ * memcached node.  A node answers the operations sent on its connection in the order they were sent; so the
+ * operations of a node are kept in a queue, and those that have completed are dropped from the head of the
+ * queue when the node's count is read, or an operation is added for the node.
+ */
+public class InFlightOperations {
+
+    private static class NodeOperations {
+        private final Queue<Operation> operations = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger count = new AtomicInteger();
+
+        private int removeCompleted() {
+            Operation head;
+            while((head = operations.peek())!=null && isDone(head)) {
+                if(operations.remove(head)) {
+                    count.decrementAndGet();
+                }
+            }
+            return count.get();
+        }
+    }
+
+    private final ConcurrentMap<MemcachedNode,NodeOperations> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Records the operation against the node it was added to ({@link Operation#getHandlingNode()})
+     */
+    public void added(Operation o) {
+        MemcachedNode node = o.getHandlingNode();
+        if(node==null || isDone(o)) {
+            return;
+        }
+
+        NodeOperations nodeOperations = nodes.get(node);
+        if(nodeOperations==null) {
+            NodeOperations newNodeOperations = new NodeOperations();
+            nodeOperations = nodes.putIfAbsent(node,newNodeOperations);
+            if(nodeOperations==null) {
+                nodeOperations = newNodeOperations;
+            }
+        }
+        nodeOperations.operations.offer(o);
+        nodeOperations.count.incrementAndGet();
+        nodeOperations.removeCompleted();
+    }
+
+    /**
+     * The number of operations in flight on the node
+     */
+    public int get(MemcachedNode node) {
+        NodeOperations nodeOperations = nodes.get(node);
+        return nodeOperations == null ? 0 : nodeOperations.removeCompleted();
+    }
+
+    /**
+     * The number of operations in flight on all the nodes
+     */
+    public int getTotal() {
+        int total = 0;
+        for(NodeOperations nodeOperations : nodes.values()) {
+            total += nodeOperations.removeCompleted();
+        }
+        return total;
+    }
+
+    /**
+     * Stops counting the operations of any node that is not one of the given nodes
+     */
+    public void retain(Collection<MemcachedNode> currentNodes) {
+        nodes.keySet().retainAll(currentNodes);
+    }
+
+    private static boolean isDone(Operation o) {
+        return o.getState() == OperationState.COMPLETE || o.isCancelled() || o.isTimedOut();
+    }
+}
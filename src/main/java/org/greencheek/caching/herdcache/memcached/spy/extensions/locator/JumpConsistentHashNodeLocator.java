@@ -0,0 +1,172 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.locator;
+
+import net.spy.memcached.HashAlgorithm;
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.MemcachedNodeROImpl;
+import net.spy.memcached.NodeLocator;
+import net.spy.memcached.compat.SpyObject;
+import net.spy.memcached.util.DefaultKetamaNodeLocatorConfiguration;
+import net.spy.memcached.util.KetamaNodeLocatorConfiguration;
+import org.greencheek.caching.herdcache.util.ReplicaKeyCreator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Locates the node for a key with Lamping and Veach's jump consistent hash; which needs no ring, or table,
+ * just the array of nodes.  A lookup is a handful of multiplications (O(log n) in the number of nodes, with no
+ * memory access other than the node array), and an update is a copy of the node list.
+ *
+ * Nodes are numbered in the order of their names (as used for ketama; so all clients agree regardless of the order
+ * nodes are given in).  A node added to, or removed from, the end of that order moves only the keys of that node
+ * (1/n of the keys); a node removed from elsewhere in the order also moves keys between the remaining nodes.
+ * Node weights are not supported.
+ */
+public class JumpConsistentHashNodeLocator extends SpyObject implements NodeLocator {
+
+    private static final long JUMP_MULTIPLIER = 2862933555777941757L;
+    private static final KetamaNodeLocatorConfiguration NODE_NAMES = new DefaultKetamaNodeLocatorConfiguration();
+
+    private final HashAlgorithm hashAlg;
+    private final boolean locateReplicaKeys;
+    private volatile MemcachedNode[] nodes;
+
+    public JumpConsistentHashNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg) {
+        this(nodes, alg, false);
+    }
+
+    /**
+     * @param locateReplicaKeys Whether replica keys ({@link ReplicaKeyCreator}) are located on the node after the
+     *                          node of the key they are a replica of; when hedged reads are enabled
+     */
+    public JumpConsistentHashNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg, boolean locateReplicaKeys) {
+        this(sortByName(nodes), alg, locateReplicaKeys);
+    }
+
+    private JumpConsistentHashNodeLocator(MemcachedNode[] nodes, HashAlgorithm alg, boolean locateReplicaKeys) {
+        this.hashAlg = alg;
+        this.locateReplicaKeys = locateReplicaKeys;
+        this.nodes = nodes;
+    }
+
+    /**
+     * The nodes are sorted by name, so that the numbering does not depend on the order the nodes are given in
+     */
+    private static MemcachedNode[] sortByName(List<MemcachedNode> nodes) {
+        MemcachedNode[] nodeArray = nodes.toArray(new MemcachedNode[nodes.size()]);
+        Arrays.sort(nodeArray, Comparator.comparing((MemcachedNode node) -> NODE_NAMES.getKeyForNode(node, 0)));
+        return nodeArray;
+    }
+
+    private static MemcachedNode[] requireNodes(MemcachedNode[] nodes, String k) {
+        if (nodes.length == 0) {
+            throw new IllegalStateException("No memcached nodes to locate key: " + k);
+        }
+        return nodes;
+    }
+
+    /**
+     * The bucket, in the range [0,buckets), for the key
+     */
+    static int jumpConsistentHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * JUMP_MULTIPLIER + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    /**
+     * Spreads a (usually 32bit) key hash over the 64bits used by the jump hash
+     */
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    int getBucket(long hash, int buckets) {
+        return jumpConsistentHash(mix(hash), buckets);
+    }
+
+    /**
+     * Returns the node for the key.  When replica keys are located, a replica key ({@link ReplicaKeyCreator}) is
+     * located on the node after the node holding the key it is a replica of.
+     *
+     * @throws IllegalStateException if there are no nodes
+     */
+    @Override
+    public MemcachedNode getPrimary(String k) {
+        MemcachedNode[] nodes = requireNodes(this.nodes, k);
+        if (locateReplicaKeys && ReplicaKeyCreator.isReplicaKey(k)) {
+            int bucket = getBucket(hashAlg.hash(ReplicaKeyCreator.getKey(k)), nodes.length);
+            return nodes[(bucket + 1) % nodes.length];
+        }
+        return nodes[getBucket(PrecomputedKeyHashes.hash(hashAlg, k), nodes.length)];
+    }
+
+    /**
+     * The nodes to try, should the primary be unavailable; from the key's hash combined with the attempt number.
+     * There are none if there are no nodes
+     */
+    @Override
+    public Iterator<MemcachedNode> getSequence(String k) {
+        final MemcachedNode[] nodes = this.nodes;
+        final long hash = hashAlg.hash(k);
+        return new Iterator<MemcachedNode>() {
+            private int attempt = 1;
+
+            @Override
+            public boolean hasNext() {
+                return attempt <= 7 && nodes.length > 0;
+            }
+
+            @Override
+            public MemcachedNode next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return nodes[getBucket(hash + (attempt++ * JUMP_MULTIPLIER), nodes.length)];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("remove not supported");
+            }
+        };
+    }
+
+    @Override
+    public Collection<MemcachedNode> getAll() {
+        List<MemcachedNode> all = new ArrayList<>(nodes.length);
+        Collections.addAll(all, nodes);
+        return all;
+    }
+
+    @Override
+    public NodeLocator getReadonlyCopy() {
+        MemcachedNode[] nodes = this.nodes;
+        MemcachedNode[] readOnly = new MemcachedNode[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            readOnly[i] = new MemcachedNodeROImpl(nodes[i]);
+        }
+        return new JumpConsistentHashNodeLocator(readOnly, hashAlg, locateReplicaKeys);
+    }
+
+    @Override
+    public void updateLocator(List<MemcachedNode> nodes) {
+        this.nodes = sortByName(nodes);
+    }
+}
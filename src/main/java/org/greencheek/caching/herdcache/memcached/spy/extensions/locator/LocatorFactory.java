@@ -1,6 +1,7 @@
 package org.greencheek.caching.herdcache.memcached.spy.extensions.locator;
 
 import net.spy.memcached.*;
+import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
 
 import java.util.List;
 
@@ -11,8 +12,53 @@ public interface LocatorFactory {
     public static LocatorFactory DO_NOTHING = (x,y) -> null;
     public static LocatorFactory ARRAY_MOD = (nodes,algorithm) -> new ArrayModNodeLocator(nodes,algorithm);
     public static LocatorFactory KETAMA = (nodes,algorithm) -> new KetamaNodeLocator(nodes,algorithm);
-    public static LocatorFactory KETAMA_CEILING_ARRAY = (nodes,algorithm) -> new CeilingKeyKetamaNodeLocator(nodes,algorithm);
+    public static LocatorFactory KETAMA_CEILING_ARRAY = (ReplicaKeyLocatorFactory) (nodes,algorithm,locateReplicaKeys) ->
+            new CeilingKeyKetamaNodeLocator(nodes,algorithm,locateReplicaKeys);
+    public static LocatorFactory JUMP_CONSISTENT_HASH = (ReplicaKeyLocatorFactory) (nodes,algorithm,locateReplicaKeys) ->
+            new JumpConsistentHashNodeLocator(nodes,algorithm,locateReplicaKeys);
+    public static LocatorFactory MAGLEV = (ReplicaKeyLocatorFactory) (nodes,algorithm,locateReplicaKeys) ->
+            new MaglevNodeLocator(nodes,algorithm,MaglevNodeLocator.DEFAULT_TABLE_SIZE,locateReplicaKeys);
+    public static LocatorFactory BOUNDED_LOAD_KETAMA = (ReplicaKeyLocatorFactory) (nodes,algorithm,locateReplicaKeys) ->
+            new BoundedLoadKetamaNodeLocator(nodes,algorithm,
+                    BoundedLoadKetamaNodeLocator.DEFAULT_LOAD_FACTOR,
+                    BoundedLoadKetamaNodeLocator.DEFAULT_MINIMUM_CAPACITY,
+                    BoundedLoadKetamaNodeLocator.DEFAULT_MAX_OVERFLOWED_KEYS,null,locateReplicaKeys);
+
+    /**
+     * Ketama with bounded loads ({@link BoundedLoadKetamaNodeLocator}), a node being at capacity at
+     * {@code loadFactor} times the average in flight operations.  Overflows are recorded with the given recorder.
+     */
+    public static LocatorFactory boundedLoadKetama(double loadFactor, MetricRecorder metricRecorder) {
+        return (ReplicaKeyLocatorFactory) (nodes,algorithm,locateReplicaKeys) ->
+                new BoundedLoadKetamaNodeLocator(nodes,algorithm,loadFactor,
+                        BoundedLoadKetamaNodeLocator.DEFAULT_MINIMUM_CAPACITY,
+                        BoundedLoadKetamaNodeLocator.DEFAULT_MAX_OVERFLOWED_KEYS,metricRecorder,locateReplicaKeys);
+    }
 
 
     public NodeLocator createNodeLocator(List<MemcachedNode> nodes,HashAlgorithm algorithm);
+
+    /**
+     * Creates the locator; with replica keys ({@link org.greencheek.caching.herdcache.util.ReplicaKeyCreator})
+     * located on the node after that of the key they are a replica of, if {@code locateReplicaKeys} (hedged reads
+     * are enabled) and the locator supports it.
+     */
+    default NodeLocator createNodeLocator(List<MemcachedNode> nodes,HashAlgorithm algorithm,boolean locateReplicaKeys) {
+        return createNodeLocator(nodes,algorithm);
+    }
+
+    /**
+     * A factory for the locators that can locate replica keys.  Replica keys are located as any other key,
+     * unless asked for.
+     */
+    @FunctionalInterface
+    public interface ReplicaKeyLocatorFactory extends LocatorFactory {
+        @Override
+        default NodeLocator createNodeLocator(List<MemcachedNode> nodes,HashAlgorithm algorithm) {
+            return createNodeLocator(nodes,algorithm,false);
+        }
+
+        @Override
+        NodeLocator createNodeLocator(List<MemcachedNode> nodes,HashAlgorithm algorithm,boolean locateReplicaKeys);
+    }
 }
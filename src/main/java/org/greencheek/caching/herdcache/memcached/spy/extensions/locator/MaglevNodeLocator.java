@@ -0,0 +1,229 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.locator;
+
+import net.spy.memcached.HashAlgorithm;
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.MemcachedNodeROImpl;
+import net.spy.memcached.NodeLocator;
+import net.spy.memcached.compat.SpyObject;
+import net.spy.memcached.util.DefaultKetamaNodeLocatorConfiguration;
+import net.spy.memcached.util.KetamaNodeLocatorConfiguration;
+import org.greencheek.caching.herdcache.util.ReplicaKeyCreator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Locates the node for a key with a Maglev lookup table (Eisenbud et al, "Maglev: A Fast and Reliable Software
+ * Network Load Balancer").  The table has a prime number of slots, each holding the index of a node; a key's node is
+ * {@code table[hash % size]}, a single array read.
+ *
+ * Each node has a permutation of the slots, from the hash of its name (as used for ketama; so all clients
+ * agree regardless of the order nodes are given in).  The nodes take turns claiming their next free slot, so each
+ * node owns an equal share of the table (within one slot); and when a node is added or removed most keys stay
+ * on the same node.  The table is rebuilt when the nodes change, in O(size log size).  Node weights are not supported.
+ */
+public class MaglevNodeLocator extends SpyObject implements NodeLocator {
+
+    /**
+     * A prime that is large compared to the number of nodes in a cluster (the paper suggests at least 100 times)
+     */
+    public static final int DEFAULT_TABLE_SIZE = 65537;
+
+    private final HashAlgorithm hashAlg;
+    private final KetamaNodeLocatorConfiguration config;
+    private final int minimumTableSize;
+    private final boolean locateReplicaKeys;
+
+    private volatile Table table;
+
+    private static final class Table {
+        final MemcachedNode[] nodes;
+        final int[] slots;
+
+        Table(MemcachedNode[] nodes, int[] slots) {
+            this.nodes = nodes;
+            this.slots = slots;
+        }
+    }
+
+    public MaglevNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg) {
+        this(nodes, alg, DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * @param tableSize The minimum number of slots in the table.  The table has at least 100 slots per node,
+     *                  rounded up to a prime.
+     */
+    public MaglevNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg, int tableSize) {
+        this(nodes, alg, tableSize, false);
+    }
+
+    /**
+     * @param tableSize The minimum number of slots in the table.  The table has at least 100 slots per node,
+     *                  rounded up to a prime.
+     * @param locateReplicaKeys Whether replica keys ({@link ReplicaKeyCreator}) are located on the node after the
+     *                          node of the key they are a replica of; when hedged reads are enabled
+     */
+    public MaglevNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg, int tableSize, boolean locateReplicaKeys) {
+        this(alg, new DefaultKetamaNodeLocatorConfiguration(), tableSize, locateReplicaKeys);
+        updateLocator(nodes);
+    }
+
+    private MaglevNodeLocator(HashAlgorithm alg, KetamaNodeLocatorConfiguration config, int minimumTableSize,
+                              boolean locateReplicaKeys) {
+        this.hashAlg = alg;
+        this.config = config;
+        this.minimumTableSize = minimumTableSize;
+        this.locateReplicaKeys = locateReplicaKeys;
+    }
+
+    static int tableSizeFor(int minimumTableSize, int numberOfNodes) {
+        int size = Math.max(minimumTableSize, numberOfNodes * 100);
+        while (!isPrime(size)) {
+            size++;
+        }
+        return size;
+    }
+
+    static boolean isPrime(int n) {
+        if (n < 2) return false;
+        if (n % 2 == 0) return n == 2;
+        for (int i = 3; (long) i * i <= n; i += 2) {
+            if (n % i == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Fills the table from the permutation of each node: (offset + j * skip) mod size
+     */
+    int[] populate(MemcachedNode[] nodes, int size) {
+        int[] slots = new int[size];
+        if (nodes.length == 0) {
+            return slots;
+        }
+
+        long[] offsets = new long[nodes.length];
+        long[] skips = new long[nodes.length];
+        long[] next = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            offsets[i] = Math.floorMod(hashAlg.hash(config.getKeyForNode(nodes[i], 0)), (long) size);
+            skips[i] = Math.floorMod(hashAlg.hash(config.getKeyForNode(nodes[i], 1)), (long) size - 1) + 1;
+        }
+
+        Arrays.fill(slots, -1);
+        int filled = 0;
+        while (true) {
+            for (int i = 0; i < nodes.length; i++) {
+                int slot = (int) ((offsets[i] + next[i] * skips[i]) % size);
+                while (slots[slot] >= 0) {
+                    next[i]++;
+                    slot = (int) ((offsets[i] + next[i] * skips[i]) % size);
+                }
+                slots[slot] = i;
+                next[i]++;
+                if (++filled == size) {
+                    return slots;
+                }
+            }
+        }
+    }
+
+    private int slotFor(long hash, int size) {
+        return (int) Math.floorMod(hash, (long) size);
+    }
+
+    /**
+     * Returns the node for the key.  When replica keys are located, a replica key ({@link ReplicaKeyCreator}) is
+     * located on the node of the next slot, after the slot of the key it is a replica of, that is owned by a different node.
+     */
+    @Override
+    public MemcachedNode getPrimary(String k) {
+        Table table = this.table;
+        if (locateReplicaKeys && ReplicaKeyCreator.isReplicaKey(k)) {
+            return findNextDistinctNode(table, hashAlg.hash(ReplicaKeyCreator.getKey(k)));
+        }
+        return table.nodes[table.slots[slotFor(PrecomputedKeyHashes.hash(hashAlg, k), table.slots.length)]];
+    }
+
+    private MemcachedNode findNextDistinctNode(Table table, long hash) {
+        int[] slots = table.slots;
+        int slot = slotFor(hash, slots.length);
+        int owner = slots[slot];
+        if (table.nodes.length > 1) {
+            for (int i = 1; i < slots.length; i++) {
+                int next = slots[(slot + i) % slots.length];
+                if (next != owner) {
+                    return table.nodes[next];
+                }
+            }
+        }
+        return table.nodes[owner];
+    }
+
+    /**
+     * The nodes to try, should the primary be unavailable; those of the slots that follow the key's slot
+     */
+    @Override
+    public Iterator<MemcachedNode> getSequence(String k) {
+        final Table table = this.table;
+        final int start = slotFor(hashAlg.hash(k), table.slots.length);
+        return new Iterator<MemcachedNode>() {
+            private int attempt = 1;
+
+            @Override
+            public boolean hasNext() {
+                return attempt <= 7;
+            }
+
+            @Override
+            public MemcachedNode next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return table.nodes[table.slots[(start + attempt++) % table.slots.length]];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("remove not supported");
+            }
+        };
+    }
+
+    @Override
+    public Collection<MemcachedNode> getAll() {
+        MemcachedNode[] nodes = table.nodes;
+        List<MemcachedNode> all = new ArrayList<>(nodes.length);
+        Collections.addAll(all, nodes);
+        return all;
+    }
+
+    @Override
+    public NodeLocator getReadonlyCopy() {
+        Table table = this.table;
+        MemcachedNode[] readOnly = new MemcachedNode[table.nodes.length];
+        for (int i = 0; i < readOnly.length; i++) {
+            readOnly[i] = new MemcachedNodeROImpl(table.nodes[i]);
+        }
+        MaglevNodeLocator copy = new MaglevNodeLocator(hashAlg, config, minimumTableSize, locateReplicaKeys);
+        copy.table = new Table(readOnly, table.slots);
+        return copy;
+    }
+
+    /**
+     * The nodes are sorted by name, so that the table does not depend on the order the nodes are given in
+     */
+    @Override
+    public void updateLocator(List<MemcachedNode> nodes) {
+        MemcachedNode[] nodeArray = nodes.toArray(new MemcachedNode[nodes.size()]);
+        Arrays.sort(nodeArray, Comparator.comparing((MemcachedNode node) -> config.getKeyForNode(node, 0)));
+        table = new Table(nodeArray, populate(nodeArray, tableSizeFor(minimumTableSize, nodeArray.length)));
+    }
+}
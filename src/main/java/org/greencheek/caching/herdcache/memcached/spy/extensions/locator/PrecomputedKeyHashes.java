@@ -0,0 +1,48 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.locator;
+
+import net.spy.memcached.HashAlgorithm;
+import org.greencheek.caching.herdcache.CacheKey;
+
+/**
+ * Hands the ketama hash of a {@link CacheKey}, calculated when the key was created, to the node locator.
+ * The memcached client only gives the locator the key String; so the cache sets the CacheKey for the calling
+ * thread whilst it issues operations for the key, and the locator uses the CacheKey's hash when asked for that
+ * same String instance.  Any other key, or an operation issued on another thread, is hashed as normal.
+ */
+public final class PrecomputedKeyHashes {
+
+    private static final ThreadLocal<CacheKey> CURRENT = new ThreadLocal<>();
+
+    private PrecomputedKeyHashes() {
+    }
+
+    /**
+     * Sets the key for the calling thread
+     *
+     * @return The key that was previously set, to be given to {@link #restore(CacheKey)}
+     */
+    public static CacheKey set(CacheKey key) {
+        CacheKey previous = CURRENT.get();
+        CURRENT.set(key);
+        return previous;
+    }
+
+    public static void restore(CacheKey previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * The hash of the key; the precomputed hash if the key is that of the thread's current {@link CacheKey}
+     */
+    public static long hash(HashAlgorithm hashAlg, String key) {
+        CacheKey current = CURRENT.get();
+        if (current != null && current.hasKetamaHash() && current.getMemcachedKey() == key) {
+            return current.getKetamaHash();
+        }
+        return hashAlg.hash(key);
+    }
+}
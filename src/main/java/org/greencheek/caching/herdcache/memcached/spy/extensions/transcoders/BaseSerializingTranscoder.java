@@ -31,6 +31,7 @@ import org.greencheek.caching.herdcache.memcached.spy.extensions.ClassLoaderObje
 import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.Compression;
 import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.SnappyCompression;
 import org.greencheek.caching.herdcache.memcached.util.ResizableByteBufferNoBoundsCheckingBackedOutputStream;
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
 import org.greencheek.caching.herdcache.memcached.util.ThreadUnsafeByteArrayInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -90,38 +91,54 @@ public abstract class BaseSerializingTranscoder extends SpyObject {
      * Get the bytes representing the given serialized object.
      */
     protected byte[] serialize(Object o) {
+        ResizeableByteBuffer buffer = new ResizeableByteBuffer(4096, ResizeableByteBuffer.MAX_ARRAY_SIZE);
+        serialize(o, buffer);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Serialize the given object, appending the bytes to the given buffer.
+     */
+    protected void serialize(Object o, ResizeableByteBuffer out) {
         if (o == null) {
             throw new NullPointerException("Can't serialize null");
         }
-        byte[] rv = null;
         ResizableByteBufferNoBoundsCheckingBackedOutputStream bos = null;
         ObjectOutputStream os = null;
         try {
-            bos = new ResizableByteBufferNoBoundsCheckingBackedOutputStream(4096);
+            bos = new ResizableByteBufferNoBoundsCheckingBackedOutputStream(out);
             os = new ObjectOutputStream(bos);
             os.writeObject(o);
             os.close();
             bos.close();
-            rv = bos.toByteArray();
         } catch (IOException e) {
             throw new IllegalArgumentException("Non-serializable object", e);
         } finally {
             CloseUtil.close(os);
             CloseUtil.close(bos);
         }
-        return rv;
     }
 
     /**
      * Get the object represented by the given serialized bytes.
      */
     protected Object deserialize(byte[] in) {
+        if (in == null) {
+            return null;
+        }
+        return deserialize(in, in.length);
+    }
+
+    /**
+     * Get the object represented by the first {@code length} serialized bytes of the given array.
+     */
+    protected Object deserialize(byte[] in, int length) {
         Object rv = null;
         ThreadUnsafeByteArrayInputStream bis = null;
         ObjectInputStream is = null;
         try {
             if (in != null) {
-                bis = new ThreadUnsafeByteArrayInputStream(in);
+                bis = new ThreadUnsafeByteArrayInputStream(in, 0, length);
                 is = new ClassLoaderObjectInputStream(bis);
                 rv = is.readObject();
                 is.close();
@@ -129,10 +146,10 @@ public abstract class BaseSerializingTranscoder extends SpyObject {
             }
         } catch (IOException e) {
             logger.warn("Caught IOException decoding {} bytes of data",
-                    in == null ? 0 : in.length, e);
+                    in == null ? 0 : length, e);
         } catch (ClassNotFoundException e) {
             logger.warn("Caught CNFE decoding {} bytes of data",
-                    in == null ? 0 : in.length, e);
+                    in == null ? 0 : length, e);
         } finally {
             CloseUtil.close(is);
             CloseUtil.close(bis);
@@ -156,6 +173,22 @@ public abstract class BaseSerializingTranscoder extends SpyObject {
         return compressor.decompress(in);
     }
 
+    /**
+     * Compress {@code length} bytes of the given array, appending the compressed bytes to the given buffer.
+     */
+    protected void compress(byte[] in, int offset, int length, ResizeableByteBuffer out) {
+        compressor.compress(in, offset, length, out);
+    }
+
+    /**
+     * Decompress the given array of bytes, appending the decompressed bytes to the given buffer.
+     *
+     * @return false if the bytes cannot be decompressed
+     */
+    protected boolean decompress(byte[] in, ResizeableByteBuffer out) {
+        return compressor.decompress(in, out);
+    }
+
     /**
      * Decode the string with the current character set.
      */
@@ -171,6 +204,21 @@ public abstract class BaseSerializingTranscoder extends SpyObject {
         return rv;
     }
 
+    /**
+     * Decode the first {@code length} bytes of the given array with the current character set.
+     */
+    protected String decodeString(byte[] data, int length) {
+        String rv = null;
+        try {
+            if (data != null) {
+                rv = new String(data, 0, length, charset);
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+        return rv;
+    }
+
     /**
      * Encode a string into the current character set.
      */
@@ -8,6 +8,8 @@ import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
 import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.Compression;
 import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.LZ4NativeCompression;
 import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.SnappyCompression;
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
+import org.greencheek.caching.herdcache.memcached.util.ThreadLocalResizeableByteBuffers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,6 +22,7 @@ public class FastSerializingTranscoder extends SerializingTranscoder {
     private static final Logger logger = LoggerFactory.getLogger(FastSerializingTranscoder.class);
     public static final boolean DEFAULT_SHARE_REFERENCES = true;
     public static final int MAX_CONTENT_SIZE_IN_BYTES = CachedData.MAX_SIZE;
+    public static final int MAX_RETAINED_OUTPUT_BUFFER_SIZE_IN_BYTES = ThreadLocalResizeableByteBuffers.DEFAULT_MAX_RETAINED_CAPACITY;
 
     // ! reuse this Object, it caches metadata. Performance degrades massively
     // if you create a new Configuration Object with each serialization !
@@ -98,7 +101,8 @@ public class FastSerializingTranscoder extends SerializingTranscoder {
         super(config.getMaxContentLengthInBytes(),
                 config.getCompressionThresholdInBytes(),
                 config.getCompression(),
-                config.getMetricRecorder());
+                config.getMetricRecorder(),
+                config.getValueCodecs());
         conf = FSTConfiguration.createDefaultConfiguration();
         conf.setShareReferences(config.isShareReferences());
         Class[] classesKnownToBeSerialized = config.getClassesKnownToBeSerialized();
@@ -108,49 +112,50 @@ public class FastSerializingTranscoder extends SerializingTranscoder {
     }
 
     /**
-     * Get the object represented by the given serialized bytes.
+     * Get the object represented by the first {@code length} serialized bytes of the given array.
      */
-    protected Object deserialize(byte[] in) {
+    protected Object deserialize(byte[] in, int length) {
         Object rv = null;
 
         try {
             if (in != null) {
-                FSTObjectInput is = conf.getObjectInput(in);
+                FSTObjectInput is = conf.getObjectInput(in, length);
                 rv = is.readObject();
             }
         } catch (IOException e) {
             logger.warn("Caught IOException decoding {} bytes of data",
-                    in == null ? 0 : in.length, e);
+                    in == null ? 0 : length, e);
         } catch (ClassNotFoundException e) {
             logger.warn("Caught CNFE decoding {} bytes of data",
-                    in == null ? 0 : in.length, e);
+                    in == null ? 0 : length, e);
         }
 
         return rv;
     }
 
     /**
-     * Get the bytes representing the given serialized object.
+     * Serialize the given object, appending the bytes to the given buffer.
+     *
+     * The FST output is thread confined, and its buffer is reused for the next object written
+     * on the thread; unless it has grown beyond {@link #MAX_RETAINED_OUTPUT_BUFFER_SIZE_IN_BYTES}
      */
-    protected byte[] serialize(Object o) {
+    protected void serialize(Object o, ResizeableByteBuffer out) {
         if (o == null) {
             throw new NullPointerException("Can't serialize null");
         }
-        byte[] rv = null;
         FSTObjectOutput os=null;
         try {
             os = conf.getObjectOutput();
             os.writeObject(o);
             os.flush();
-            rv = os.getCopyOfWrittenBuffer();
+            out.append(os.getBuffer(), 0, os.getWritten());
         } catch (IOException e) {
             throw new IllegalArgumentException("Non-serializable object", e);
         } finally {
-            if(os!=null) {
-                os.resetForReUse(new byte[0]);
+            if(os!=null && os.getBuffer().length > MAX_RETAINED_OUTPUT_BUFFER_SIZE_IN_BYTES) {
+                os.resetForReUse(new byte[ThreadLocalResizeableByteBuffers.DEFAULT_INITIAL_CAPACITY]);
             }
         }
-        return rv;
     }
 
 
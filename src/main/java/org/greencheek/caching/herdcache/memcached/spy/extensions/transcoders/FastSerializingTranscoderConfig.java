@@ -1,6 +1,7 @@
 package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders;
 
 import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs.ValueCodecRegistry;
 import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.Compression;
 
 /**
@@ -13,6 +14,7 @@ public class FastSerializingTranscoderConfig {
     private final Compression compression;
     private final Class[] classesKnownToBeSerialized;
     private final boolean shareReferences;
+    private final ValueCodecRegistry valueCodecs;
 
     public FastSerializingTranscoderConfig(MetricRecorder metricRecorder,
                                            int maxContentLengthInBytes,
@@ -20,12 +22,24 @@ public class FastSerializingTranscoderConfig {
                                            Compression compression,
                                            Class[] classesKnownToBeSerialized,
                                            boolean shareReferences) {
+        this(metricRecorder, maxContentLengthInBytes, compressionThresholdInBytes, compression,
+                classesKnownToBeSerialized, shareReferences, ValueCodecRegistry.DEFAULT);
+    }
+
+    public FastSerializingTranscoderConfig(MetricRecorder metricRecorder,
+                                           int maxContentLengthInBytes,
+                                           int compressionThresholdInBytes,
+                                           Compression compression,
+                                           Class[] classesKnownToBeSerialized,
+                                           boolean shareReferences,
+                                           ValueCodecRegistry valueCodecs) {
         this.metricRecorder = metricRecorder;
         this.maxContentLengthInBytes = maxContentLengthInBytes;
         this.compressionThresholdInBytes = compressionThresholdInBytes;
         this.compression = compression;
         this.classesKnownToBeSerialized = classesKnownToBeSerialized;
         this.shareReferences = shareReferences;
+        this.valueCodecs = valueCodecs;
     }
 
 
@@ -53,5 +67,9 @@ public class FastSerializingTranscoderConfig {
         return shareReferences;
     }
 
+    public ValueCodecRegistry getValueCodecs() {
+        return valueCodecs;
+    }
+
 
 }
@@ -3,6 +3,7 @@ package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders;
 import net.spy.memcached.CachedData;
 import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
 import org.greencheek.caching.herdcache.memcached.metrics.NoOpMetricRecorder;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs.ValueCodecRegistry;
 import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.Compression;
 import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.SnappyCompression;
 
@@ -16,6 +17,7 @@ public class FastSerializingTranscoderConfigBuilder {
     private Compression compression = new SnappyCompression();
     private Class[] classesKnownToBeSerialized = null;
     private boolean shareReferences = true;
+    private ValueCodecRegistry valueCodecs = ValueCodecRegistry.DEFAULT;
 
 
     public MetricRecorder getMetricRecorder() {
@@ -73,6 +75,19 @@ public class FastSerializingTranscoderConfigBuilder {
         return this;
     }
 
+    public ValueCodecRegistry getValueCodecs() {
+        return valueCodecs;
+    }
+
+    /**
+     * The codecs for the types of value that are written without serialization.
+     * {@link ValueCodecRegistry#NONE} serializes all values
+     */
+    public FastSerializingTranscoderConfigBuilder setValueCodecs(ValueCodecRegistry valueCodecs) {
+        this.valueCodecs = valueCodecs;
+        return this;
+    }
+
     public FastSerializingTranscoderConfig build() {
         return new FastSerializingTranscoderConfig(
                 getMetricRecorder(),
@@ -80,6 +95,7 @@ public class FastSerializingTranscoderConfigBuilder {
                 getCompressionThresholdInBytes(),
                 getCompression(),
                 getClassesKnownToBeSerialized(),
-                isShareReferences());
+                isShareReferences(),
+                getValueCodecs());
     }
 }
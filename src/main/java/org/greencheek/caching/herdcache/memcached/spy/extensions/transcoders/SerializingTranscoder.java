@@ -24,17 +24,23 @@ package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders;
 
 import net.spy.memcached.CachedData;
 import net.spy.memcached.transcoders.Transcoder;
-import net.spy.memcached.transcoders.TranscoderUtils;
 import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
 import org.greencheek.caching.herdcache.memcached.metrics.NoOpMetricRecorder;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs.ValueCodec;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs.ValueCodecRegistry;
 import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.Compression;
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
+import org.greencheek.caching.herdcache.memcached.util.ThreadLocalResizeableByteBuffers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Date;
+import java.util.Arrays;
 
 /**
  * Transcoder that serializes and compresses objects.
+ *
+ * Values that have a {@link ValueCodec} (by default strings, byte arrays, boxed primitives, dates and
+ * small string maps) are written by the codec, with the codec's flags; all other values are serialized.
  */
 public class SerializingTranscoder extends BaseSerializingTranscoder implements
         Transcoder<Object> {
@@ -56,21 +62,15 @@ public class SerializingTranscoder extends BaseSerializingTranscoder implements
     static final int SERIALIZED = 1;
     static final int COMPRESSED = 2;
 
-    // Special flags for specially handled types.
-    private static final int SPECIAL_MASK = 0xff00;
-    static final int SPECIAL_BOOLEAN = (1 << 8);
-    static final int SPECIAL_INT = (2 << 8);
-    static final int SPECIAL_LONG = (3 << 8);
-    static final int SPECIAL_DATE = (4 << 8);
-    static final int SPECIAL_BYTE = (5 << 8);
-    static final int SPECIAL_FLOAT = (6 << 8);
-    static final int SPECIAL_DOUBLE = (7 << 8);
-    static final int SPECIAL_BYTEARRAY = (8 << 8);
-
-    private final TranscoderUtils tu = new TranscoderUtils(true);
+    // Objects are serialized, and values compressed and decompressed, into thread confined buffers that are
+    // reused between values.  Only the final bytes sent to memcached, or the decoded value, are allocated.
+    private static final ThreadLocalResizeableByteBuffers SERIALIZATION_BUFFERS = new ThreadLocalResizeableByteBuffers();
+    private static final ThreadLocalResizeableByteBuffers COMPRESSION_BUFFERS = new ThreadLocalResizeableByteBuffers();
 
     private final MetricRecorder metricRecorder;
 
+    private final ValueCodecRegistry codecs;
+
     /**
      * Get a serializing transcoder with the default max data size.
      */
@@ -95,8 +95,15 @@ public class SerializingTranscoder extends BaseSerializingTranscoder implements
 
     public SerializingTranscoder(int maxContentLength, int compressionThresholdInBytes,
                                  Compression compressor, MetricRecorder metricRecorder) {
+        this(maxContentLength, compressionThresholdInBytes, compressor, metricRecorder, ValueCodecRegistry.DEFAULT);
+    }
+
+    public SerializingTranscoder(int maxContentLength, int compressionThresholdInBytes,
+                                 Compression compressor, MetricRecorder metricRecorder,
+                                 ValueCodecRegistry codecs) {
         super(maxContentLength, compressionThresholdInBytes, compressor);
         this.metricRecorder = metricRecorder;
+        this.codecs = codecs;
     }
 
     @Override
@@ -115,98 +122,75 @@ public class SerializingTranscoder extends BaseSerializingTranscoder implements
     public Object decode(CachedData d) {
         byte[] data = d.getData();
 
-        Object rv = null;
+        ValueCodec<Object> codec = null;
+        if ((d.getFlags() & SERIALIZED) == 0) {
+            codec = codecs.codecForFlags(d.getFlags());
+            if (codec == null) {
+                logger.warn("Undecodeable with flags {}", d.getFlags() & ValueCodecRegistry.FLAGS_MASK);
+                return null;
+            }
+        }
+
         if ((d.getFlags() & COMPRESSED) != 0) {
+            if (codec == null || !codec.retainsDecodedBytes()) {
+                return decodeCompressed(d, codec);
+            }
             data = decompress(d.getData());
+            if (data == null) {
+                return null;
+            }
         }
-        int flags = d.getFlags() & SPECIAL_MASK;
-        if ((d.getFlags() & SERIALIZED) != 0 && data != null) {
+
+        Object rv;
+        if (codec == null) {
             rv = deserialize(data);
-        } else if (flags != 0 && data != null) {
-            switch (flags) {
-                case SPECIAL_BOOLEAN:
-                    rv = Boolean.valueOf(tu.decodeBoolean(data));
-                    break;
-                case SPECIAL_INT:
-                    rv = Integer.valueOf(tu.decodeInt(data));
-                    break;
-                case SPECIAL_LONG:
-                    rv = Long.valueOf(tu.decodeLong(data));
-                    break;
-                case SPECIAL_DATE:
-                    rv = new Date(tu.decodeLong(data));
-                    break;
-                case SPECIAL_BYTE:
-                    rv = Byte.valueOf(tu.decodeByte(data));
-                    break;
-                case SPECIAL_FLOAT:
-                    rv = new Float(Float.intBitsToFloat(tu.decodeInt(data)));
-                    break;
-                case SPECIAL_DOUBLE:
-                    rv = new Double(Double.longBitsToDouble(tu.decodeLong(data)));
-                    break;
-                case SPECIAL_BYTEARRAY:
-                    rv = data;
-                    break;
-                default:
-                    logger.warn("Undecodeable with flags {}", flags);
-            }
         } else {
-            rv = decodeString(data);
+            rv = codec.decode(data, 0, data.length);
         }
         metricRecorder.updateHistogram(DECODED_BYTES_METRIC_NAME,data.length);
         return rv;
     }
 
-    class EncodedData {
-        byte[] encoded;
-        int flags = 0;
-    }
-
-    private void encodeLong(EncodedData data,Long o) {
-        data.encoded = tu.encodeLong(o);
-        data.flags |= SPECIAL_LONG;
-    }
-
-    private void encodeInteger(EncodedData data,Integer o) {
-        data.encoded = tu.encodeInt(o);
-        data.flags |= SPECIAL_INT;
-    }
-
-    private void encodeBoolean(EncodedData data,Boolean o) {
-        data.encoded = tu.encodeBoolean(o);
-        data.flags |= SPECIAL_BOOLEAN;
-    }
-
-    private void encodeDate(EncodedData data,Date o) {
-        data.encoded = tu.encodeLong(o.getTime());
-        data.flags |= SPECIAL_DATE;
-    }
-
-    private void encodeByte(EncodedData data,Byte o) {
-        data.encoded = tu.encodeByte(o);
-        data.flags |= SPECIAL_BYTE;
-    }
-
-    private void encodeFloat(EncodedData data,Float o) {
-        data.encoded = tu.encodeInt(Float.floatToRawIntBits(o));
-        data.flags |= SPECIAL_FLOAT;
-    }
+    /**
+     * Serialized objects, and codec values, are decoded straight from the pooled buffer that
+     * they are decompressed into; rather than from an intermediate decompressed array
+     */
+    private Object decodeCompressed(CachedData d, ValueCodec<Object> codec) {
+        ResizeableByteBuffer buffer = COMPRESSION_BUFFERS.acquire();
+        try {
+            if (!decompress(d.getData(), buffer)) {
+                return null;
+            }
 
-    private void encodeDouble(EncodedData data,Double o) {
-        data.encoded = tu.encodeLong(Double.doubleToRawLongBits(o));
-        data.flags |= SPECIAL_DOUBLE;
+            Object rv;
+            if (codec == null) {
+                rv = deserialize(buffer.getBuf(), buffer.size());
+            } else {
+                rv = codec.decode(buffer.getBuf(), 0, buffer.size());
+            }
+            metricRecorder.updateHistogram(DECODED_BYTES_METRIC_NAME, buffer.size());
+            return rv;
+        } finally {
+            COMPRESSION_BUFFERS.release(buffer);
+        }
     }
 
-    private void encodeByteArray(EncodedData data,byte[] o) {
-        data.encoded = o;
-        data.flags |= SPECIAL_BYTEARRAY;
+    class EncodedData {
+        byte[] encoded;
+        int length;
+        int flags = 0;
+        // encoded is the backing array of a pooled buffer, and is copied out before the buffer is released
+        boolean pooled;
     }
 
-    private void encodeObject(EncodedData data,Object o) {
-        data.encoded = serialize(o);
+    private void encodeObject(EncodedData data,Object o,ResizeableByteBuffer buffer) {
+        serialize(o, buffer);
+        data.encoded = buffer.getBuf();
+        data.length = buffer.size();
+        data.pooled = true;
         data.flags |= SERIALIZED;
     }
+
     /*
      * (non-Javadoc)
      *
@@ -214,48 +198,54 @@ public class SerializingTranscoder extends BaseSerializingTranscoder implements
      */
     public CachedData encode(Object o) {
         EncodedData data = new EncodedData();
+        ResizeableByteBuffer buffer = SERIALIZATION_BUFFERS.acquire();
 
-        if (o instanceof String) {
-            data.encoded = encodeString((String) o);
-        } else if (o instanceof Long) {
-            encodeLong(data,(Long)o);
-        } else if (o instanceof Integer) {
-            encodeInteger(data,(Integer)o);
-        } else if (o instanceof Boolean) {
-            encodeBoolean(data, (Boolean) o);
-        } else if (o instanceof Date) {
-            encodeDate(data,(Date)o);
-        } else if (o instanceof Byte) {
-            encodeByte(data, (Byte) o);
-        } else if (o instanceof Float) {
-            encodeFloat(data,(Float)o);
-        } else if (o instanceof Double) {
-            encodeDouble(data,(Double)o);
-        } else if (o instanceof byte[]) {
-            encodeByteArray(data,(byte[])o);
-        } else {
-            encodeObject(data,o);
+        try {
+            ValueCodec<Object> codec = codecs.codecFor(o);
+            if (codec == null) {
+                encodeObject(data, o, buffer);
+            } else {
+                data.encoded = codec.encode(o);
+                data.length = data.encoded.length;
+                data.flags |= codec.getFlags();
+            }
+            assert data.encoded != null;
+
+            compress(data, o);
+            if (data.pooled) {
+                data.encoded = Arrays.copyOf(data.encoded, data.length);
+            }
+        } finally {
+            SERIALIZATION_BUFFERS.release(buffer);
         }
-        assert data.encoded != null;
 
-        compress(data,o);
         metricRecorder.updateHistogram(ENCODED_BYTES_METRIC_NAME,data.encoded.length);
         return new CachedData(data.flags, data.encoded, getMaxSize());
     }
 
-
+    /**
+     * Compresses into a pooled buffer, so that only when compression reduces the size of
+     * the value are the compressed bytes copied out.
+     */
     private void compress(EncodedData data, Object o) {
-        int uncompressedLength = data.encoded.length;
+        int uncompressedLength = data.length;
         if (uncompressedLength > getCompressionThreshold()) {
-            byte[] compressed = compress(data.encoded);
-            if (compressed.length < uncompressedLength) {
-                logger.debug("Compressed {} from {} to {}",
-                        o.getClass().getName(), uncompressedLength, compressed.length);
-                data.encoded = compressed;
-                data.flags |= COMPRESSED;
-            } else {
-                logger.info("Compression increased the size of {} from {} to {}",
-                        o.getClass().getName(), uncompressedLength, compressed.length);
+            ResizeableByteBuffer compressed = COMPRESSION_BUFFERS.acquire();
+            try {
+                compress(data.encoded, 0, uncompressedLength, compressed);
+                if (compressed.size() < uncompressedLength) {
+                    logger.debug("Compressed {} from {} to {}",
+                            o.getClass().getName(), uncompressedLength, compressed.size());
+                    data.encoded = compressed.toByteArray();
+                    data.length = data.encoded.length;
+                    data.pooled = false;
+                    data.flags |= COMPRESSED;
+                } else {
+                    logger.info("Compression increased the size of {} from {} to {}",
+                            o.getClass().getName(), uncompressedLength, compressed.size());
+                }
+            } finally {
+                COMPRESSION_BUFFERS.release(compressed);
             }
         }
     }
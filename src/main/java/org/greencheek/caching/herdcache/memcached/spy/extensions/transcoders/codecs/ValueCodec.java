@@ -0,0 +1,50 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs;
+
+import java.util.List;
+
+/**
+ * Writes values of a particular type in a compact binary form, without the class descriptors
+ * of object serialization.  The codec is identified in memcached by its flags; which
+ * are stored with the item, and determine which codec decodes the item's bytes.
+ *
+ * @param <V> the type of value encoded
+ */
+public interface ValueCodec<V> {
+
+    /**
+     * The flags that identify items written by this codec.  Only the bits in
+     * {@link ValueCodecRegistry#FLAGS_MASK} can be used.
+     */
+    int getFlags();
+
+    /**
+     * The classes of value that this codec encodes.  A value's class must match exactly,
+     * subclasses are left to object serialization.
+     */
+    List<Class<?>> getTypes();
+
+    /**
+     * Whether the given value, which is of one of the codec's types, can be encoded by the codec.
+     * Values that cannot fall back to object serialization.
+     */
+    default boolean canEncode(V value) {
+        return true;
+    }
+
+    byte[] encode(V value);
+
+    /**
+     * Decode {@code length} bytes of the given array, starting at {@code offset}.  Unless the codec
+     * {@link #retainsDecodedBytes()}, the array is only valid for the duration of the call, and may
+     * be a buffer that is reused.
+     */
+    V decode(byte[] data, int offset, int length);
+
+    /**
+     * Whether the decoded value may be the given array itself; in which case the codec is not
+     * given a reused buffer to decode from.
+     */
+    default boolean retainsDecodedBytes() {
+        return false;
+    }
+}
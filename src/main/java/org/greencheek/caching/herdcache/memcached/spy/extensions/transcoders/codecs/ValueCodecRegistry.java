@@ -0,0 +1,92 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link ValueCodec}s used by a transcoder, looked up by the exact class of the value
+ * being encoded, and by the flags of the item being decoded.  Values with no codec are left
+ * to object serialization.
+ *
+ * The registry is immutable; {@link #with(ValueCodec)} returns a new registry.
+ */
+public class ValueCodecRegistry {
+
+    // the memcached flags bits available for identifying the codec
+    public static final int FLAGS_MASK = 0xff00;
+
+    // the codecs whose items are read by spy's SerializingTranscoder
+    public static final ValueCodecRegistry DEFAULT = new ValueCodecRegistry(ValueCodecs.DEFAULT_CODECS);
+
+    // also the short, character and string map codecs; their items cannot be read by clients without them
+    public static final ValueCodecRegistry EXTENDED = new ValueCodecRegistry(ValueCodecs.EXTENDED_CODECS);
+
+    public static final ValueCodecRegistry NONE = new ValueCodecRegistry(Collections.emptyList());
+
+    private final List<ValueCodec<?>> codecs;
+    private final Map<Class<?>, ValueCodec<Object>> codecsByType;
+    private final ValueCodec<Object>[] codecsByFlags;
+
+    @SuppressWarnings("unchecked")
+    public ValueCodecRegistry(List<ValueCodec<?>> codecs) {
+        this.codecs = Collections.unmodifiableList(new ArrayList<>(codecs));
+        this.codecsByType = new HashMap<>();
+        this.codecsByFlags = new ValueCodec[(FLAGS_MASK >>> 8) + 1];
+
+        for (ValueCodec<?> codec : codecs) {
+            int flags = codec.getFlags();
+            if ((flags & ~FLAGS_MASK) != 0) {
+                throw new IllegalArgumentException("Codec flags " + flags + " are outside of the available flags " + FLAGS_MASK);
+            }
+
+            int index = flags >>> 8;
+            if (codecsByFlags[index] != null) {
+                throw new IllegalArgumentException("More than one codec registered for flags " + flags);
+            }
+            codecsByFlags[index] = (ValueCodec<Object>) codec;
+
+            for (Class<?> type : codec.getTypes()) {
+                codecsByType.put(type, (ValueCodec<Object>) codec);
+            }
+        }
+    }
+
+    /**
+     * Returns a new registry with the given codec, replacing any codec with the same flags
+     */
+    public ValueCodecRegistry with(ValueCodec<?> codec) {
+        List<ValueCodec<?>> replaced = new ArrayList<>(codecs.size() + 1);
+        for (ValueCodec<?> existing : codecs) {
+            if (existing.getFlags() != codec.getFlags()) {
+                replaced.add(existing);
+            }
+        }
+        replaced.add(codec);
+        return new ValueCodecRegistry(replaced);
+    }
+
+    /**
+     * The codec for the given value, or null if the value is to be serialized
+     */
+    public ValueCodec<Object> codecFor(Object value) {
+        ValueCodec<Object> codec = codecsByType.get(value.getClass());
+        if (codec == null || !codec.canEncode(value)) {
+            return null;
+        }
+        return codec;
+    }
+
+    /**
+     * The codec that wrote an item with the given flags, or null if there is no codec registered for the flags
+     */
+    public ValueCodec<Object> codecForFlags(int flags) {
+        return codecsByFlags[(flags & FLAGS_MASK) >>> 8];
+    }
+
+    public List<ValueCodec<?>> getCodecs() {
+        return codecs;
+    }
+}
@@ -0,0 +1,347 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs;
+
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
+import org.greencheek.caching.herdcache.memcached.util.ThreadLocalResizeableByteBuffers;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The built in {@link ValueCodec}s.
+ *
+ * The flags, and the encoding, of strings, byte arrays, and the boxed primitives are those of spy's
+ * SerializingTranscoder; numbers are written big endian with the leading zero bytes removed.  So items
+ * written before the codecs existed are still decoded, and items written by the {@link #DEFAULT_CODECS} are
+ * decoded by clients without the codecs.
+ *
+ * The codecs for shorts, characters and string maps use flags that spy's SerializingTranscoder does not
+ * know; a client without them cannot read the items they write.  They are in the {@link #EXTENDED_CODECS}
+ * only, for use once every client reading the items has them.
+ */
+public final class ValueCodecs {
+
+    public static final int STRING_FLAGS = 0;
+    public static final int BOOLEAN_FLAGS = (1 << 8);
+    public static final int INTEGER_FLAGS = (2 << 8);
+    public static final int LONG_FLAGS = (3 << 8);
+    public static final int DATE_FLAGS = (4 << 8);
+    public static final int BYTE_FLAGS = (5 << 8);
+    public static final int FLOAT_FLAGS = (6 << 8);
+    public static final int DOUBLE_FLAGS = (7 << 8);
+    public static final int BYTE_ARRAY_FLAGS = (8 << 8);
+    public static final int SHORT_FLAGS = (9 << 8);
+    public static final int CHARACTER_FLAGS = (10 << 8);
+    public static final int STRING_MAP_FLAGS = (11 << 8);
+
+    // maps with more entries than this are serialized
+    public static final int DEFAULT_MAX_STRING_MAP_ENTRIES = 256;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    public static final ValueCodec<String> STRING = new StringCodec();
+    public static final ValueCodec<Boolean> BOOLEAN = new BooleanCodec();
+    public static final ValueCodec<Integer> INTEGER = new NumberCodec<>(INTEGER_FLAGS, Integer.class, 4, Integer::longValue, l -> (int) l);
+    public static final ValueCodec<Long> LONG = new NumberCodec<>(LONG_FLAGS, Long.class, 8, Long::longValue, l -> l);
+    public static final ValueCodec<Date> DATE = new NumberCodec<>(DATE_FLAGS, Date.class, 8, Date::getTime, Date::new);
+    public static final ValueCodec<Byte> BYTE = new ByteCodec();
+    public static final ValueCodec<Float> FLOAT = new NumberCodec<>(FLOAT_FLAGS, Float.class, 4, f -> Float.floatToRawIntBits(f), l -> Float.intBitsToFloat((int) l));
+    public static final ValueCodec<Double> DOUBLE = new NumberCodec<>(DOUBLE_FLAGS, Double.class, 8, Double::doubleToRawLongBits, Double::longBitsToDouble);
+    public static final ValueCodec<byte[]> BYTE_ARRAY = new ByteArrayCodec();
+    public static final ValueCodec<Short> SHORT = new NumberCodec<>(SHORT_FLAGS, Short.class, 2, Short::longValue, l -> (short) l);
+    public static final ValueCodec<Character> CHARACTER = new NumberCodec<>(CHARACTER_FLAGS, Character.class, 2, c -> (long) c.charValue(), l -> (char) l);
+    public static final ValueCodec<Map<String, String>> STRING_MAP = new StringMapCodec(DEFAULT_MAX_STRING_MAP_ENTRIES);
+
+    public static final List<ValueCodec<?>> DEFAULT_CODECS = Collections.unmodifiableList(Arrays.asList(
+            STRING, BOOLEAN, INTEGER, LONG, DATE, BYTE, FLOAT, DOUBLE, BYTE_ARRAY
+    ));
+
+    public static final List<ValueCodec<?>> EXTENDED_CODECS = Collections.unmodifiableList(Arrays.asList(
+            STRING, BOOLEAN, INTEGER, LONG, DATE, BYTE, FLOAT, DOUBLE, BYTE_ARRAY, SHORT, CHARACTER, STRING_MAP
+    ));
+
+    private ValueCodecs() {
+    }
+
+    /**
+     * A codec for {@code HashMap<String,String>} and {@code LinkedHashMap<String,String>}, with at most the given number
+     * of entries.  Maps are decoded as a {@link LinkedHashMap}, in the order they were written.
+     */
+    public static ValueCodec<Map<String, String>> stringMap(int maxEntries) {
+        return new StringMapCodec(maxEntries);
+    }
+
+    static byte[] encodeNumber(long l, int maxBytes) {
+        int length = maxBytes;
+        while (length > 0 && ((l >>> (8 * (length - 1))) & 0xff) == 0) {
+            length--;
+        }
+
+        byte[] rv = new byte[length];
+        for (int i = 0; i < length; i++) {
+            rv[length - i - 1] = (byte) (l >>> (8 * i));
+        }
+        return rv;
+    }
+
+    static long decodeNumber(byte[] data, int offset, int length) {
+        long rv = 0;
+        for (int i = offset; i < offset + length; i++) {
+            rv = (rv << 8) | (data[i] & 0xff);
+        }
+        return rv;
+    }
+
+    private static class StringCodec implements ValueCodec<String> {
+        private final List<Class<?>> types = Collections.singletonList(String.class);
+
+        @Override
+        public int getFlags() {
+            return STRING_FLAGS;
+        }
+
+        @Override
+        public List<Class<?>> getTypes() {
+            return types;
+        }
+
+        @Override
+        public byte[] encode(String value) {
+            return value.getBytes(UTF8);
+        }
+
+        @Override
+        public String decode(byte[] data, int offset, int length) {
+            return new String(data, offset, length, UTF8);
+        }
+    }
+
+    private static class BooleanCodec implements ValueCodec<Boolean> {
+        private static final byte[] TRUE = new byte[]{'1'};
+        private static final byte[] FALSE = new byte[]{'0'};
+        private final List<Class<?>> types = Collections.singletonList(Boolean.class);
+
+        @Override
+        public int getFlags() {
+            return BOOLEAN_FLAGS;
+        }
+
+        @Override
+        public List<Class<?>> getTypes() {
+            return types;
+        }
+
+        @Override
+        public byte[] encode(Boolean value) {
+            return (value ? TRUE : FALSE).clone();
+        }
+
+        @Override
+        public Boolean decode(byte[] data, int offset, int length) {
+            return length > 0 && data[offset] == '1';
+        }
+    }
+
+    private static class ByteCodec implements ValueCodec<Byte> {
+        private final List<Class<?>> types = Collections.singletonList(Byte.class);
+
+        @Override
+        public int getFlags() {
+            return BYTE_FLAGS;
+        }
+
+        @Override
+        public List<Class<?>> getTypes() {
+            return types;
+        }
+
+        @Override
+        public byte[] encode(Byte value) {
+            return new byte[]{value};
+        }
+
+        @Override
+        public Byte decode(byte[] data, int offset, int length) {
+            return length == 0 ? 0 : data[offset];
+        }
+    }
+
+    private static class ByteArrayCodec implements ValueCodec<byte[]> {
+        private final List<Class<?>> types = Collections.singletonList(byte[].class);
+
+        @Override
+        public int getFlags() {
+            return BYTE_ARRAY_FLAGS;
+        }
+
+        @Override
+        public List<Class<?>> getTypes() {
+            return types;
+        }
+
+        @Override
+        public byte[] encode(byte[] value) {
+            return value;
+        }
+
+        @Override
+        public byte[] decode(byte[] data, int offset, int length) {
+            if (offset == 0 && length == data.length) {
+                return data;
+            }
+            return Arrays.copyOfRange(data, offset, offset + length);
+        }
+
+        @Override
+        public boolean retainsDecodedBytes() {
+            return true;
+        }
+    }
+
+    interface ToLong<V> {
+        long toLong(V value);
+    }
+
+    interface FromLong<V> {
+        V fromLong(long value);
+    }
+
+    private static class NumberCodec<V> implements ValueCodec<V> {
+        private final int flags;
+        private final List<Class<?>> types;
+        private final int maxBytes;
+        private final ToLong<V> toLong;
+        private final FromLong<V> fromLong;
+
+        NumberCodec(int flags, Class<V> type, int maxBytes, ToLong<V> toLong, FromLong<V> fromLong) {
+            this.flags = flags;
+            this.types = Collections.singletonList(type);
+            this.maxBytes = maxBytes;
+            this.toLong = toLong;
+            this.fromLong = fromLong;
+        }
+
+        @Override
+        public int getFlags() {
+            return flags;
+        }
+
+        @Override
+        public List<Class<?>> getTypes() {
+            return types;
+        }
+
+        @Override
+        public byte[] encode(V value) {
+            return encodeNumber(toLong.toLong(value), maxBytes);
+        }
+
+        @Override
+        public V decode(byte[] data, int offset, int length) {
+            return fromLong.fromLong(decodeNumber(data, offset, length));
+        }
+    }
+
+    /**
+     * Writes the number of entries, followed by the length prefixed utf-8 bytes of each key and value.
+     * Lengths are written as unsigned varints.
+     */
+    private static class StringMapCodec implements ValueCodec<Map<String, String>> {
+        private static final ThreadLocalResizeableByteBuffers BUFFERS = new ThreadLocalResizeableByteBuffers();
+
+        private final List<Class<?>> types = Collections.unmodifiableList(Arrays.asList(HashMap.class, LinkedHashMap.class));
+        private final int maxEntries;
+
+        StringMapCodec(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        public int getFlags() {
+            return STRING_MAP_FLAGS;
+        }
+
+        @Override
+        public List<Class<?>> getTypes() {
+            return types;
+        }
+
+        @Override
+        public boolean canEncode(Map<String, String> value) {
+            if (value.size() > maxEntries) {
+                return false;
+            }
+            for (Map.Entry<?, ?> entry : value.entrySet()) {
+                if (!(entry.getKey() instanceof String) || !(entry.getValue() instanceof String)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public byte[] encode(Map<String, String> value) {
+            ResizeableByteBuffer buffer = BUFFERS.acquire();
+            try {
+                writeVarInt(buffer, value.size());
+                for (Map.Entry<String, String> entry : value.entrySet()) {
+                    writeString(buffer, entry.getKey());
+                    writeString(buffer, entry.getValue());
+                }
+                return buffer.toByteArray();
+            } finally {
+                BUFFERS.release(buffer);
+            }
+        }
+
+        @Override
+        public Map<String, String> decode(byte[] data, int offset, int length) {
+            int[] position = new int[]{offset};
+            int entries = readVarInt(data, position);
+            Map<String, String> map = new LinkedHashMap<>(Math.max(16, (int) (entries / 0.75f) + 1));
+            for (int i = 0; i < entries; i++) {
+                String key = readString(data, position);
+                map.put(key, readString(data, position));
+            }
+            return map;
+        }
+
+        private static void writeString(ResizeableByteBuffer buffer, String s) {
+            byte[] bytes = s.getBytes(UTF8);
+            writeVarInt(buffer, bytes.length);
+            buffer.append(bytes);
+        }
+
+        private static String readString(byte[] data, int[] position) {
+            int length = readVarInt(data, position);
+            String s = new String(data, position[0], length, UTF8);
+            position[0] += length;
+            return s;
+        }
+
+        private static void writeVarInt(ResizeableByteBuffer buffer, int value) {
+            while ((value & ~0x7f) != 0) {
+                buffer.append((byte) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            buffer.append((byte) value);
+        }
+
+        private static int readVarInt(byte[] data, int[] position) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position[0]++];
+                value |= (b & 0x7f) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
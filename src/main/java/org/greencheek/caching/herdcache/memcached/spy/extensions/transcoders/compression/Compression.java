@@ -1,5 +1,8 @@
 package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression;
 
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
+
+import java.util.Arrays;
 
 /**
  * Interface that is used by the {@link org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.BaseSerializingTranscoder}
@@ -24,4 +27,46 @@ public interface Compression {
         return in;
     }
 
+    /**
+     * Compress {@code length} bytes of the given array, starting at {@code offset}, appending the
+     * compressed bytes to the given buffer.  Implementations override this to compress straight into
+     * the buffer, without the intermediate arrays of {@link #compress(byte[])}
+     */
+    default public void compress(byte[] in, int offset, int length, ResizeableByteBuffer out) {
+        if (offset == 0 && length == in.length) {
+            out.append(compress(in));
+        } else {
+            out.append(compress(Arrays.copyOfRange(in, offset, offset + length)));
+        }
+    }
+
+    /**
+     * Decompress the given array of bytes, appending the decompressed bytes to the given buffer.
+     *
+     * @return false if the bytes cannot be decompressed
+     */
+    default public boolean decompress(byte[] in, ResizeableByteBuffer out) {
+        return decompress(in, 0, in == null ? 0 : in.length, out);
+    }
+
+    /**
+     * Decompress {@code length} bytes of the given array, starting at {@code offset}, appending
+     * the decompressed bytes to the given buffer.
+     *
+     * @return false if the bytes cannot be decompressed
+     */
+    default public boolean decompress(byte[] in, int offset, int length, ResizeableByteBuffer out) {
+        byte[] decompressed;
+        if (offset == 0 && length == in.length) {
+            decompressed = decompress(in);
+        } else {
+            decompressed = decompress(Arrays.copyOfRange(in, offset, offset + length));
+        }
+        if (decompressed == null) {
+            return false;
+        }
+        out.append(decompressed);
+        return out.canWrite();
+    }
+
 }
@@ -1,6 +1,7 @@
 package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression;
 
 import net.jpountz.lz4.*;
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,10 +18,15 @@ public class LZ4NativeCompression implements Compression {
 
     public static int byteArrayToInt(byte[] b)
     {
-        return   b[3] & 0xFF |
-                (b[2] & 0xFF) << 8 |
-                (b[1] & 0xFF) << 16 |
-                (b[0] & 0xFF) << 24;
+        return byteArrayToInt(b, 0);
+    }
+
+    public static int byteArrayToInt(byte[] b, int offset)
+    {
+        return   b[offset+3] & 0xFF |
+                (b[offset+2] & 0xFF) << 8 |
+                (b[offset+1] & 0xFF) << 16 |
+                (b[offset] & 0xFF) << 24;
     }
 
     public static byte[] intToByteArray(int a)
@@ -33,6 +39,13 @@ public class LZ4NativeCompression implements Compression {
         };
     }
 
+    private static void writeInt(int a, byte[] b, int offset) {
+        b[offset] = (byte) ((a >> 24) & 0xFF);
+        b[offset+1] = (byte) ((a >> 16) & 0xFF);
+        b[offset+2] = (byte) ((a >> 8) & 0xFF);
+        b[offset+3] = (byte) (a & 0xFF);
+    }
+
     /**
      * Compress the given array of bytes.
      */
@@ -76,4 +89,54 @@ public class LZ4NativeCompression implements Compression {
             return null;
         }
     }
+
+    /**
+     * Compresses the range straight into the buffer, which is grown to the max compressed length
+     * up front; rather than compressing into a max sized array that is then copied
+     */
+    public void compress(byte[] in, int offset, int length, ResizeableByteBuffer out) {
+        if (in == null) {
+            throw new CompressionException("Cannot compress null bytes");
+        }
+        final int start = out.size();
+        if (!out.ensureWritable(compressor.maxCompressedLength(length) + 4)) {
+            throw new CompressionException("Cannot compress " + length + " bytes, buffer cannot grow to hold the compressed content");
+        }
+
+        final byte[] compressed = out.getBuf();
+        writeInt(length, compressed, start);
+        final int compressedLength = compressor.compress(in, offset, length, compressed, start + 4);
+        out.setSize(start + compressedLength + 4);
+    }
+
+    /**
+     * Decompresses straight into the buffer
+     *
+     * @return false if the bytes cannot be decompressed
+     */
+    public boolean decompress(byte[] in, int offset, int length, ResizeableByteBuffer out) {
+        if(in == null || length<5) {
+            throw new CompressionException("Cannot decompress null bytes");
+        }
+
+        int originalLength = byteArrayToInt(in, offset);
+        if(originalLength>0) {
+            final int start = out.size();
+            if(!out.ensureWritable(originalLength)) {
+                logger.warn("Unable to decompress {} bytes, buffer cannot grow to hold the decompressed content", originalLength);
+                return false;
+            }
+            try {
+                decompressor.decompress(in, offset + 4, out.getBuf(), start, originalLength);
+                out.setSize(start + originalLength);
+                return true;
+            } catch(Throwable e) {
+                logger.warn("Error during decompression", e);
+                return false;
+            }
+        } else {
+            logger.warn("Invalid initial byte array denoting original content length");
+            return false;
+        }
+    }
 }
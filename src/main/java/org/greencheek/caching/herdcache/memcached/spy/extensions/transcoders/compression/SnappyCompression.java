@@ -1,5 +1,6 @@
 package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression;
 
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xerial.snappy.Snappy;
@@ -49,4 +50,54 @@ public class SnappyCompression implements Compression {
         logger.debug("Compressed {} bytes to {}", in.length, compressed.length);
         return compressed;
     }
+
+    /**
+     * Compresses the range straight into the buffer, which is grown to the max compressed length
+     * up front
+     */
+    public void compress(byte[] in, int offset, int length, ResizeableByteBuffer out) {
+        if (in == null) {
+            throw new CompressionException("Cannot compress null bytes");
+        }
+
+        final int start = out.size();
+        if (!out.ensureWritable(Snappy.maxCompressedLength(length))) {
+            throw new CompressionException("Cannot compress " + length + " bytes, buffer cannot grow to hold the compressed content");
+        }
+
+        int compressedLength;
+        try {
+            compressedLength = Snappy.compress(in, offset, length, out.getBuf(), start);
+        } catch (Throwable e) {
+            throw new CompressionException("IO exception compressing data", e);
+        }
+        out.setSize(start + compressedLength);
+        logger.debug("Compressed {} bytes to {}", length, compressedLength);
+    }
+
+    /**
+     * Decompresses straight into the buffer
+     *
+     * @return false if the bytes cannot be decompressed
+     */
+    public boolean decompress(byte[] in, int offset, int length, ResizeableByteBuffer out) {
+        if(in == null) {
+            throw new CompressionException("Cannot decompress null bytes");
+        }
+
+        try {
+            final int start = out.size();
+            final int uncompressedLength = Snappy.uncompressedLength(in, offset, length);
+            if (!out.ensureWritable(uncompressedLength)) {
+                logger.warn("Unable to decompress {} bytes, buffer cannot grow to hold the decompressed content", uncompressedLength);
+                return false;
+            }
+            Snappy.uncompress(in, offset, length, out.getBuf(), start);
+            out.setSize(start + uncompressedLength);
+            return true;
+        } catch (Throwable e) {
+            logger.warn("Failed to decompress data", e);
+            return false;
+        }
+    }
 }
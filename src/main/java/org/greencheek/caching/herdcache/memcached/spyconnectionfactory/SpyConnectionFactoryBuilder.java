@@ -40,6 +40,48 @@ public class SpyConnectionFactoryBuilder {
             LocatorFactory locatorFactory,
             KeyValidationType keyValidationType,
             ExecutorService executorService) {
+        return createConnectionFactory(failureMode,hashAlgorithm,serializingTranscoder,
+                protocol,readBufferSize,keyHashType,locatorFactory,keyValidationType,executorService,false);
+    }
+
+    /**
+     * @param useQuietWrites For the binary protocol, consecutive sets that are queued for a node are sent as
+     *                       quiet sets (setq), followed by a noop.  The server only responds to failed sets and
+     *                       the noop; the noop completing the futures of the sets.
+     */
+    public static NoValidationConnectionFactory createConnectionFactory(
+            FailureMode failureMode,
+            HashAlgorithm hashAlgorithm,
+            Transcoder<Object> serializingTranscoder,
+            ConnectionFactoryBuilder.Protocol protocol,
+            int readBufferSize,
+            KeyHashingType keyHashType,
+            LocatorFactory locatorFactory,
+            KeyValidationType keyValidationType,
+            ExecutorService executorService,
+            boolean useQuietWrites) {
+        return createConnectionFactory(failureMode,hashAlgorithm,serializingTranscoder,
+                protocol,readBufferSize,keyHashType,locatorFactory,keyValidationType,executorService,useQuietWrites,false);
+    }
+
+    /**
+     * @param useQuietWrites For the binary protocol, consecutive sets that are queued for a node are sent as
+     *                       quiet sets (setq), followed by a noop.
+     * @param locateReplicaKeys The locator places replica keys on the node after that of the key they are a
+     *                          replica of; set when hedged reads are enabled
+     */
+    public static NoValidationConnectionFactory createConnectionFactory(
+            FailureMode failureMode,
+            HashAlgorithm hashAlgorithm,
+            Transcoder<Object> serializingTranscoder,
+            ConnectionFactoryBuilder.Protocol protocol,
+            int readBufferSize,
+            KeyHashingType keyHashType,
+            LocatorFactory locatorFactory,
+            KeyValidationType keyValidationType,
+            ExecutorService executorService,
+            boolean useQuietWrites,
+            boolean locateReplicaKeys) {
 
         CustomConnectionFactoryBuilder builder = new CustomConnectionFactoryBuilder();
         builder.setHashAlg(hashAlgorithm);
@@ -48,9 +90,12 @@ public class SpyConnectionFactoryBuilder {
         builder.setFailureMode(failureMode);
         builder.setTranscoder(serializingTranscoder);
         builder.setLocatorFactory(locatorFactory);
+        builder.setLocateReplicaKeys(locateReplicaKeys);
         if (executorService != null) {
             builder.setCustomExecutorService(executorService);
         }
+        // the spy binary connection's optimizer merges queued sets into setq's, terminated by a noop
+        builder.setShouldOptimize(useQuietWrites);
 
         return builder.build(keyValidationRequired(keyHashType,keyValidationType));
     }
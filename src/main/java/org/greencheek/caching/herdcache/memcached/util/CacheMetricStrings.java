@@ -11,13 +11,39 @@ public class CacheMetricStrings {
     public static final String CACHE_TYPE_VALUE_CALCULATION_SUCCESS_COUNTER = "value_calculation_success";
     public static final String CACHE_TYPE_VALUE_CALCULATION_FAILURE_COUNTER = "value_calculation_failure";
     public static final String CACHE_TYPE_VALUE_CALCULATION_REJECTION_COUNTER= "value_calculation_rejected_execution";
+    public static final String CACHE_TYPE_VALUE_CALCULATION_ABANDONED_COUNTER = "value_calculation_abandoned";
+    public static final String CACHE_TYPE_VALUE_CALCULATION_CONCURRENCY_LIMITED_COUNTER = "value_calculation_concurrency_limited";
+    public static final String CACHE_TYPE_VALUE_CALCULATION_DEADLINE_EXCEEDED_COUNTER = "value_calculation_deadline_exceeded";
+    public static final String CACHE_TYPE_EARLY_RECOMPUTATION_COUNTER = "value_calculation_early_recomputation";
     public static final String CACHE_TYPE_STALE_VALUE_CALCULATION = "stale_value_calculation_cache";
+    public static final String CACHE_TYPE_STALE_IF_ERROR_COUNTER = "stale_if_error";
     public static final String CACHE_TYPE_CACHE_DISABLED = "disabled_cache";
     public static final String CACHE_TYPE_CACHE_DISABLED_REJECTION = "disabled_cache";
+    public static final String CACHE_TYPE_DEADLINE_EXCEEDED_COUNTER = "deadline_exceeded";
 
     public static final String CACHE_TYPE_STALE_CACHE = "stale_distributed_cache";
     public static final String CACHE_TYPE_DISTRIBUTED_CACHE = "distributed_cache";
     public static final String CACHE_TYPE_DISTRIBUTED_CACHE_WRITES_COUNTER="distributed_cache_writes";
     public static final String CACHE_TYPE_DISTRIBUTED_CACHE_REJECTION = "distributed_cache_rejection";
+    public static final String CACHE_TYPE_DISTRIBUTED_CACHE_GET_TIMEOUT = "distributed_cache_get_timeout_millis";
+    public static final String CACHE_TYPE_STALE_CACHE_GET_TIMEOUT = "stale_distributed_cache_get_timeout_millis";
+    public static final String CACHE_TYPE_DISTRIBUTED_CACHE_REPLICA = "distributed_cache_replica";
+    public static final String CACHE_TYPE_DISTRIBUTED_CACHE_HEDGED_READS_COUNTER = "distributed_cache_hedged_reads";
+    public static final String CACHE_TYPE_DISTRIBUTED_CACHE_HEDGED_READ_WINS_COUNTER = "distributed_cache_hedged_read_wins";
+    public static final String CACHE_TYPE_DISTRIBUTED_CACHE_BATCH_SIZE = "distributed_cache_batch_size";
+    public static final String CACHE_TYPE_DISTRIBUTED_CACHE_BOUNDED_LOAD_OVERFLOW_COUNTER = "distributed_cache_bounded_load_overflow";
+    public static final String CACHE_TYPE_DISTRIBUTED_CACHE_BOUNDED_LOAD_OVERFLOWED_KEYS = "distributed_cache_bounded_load_overflowed_keys";
+    public static final String CACHE_TYPE_DISTRIBUTED_CACHE_TRANSITION_READS_COUNTER = "distributed_cache_transition_reads";
+    public static final String CACHE_TYPE_DISTRIBUTED_CACHE_TRANSITION_COPIES_COUNTER = "distributed_cache_transition_copies";
+    public static final String CACHE_TYPE_DISTRIBUTED_LEASE_ACQUIRED_COUNTER = "distributed_lease_acquired";
+    public static final String CACHE_TYPE_DISTRIBUTED_LEASE_CONTENDED_COUNTER = "distributed_lease_contended";
+    public static final String CACHE_TYPE_DISTRIBUTED_LEASE_WAIT_TIMEOUT_COUNTER = "distributed_lease_wait_timeout";
+    public static final String CACHE_TYPE_WRITE_BEHIND_QUEUE_DEPTH = "distributed_cache_write_behind_queue_depth";
+    public static final String CACHE_TYPE_WRITE_BEHIND_BATCH_SIZE = "distributed_cache_write_behind_batch_size";
+    public static final String CACHE_TYPE_WRITE_BEHIND_COALESCED_COUNTER = "distributed_cache_write_behind_coalesced";
+    public static final String CACHE_TYPE_WRITE_BEHIND_DROPPED_COUNTER = "distributed_cache_write_behind_dropped";
+    public static final String CACHE_TYPE_NEGATIVE_CACHE = "negative_cache";
+    public static final String CACHE_TYPE_NEGATIVE_CACHE_WRITES_COUNTER = "negative_cache_writes";
+    public static final String CACHE_TYPE_NEAR_CACHE = "near_cache";
     public static final String CACHE_TYPE_ALL = "cache";
 }
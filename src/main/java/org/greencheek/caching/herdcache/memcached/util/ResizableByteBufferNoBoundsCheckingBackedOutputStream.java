@@ -15,7 +15,11 @@ public class ResizableByteBufferNoBoundsCheckingBackedOutputStream extends Outpu
     }
 
     public ResizableByteBufferNoBoundsCheckingBackedOutputStream(int initialCapacity, int maxCapacity) {
-        this.byteBuffer = new ResizeableByteBuffer(initialCapacity,maxCapacity);
+        this(new ResizeableByteBuffer(initialCapacity,maxCapacity));
+    }
+
+    public ResizableByteBufferNoBoundsCheckingBackedOutputStream(ResizeableByteBuffer byteBuffer) {
+        this.byteBuffer = byteBuffer;
     }
 
 
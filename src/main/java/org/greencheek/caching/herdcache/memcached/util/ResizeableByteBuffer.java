@@ -63,6 +63,21 @@ public class ResizeableByteBuffer {
         return position;
     }
 
+    public int capacity() {
+        return buf.length;
+    }
+
+    /**
+     * Grows the buffer so that {@code extra} bytes can be written directly into {@link #getBuf()}
+     * from the current position, for callers that write into the backing array themselves
+     * and then move the position with {@link #setSize(int)}
+     *
+     * @return false if the buffer cannot grow beyond its max capacity to hold the extra bytes
+     */
+    public boolean ensureWritable(int extra) {
+        return canWrite && checkSizeAndGrow(extra);
+    }
+
     public byte[] toByteArray() {
         final byte[] bytes = new byte[position];
         System.arraycopy(buf, 0, bytes, 0, position);
@@ -0,0 +1,80 @@
+package org.greencheek.caching.herdcache.memcached.util;
+
+import org.greencheek.caching.herdcache.util.VirtualThreads;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A pool of {@link ResizeableByteBuffer}s, one per thread, so that encoding and decoding
+ * of cache values can reuse the same scratch buffer rather than allocating (and growing)
+ * a new byte array for each value.
+ *
+ * A buffer is confined to the thread that acquired it, and must be released by that thread
+ * before it acquires from the same pool again.  A buffer that has grown beyond the
+ * max retained capacity (i.e. for the occasional very large value) is dropped on release,
+ * so that the thread does not hold on to the large array.
+ *
+ * A virtual thread usually runs a single operation, so a buffer per thread would be allocated for each value and
+ * never reused.  Virtual threads instead take a buffer from a small pool shared between them, bounded by the
+ * max shared buffers; a buffer is allocated when the shared pool is empty, and dropped on release when it is full.
+ */
+public class ThreadLocalResizeableByteBuffers {
+
+    public static final int DEFAULT_INITIAL_CAPACITY = 4096;
+    public static final int DEFAULT_MAX_RETAINED_CAPACITY = 1024 * 1024;
+    public static final int DEFAULT_MAX_SHARED_BUFFERS = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final ThreadLocal<ResizeableByteBuffer> buffers;
+    private final ArrayBlockingQueue<ResizeableByteBuffer> sharedBuffers;
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+
+    public ThreadLocalResizeableByteBuffers() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_RETAINED_CAPACITY);
+    }
+
+    public ThreadLocalResizeableByteBuffers(int initialCapacity, int maxRetainedCapacity) {
+        this(initialCapacity, maxRetainedCapacity, DEFAULT_MAX_SHARED_BUFFERS);
+    }
+
+    /**
+     * @param maxSharedBuffers The max number of buffers retained for use by virtual threads
+     */
+    public ThreadLocalResizeableByteBuffers(int initialCapacity, int maxRetainedCapacity, int maxSharedBuffers) {
+        this.buffers = ThreadLocal.withInitial(() -> new ResizeableByteBuffer(initialCapacity, ResizeableByteBuffer.MAX_ARRAY_SIZE));
+        this.sharedBuffers = new ArrayBlockingQueue<>(Math.max(1, maxSharedBuffers));
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    /**
+     * Returns the calling thread's buffer, empty and ready for writes.  On a virtual thread, a buffer from
+     * the shared pool
+     */
+    public ResizeableByteBuffer acquire() {
+        ResizeableByteBuffer buffer;
+        if (VirtualThreads.isCurrentThreadVirtual()) {
+            buffer = sharedBuffers.poll();
+            if (buffer == null) {
+                return new ResizeableByteBuffer(initialCapacity, ResizeableByteBuffer.MAX_ARRAY_SIZE);
+            }
+        } else {
+            buffer = buffers.get();
+        }
+        buffer.reset();
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to the pool.  The buffer must not be used after it is released.
+     */
+    public void release(ResizeableByteBuffer buffer) {
+        if (VirtualThreads.isCurrentThreadVirtual()) {
+            if (buffer.capacity() <= maxRetainedCapacity) {
+                sharedBuffers.offer(buffer);
+            }
+        } else if (buffer.capacity() > maxRetainedCapacity) {
+            buffers.remove();
+        }
+    }
+}
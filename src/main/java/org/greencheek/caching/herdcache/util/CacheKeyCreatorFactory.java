@@ -6,6 +6,7 @@ import org.greencheek.caching.herdcache.util.keycreators.HashAfterPrefixPrepende
 import org.greencheek.caching.herdcache.util.keycreators.HashBeforePrefixPrependedCacheKeyCreator;
 import org.greencheek.caching.herdcache.util.keycreators.CacheKeyCreator;
 import org.greencheek.caching.herdcache.util.keycreators.NoPrefixCacheKeyCreator;
+import org.greencheek.caching.herdcache.util.keycreators.ReplicaKeyEscapingCacheKeyCreator;
 
 /**
  *
@@ -43,6 +44,18 @@ public interface CacheKeyCreatorFactory {
             case SHA256_LOWER:
                 hasher = new MessageDigestHashing(KeyHashing.SHA256,Runtime.getRuntime().availableProcessors()*2,false);
                 break;
+            case NATIVE_XXHASH_64_BASE64:
+                hasher = new XXHashKeyHashing(true,true,true);
+                break;
+            case JAVA_XXHASH_64_BASE64:
+                hasher = new XXHashKeyHashing(false,true,true);
+                break;
+            case MD5_BASE64:
+                hasher = new MessageDigestHashing(KeyHashing.MD5,Base64ToString.INSTANCE);
+                break;
+            case SHA256_BASE64:
+                hasher = new MessageDigestHashing(KeyHashing.SHA256,Base64ToString.INSTANCE);
+                break;
             default:
                 hasher = new FastestXXHashKeyHashing();
         }
@@ -51,14 +64,20 @@ public interface CacheKeyCreatorFactory {
     }
 
     default CacheKeyCreator create(MemcachedCacheConfig config, KeyHashing hasher) {
+        CacheKeyCreator creator;
         if(config.hasKeyPrefix()) {
             if(config.isHashKeyPrefix()) {
-                return new HashAfterPrefixPrependedCacheKeyCreator(hasher,config.getKeyPrefix());
+                creator = new HashAfterPrefixPrependedCacheKeyCreator(hasher,config.getKeyPrefix());
             } else {
-                return new HashBeforePrefixPrependedCacheKeyCreator(hasher,config.getKeyPrefix());
+                creator = new HashBeforePrefixPrependedCacheKeyCreator(hasher,config.getKeyPrefix());
             }
         } else {
-            return new NoPrefixCacheKeyCreator(hasher);
+            creator = new NoPrefixCacheKeyCreator(hasher);
+        }
+
+        if(config.isUseHedgedReads()) {
+            return new ReplicaKeyEscapingCacheKeyCreator(creator);
         }
+        return creator;
     }
 }
@@ -0,0 +1,39 @@
+package org.greencheek.caching.herdcache.util;
+
+/**
+ * Creates the key under which the replica copy of an item is stored.  The
+ * {@link org.greencheek.caching.herdcache.memcached.spy.extensions.locator.CeilingKeyKetamaNodeLocator}
+ * recognises the prefix, when hedged reads are enabled, and locates the replica on the next node in the ring
+ * after the node holding the item.
+ *
+ * A cache key that would itself start with the replica prefix (for instance an unhashed key) is escaped
+ * ({@link #escapeKey(String)}), so that the keys of items and of replicas never collide.
+ */
+public class ReplicaKeyCreator {
+    public static final String REPLICA_KEY_PREFIX = "replica:";
+    public static final String ESCAPED_KEY_PREFIX = "replica;";
+
+    public static String createKey(String key) {
+        return REPLICA_KEY_PREFIX + key;
+    }
+
+    public static boolean isReplicaKey(String key) {
+        return key.startsWith(REPLICA_KEY_PREFIX);
+    }
+
+    public static String getKey(String replicaKey) {
+        return replicaKey.substring(REPLICA_KEY_PREFIX.length());
+    }
+
+    /**
+     * Returns the key, or for a key starting with the replica prefix or the escaped prefix, the key with the
+     * escaped prefix prepended.  No escaped key starts with the replica prefix, and no two keys are escaped to
+     * the same key.
+     */
+    public static String escapeKey(String key) {
+        if (key.startsWith(REPLICA_KEY_PREFIX) || key.startsWith(ESCAPED_KEY_PREFIX)) {
+            return ESCAPED_KEY_PREFIX + key;
+        }
+        return key;
+    }
+}
@@ -7,6 +7,6 @@ import org.greencheek.caching.herdcache.memcached.config.MemcachedCacheConfig;
  */
 public class StaleCacheKeyCreator {
     public static String createKey(MemcachedCacheConfig config, String key) {
-        return config.getStaleCachePrefix() + key;
+        return config.getStaleCachePrefix().concat(key);
     }
 }
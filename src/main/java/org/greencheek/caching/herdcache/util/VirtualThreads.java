@@ -0,0 +1,71 @@
+package org.greencheek.caching.herdcache.util;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Creates executors that run each task on a new virtual thread, when the running jvm supports them (JDK 21+).
+ * The jdk method is looked up reflectively, so that the library can still be compiled for, and run on, JDK 8.
+ */
+public class VirtualThreads {
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findNewVirtualThreadPerTaskExecutor();
+    private static final Method IS_VIRTUAL = findIsVirtual();
+
+    private static Method findNewVirtualThreadPerTaskExecutor() {
+        try {
+            return java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+    }
+
+    private static Method findIsVirtual() {
+        try {
+            return Thread.class.getMethod("isVirtual");
+        } catch (NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the calling thread is a virtual thread.  Always false on jvms without virtual threads
+     */
+    public static boolean isCurrentThreadVirtual() {
+        if(IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(Thread.currentThread());
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the running jvm can create virtual threads
+     */
+    public static boolean isAvailable() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * An executor that starts a new virtual thread for each task.
+     *
+     * @throws UnsupportedOperationException if the running jvm does not support virtual threads
+     */
+    public static ListeningExecutorService newVirtualThreadPerTaskExecutor() {
+        if(!isAvailable()) {
+            throw new UnsupportedOperationException("Virtual threads require JDK 21 or later, running: " +
+                    System.getProperty("java.version"));
+        }
+        try {
+            return MoreExecutors.listeningDecorator((ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Unable to create virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.greencheek.caching.herdcache.util.futures;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Adapts between suppliers that return a value, and suppliers that return a future for the value
+ */
+public class AsyncSuppliers {
+
+    /**
+     * A supplier whose future is complete as soon as the given supplier has returned its value.
+     * The given supplier's exceptions are thrown by the returned supplier's get()
+     */
+    public static <V> Supplier<ListenableFuture<V>> immediate(Supplier<V> computation) {
+        return () -> Futures.immediateFuture(computation.get());
+    }
+
+    /**
+     * A supplier that blocks the calling thread, until the future returned by the given supplier has completed.
+     * The future's failure is rethrown from get()
+     */
+    public static <V> Supplier<V> blocking(Supplier<ListenableFuture<V>> computation) {
+        return () -> {
+            ListenableFuture<V> pendingValue = computation.get();
+            if(pendingValue==null) {
+                return null;
+            }
+            try {
+                return pendingValue.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw Throwables.propagate(e);
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            }
+        };
+    }
+
+    /**
+     * A supplier of a ListenableFuture, from a supplier of a {@link CompletionStage}
+     */
+    public static <V> Supplier<ListenableFuture<V>> fromCompletionStage(Supplier<? extends CompletionStage<V>> computation) {
+        return () -> {
+            CompletionStage<V> stage = computation.get();
+            return stage == null ? null : toListenableFuture(stage);
+        };
+    }
+
+    /**
+     * A ListenableFuture that completes when the given {@link CompletionStage} completes
+     */
+    public static <V> ListenableFuture<V> toListenableFuture(CompletionStage<V> stage) {
+        com.google.common.util.concurrent.SettableFuture<V> future = com.google.common.util.concurrent.SettableFuture.create();
+        stage.whenComplete((value,throwable) -> {
+            if(throwable==null) {
+                future.set(value);
+            } else if(throwable instanceof CompletionException && throwable.getCause()!=null) {
+                future.setException(throwable.getCause());
+            } else {
+                future.setException(throwable);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * The executor on which to run the listener of the given future.  A future that has already completed
+     * (i.e. the value was supplied synchronously) has its listener run on the calling thread. Otherwise the
+     * listener is run on the given executor, or the completing thread if the executor rejects the listener.
+     */
+    public static Executor listenerExecutor(ListenableFuture<?> future, Executor executor) {
+        if(future.isDone()) {
+            return MoreExecutors.directExecutor();
+        }
+        return (listener) -> {
+            try {
+                executor.execute(listener);
+            } catch (RejectedExecutionException e) {
+                listener.run();
+            }
+        };
+    }
+}
@@ -5,17 +5,19 @@ import com.google.common.util.concurrent.ListenableFuture;
 import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Completes the future held in the internal cache, removing it from the internal cache.  The future is only removed
+ * if it is still the entry for the key; i.e. it has not already been abandoned and replaced by a later request.
  */
 public class FutureCompleter {
     public static <V> void completeWithValue(SettableFuture<V> promise, String keyString, V cachedObject,
                                              ConcurrentMap<String, ListenableFuture<V>> internalCache,
                                              boolean removeFromInternalCacheBeforeCompletion) {
         if (removeFromInternalCacheBeforeCompletion) {
-            internalCache.remove(keyString);
+            internalCache.remove(keyString, promise);
             promise.set(cachedObject);
         } else {
             promise.set(cachedObject);
-            internalCache.remove(keyString);
+            internalCache.remove(keyString, promise);
         }
     }
 
@@ -23,11 +25,11 @@ public class FutureCompleter {
                                                  ConcurrentMap<String, ListenableFuture<V>> internalCache,
                                                  boolean removeFromInternalCacheBeforeCompletion) {
         if (removeFromInternalCacheBeforeCompletion) {
-            internalCache.remove(keyString);
+            internalCache.remove(keyString, promise);
             promise.setException(exception);
         } else {
             promise.setException(exception);
-            internalCache.remove(keyString);
+            internalCache.remove(keyString, promise);
         }
     }
 }
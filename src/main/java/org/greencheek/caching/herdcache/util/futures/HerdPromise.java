@@ -0,0 +1,40 @@
+package org.greencheek.caching.herdcache.util.futures;
+
+/**
+ * The future, held in the cache's herd store, that the callers requesting the same key wait on.
+ * Records whether a caller, other than the one that created it, has joined the future; so that the computation
+ * is not failed by the deadline of the caller that created it, whilst other callers are waiting.
+ *
+ * DO NOT USE outside of hercache
+ */
+public class HerdPromise<V> extends GuavaSettableFuture<V> {
+
+    private boolean joined = false;
+    private boolean withdrawn = false;
+
+    /**
+     * Records that another caller is waiting on the future
+     *
+     * @return false if the future has been withdrawn, and is to be failed; the caller is not to wait on it
+     */
+    public synchronized boolean join() {
+        if (withdrawn) {
+            return false;
+        }
+        joined = true;
+        return true;
+    }
+
+    /**
+     * Withdraws the future, if no other caller has joined it
+     *
+     * @return true if withdrawn; false if another caller is waiting on the future
+     */
+    public synchronized boolean withdrawUnlessJoined() {
+        if (joined) {
+            return false;
+        }
+        withdrawn = true;
+        return true;
+    }
+}
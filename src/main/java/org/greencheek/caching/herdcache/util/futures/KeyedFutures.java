@@ -0,0 +1,50 @@
+package org.greencheek.caching.herdcache.util.futures;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combines the futures for a number of keys into a single future of a key to value map.
+ */
+public class KeyedFutures {
+
+    /**
+     * Combines the futures into a map, in key order.  If any of the futures fail, the returned future fails.
+     * Null values are included in the map.
+     *
+     * @param keys the keys, at the same index as the future for that key
+     * @param futures the futures
+     */
+    public static <V> ListenableFuture<Map<String,V>> allAsMap(List<String> keys, List<ListenableFuture<V>> futures) {
+        return Futures.transform(Futures.allAsList(futures),
+                (List<V> values) -> toMap(keys, values, true), MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Combines the futures into a map, in key order.  Only the futures that completed successfully
+     * with a non null value are included in the map.
+     *
+     * @param keys the keys, at the same index as the future for that key
+     * @param futures the futures
+     */
+    public static <V> ListenableFuture<Map<String,V>> successfulAsMap(List<String> keys, List<ListenableFuture<V>> futures) {
+        return Futures.transform(Futures.successfulAsList(futures),
+                (List<V> values) -> toMap(keys, values, false), MoreExecutors.directExecutor());
+    }
+
+    private static <V> Map<String,V> toMap(List<String> keys, List<V> values, boolean includeNullValues) {
+        Map<String,V> results = new LinkedHashMap<>(keys.size()*2);
+        for(int i=0;i<keys.size();i++) {
+            V value = values.get(i);
+            if(includeNullValues || value!=null) {
+                results.put(keys.get(i),value);
+            }
+        }
+        return results;
+    }
+}
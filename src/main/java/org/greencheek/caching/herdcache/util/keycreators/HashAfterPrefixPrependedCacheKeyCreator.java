@@ -17,6 +17,6 @@ public class HashAfterPrefixPrependedCacheKeyCreator implements CacheKeyCreator
 
     @Override
     public String createKey(String key) {
-        return hasher.hash(prefix + key);
+        return hasher.hash(prefix, key);
     }
 }
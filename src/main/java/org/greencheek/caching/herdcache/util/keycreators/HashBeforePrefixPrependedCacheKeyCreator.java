@@ -17,6 +17,6 @@ public class HashBeforePrefixPrependedCacheKeyCreator implements CacheKeyCreator
 
     @Override
     public String createKey(String key) {
-        return prefix + hasher.hash(key);
+        return prefix.concat(hasher.hash(key));
     }
 }
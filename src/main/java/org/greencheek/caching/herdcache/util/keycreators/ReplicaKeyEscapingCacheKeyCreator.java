@@ -0,0 +1,22 @@
+package org.greencheek.caching.herdcache.util.keycreators;
+
+import org.greencheek.caching.herdcache.util.ReplicaKeyCreator;
+
+/**
+ * Escapes the keys created by the given creator that start with the replica key prefix
+ * ({@link ReplicaKeyCreator#escapeKey(String)}).  Used when hedged reads are enabled, as the replica of an item
+ * is stored under its key with the replica prefix prepended.
+ */
+public class ReplicaKeyEscapingCacheKeyCreator implements CacheKeyCreator {
+
+    private final CacheKeyCreator creator;
+
+    public ReplicaKeyEscapingCacheKeyCreator(CacheKeyCreator creator) {
+        this.creator = creator;
+    }
+
+    @Override
+    public String createKey(String key) {
+        return ReplicaKeyCreator.escapeKey(creator.createKey(key));
+    }
+}
@@ -0,0 +1,69 @@
+package org.greencheek.caching.herdcache.perf.benchmarks.keyhashing;
+
+import net.jpountz.xxhash.XXHashFactory;
+import org.greencheek.caching.herdcache.memcached.keyhashing.Base64ToString;
+import org.greencheek.caching.herdcache.memcached.keyhashing.KeyHashing;
+import org.greencheek.caching.herdcache.memcached.keyhashing.MessageDigestHashing;
+import org.greencheek.caching.herdcache.memcached.keyhashing.XXHashKeyHashing;
+import org.greencheek.caching.herdcache.util.keycreators.CacheKeyCreator;
+import org.greencheek.caching.herdcache.util.keycreators.HashAfterPrefixPrependedCacheKeyCreator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.Charset;
+
+/**
+ * Creation of the memcached key from a prefix and user key.  Run with the gc profiler
+ * ({@link org.greencheek.caching.herdcache.perf.runner.KeyHashingBenchmarkRunner}); the allocation
+ * per key (gc.alloc.rate.norm) should be that of the returned key String only.
+ * {@link #xxHash64Concatenated} is the previous concat and getBytes path, for comparison.
+ */
+@State(Scope.Benchmark)
+public class KeyHashingPerfTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String PREFIX = "herdcache-products";
+
+    private final String key = "/product/123456789/summary?locale=en_GB&currency=GBP";
+
+    private final CacheKeyCreator xxHash64 = new HashAfterPrefixPrependedCacheKeyCreator(new XXHashKeyHashing(true, true), PREFIX);
+    private final CacheKeyCreator xxHash64Base64 = new HashAfterPrefixPrependedCacheKeyCreator(new XXHashKeyHashing(true, true, true), PREFIX);
+    private final CacheKeyCreator md5Base64 = new HashAfterPrefixPrependedCacheKeyCreator(new MessageDigestHashing(KeyHashing.MD5, Base64ToString.INSTANCE), PREFIX);
+    private final CacheKeyCreator sha256Hex = new HashAfterPrefixPrependedCacheKeyCreator(new MessageDigestHashing(KeyHashing.SHA256, 1, false), PREFIX);
+
+    private final XXHashFactory factory = XXHashFactory.fastestInstance();
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public String xxHash64Concatenated() {
+        byte[] bytes = (PREFIX + key).getBytes(UTF8);
+        return Long.toString(factory.hash64().hash(bytes, 0, bytes.length, 0));
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public String xxHash64() {
+        return xxHash64.createKey(key);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public String xxHash64Base64() {
+        return xxHash64Base64.createKey(key);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public String md5Base64() {
+        return md5Base64.createKey(key);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public String sha256Hex() {
+        return sha256Hex.createKey(key);
+    }
+}
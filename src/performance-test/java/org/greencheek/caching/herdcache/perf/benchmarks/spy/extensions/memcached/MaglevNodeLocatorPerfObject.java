@@ -0,0 +1,35 @@
+package org.greencheek.caching.herdcache.perf.benchmarks.spy.extensions.memcached;
+
+
+import net.spy.memcached.NodeLocator;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.hashing.JenkinsHash;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.locator.MaglevNodeLocator;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+
+/**
+ *
+ */
+@State(Scope.Benchmark)
+public class MaglevNodeLocatorPerfObject {
+
+    public NodeLocator locator;
+
+    @Setup
+    public void setUp() {
+         locator = new MaglevNodeLocator(new ArrayList(){{
+             add(new DoNothingMemcachedNode(2345));
+             add(new DoNothingMemcachedNode(3456));
+             add(new DoNothingMemcachedNode(4567));
+         }},new JenkinsHash());
+    }
+
+    @TearDown
+    public void tearDown() {
+
+    }
+}
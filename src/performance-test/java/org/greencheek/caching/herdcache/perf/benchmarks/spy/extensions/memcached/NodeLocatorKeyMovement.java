@@ -0,0 +1,84 @@
+package org.greencheek.caching.herdcache.perf.benchmarks.spy.extensions.memcached;
+
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.NodeLocator;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.hashing.JenkinsHash;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.locator.LocatorFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Prints, for each locator, the share of keys owned by each node, and the share of keys that move to a different
+ * node when a node is added to, or removed from, a cluster of 10 nodes.  The ideal is 1/11 (9.1%) of the keys moving
+ * when a node is added, and 1/10 (10%) when one is removed.
+ *
+ * Removing the last node, and a node from the middle of the list, are reported separately; as the jump consistent
+ * hash relies on node numbering, and so moves more keys when a node other than the last is removed.
+ */
+public class NodeLocatorKeyMovement {
+
+    private static final int NUM_KEYS = 1000000;
+    private static final int NUM_NODES = 10;
+
+    public static void main(String[] args) {
+        Map<String, LocatorFactory> locators = new LinkedHashMap<>();
+        locators.put("ketama ceiling array", LocatorFactory.KETAMA_CEILING_ARRAY);
+        locators.put("jump consistent hash", LocatorFactory.JUMP_CONSISTENT_HASH);
+        locators.put("maglev", LocatorFactory.MAGLEV);
+
+        List<String> keys = new ArrayList<>(NUM_KEYS);
+        for (int i = 0; i < NUM_KEYS; i++) {
+            keys.add(UUID.randomUUID().toString());
+        }
+
+        List<MemcachedNode> nodes = new ArrayList<>(NUM_NODES + 1);
+        for (int i = 0; i <= NUM_NODES; i++) {
+            nodes.add(new DoNothingMemcachedNode(11211 + i));
+        }
+        List<MemcachedNode> cluster = nodes.subList(0, NUM_NODES);
+        List<MemcachedNode> lastRemoved = nodes.subList(0, NUM_NODES - 1);
+        List<MemcachedNode> middleRemoved = new ArrayList<>(cluster);
+        middleRemoved.remove(NUM_NODES / 2);
+
+        for (Map.Entry<String, LocatorFactory> locator : locators.entrySet()) {
+            LocatorFactory factory = locator.getValue();
+            NodeLocator original = factory.createNodeLocator(cluster, new JenkinsHash());
+
+            Map<MemcachedNode, Integer> owned = new LinkedHashMap<>();
+            for (String key : keys) {
+                owned.merge(original.getPrimary(key), 1, Integer::sum);
+            }
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            for (int count : owned.values()) {
+                min = Math.min(min, count);
+                max = Math.max(max, count);
+            }
+
+            System.out.printf("%-22s keys per node min %.2f%% max %.2f%% | moved on add %.2f%% | remove last %.2f%% | remove middle %.2f%%%n",
+                    locator.getKey(),
+                    percent(min), percent(max),
+                    percent(moved(keys, original, factory.createNodeLocator(nodes, new JenkinsHash()))),
+                    percent(moved(keys, original, factory.createNodeLocator(lastRemoved, new JenkinsHash()))),
+                    percent(moved(keys, original, factory.createNodeLocator(middleRemoved, new JenkinsHash()))));
+        }
+    }
+
+    private static double percent(int keys) {
+        return keys * 100.0 / NUM_KEYS;
+    }
+
+    private static int moved(List<String> keys, NodeLocator before, NodeLocator after) {
+        int moved = 0;
+        for (String key : keys) {
+            if (before.getPrimary(key) != after.getPrimary(key)) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+}
@@ -2,6 +2,11 @@ package org.greencheek.caching.herdcache.perf.benchmarks.spy.extensions.memcache
 
 
 import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.NodeLocator;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.hashing.JenkinsHash;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.locator.CeilingKeyKetamaNodeLocator;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.locator.JumpConsistentHashNodeLocator;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.locator.MaglevNodeLocator;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
@@ -46,7 +51,47 @@ public class NodeLocatorPerfTest {
         return builder;
     }
 
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public List<MemcachedNode> testJumpConsistentHashNodeLocator(JumpConsistentHashNodeLocatorPerfObject locatorPerfObject) {
+        List<MemcachedNode> builder = new ArrayList<>(NUM+1);
+        for(int i =0 ; i<NUM;i++) {
+            builder.add(locatorPerfObject.locator.getPrimary(strings.get(i)));
+        }
+        return builder;
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public List<MemcachedNode> testMaglevNodeLocator(MaglevNodeLocatorPerfObject locatorPerfObject) {
+        List<MemcachedNode> builder = new ArrayList<>(NUM+1);
+        for(int i =0 ; i<NUM;i++) {
+            builder.add(locatorPerfObject.locator.getPrimary(strings.get(i)));
+        }
+        return builder;
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public NodeLocator testCeilingKeyNodeLocatorRebuild(NodeLocatorRebuildPerfObject cluster) {
+        return new CeilingKeyKetamaNodeLocator(cluster.nodes, new JenkinsHash());
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public NodeLocator testJumpConsistentHashNodeLocatorRebuild(NodeLocatorRebuildPerfObject cluster) {
+        return new JumpConsistentHashNodeLocator(cluster.nodes, new JenkinsHash());
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public NodeLocator testMaglevNodeLocatorRebuild(NodeLocatorRebuildPerfObject cluster) {
+        return new MaglevNodeLocator(cluster.nodes, new JenkinsHash());
+    }
 
+    /**
+     * Key movement statistics are printed by {@link NodeLocatorKeyMovement}
+     */
     public static void main(String[] args) {
         System.out.println(UUID.randomUUID().toString().length());
     }
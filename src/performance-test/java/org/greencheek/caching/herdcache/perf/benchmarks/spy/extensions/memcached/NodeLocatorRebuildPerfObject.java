@@ -0,0 +1,26 @@
+package org.greencheek.caching.herdcache.perf.benchmarks.spy.extensions.memcached;
+
+import net.spy.memcached.MemcachedNode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cluster of 100 nodes, for timing the construction of a locator
+ */
+@State(Scope.Benchmark)
+public class NodeLocatorRebuildPerfObject {
+
+    public List<MemcachedNode> nodes;
+
+    @Setup
+    public void setUp() {
+        nodes = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            nodes.add(new DoNothingMemcachedNode(11211 + i));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.greencheek.caching.herdcache.perf.benchmarks.transcoders;
+
+import net.spy.memcached.CachedData;
+import org.greencheek.caching.herdcache.memcached.folsom.transcoder.FastTranscoder;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.FastSerializingTranscoder;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.LZ4NativeCompression;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.SnappyCompression;
+import org.greencheek.caching.herdcache.memcached.util.TestCacheValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+
+/**
+ * Encode and decode of a serialized, compressed value through the spy and folsom transcoders.
+ * Run with the gc profiler ({@link org.greencheek.caching.herdcache.perf.runner.TranscoderBenchmarkRunner})
+ * to see the bytes allocated per operation (gc.alloc.rate.norm)
+ */
+@State(Scope.Benchmark)
+public class TranscoderPerfTest {
+
+    private final FastSerializingTranscoder snappyTranscoder = new FastSerializingTranscoder(new SnappyCompression());
+    private final FastSerializingTranscoder lz4Transcoder = new FastSerializingTranscoder(new LZ4NativeCompression());
+    private final FastTranscoder folsomTranscoder = new FastTranscoder(true);
+
+    private ArrayList<String> value;
+    private CachedData snappyEncoded;
+    private CachedData lz4Encoded;
+    private byte[] folsomEncoded;
+
+    private HashMap<String, String> stringMap;
+    private CachedData stringMapEncoded;
+
+    @Setup
+    public void setUp() {
+        value = new ArrayList<>();
+        value.add(TestCacheValues.LARGE_CACHE_VALUE);
+        value.add(TestCacheValues.LARGE_CACHE_VALUE2);
+
+        snappyEncoded = snappyTranscoder.encode(value);
+        lz4Encoded = lz4Transcoder.encode(value);
+        folsomEncoded = folsomTranscoder.encode(value);
+
+        stringMap = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            stringMap.put("field" + i, "value" + i);
+        }
+        stringMapEncoded = snappyTranscoder.encode(stringMap);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public CachedData spySnappyEncode() {
+        return snappyTranscoder.encode(value);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public Object spySnappyDecode() {
+        return snappyTranscoder.decode(snappyEncoded);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public CachedData spyLZ4Encode() {
+        return lz4Transcoder.encode(value);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public Object spyLZ4Decode() {
+        return lz4Transcoder.decode(lz4Encoded);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public byte[] folsomEncode() {
+        return folsomTranscoder.encode(value);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public Object folsomDecode() {
+        return folsomTranscoder.decode(folsomEncoded);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public CachedData spyStringMapEncode() {
+        return snappyTranscoder.encode(stringMap);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public Object spyStringMapDecode() {
+        return snappyTranscoder.decode(stringMapEncoded);
+    }
+
+}
@@ -0,0 +1,98 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.greencheek.caching.herdcache.exceptions.SupplierConcurrencyLimitExceededException;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SupplierBulkheadTest {
+
+    private void assertLimited(SupplierBulkhead bulkhead, String key) {
+        try {
+            bulkhead.execute(key, () -> Futures.immediateFuture("value"));
+            fail("Expected the supplier for " + key + " to be limited");
+        } catch (SupplierConcurrencyLimitExceededException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testNoLimitsConfigured() {
+        assertFalse(new SupplierBulkhead(0, Collections.emptyMap(), Duration.ZERO).isLimiting());
+    }
+
+    @Test
+    public void testGlobalLimitIsReleasedWhenFutureCompletes() throws Exception {
+        SupplierBulkhead bulkhead = new SupplierBulkhead(1, Collections.emptyMap(), Duration.ZERO);
+        assertTrue(bulkhead.isLimiting());
+
+        SettableFuture<String> running = SettableFuture.create();
+        bulkhead.execute("key1", () -> running);
+        assertLimited(bulkhead, "key2");
+
+        running.set("value");
+        ListenableFuture<String> next = bulkhead.execute("key2", () -> Futures.immediateFuture("value2"));
+        assertEquals("value2", next.get());
+    }
+
+    @Test
+    public void testGlobalLimitIsReleasedWhenSupplierThrows() {
+        SupplierBulkhead bulkhead = new SupplierBulkhead(1, Collections.emptyMap(), Duration.ZERO);
+        try {
+            bulkhead.execute("key1", () -> { throw new IllegalStateException(); });
+            fail("Expected the supplier's exception");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        bulkhead.execute("key2", () -> SettableFuture.create());
+        assertLimited(bulkhead, "key3");
+    }
+
+    @Test
+    public void testKeysAreLimitedByLongestMatchingPrefix() {
+        Map<String,Integer> limits = new HashMap<>();
+        limits.put("user", 2);
+        limits.put("user:profile", 1);
+        SupplierBulkhead bulkhead = new SupplierBulkhead(0, limits, Duration.ZERO);
+
+        bulkhead.execute("user:profile:1", () -> SettableFuture.create());
+        assertLimited(bulkhead, "user:profile:2");
+
+        // other groups, and keys without a group, are unaffected
+        bulkhead.execute("user:1", () -> SettableFuture.create());
+        bulkhead.execute("user:2", () -> SettableFuture.create());
+        assertLimited(bulkhead, "user:3");
+        bulkhead.execute("product:1", () -> SettableFuture.create());
+    }
+
+    @Test
+    public void testSupplierWaitsForSlotToBeReleased() throws Exception {
+        SupplierBulkhead bulkhead = new SupplierBulkhead(1, Collections.emptyMap(), Duration.ofSeconds(5));
+
+        SettableFuture<String> running = SettableFuture.create();
+        bulkhead.execute("key1", () -> running);
+
+        new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.set("value");
+        }).start();
+
+        assertEquals("value2", bulkhead.execute("key2", () -> Futures.immediateFuture("value2")).get());
+    }
+}
@@ -0,0 +1,147 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ */
+public class TestAsyncSupplierMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private ListeningExecutorService executorService;
+    private CacheWithExpiry<String> cache;
+
+    @Before
+    public void setUp() {
+        // single thread, the suppliers must not hold it whilst their futures are outstanding
+        executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(1));
+
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        cache = new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .buildMemcachedConfig()
+        );
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testOutstandingAsyncSuppliersDoNotHoldExecutorThreads() throws InterruptedException {
+        List<SettableFuture<String>> pendingValues = new ArrayList<>();
+        List<ListenableFuture<String>> results = new ArrayList<>();
+
+        for(int i=0;i<20;i++) {
+            SettableFuture<String> pendingValue = SettableFuture.create();
+            pendingValues.add(pendingValue);
+            results.add(cache.applyAsync("Key" + i, () -> pendingValue, executorService));
+        }
+
+        Thread.sleep(500);
+        for(ListenableFuture<String> result : results) {
+            assertEquals("Value should not be available until the supplier's future completes", false, result.isDone());
+        }
+
+        for(int i=0;i<20;i++) {
+            pendingValues.get(i).set("value" + i);
+        }
+
+        for(int i=0;i<20;i++) {
+            assertEquals("value" + i, cache.awaitForFutureOrElse(results.get(i), null));
+        }
+        assertEquals(20, memcached.getDaemon().getCache().getCurrentItems());
+
+        assertEquals("value1", cache.awaitForFutureOrElse(cache.applyAsync("Key1",
+                () -> SettableFuture.<String>create(), executorService), null));
+    }
+
+    @Test
+    public void testConcurrentRequestsShareTheAsyncSuppliersFuture() {
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+        SettableFuture<String> pendingValue = SettableFuture.create();
+
+        List<ListenableFuture<String>> results = new ArrayList<>();
+        for(int i=0;i<10;i++) {
+            results.add(cache.applyAsync("Key1", () -> {
+                supplierCalls.incrementAndGet();
+                return pendingValue;
+            }, executorService));
+        }
+
+        pendingValue.set("value");
+
+        for(ListenableFuture<String> result : results) {
+            assertEquals("value", cache.awaitForFutureOrElse(result, null));
+        }
+        assertEquals(1, supplierCalls.get());
+        assertEquals(1, memcached.getDaemon().getCache().getCurrentItems());
+    }
+
+    @Test
+    public void testFailedAsyncSupplierIsNotCached() {
+        SettableFuture<String> pendingValue = SettableFuture.create();
+        ListenableFuture<String> result = cache.applyAsync("Key1", () -> pendingValue, executorService);
+
+        pendingValue.setException(new RuntimeException("failed"));
+
+        assertEquals("failed", cache.awaitForFutureOrElse(result, "failed"));
+        assertEquals(0, memcached.getDaemon().getCache().getCurrentItems());
+
+        assertEquals("value", cache.awaitForFutureOrElse(cache.applyAsync("Key1",
+                () -> Futures.immediateFuture("value"), executorService), null));
+        assertEquals(1, memcached.getDaemon().getCache().getCurrentItems());
+    }
+
+    @Test
+    public void testCompletionStageSupplier() {
+        CompletableFuture<String> pendingValue = new CompletableFuture<>();
+        ListenableFuture<String> result = cache.applyCompletionStage("Key1", () -> pendingValue,
+                Duration.ofSeconds(60), executorService);
+
+        pendingValue.complete("value");
+
+        assertEquals("value", cache.awaitForFutureOrElse(result, null));
+        assertEquals(1, memcached.getDaemon().getCache().getCurrentItems());
+    }
+}
@@ -0,0 +1,131 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.metrics.YammerMetricsRecorder;
+import org.greencheek.caching.herdcache.memcached.util.CacheMetricStrings;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ */
+public class TestBatchingGetMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private ListeningExecutorService executorService;
+    private CacheWithExpiry<String> cache;
+    private MetricRegistry registry;
+
+    @Before
+    public void setUp() {
+        executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(10));
+
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        registry = new MetricRegistry();
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    private CacheWithExpiry<String> createCache(boolean nonBlockingGet) {
+        return new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseNonBlockingGet(nonBlockingGet)
+                        .setUseGetBatching(true)
+                        .setGetBatchingWindow(Duration.ofMillis(50))
+                        .setGetBatchingMaxBatchSize(100)
+                        .setMetricsRecorder(new YammerMetricsRecorder(registry))
+                        .buildMemcachedConfig()
+        );
+    }
+
+    private void testConcurrentAppliesAreBatched() {
+        for(int i=0;i<20;i++) {
+            cache.awaitForFutureOrElse(cache.set("Key" + i, "value" + i, executorService), null);
+        }
+
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+        List<ListenableFuture<String>> futures = new ArrayList<>();
+        for(int i=0;i<20;i++) {
+            futures.add(cache.apply("Key" + i, () -> { supplierCalls.incrementAndGet(); return "generated"; }, executorService));
+        }
+        ListenableFuture<String> missing = cache.apply("Missing", () -> { supplierCalls.incrementAndGet(); return "generated"; }, executorService);
+
+        for(int i=0;i<20;i++) {
+            assertEquals("value" + i, cache.awaitForFutureOrElse(futures.get(i), null));
+        }
+        assertEquals("generated", cache.awaitForFutureOrElse(missing, null));
+        assertEquals(1, supplierCalls.get());
+
+        Histogram batchSizes = registry.histogram(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_BATCH_SIZE);
+        assertTrue("gets should have been sent in batches", batchSizes.getCount() < 21);
+        assertTrue("gets should have been sent in batches", batchSizes.getSnapshot().getMax() > 1);
+    }
+
+    @Test
+    public void testNonBlockingGetsAreBatched() {
+        cache = createCache(true);
+        testConcurrentAppliesAreBatched();
+    }
+
+    @Test
+    public void testBlockingGetsAreBatched() {
+        cache = createCache(false);
+
+        for(int i=0;i<10;i++) {
+            cache.awaitForFutureOrElse(cache.set("Key" + i, "value" + i, executorService), null);
+        }
+
+        // each get is performed on a thread of the executor
+        List<ListenableFuture<String>> futures = new ArrayList<>();
+        for(int i=0;i<10;i++) {
+            futures.add(cache.get("Key" + i, executorService));
+        }
+
+        for(int i=0;i<10;i++) {
+            assertEquals("value" + i, cache.awaitForFutureOrElse(futures.get(i), null));
+        }
+
+        Histogram batchSizes = registry.histogram(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_BATCH_SIZE);
+        assertTrue("gets should have been sent in batches", batchSizes.getSnapshot().getMax() > 1);
+    }
+}
@@ -0,0 +1,141 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ *
+ */
+public class TestBulkMemcachedCaching {
+
+    protected MemcachedDaemonWrapper memcached;
+    protected ListeningExecutorService executorService;
+    protected CacheWithExpiry<String> cache;
+
+    @Before
+    public void setUp() {
+        executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(10));
+
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        cache = createCache(memcached.getPort());
+    }
+
+    public CacheWithExpiry<String> createCache(int port) {
+        return new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + port)
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .buildMemcachedConfig()
+        );
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testGetAllReturnsOnlyFoundKeys() throws Exception {
+        cache.awaitForFutureOrElse(cache.set("Key1", "value1", executorService), null);
+        cache.awaitForFutureOrElse(cache.set("Key2", "value2", executorService), null);
+        cache.awaitForFutureOrElse(cache.set("Key3", "value3", executorService), null);
+
+        Map<String,String> values = cache.getAll(Arrays.asList("Key1", "Key2", "Key3", "Key4"), executorService).get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, values.size());
+        assertEquals("value1", values.get("Key1"));
+        assertEquals("value2", values.get("Key2"));
+        assertEquals("value3", values.get("Key3"));
+        assertFalse(values.containsKey("Key4"));
+    }
+
+    @Test
+    public void testApplyAllOnlyCallsSuppliersForMissingKeys() throws Exception {
+        cache.awaitForFutureOrElse(cache.set("Key1", "value1", executorService), null);
+        cache.awaitForFutureOrElse(cache.set("Key2", "value2", executorService), null);
+
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+        Map<String,Supplier<String>> computations = new LinkedHashMap<>();
+        for(int i=1;i<=4;i++) {
+            final String value = "generated" + i;
+            computations.put("Key"+i, () -> { supplierCalls.incrementAndGet(); return value;});
+        }
+
+        Map<String,String> values = cache.applyAll(computations, executorService).get(5, TimeUnit.SECONDS);
+
+        assertEquals(4, values.size());
+        assertEquals("value1", values.get("Key1"));
+        assertEquals("value2", values.get("Key2"));
+        assertEquals("generated3", values.get("Key3"));
+        assertEquals("generated4", values.get("Key4"));
+        assertEquals(2, supplierCalls.get());
+        assertEquals(4, memcached.getDaemon().getCache().getCurrentItems());
+
+        values = cache.applyAll(computations, executorService).get(5, TimeUnit.SECONDS);
+        assertEquals("generated4", values.get("Key4"));
+        assertEquals(2, supplierCalls.get());
+    }
+
+    @Test
+    public void testApplyAllSharesInFlightCalculations() throws Exception {
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        ListenableFuture<String> slowValue = cache.apply("Key1", () -> {
+            supplierCalls.incrementAndGet();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            return "slow";
+        }, executorService);
+
+        Map<String,Supplier<String>> computations = new LinkedHashMap<>();
+        computations.put("Key1", () -> { supplierCalls.incrementAndGet(); return "fast"; });
+        computations.put("Key2", () -> { supplierCalls.incrementAndGet(); return "value2"; });
+
+        Map<String,String> values = cache.applyAll(computations, executorService).get(5, TimeUnit.SECONDS);
+
+        assertEquals("slow", cache.awaitForFutureOrElse(slowValue, null));
+        assertEquals("slow", values.get("Key1"));
+        assertEquals("value2", values.get("Key2"));
+        assertEquals(2, supplierCalls.get());
+    }
+}
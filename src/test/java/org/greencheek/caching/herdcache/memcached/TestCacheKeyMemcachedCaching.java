@@ -0,0 +1,114 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheKey;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.keyhashing.KeyHashingType;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class TestCacheKeyMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private CacheWithExpiry<String> cache;
+    private CacheWithExpiry<String> otherCache;
+    private ListeningExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        executorService = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+        cache = createCache();
+        otherCache = createCache();
+    }
+
+    private CacheWithExpiry<String> createCache() {
+        return new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setKeyHashType(KeyHashingType.NATIVE_XXHASH_64_BASE64)
+                        .setKeyPrefix(Optional.of("prefix"))
+                        .setUseStaleCache(true)
+                        .buildMemcachedConfig()
+        );
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        for(CacheWithExpiry<String> c : new CacheWithExpiry[]{cache, otherCache}) {
+            if(c!=null && c instanceof RequiresShutdown) {
+                ((RequiresShutdown) c).shutdown();
+            }
+        }
+
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testCacheKeyIsStoredUnderTheSameKeyAsTheString() {
+        CacheKey key = cache.createKey("Key1");
+        assertEquals("Key1", key.getKey());
+        assertNotEquals("Key1", key.getMemcachedKey());
+        assertNotNull(key.getStaleKey());
+        assertTrue(key.hasKetamaHash());
+
+        assertEquals("value", cache.awaitForFutureOrElse(cache.apply(key, () -> "value", Duration.ofSeconds(60), executorService), null));
+        assertEquals("value", cache.awaitForFutureOrElse(cache.get("Key1"), null));
+        assertEquals("value", cache.awaitForFutureOrElse(cache.get(key), null));
+
+        assertEquals("value2", cache.awaitForFutureOrElse(cache.apply("Key2", () -> "value2", Duration.ofSeconds(60), executorService), null));
+        assertEquals("value2", cache.awaitForFutureOrElse(cache.get(cache.createKey("Key2"), executorService), null));
+    }
+
+    @Test
+    public void testSupplierIsNotCalledForCachedCacheKey() {
+        AtomicInteger calls = new AtomicInteger();
+        CacheKey key = cache.createKey("Key1");
+        for(int i=0;i<5;i++) {
+            assertEquals("value", cache.awaitForFutureOrElse(cache.apply(key, () -> {
+                calls.incrementAndGet();
+                return "value";
+            }, executorService), null));
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testKeyFromAnotherCacheIsUsedAsAString() {
+        CacheKey key = otherCache.createKey("Key1");
+        assertFalse(key.isPreparedBy(cache));
+
+        assertEquals("value", cache.awaitForFutureOrElse(cache.apply(key, () -> "value", executorService), null));
+        assertEquals("value", cache.awaitForFutureOrElse(otherCache.get(otherCache.createKey("Key1")), null));
+        assertEquals("value", cache.awaitForFutureOrElse(cache.get(CacheKey.of("Key1")), null));
+    }
+}
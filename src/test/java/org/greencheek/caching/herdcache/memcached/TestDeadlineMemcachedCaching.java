@@ -0,0 +1,194 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.Deadline;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.exceptions.DeadlineExceededException;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.metrics.YammerMetricsRecorder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ */
+public class TestDeadlineMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private CacheWithExpiry<String> cache;
+    private MetricRegistry registry;
+    private ListeningExecutorService executorService;
+    private final CountDownLatch slowSupplier = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        registry = new MetricRegistry();
+        executorService = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+        cache = new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setMetricsRecorder(new YammerMetricsRecorder(registry))
+                        .buildMemcachedConfig()
+        );
+    }
+
+    @After
+    public void tearDown() {
+        slowSupplier.countDown();
+
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    private String slow() {
+        try {
+            slowSupplier.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "late";
+    }
+
+    private Throwable assertFailsWithin(ListenableFuture<String> future, long millis) throws InterruptedException {
+        try {
+            future.get(millis, TimeUnit.MILLISECONDS);
+            fail("Expected the request to fail at its deadline");
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (java.util.concurrent.TimeoutException e) {
+            fail("Request was not completed by its deadline");
+        }
+        return null;
+    }
+
+    @Test
+    public void testValueIsReturnedWithinDeadline() {
+        assertEquals("value", cache.awaitForFutureOrElse(
+                cache.apply("Key1", () -> "value", Duration.ofSeconds(60),
+                        Deadline.after(Duration.ofSeconds(2)), executorService), null));
+
+        assertEquals("value", cache.awaitForFutureOrElse(
+                cache.get("Key1", Deadline.after(Duration.ofSeconds(2)), executorService), null));
+    }
+
+    @Test
+    public void testExpiredDeadlineDoesNotCallSupplier() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        Deadline deadline = Deadline.after(Duration.ofMillis(-1));
+
+        Throwable failure = assertFailsWithin(cache.apply("Key1", () -> {
+            calls.incrementAndGet();
+            return "value";
+        }, Duration.ofSeconds(60), deadline, executorService), 1000);
+
+        assertTrue(failure instanceof DeadlineExceededException);
+        assertEquals(0, calls.get());
+        assertEquals(1, registry.counter("deadline_exceeded_count").getCount());
+    }
+
+    @Test
+    public void testRequestForASlowSupplierFailsAtDeadline() throws InterruptedException {
+        ListenableFuture<String> value = cache.apply("Key1", this::slow, Duration.ofSeconds(60),
+                Deadline.after(Duration.ofMillis(200)), executorService);
+
+        assertFailsWithin(value, 2000);
+
+        // the supplier's value is still written to memcached
+        slowSupplier.countDown();
+        Thread.sleep(500);
+        assertEquals("late", cache.awaitForFutureOrElse(cache.get("Key1"), null));
+    }
+
+    @Test
+    public void testRequestWaitingOnAnotherCalculationIsBoundByDeadline() throws InterruptedException {
+        ListenableFuture<String> first = cache.apply("Key1", this::slow, Duration.ofSeconds(60), executorService);
+
+        assertFailsWithin(cache.apply("Key1", () -> "value", Duration.ofSeconds(60),
+                Deadline.after(Duration.ofMillis(200)), executorService), 2000);
+
+        // the calculation the request was waiting on is not cancelled
+        slowSupplier.countDown();
+        assertEquals("late", cache.awaitForFutureOrElse(first, null));
+    }
+
+    @Test
+    public void testDeadlineOfTheRequestThatStartedTheSupplierDoesNotFailOtherRequests() throws InterruptedException {
+        ListenableFuture<String> first = cache.apply("Key1", this::slow, Duration.ofSeconds(60),
+                Deadline.after(Duration.ofMillis(200)), executorService);
+        ListenableFuture<String> second = cache.apply("Key1", () -> "value", Duration.ofSeconds(60), executorService);
+
+        assertFailsWithin(first, 2000);
+        assertFalse(second.isDone());
+
+        slowSupplier.countDown();
+        assertEquals("late", cache.awaitForFutureOrElse(second, null));
+        assertEquals(0, registry.counter("value_calculation_abandoned_count").getCount());
+    }
+
+    @Test
+    public void testDeadlinePassingBeforeTheSupplierIsCalledDoesNotFailOtherRequests() throws Exception {
+        // accepts the connection, but never replies; so the get runs to the deadline of the first request
+        try(ServerSocket unresponsiveMemcached = new ServerSocket(0)) {
+            CacheWithExpiry<String> unresponsiveCache = new SpyMemcachedCache<>(
+                    new ElastiCacheCacheConfigBuilder()
+                            .setMemcachedHosts("localhost:" + unresponsiveMemcached.getLocalPort())
+                            .setTimeToLive(Duration.ofSeconds(60))
+                            .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                            .setMemcachedGetTimeout(Duration.ofSeconds(5))
+                            .setMetricsRecorder(new YammerMetricsRecorder(registry))
+                            .buildMemcachedConfig()
+            );
+
+            try {
+                executorService.submit(() -> unresponsiveCache.apply("Key1", () -> "value", Duration.ofSeconds(60),
+                        Deadline.after(Duration.ofMillis(500)), executorService));
+                Thread.sleep(100);
+                ListenableFuture<String> second = unresponsiveCache.apply("Key1", () -> "other",
+                        Duration.ofSeconds(60), executorService);
+
+                // the supplier is called for the request still waiting on it, rather than failing it
+                assertEquals("value", second.get(2000, TimeUnit.MILLISECONDS));
+                assertEquals(0, registry.counter("value_calculation_deadline_exceeded_count").getCount());
+            } finally {
+                ((RequiresShutdown) unresponsiveCache).shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Two caches, talking to the same memcached, represent two separate jvms.
+ */
+public class TestDistributedLeaseMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private ListeningExecutorService executorService;
+    private CacheWithExpiry<String> cache1;
+    private CacheWithExpiry<String> cache2;
+
+    @Before
+    public void setUp() {
+        executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(10));
+
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        for(CacheWithExpiry<String> cache : new CacheWithExpiry[]{cache1,cache2}) {
+            if (cache != null && cache instanceof RequiresShutdown) {
+                ((RequiresShutdown) cache).shutdown();
+            }
+        }
+
+        executorService.shutdownNow();
+    }
+
+    private CacheWithExpiry<String> createCache(Duration maxWait, boolean useStaleCache) {
+        return createCache(maxWait, useStaleCache, Duration.ZERO);
+    }
+
+    private CacheWithExpiry<String> createCache(Duration maxWait, boolean useStaleCache, Duration supplierTimeout) {
+        return new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setSupplierTimeout(supplierTimeout)
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(1))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseStaleCache(useStaleCache)
+                        .setStaleCacheAdditionalTimeToLive(Duration.ofSeconds(10))
+                        .setUseDistributedLease(true)
+                        .setDistributedLeasePollInterval(Duration.ofMillis(20))
+                        .setDistributedLeaseMaxWait(maxWait)
+                        .buildMemcachedConfig()
+        );
+    }
+
+    private Supplier<String> slowSupplier(AtomicInteger calls, String value, long sleepMillis) {
+        return () -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            return value;
+        };
+    }
+
+    @Test
+    public void testOnlyLeaseHolderCallsSupplier() throws InterruptedException {
+        cache1 = createCache(Duration.ofSeconds(3), false);
+        cache2 = createCache(Duration.ofSeconds(3), false);
+
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        ListenableFuture<String> val1 = cache1.apply("Key1", slowSupplier(supplierCalls, "value1", 1000), executorService);
+        Thread.sleep(200);
+        ListenableFuture<String> val2 = cache2.apply("Key1", slowSupplier(supplierCalls, "value2", 1000), executorService);
+
+        assertEquals("value1", cache1.awaitForFutureOrElse(val1, null));
+        assertEquals("Value should have been written by the lease holder", "value1", cache2.awaitForFutureOrElse(val2, null));
+        assertEquals(1, supplierCalls.get());
+    }
+
+    @Test
+    public void testLeaseIsReleasedOnceValueIsWritten() {
+        cache1 = createCache(Duration.ofSeconds(3), false);
+        cache2 = createCache(Duration.ofSeconds(3), false);
+
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        assertEquals("value1", cache1.awaitForFutureOrElse(cache1.apply("Key1", slowSupplier(supplierCalls, "value1", 0), executorService), null));
+        assertEquals("value2", cache2.awaitForFutureOrElse(cache2.apply("Key2", slowSupplier(supplierCalls, "value2", 0), executorService), null));
+
+        ((ClearableCache)cache1).clear("Key1");
+
+        assertEquals("Lease should have been released", "value3",
+                cache2.awaitForFutureOrElse(cache2.apply("Key1", slowSupplier(supplierCalls, "value3", 0), executorService), null));
+        assertEquals(3, supplierCalls.get());
+    }
+
+    @Test
+    public void testValueIsGeneratedLocallyAfterMaxWait() throws InterruptedException {
+        cache1 = createCache(Duration.ofSeconds(3), false);
+        cache2 = createCache(Duration.ofMillis(200), false);
+
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        ListenableFuture<String> val1 = cache1.apply("Key1", slowSupplier(supplierCalls, "value1", 2000), executorService);
+        Thread.sleep(200);
+        ListenableFuture<String> val2 = cache2.apply("Key1", slowSupplier(supplierCalls, "value2", 0), executorService);
+
+        assertEquals("value2", cache2.awaitForFutureOrElse(val2, null));
+        assertEquals("value1", cache1.awaitForFutureOrElse(val1, null));
+        assertEquals(2, supplierCalls.get());
+    }
+
+    @Test
+    public void testStaleValueReturnedWhileLeaseIsHeld() throws InterruptedException {
+        cache1 = createCache(Duration.ofSeconds(3), true);
+        cache2 = createCache(Duration.ofSeconds(3), true);
+
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        assertEquals("value1", cache1.awaitForFutureOrElse(cache1.apply("Key1", slowSupplier(supplierCalls, "value1", 0), executorService), null));
+
+        Thread.sleep(2500);
+
+        ListenableFuture<String> val2 = cache1.apply("Key1", slowSupplier(supplierCalls, "value2", 1000), executorService);
+        Thread.sleep(200);
+        ListenableFuture<String> val3 = cache2.apply("Key1", slowSupplier(supplierCalls, "value3", 0), executorService);
+
+        assertEquals("Stale value should be returned", "value1", cache2.awaitForFutureOrElse(val3, null));
+        assertEquals("value2", cache1.awaitForFutureOrElse(val2, null));
+        assertEquals(2, supplierCalls.get());
+    }
+
+    @Test
+    public void testLeaseIsHeldUntilAnAbandonedSupplierCompletes() throws InterruptedException {
+        cache1 = createCache(Duration.ofSeconds(3), false, Duration.ofMillis(200));
+        cache2 = createCache(Duration.ofSeconds(3), false);
+
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        ListenableFuture<String> val1 = cache1.apply("Key1", slowSupplier(supplierCalls, "value1", 1500), executorService);
+        assertEquals("Computation should have been abandoned", "timeout", cache1.awaitForFutureOrElse(val1, "timeout"));
+
+        ListenableFuture<String> val2 = cache2.apply("Key1", slowSupplier(supplierCalls, "value2", 0), executorService);
+        assertEquals("Value should have been written by the lease holder", "value1", cache2.awaitForFutureOrElse(val2, null));
+        assertEquals(1, supplierCalls.get());
+    }
+}
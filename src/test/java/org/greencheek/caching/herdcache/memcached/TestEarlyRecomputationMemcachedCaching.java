@@ -0,0 +1,112 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ */
+public class TestEarlyRecomputationMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private ListeningExecutorService executorService;
+    private CacheWithExpiry<String> cache;
+
+    @Before
+    public void setUp() {
+        executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(10));
+
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    private CacheWithExpiry<String> createCache(double beta) {
+        return new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseProbabilisticEarlyRecomputation(true)
+                        .setProbabilisticEarlyRecomputationBeta(beta)
+                        .buildMemcachedConfig()
+        );
+    }
+
+    private String slowValue(AtomicInteger supplierCalls) {
+        int call = supplierCalls.incrementAndGet();
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        return "value" + call;
+    }
+
+    @Test
+    public void testValueIsRecomputedInBackgroundBeforeExpiry() throws InterruptedException {
+        // a compute time of 100ms, with a large beta, will always be within the recomputation window of the 60s ttl
+        cache = createCache(100000.0);
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        ListenableFuture<String> val = cache.apply("Key1", () -> slowValue(supplierCalls), executorService);
+        assertEquals("value1", cache.awaitForFutureOrElse(val, null));
+
+        ListenableFuture<String> val2 = cache.apply("Key1", () -> slowValue(supplierCalls), executorService);
+        assertEquals("Existing value should be returned whilst recomputing", "value1", cache.awaitForFutureOrElse(val2, null));
+
+        Thread.sleep(500);
+
+        assertEquals(2, supplierCalls.get());
+        assertEquals("value2", cache.awaitForFutureOrElse(cache.get("Key1"), null));
+    }
+
+    @Test
+    public void testValueIsNotRecomputedFarFromExpiry() throws InterruptedException {
+        cache = createCache(1.0);
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        ListenableFuture<String> val = cache.apply("Key1", () -> slowValue(supplierCalls), executorService);
+        assertEquals("value1", cache.awaitForFutureOrElse(val, null));
+
+        for(int i=0;i<10;i++) {
+            ListenableFuture<String> val2 = cache.apply("Key1", () -> slowValue(supplierCalls), executorService);
+            assertEquals("value1", cache.awaitForFutureOrElse(val2, null));
+        }
+
+        Thread.sleep(500);
+        assertEquals(1, supplierCalls.get());
+    }
+}
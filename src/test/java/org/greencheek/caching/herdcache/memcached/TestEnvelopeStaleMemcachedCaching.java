@@ -0,0 +1,110 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.StaleCacheStorageType;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ */
+public class TestEnvelopeStaleMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private ListeningExecutorService executorService;
+    private CacheWithExpiry<String> cache;
+
+    @Before
+    public void setUp() {
+        executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(10));
+
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        cache = new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(1))
+                        .setUseStaleCache(true)
+                        .setStaleCacheStorageType(StaleCacheStorageType.ENVELOPE)
+                        .setStaleCacheAdditionalTimeToLive(Duration.ofSeconds(4))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .buildMemcachedConfig()
+        );
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testSoftExpiredValueIsReturnedWhilstRevalidating() throws InterruptedException {
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        ListenableFuture<String> val = cache.apply("Key1", () -> "value" + supplierCalls.incrementAndGet(), executorService);
+        assertEquals("value1", cache.awaitForFutureOrElse(val, null));
+        assertEquals("Only a single item should be stored", 1, memcached.getDaemon().getCache().getCurrentItems());
+
+        Thread.sleep(1500);
+
+        ListenableFuture<String> val2 = cache.apply("Key1", () -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            return "value" + supplierCalls.incrementAndGet();
+        }, executorService);
+        ListenableFuture<String> val3 = cache.apply("Key1", () -> "value" + supplierCalls.incrementAndGet(), executorService);
+
+        assertEquals("Stale value should be returned", "value1", cache.awaitForFutureOrElse(val2, null));
+        assertEquals("Stale value should be returned", "value1", cache.awaitForFutureOrElse(val3, null));
+
+        Thread.sleep(1000);
+
+        assertEquals(2, supplierCalls.get());
+        ListenableFuture<String> val4 = cache.apply("Key1", () -> "value" + supplierCalls.incrementAndGet(), executorService);
+        assertEquals("value2", cache.awaitForFutureOrElse(val4, null));
+        assertEquals("value2", cache.awaitForFutureOrElse(cache.get("Key1"), null));
+        assertEquals(1, memcached.getDaemon().getCache().getCurrentItems());
+    }
+
+    @Test
+    public void testValueIsRemovedAfterHardExpiry() throws InterruptedException {
+        ListenableFuture<String> val = cache.apply("Key1", () -> "value1", executorService);
+        assertEquals("value1", cache.awaitForFutureOrElse(val, null));
+
+        Thread.sleep(5500);
+
+        ListenableFuture<String> val2 = cache.apply("Key1", () -> "value2", executorService);
+        assertEquals("value2", cache.awaitForFutureOrElse(val2, null));
+    }
+}
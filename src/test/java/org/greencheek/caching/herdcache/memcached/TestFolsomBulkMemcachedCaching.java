@@ -0,0 +1,35 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.memcached.config.MemcachedClientType;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+
+import java.time.Duration;
+
+/**
+ *
+ */
+public class TestFolsomBulkMemcachedCaching extends TestBulkMemcachedCaching {
+
+    @Override
+    public CacheWithExpiry<String> createCache(int port) {
+        CacheWithExpiry<String> cache = new FolsomMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + port)
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setMemcachedClientType(MemcachedClientType.FOLSOM)
+                        .buildElastiCacheMemcachedConfig()
+        );
+
+        // folsom connects asynchronously, wait for the connection so that the sets are not lost
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,124 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.metrics.YammerMetricsRecorder;
+import org.greencheek.caching.herdcache.memcached.util.CacheMetricStrings;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ */
+public class TestHedgedReadMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached1;
+    private MemcachedDaemonWrapper memcached2;
+    private ListeningExecutorService executorService;
+    private MetricRegistry registry;
+    private CacheWithExpiry<String> cache;
+
+    @Before
+    public void setUp() {
+        executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(10));
+
+        memcached1 = MemcachedDaemonFactory.createMemcachedDaemon(false);
+        memcached2 = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached1.getDaemon()==null || memcached2.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        registry = new MetricRegistry();
+        cache = new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached1.getPort() + ",localhost:" + memcached2.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseHedgedReads(true)
+                        .setHedgedReadInitialDelay(Duration.ZERO)
+                        .setMetricsRecorder(new YammerMetricsRecorder(registry))
+                        .buildMemcachedConfig()
+        );
+    }
+
+    @After
+    public void tearDown() {
+        for(MemcachedDaemonWrapper memcached : new MemcachedDaemonWrapper[]{memcached1,memcached2}) {
+            if (memcached != null) {
+                memcached.getDaemon().stop();
+            }
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    private long itemsInMemcached() {
+        return memcached1.getDaemon().getCache().getCurrentItems() + memcached2.getDaemon().getCache().getCurrentItems();
+    }
+
+    @Test
+    public void testValuesAreWrittenToReplicaOnTheOtherNode() {
+        for(int i=0;i<10;i++) {
+            final String value = "value" + i;
+            assertEquals(value, cache.awaitForFutureOrElse(cache.apply("Key"+i, () -> value, executorService), null));
+        }
+
+        // the replica, being on the other node, means each node holds a copy of every item.
+        assertEquals(10, memcached1.getDaemon().getCache().getCurrentItems());
+        assertEquals(10, memcached2.getDaemon().getCache().getCurrentItems());
+    }
+
+    @Test
+    public void testReadsAreHedged() {
+        for(int i=0;i<10;i++) {
+            final String value = "value" + i;
+            assertEquals(value, cache.awaitForFutureOrElse(cache.apply("Key"+i, () -> value, executorService), null));
+        }
+
+        for(int i=0;i<10;i++) {
+            assertEquals("value" + i, cache.awaitForFutureOrElse(cache.get("Key"+i), null));
+        }
+
+        assertTrue(registry.counter(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_HEDGED_READS_COUNTER + "_count").getCount() > 0);
+    }
+
+    @Test
+    public void testClearRemovesReplica() {
+        assertEquals("value1", cache.awaitForFutureOrElse(cache.apply("Key1", () -> "value1", executorService), null));
+        assertEquals(2, itemsInMemcached());
+
+        ((ClearableCache)cache).clear("Key1");
+        assertEquals(0, itemsInMemcached());
+    }
+
+    @Test
+    public void testKeysWithTheReplicaPrefixDoNotCollideWithReplicas() {
+        assertEquals("value1", cache.awaitForFutureOrElse(cache.apply("Key1", () -> "value1", executorService), null));
+        assertEquals("other", cache.awaitForFutureOrElse(cache.apply("replica:Key1", () -> "other", executorService), null));
+        assertEquals(4, itemsInMemcached());
+
+        ((ClearableCache)cache).clear("replica:Key1");
+        assertEquals("value1", cache.awaitForFutureOrElse(cache.get("Key1"), null));
+        assertEquals(2, itemsInMemcached());
+    }
+}
@@ -0,0 +1,119 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ */
+public class TestNearCacheMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private ListeningExecutorService executorService;
+    private CacheWithExpiry<String> cache;
+
+    @Before
+    public void setUp() {
+        executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(10));
+
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        cache = new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseNearCache(true)
+                        .setNearCacheTimeToLive(Duration.ofSeconds(2))
+                        .buildMemcachedConfig()
+        );
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testValueIsServedFromNearCache() throws InterruptedException {
+        ListenableFuture<String> val = cache.apply("Key1", () -> "value1", executorService);
+        assertEquals("value1",cache.awaitForFutureOrElse(val, null));
+        assertEquals(1, memcached.getDaemon().getCache().getCurrentItems());
+
+        memcached.getDaemon().getCache().flush_all();
+        int getsBefore = memcached.getDaemon().getCache().getGetCmds();
+
+        ListenableFuture<String> val2 = cache.apply("Key1", () -> "value2", executorService);
+        assertEquals("Value should come from the near cache","value1",cache.awaitForFutureOrElse(val2, null));
+        assertEquals("Value should come from the near cache","value1",cache.awaitForFutureOrElse(cache.get("Key1"), null));
+        assertEquals("memcached should not have been consulted",getsBefore, memcached.getDaemon().getCache().getGetCmds());
+
+        Thread.sleep(2500);
+
+        ListenableFuture<String> val3 = cache.apply("Key1", () -> "value3", executorService);
+        assertEquals("Near cache entry should have expired","value3",cache.awaitForFutureOrElse(val3, null));
+    }
+
+    @Test
+    public void testNearCacheTimeToLiveIsCappedByItemTimeToLive() throws InterruptedException {
+        ListenableFuture<String> val = cache.apply("Key1", () -> "value1", Duration.ofSeconds(1), executorService);
+        assertEquals("value1",cache.awaitForFutureOrElse(val, null));
+
+        Thread.sleep(2500);
+
+        ListenableFuture<String> val2 = cache.apply("Key1", () -> "value2", executorService);
+        assertEquals("value2",cache.awaitForFutureOrElse(val2, null));
+    }
+
+    @Test
+    public void testClearRemovesFromNearCache() {
+        ListenableFuture<String> val = cache.apply("Key1", () -> "value1", executorService);
+        assertEquals("value1",cache.awaitForFutureOrElse(val, null));
+
+        ((ClearableCache)cache).clear("Key1");
+
+        ListenableFuture<String> val2 = cache.apply("Key1", () -> "value2", executorService);
+        assertEquals("value2",cache.awaitForFutureOrElse(val2, null));
+    }
+
+    @Test
+    public void testSetUpdatesNearCache() {
+        ListenableFuture<String> val = cache.apply("Key1", () -> "value1", executorService);
+        assertEquals("value1",cache.awaitForFutureOrElse(val, null));
+
+        ListenableFuture<String> val2 = cache.set("Key1", () -> "value2", executorService);
+        assertEquals("value2",cache.awaitForFutureOrElse(val2, null));
+
+        memcached.getDaemon().getCache().flush_all();
+
+        assertEquals("value2",cache.awaitForFutureOrElse(cache.get("Key1"), null));
+    }
+}
@@ -0,0 +1,109 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ *
+ */
+public class TestNegativeCachingMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private ListeningExecutorService executorService;
+    private CacheWithExpiry<String> cache;
+
+    @Before
+    public void setUp() {
+        executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(10));
+
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    private CacheWithExpiry<String> createCache(boolean useNegativeCaching) {
+        return new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseNegativeCaching(useNegativeCaching)
+                        .setNegativeCacheTimeToLive(Duration.ofSeconds(1))
+                        .buildMemcachedConfig()
+        );
+    }
+
+    @Test
+    public void testNullResultIsNegativelyCached() throws InterruptedException {
+        cache = createCache(true);
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        assertNull(cache.awaitForFutureOrElse(cache.apply("Key1", () -> { supplierCalls.incrementAndGet(); return null; }, executorService), "notnull"));
+        assertEquals("Tombstone should be stored", 1, memcached.getDaemon().getCache().getCurrentItems());
+
+        assertNull(cache.awaitForFutureOrElse(cache.apply("Key1", () -> { supplierCalls.incrementAndGet(); return "value"; }, executorService), "notnull"));
+        assertNull(cache.awaitForFutureOrElse(cache.get("Key1"), "notnull"));
+        assertEquals("Supplier should not be called whilst the tombstone exists", 1, supplierCalls.get());
+
+        Thread.sleep(2500);
+
+        assertEquals("value", cache.awaitForFutureOrElse(cache.apply("Key1", () -> { supplierCalls.incrementAndGet(); return "value"; }, executorService), null));
+        assertEquals(2, supplierCalls.get());
+    }
+
+    @Test
+    public void testNonCacheableResultIsNegativelyCached() {
+        cache = createCache(true);
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        assertEquals("error", cache.awaitForFutureOrElse(cache.apply("Key1", () -> { supplierCalls.incrementAndGet(); return "error"; },
+                executorService, (value) -> !value.equals("error")), null));
+
+        assertNull(cache.awaitForFutureOrElse(cache.apply("Key1", () -> { supplierCalls.incrementAndGet(); return "value"; }, executorService), "notnull"));
+        assertEquals(1, supplierCalls.get());
+    }
+
+    @Test
+    public void testNullResultIsNotCachedByDefault() {
+        cache = createCache(false);
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        assertNull(cache.awaitForFutureOrElse(cache.apply("Key1", () -> { supplierCalls.incrementAndGet(); return null; }, executorService), "notnull"));
+        assertEquals(0, memcached.getDaemon().getCache().getCurrentItems());
+
+        assertEquals("value", cache.awaitForFutureOrElse(cache.apply("Key1", () -> { supplierCalls.incrementAndGet(); return "value"; }, executorService), null));
+        assertEquals(2, supplierCalls.get());
+    }
+}
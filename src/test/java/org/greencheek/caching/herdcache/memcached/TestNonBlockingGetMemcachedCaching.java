@@ -0,0 +1,225 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.exceptions.UnableToSubmitSupplierForExecutionException;
+import org.greencheek.caching.herdcache.memcached.config.MemcachedClientType;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ */
+public class TestNonBlockingGetMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private ListeningExecutorService executorService;
+    private CacheWithExpiry<String> cache;
+
+    @Before
+    public void setUp() {
+        executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(10));
+
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    private void testApplyAndGet() {
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        ListenableFuture<String> val = cache.apply("Key1", () -> {
+            supplierCalls.incrementAndGet();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            return "value1";
+        }, executorService);
+
+        ListenableFuture<String> val2 = cache.apply("Key1", () -> {
+            supplierCalls.incrementAndGet();
+            return "value2";
+        }, executorService);
+
+        assertEquals("Value should be value1","value1",cache.awaitForFutureOrElse(val, null));
+        assertEquals("Value should be value1","value1",cache.awaitForFutureOrElse(val2, null));
+
+        ListenableFuture<String> val3 = cache.apply("Key1", () -> {
+            supplierCalls.incrementAndGet();
+            return "value3";
+        }, executorService);
+
+        assertEquals("Value should be value1","value1",cache.awaitForFutureOrElse(val3, null));
+        assertEquals("Value should be value1","value1",cache.awaitForFutureOrElse(cache.get("Key1"), null));
+        assertNull("Value should be null",cache.awaitForFutureOrElse(cache.get("Key2"), "notnull"));
+
+        assertEquals(1, supplierCalls.get());
+        assertEquals(1, memcached.getDaemon().getCache().getCurrentItems());
+    }
+
+    @Test
+    public void testSpyApplyDoesNotBlockOnMemcachedGet() {
+        cache = new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseNonBlockingGet(true)
+                        .buildMemcachedConfig()
+        );
+
+        testApplyAndGet();
+    }
+
+    @Test
+    public void testFolsomApplyDoesNotBlockOnMemcachedGet() {
+        cache = new FolsomMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseNonBlockingGet(true)
+                        .setMemcachedClientType(MemcachedClientType.FOLSOM)
+                        .buildElastiCacheMemcachedConfig()
+        );
+
+        testApplyAndGet();
+    }
+
+    @Test
+    public void testStaleValueReturnedWithoutBlocking() throws InterruptedException {
+        cache = new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(1))
+                        .setUseStaleCache(true)
+                        .setStaleCacheAdditionalTimeToLive(Duration.ofSeconds(4))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseNonBlockingGet(true)
+                        .buildMemcachedConfig()
+        );
+
+        ListenableFuture<String> val = cache.apply("Key1", () -> "will be stale", executorService);
+        assertEquals("will be stale",cache.awaitForFutureOrElse(val, null));
+
+        Thread.sleep(2500);
+
+        ListenableFuture<String> val2 = cache.apply("Key1", () -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            return "will not generate";
+        }, executorService);
+
+        ListenableFuture<String> val3 = cache.apply("Key1", () -> "kjlkjlkj", executorService);
+
+        assertEquals("will be stale",cache.awaitForFutureOrElse(val3, null));
+        assertEquals("will not generate",cache.awaitForFutureOrElse(val2, null));
+    }
+
+    @Test
+    public void testSupplierDoesNotRunOnTheClientThreadWithTheDefaultExecutor() {
+        cache = new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseNonBlockingGet(true)
+                        .buildMemcachedConfig()
+        );
+
+        AtomicReference<String> supplierThread = new AtomicReference<>();
+        ListenableFuture<String> val = cache.apply("Key1", () -> {
+            supplierThread.set(Thread.currentThread().getName());
+            return "value1";
+        });
+
+        assertEquals("value1",cache.awaitForFutureOrElse(val, null));
+        assertEquals("SupplierHandoff",supplierThread.get());
+    }
+
+    @Test
+    public void testSupplierIsRejectedOnceTheHandoffThreadsAreBusy() throws Exception {
+        cache = new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseNonBlockingGet(true)
+                        .setSupplierHandoffThreads(1)
+                        .setSupplierHandoffQueueSize(0)
+                        .buildMemcachedConfig()
+        );
+
+        CountDownLatch supplierStarted = new CountDownLatch(1);
+        CountDownLatch releaseSupplier = new CountDownLatch(1);
+        ListenableFuture<String> busy = cache.apply("Key1", () -> {
+            supplierStarted.countDown();
+            try {
+                releaseSupplier.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "value1";
+        });
+        assertTrue(supplierStarted.await(5, TimeUnit.SECONDS));
+
+        ListenableFuture<String> rejected = cache.apply("Key2", () -> "value2");
+        try {
+            rejected.get(5, TimeUnit.SECONDS);
+            fail("Expected the supplier to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UnableToSubmitSupplierForExecutionException);
+        } finally {
+            releaseSupplier.countDown();
+        }
+
+        assertEquals("value1",cache.awaitForFutureOrElse(busy, null));
+        assertEquals("value2",cache.awaitForFutureOrElse(cache.apply("Key2", () -> "value2"), null));
+    }
+}
@@ -0,0 +1,154 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.metrics.YammerMetricsRecorder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ */
+public class TestStaleIfErrorMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private CacheWithExpiry<String> cache;
+    private MetricRegistry registry;
+    private ListeningExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        registry = new MetricRegistry();
+        executorService = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    private CacheWithExpiry<String> createCache(boolean useStaleIfError, Duration staleIfErrorTimeToLive) {
+        return new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(1))
+                        .setUseStaleCache(true)
+                        .setStaleCacheAdditionalTimeToLive(Duration.ofSeconds(4))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseStaleIfError(useStaleIfError)
+                        .setStaleIfErrorTimeToLive(staleIfErrorTimeToLive)
+                        .setMetricsRecorder(new YammerMetricsRecorder(registry))
+                        .buildMemcachedConfig()
+        );
+    }
+
+    private String failingBackend() {
+        throw new RuntimeException("backend unavailable");
+    }
+
+    private void assertSupplierFailure(ListenableFuture<String> future) throws InterruptedException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected the supplier's exception");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RuntimeException);
+        } catch (java.util.concurrent.TimeoutException e) {
+            fail("Future was not completed");
+        }
+    }
+
+    @Test
+    public void testSupplierFailureIsReturnedWhenStaleIfErrorIsDisabled() throws InterruptedException {
+        cache = createCache(false, Duration.ZERO);
+
+        assertEquals("stale", cache.awaitForFutureOrElse(
+                cache.apply("Key1", () -> "stale", Duration.ofSeconds(1), executorService), null));
+
+        // let the item expire, leaving the stale item
+        Thread.sleep(2500);
+
+        assertSupplierFailure(cache.apply("Key1", this::failingBackend, Duration.ofSeconds(1), executorService));
+        assertEquals(0, registry.counter("stale_if_error_count").getCount());
+    }
+
+    @Test
+    public void testSupplierFailureIsCompletedWithStaleValue() throws InterruptedException {
+        cache = createCache(true, Duration.ZERO);
+
+        assertEquals("stale", cache.awaitForFutureOrElse(
+                cache.apply("Key1", () -> "stale", Duration.ofSeconds(1), executorService), null));
+
+        // let the item expire, leaving the stale item
+        Thread.sleep(2500);
+
+        assertEquals("stale", cache.awaitForFutureOrElse(
+                cache.apply("Key1", this::failingBackend, Duration.ofSeconds(1), executorService), null));
+        assertEquals(1, registry.counter("stale_if_error_count").getCount());
+        assertEquals(1, registry.counter("value_calculation_failure_count").getCount());
+
+        // the supplier is called again for the next request
+        assertEquals("fresh", cache.awaitForFutureOrElse(
+                cache.apply("Key1", () -> "fresh", Duration.ofSeconds(1), executorService), null));
+    }
+
+    @Test
+    public void testSupplierFailureWithoutStaleValueIsReturned() throws InterruptedException {
+        cache = createCache(true, Duration.ZERO);
+
+        assertSupplierFailure(cache.apply("Key1", this::failingBackend, Duration.ofSeconds(1), executorService));
+        assertEquals(0, registry.counter("stale_if_error_count").getCount());
+    }
+
+    @Test
+    public void testStaleValueExpiryIsExtended() throws InterruptedException {
+        cache = createCache(true, Duration.ofSeconds(30));
+
+        assertEquals("stale", cache.awaitForFutureOrElse(
+                cache.apply("Key1", () -> "stale", Duration.ofSeconds(1), executorService), null));
+
+        Thread.sleep(2500);
+
+        assertEquals("stale", cache.awaitForFutureOrElse(
+                cache.apply("Key1", this::failingBackend, Duration.ofSeconds(1), executorService), null));
+
+        // beyond the original stale expiry (ttl + 4 seconds)
+        Thread.sleep(4000);
+
+        assertEquals("stale", cache.awaitForFutureOrElse(
+                cache.apply("Key1", this::failingBackend, Duration.ofSeconds(1), executorService), null));
+        assertEquals(2, registry.counter("stale_if_error_count").getCount());
+    }
+}
@@ -0,0 +1,154 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.exceptions.SupplierConcurrencyLimitExceededException;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.metrics.YammerMetricsRecorder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ */
+public class TestSupplierConcurrencyLimitMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private CacheWithExpiry<String> cache;
+    private MetricRegistry registry;
+    private ListeningExecutorService executorService;
+    private final CountDownLatch runningSupplier = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        registry = new MetricRegistry();
+        executorService = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+    }
+
+    @After
+    public void tearDown() {
+        runningSupplier.countDown();
+
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    private CacheWithExpiry<String> createCache(boolean useStaleCache) {
+        return new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(1))
+                        .setUseStaleCache(useStaleCache)
+                        .setStaleCacheAdditionalTimeToLive(Duration.ofSeconds(10))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setSupplierConcurrencyLimitByKeyPrefix(Collections.singletonMap("user:", 1))
+                        .setSupplierConcurrencyLimitWait(Duration.ofMillis(100))
+                        .setMetricsRecorder(new YammerMetricsRecorder(registry))
+                        .buildMemcachedConfig()
+        );
+    }
+
+    private String block() {
+        try {
+            runningSupplier.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "slow";
+    }
+
+    @Test
+    public void testSupplierFailsFastWhenGroupLimitIsReached() throws Exception {
+        cache = createCache(false);
+
+        ListenableFuture<String> slow = cache.apply("user:1", this::block, Duration.ofSeconds(60), executorService);
+        Thread.sleep(200);
+
+        try {
+            cache.apply("user:2", () -> "value", Duration.ofSeconds(60), executorService).get(5, TimeUnit.SECONDS);
+            fail("Expected the supplier to be limited");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SupplierConcurrencyLimitExceededException);
+        }
+        assertEquals(1, registry.counter("value_calculation_concurrency_limited_count").getCount());
+
+        // keys outside of the group are not limited
+        assertEquals("product", cache.awaitForFutureOrElse(
+                cache.apply("product:1", () -> "product", Duration.ofSeconds(60), executorService), null));
+
+        runningSupplier.countDown();
+        assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+        assertEquals("value", cache.awaitForFutureOrElse(
+                cache.apply("user:2", () -> "value", Duration.ofSeconds(60), executorService), null));
+    }
+
+    @Test
+    public void testLimitedSupplierIsCompletedWithStaleValue() throws Exception {
+        cache = createCache(true);
+
+        assertEquals("stale", cache.awaitForFutureOrElse(
+                cache.apply("user:2", () -> "stale", Duration.ofSeconds(1), executorService), null));
+
+        // let the item expire, leaving the stale item
+        Thread.sleep(2500);
+
+        cache.apply("user:1", this::block, Duration.ofSeconds(60), executorService);
+        Thread.sleep(200);
+
+        assertEquals("stale", cache.awaitForFutureOrElse(
+                cache.apply("user:2", () -> "value", Duration.ofSeconds(1), executorService), null));
+        assertEquals(1, registry.counter("value_calculation_concurrency_limited_count").getCount());
+    }
+
+    @Test
+    public void testLimitedSetFailsRatherThanReturningStaleValue() throws Exception {
+        cache = createCache(true);
+
+        assertEquals("stale", cache.awaitForFutureOrElse(
+                cache.apply("user:2", () -> "stale", Duration.ofSeconds(1), executorService), null));
+
+        cache.apply("user:1", this::block, Duration.ofSeconds(60), executorService);
+        Thread.sleep(200);
+
+        try {
+            cache.set("user:2", () -> "value", Duration.ofSeconds(1), executorService).get(5, TimeUnit.SECONDS);
+            fail("Expected the set to be limited");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SupplierConcurrencyLimitExceededException);
+        }
+        assertEquals(1, registry.counter("value_calculation_concurrency_limited_count").getCount());
+    }
+}
@@ -0,0 +1,174 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.exceptions.SupplierTimeoutException;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.metrics.YammerMetricsRecorder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ */
+public class TestSupplierTimeoutMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private CacheWithExpiry<String> cache;
+    private MetricRegistry registry;
+    private ListeningExecutorService executorService;
+    private final CountDownLatch hungSupplier = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        registry = new MetricRegistry();
+        executorService = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+    }
+
+    @After
+    public void tearDown() {
+        hungSupplier.countDown();
+
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    private CacheWithExpiry<String> createCache(Duration supplierTimeout, boolean useStaleCache) {
+        return createCache("localhost:" + memcached.getPort(), supplierTimeout, useStaleCache);
+    }
+
+    private CacheWithExpiry<String> createCache(String hosts, Duration supplierTimeout, boolean useStaleCache) {
+        return new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts(hosts)
+                        .setTimeToLive(Duration.ofSeconds(1))
+                        .setUseStaleCache(useStaleCache)
+                        .setStaleCacheAdditionalTimeToLive(Duration.ofSeconds(10))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setSupplierTimeout(supplierTimeout)
+                        .setMetricsRecorder(new YammerMetricsRecorder(registry))
+                        .buildMemcachedConfig()
+        );
+    }
+
+    private String hang() {
+        try {
+            hungSupplier.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "late";
+    }
+
+    private void assertSupplierTimeout(ListenableFuture<String> future) throws InterruptedException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected the computation to be abandoned");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SupplierTimeoutException);
+        } catch (java.util.concurrent.TimeoutException e) {
+            fail("Computation was not abandoned by the watchdog");
+        }
+    }
+
+    @Test
+    public void testHungSupplierIsAbandonedAndNextRequestRecomputes() throws InterruptedException {
+        cache = createCache(Duration.ofMillis(200), false);
+
+        ListenableFuture<String> hung = cache.apply("Key1", this::hang, Duration.ofSeconds(60), executorService);
+        assertSupplierTimeout(hung);
+        assertEquals(1, registry.counter("value_calculation_abandoned_count").getCount());
+
+        // the abandoned computation no longer holds the herd entry for the key
+        assertEquals("value", cache.awaitForFutureOrElse(
+                cache.apply("Key1", () -> "value", Duration.ofSeconds(60), executorService), null));
+    }
+
+    @Test
+    public void testPerCallComputationTimeoutOverridesTheCacheDefault() throws InterruptedException {
+        cache = createCache(Duration.ZERO, false);
+
+        ListenableFuture<String> hung = cache.apply("Key1", this::hang, Duration.ofSeconds(60),
+                Duration.ofMillis(200), executorService);
+        assertSupplierTimeout(hung);
+        assertEquals(1, registry.counter("value_calculation_abandoned_count").getCount());
+    }
+
+    @Test
+    public void testAbandonedComputationIsCompletedWithStaleValue() throws InterruptedException {
+        cache = createCache(Duration.ofMillis(200), true);
+
+        assertEquals("stale", cache.awaitForFutureOrElse(
+                cache.apply("Key1", () -> "stale", Duration.ofSeconds(1), executorService), null));
+
+        // let the item expire, leaving the stale item
+        Thread.sleep(2500);
+
+        assertEquals("stale", cache.awaitForFutureOrElse(
+                cache.apply("Key1", this::hang, Duration.ofSeconds(1), executorService), null));
+        assertEquals(1, registry.counter("value_calculation_abandoned_count").getCount());
+    }
+
+    @Test
+    public void testSupplierIsAbandonedWhenTheCacheIsDisabled() throws InterruptedException {
+        cache = createCache("", Duration.ofMillis(200), false);
+
+        ListenableFuture<String> hung = cache.apply("Key1", this::hang, Duration.ofSeconds(60), executorService);
+        assertSupplierTimeout(hung);
+        assertEquals(1, registry.counter("value_calculation_abandoned_count").getCount());
+
+        // a supplier that completes within the timeout is not abandoned
+        assertEquals("value", cache.awaitForFutureOrElse(
+                cache.apply("Key1", () -> "value", Duration.ofSeconds(60), executorService), null));
+        Thread.sleep(400);
+        assertEquals(1, registry.counter("value_calculation_abandoned_count").getCount());
+    }
+
+    @Test
+    public void testHungSupplierIsAbandonedWithADirectExecutor() throws InterruptedException {
+        cache = createCache(Duration.ofMillis(200), false);
+        ListeningExecutorService directExecutor = MoreExecutors.newDirectExecutorService();
+
+        // the direct executor runs the supplier on the thread calling apply
+        Thread leader = new Thread(() -> cache.apply("Key1", this::hang, Duration.ofSeconds(60), directExecutor));
+        leader.setDaemon(true);
+        leader.start();
+        Thread.sleep(100);
+
+        ListenableFuture<String> joined = cache.apply("Key1", () -> "value", Duration.ofSeconds(60), executorService);
+        assertSupplierTimeout(joined);
+        assertEquals(1, registry.counter("value_calculation_abandoned_count").getCount());
+    }
+}
@@ -0,0 +1,100 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.greencheek.caching.herdcache.util.VirtualThreads;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeFalse;
+
+/**
+ *
+ */
+public class TestVirtualThreadsMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private CacheWithExpiry<String> cache;
+
+    @Before
+    public void setUp() {
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+    }
+
+    private CacheWithExpiry<String> createCache(boolean useNonBlockingGet) {
+        return new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setWaitForMemcachedSet(true)
+                        .setUseNonBlockingGet(useNonBlockingGet)
+                        .setUseVirtualThreads(true)
+                        .buildMemcachedConfig()
+        );
+    }
+
+    private void assertSupplierRunsOnVirtualThreadIfAvailable(boolean useNonBlockingGet) {
+        cache = createCache(useNonBlockingGet);
+        AtomicReference<Thread> supplierThread = new AtomicReference<>();
+
+        assertEquals("value", cache.awaitForFutureOrElse(cache.apply("Key1", () -> {
+            supplierThread.set(Thread.currentThread());
+            return "value";
+        }), null));
+
+        if(VirtualThreads.isAvailable()) {
+            assertNotSame(Thread.currentThread(), supplierThread.get());
+        } else if(!useNonBlockingGet) {
+            // falls back to the direct executor
+            assertSame(Thread.currentThread(), supplierThread.get());
+        }
+
+        assertEquals(1, memcached.getDaemon().getCache().getCurrentItems());
+        assertEquals("value", cache.awaitForFutureOrElse(cache.get("Key1"), null));
+        assertEquals("value2", cache.awaitForFutureOrElse(cache.set("Key2", "value2"), null));
+        assertEquals("value2", cache.awaitForFutureOrElse(cache.get("Key2"), null));
+    }
+
+    @Test
+    public void testBlockingGetAndSupplierUseVirtualThreadsIfAvailable() {
+        assertSupplierRunsOnVirtualThreadIfAvailable(false);
+    }
+
+    @Test
+    public void testNonBlockingGetAndSupplierUseVirtualThreadsIfAvailable() {
+        assertSupplierRunsOnVirtualThreadIfAvailable(true);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testVirtualThreadExecutorIsNotCreatedOnOlderJvms() {
+        assumeFalse(VirtualThreads.isAvailable());
+        VirtualThreads.newVirtualThreadPerTaskExecutor();
+    }
+}
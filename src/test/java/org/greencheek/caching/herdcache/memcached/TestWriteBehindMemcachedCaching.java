@@ -0,0 +1,85 @@
+package org.greencheek.caching.herdcache.memcached;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.CacheWithExpiry;
+import org.greencheek.caching.herdcache.RequiresShutdown;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonFactory;
+import org.greencheek.caching.herdcache.memcached.util.MemcachedDaemonWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ */
+public class TestWriteBehindMemcachedCaching {
+
+    private MemcachedDaemonWrapper memcached;
+    private ListeningExecutorService executorService;
+    private CacheWithExpiry<String> cache;
+
+    @Before
+    public void setUp() {
+        executorService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(10));
+
+        memcached = MemcachedDaemonFactory.createMemcachedDaemon(false);
+
+        if(memcached.getDaemon()==null) {
+            throw new RuntimeException("Unable to start local memcached");
+        }
+
+        cache = new SpyMemcachedCache<>(
+                new ElastiCacheCacheConfigBuilder()
+                        .setMemcachedHosts("localhost:" + memcached.getPort())
+                        .setTimeToLive(Duration.ofSeconds(60))
+                        .setProtocol(ConnectionFactoryBuilder.Protocol.TEXT)
+                        .setUseWriteBehind(true)
+                        .setWriteBehindFlushInterval(Duration.ofMillis(200))
+                        .buildMemcachedConfig()
+        );
+    }
+
+    @After
+    public void tearDown() {
+        if(memcached!=null) {
+            memcached.getDaemon().stop();
+        }
+
+        if(cache!=null && cache instanceof RequiresShutdown) {
+            ((RequiresShutdown) cache).shutdown();
+        }
+
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testValueIsWrittenAfterFlushInterval() throws InterruptedException {
+        assertEquals("value1", cache.awaitForFutureOrElse(cache.apply("Key1", () -> "value1", executorService), null));
+        assertEquals("value2", cache.awaitForFutureOrElse(cache.set("Key1", "value2", executorService), null));
+        assertEquals("value3", cache.awaitForFutureOrElse(cache.set("Key1", "value3", executorService), null));
+        assertEquals(0, memcached.getDaemon().getCache().getCurrentItems());
+
+        Thread.sleep(1000);
+
+        assertEquals(1, memcached.getDaemon().getCache().getCurrentItems());
+        assertEquals("value3", cache.awaitForFutureOrElse(cache.get("Key1"), null));
+    }
+
+    @Test
+    public void testClearDiscardsPendingWrite() throws InterruptedException {
+        assertEquals("value1", cache.awaitForFutureOrElse(cache.apply("Key1", () -> "value1", executorService), null));
+        ((ClearableCache)cache).clear("Key1");
+
+        Thread.sleep(1000);
+
+        assertEquals(0, memcached.getDaemon().getCache().getCurrentItems());
+    }
+}
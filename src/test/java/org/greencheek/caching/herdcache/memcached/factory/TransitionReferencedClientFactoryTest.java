@@ -0,0 +1,202 @@
+package org.greencheek.caching.herdcache.memcached.factory;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.metrics.NoOpMetricRecorder;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TransitionReferencedClientFactoryTest {
+
+    /**
+     * Holds the items in a map
+     */
+    static class MapReferencedClient implements ReferencedClient {
+        final Map<String,Object> items = new ConcurrentHashMap<>();
+        volatile boolean shutdown = false;
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public List<InetSocketAddress> getResolvedHosts() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Object get(String key, long time, TimeUnit unit) {
+            return items.get(key);
+        }
+
+        @Override
+        public ListenableFuture<Object> getAsync(String key) {
+            return Futures.immediateFuture(items.get(key));
+        }
+
+        @Override
+        public ListenableFuture<Map<String, Object>> getBulkAsync(Collection<String> keys) {
+            Map<String,Object> found = new HashMap<>();
+            for (String key : keys) {
+                if (items.containsKey(key)) {
+                    found.put(key, items.get(key));
+                }
+            }
+            return Futures.immediateFuture(found);
+        }
+
+        @Override
+        public Future set(String key, int ttlInSeconds, Object value) {
+            items.put(key, value);
+            return Futures.immediateFuture(true);
+        }
+
+        @Override
+        public ListenableFuture<Boolean> add(String key, int ttlInSeconds, Object value) {
+            return Futures.immediateFuture(items.putIfAbsent(key, value) == null);
+        }
+
+        @Override
+        public Future delete(String key) {
+            items.remove(key);
+            return Futures.immediateFuture(true);
+        }
+
+        @Override
+        public Future flush() {
+            items.clear();
+            return Futures.immediateFuture(true);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+    }
+
+    private static ReferencedClientFactory<Object> factoryOf(MapReferencedClient... clients) {
+        Queue<MapReferencedClient> created = new LinkedList<>(Arrays.asList(clients));
+        return hosts -> created.remove();
+    }
+
+    @Test
+    public void testMissesAreReadFromThePreviousClientAndCopied() throws Exception {
+        MapReferencedClient previous = new MapReferencedClient();
+        MapReferencedClient current = new MapReferencedClient();
+        TransitionReferencedClientFactory<Object> factory = new TransitionReferencedClientFactory<>(
+                factoryOf(previous, current), Duration.ofMinutes(1), 60, new NoOpMetricRecorder());
+
+        TransitionReferencedClient first = (TransitionReferencedClient) factory.createClient(Collections.emptyList());
+        assertFalse(first.isInTransition());
+        first.set("key", 60, "value");
+        first.set("key2", 60, "value2");
+        assertNull(first.getAsync("missing").get());
+
+        TransitionReferencedClient second = (TransitionReferencedClient) factory.createClient(Collections.emptyList());
+        assertTrue(second.isInTransition());
+
+        assertEquals("value", second.getAsync("key").get());
+        assertEquals("value", current.items.get("key"));
+        assertEquals("value2", second.get("key2", 1, TimeUnit.SECONDS));
+        assertEquals("value2", current.items.get("key2"));
+        assertNull(second.getAsync("missing").get());
+
+        // a value written to the current client is not replaced
+        previous.items.put("key3", "old");
+        current.items.put("key3", "new");
+        assertEquals("new", second.getAsync("key3").get());
+        previous.items.put("key4", "value4");
+        Map<String,Object> values = second.getBulkAsync(Arrays.asList("key3", "key4", "missing")).get();
+        assertEquals(2, values.size());
+        assertEquals("new", values.get("key3"));
+        assertEquals("value4", values.get("key4"));
+        assertEquals("value4", current.items.get("key4"));
+    }
+
+    @Test
+    public void testDeletesAreSentToBothClients() throws Exception {
+        MapReferencedClient previous = new MapReferencedClient();
+        MapReferencedClient current = new MapReferencedClient();
+        TransitionReferencedClientFactory<Object> factory = new TransitionReferencedClientFactory<>(
+                factoryOf(previous, current), Duration.ofMinutes(1), 60, new NoOpMetricRecorder());
+
+        factory.createClient(Collections.emptyList()).set("key", 60, "value");
+        ReferencedClient second = factory.createClient(Collections.emptyList());
+        second.delete("key");
+
+        assertFalse(previous.items.containsKey("key"));
+        assertNull(second.getAsync("key").get());
+    }
+
+    @Test
+    public void testPreviousClientIsNotReadOrKeptOnceTheWindowHasEnded() throws Exception {
+        MapReferencedClient previous = new MapReferencedClient();
+        MapReferencedClient current = new MapReferencedClient();
+        TransitionReferencedClientFactory<Object> factory = new TransitionReferencedClientFactory<>(
+                factoryOf(previous, current), Duration.ofMillis(500), 60, new NoOpMetricRecorder());
+
+        ReferencedClient first = factory.createClient(Collections.emptyList());
+        first.set("key", 60, "value");
+        TransitionReferencedClient second = (TransitionReferencedClient) factory.createClient(Collections.emptyList());
+
+        first.shutdown();
+        assertFalse(previous.shutdown);
+
+        Thread.sleep(1000);
+        assertTrue(previous.shutdown);
+        assertFalse(second.isInTransition());
+        assertNull(second.getAsync("key").get());
+        assertTrue(current.items.isEmpty());
+    }
+
+    @Test
+    public void testRetainedClientsAreShutdownWithTheFactory() throws Exception {
+        MapReferencedClient previous = new MapReferencedClient();
+        MapReferencedClient current = new MapReferencedClient();
+        MapReferencedClient created = new MapReferencedClient();
+        TransitionReferencedClientFactory<Object> factory = new TransitionReferencedClientFactory<>(
+                factoryOf(previous, current, created), Duration.ofMinutes(1), 60, new NoOpMetricRecorder());
+
+        ReferencedClient first = factory.createClient(Collections.emptyList());
+        ReferencedClient second = factory.createClient(Collections.emptyList());
+        first.shutdown();
+        assertFalse(previous.shutdown);
+
+        factory.shutdown();
+        assertTrue(previous.shutdown);
+        assertTrue(current.shutdown);
+
+        // clients created once the factory is shutdown are not kept open by it
+        ReferencedClient third = factory.createClient(Collections.emptyList());
+        assertSame(created, third);
+        second.shutdown();
+    }
+
+    @Test
+    public void testFactoryIsNotWrappedWithoutATransitionWindow() {
+        ReferencedClientFactory<Object> factory = factoryOf(new MapReferencedClient());
+        assertSame(factory, TransitionReferencedClientFactory.create(factory,
+                new ElastiCacheCacheConfigBuilder().buildMemcachedConfig()));
+
+        assertTrue(TransitionReferencedClientFactory.create(factory, new ElastiCacheCacheConfigBuilder()
+                .setTopologyTransitionWindow(Duration.ofSeconds(30))
+                .buildMemcachedConfig()) instanceof TransitionReferencedClientFactory);
+    }
+}
@@ -0,0 +1,70 @@
+package org.greencheek.caching.herdcache.memcached.folsom.transcoder;
+
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs.ValueCodecRegistry;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs.ValueCodecs;
+import org.greencheek.caching.herdcache.memcached.util.TestCacheValues;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class FastTranscoderTest {
+
+    private final FastTranscoder transcoder = new FastTranscoder(true, ValueCodecRegistry.EXTENDED);
+
+    @Test
+    public void testRegisteredTypesAreWrittenWithTheirCodec() {
+        Map<String, String> map = new HashMap<>();
+        map.put("key", "value");
+
+        Object[] values = new Object[]{"string", 1, 2L, (short) 3, 'c', true, 1.5d, 2.5f, (byte) 4, map};
+        for (Object value : values) {
+            byte[] encoded = transcoder.encode(value);
+            assertEquals(ValueCodecRegistry.EXTENDED.codecFor(value).getFlags() >>> 8, encoded[0]);
+            assertEquals(value, transcoder.decode(encoded));
+        }
+
+        byte[] bytes = new byte[]{1, 2, 3};
+        byte[] encoded = transcoder.encode(bytes);
+        assertEquals(ValueCodecs.BYTE_ARRAY_FLAGS >>> 8, encoded[0]);
+        assertEquals(bytes.length + 1, encoded.length);
+        assertArrayEquals(bytes, (byte[]) transcoder.decode(encoded));
+    }
+
+    @Test
+    public void testOtherObjectsAreSerialized() {
+        ArrayList<String> value = new ArrayList<>();
+        value.add("one");
+
+        byte[] encoded = transcoder.encode(value);
+        assertEquals(FastTranscoder.SERIALIZED_TYPE, encoded[0]);
+        assertEquals(value, transcoder.decode(encoded));
+    }
+
+    @Test
+    public void testLargeValuesAreCompressed() {
+        byte[] string = transcoder.encode(TestCacheValues.LARGE_CACHE_VALUE);
+        assertEquals((byte) (ValueCodecs.STRING_FLAGS | FastTranscoder.COMPRESSED), string[0]);
+        assertEquals(TestCacheValues.LARGE_CACHE_VALUE, transcoder.decode(string));
+
+        byte[] bytes = transcoder.encode(TestCacheValues.LARGE_CACHE_VALUE_BYTES);
+        assertEquals((byte) ((ValueCodecs.BYTE_ARRAY_FLAGS >>> 8) | FastTranscoder.COMPRESSED), bytes[0]);
+        assertArrayEquals(TestCacheValues.LARGE_CACHE_VALUE_BYTES, (byte[]) transcoder.decode(bytes));
+
+        ArrayList<String> list = new ArrayList<>();
+        list.add(TestCacheValues.LARGE_CACHE_VALUE);
+        byte[] serialized = transcoder.encode(list);
+        assertEquals((byte) (FastTranscoder.SERIALIZED_TYPE | FastTranscoder.COMPRESSED), serialized[0]);
+        assertEquals(list, transcoder.decode(serialized));
+    }
+
+    @Test
+    public void testWithoutCodecsAllValuesAreSerialized() {
+        FastTranscoder serializing = new FastTranscoder(true);
+        assertEquals("string", serializing.decode(serializing.encode("string")));
+        assertEquals(1L, serializing.decode(serializing.encode(1L)));
+    }
+}
@@ -0,0 +1,105 @@
+package org.greencheek.caching.herdcache.memcached.keyhashing;
+
+import net.jpountz.xxhash.XXHashFactory;
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import static org.junit.Assert.*;
+
+public class KeyHashingTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String[] KEYS = new String[]{
+            "", "bob", "h\u00e9llo w\u00f6rld", "\u20ac100", "\ud83d\ude00 smile", "unpaired \ud83d", "unpaired \ude00 low"
+    };
+
+    @Test
+    public void testKeyBytesAreTheUtf8BytesOfTheString() {
+        for (String key : KEYS) {
+            ResizeableByteBuffer buffer = KeyBytes.acquire();
+            try {
+                KeyBytes.append(key, buffer);
+                assertArrayEquals(key, key.getBytes(UTF8), buffer.toByteArray());
+            } finally {
+                KeyBytes.release(buffer);
+            }
+        }
+    }
+
+    @Test
+    public void testXXHashOutputIsUnchanged() {
+        XXHashFactory factory = XXHashFactory.fastestJavaInstance();
+        KeyHashing hash32 = new XXHashKeyHashing(false);
+        KeyHashing hash64 = new XXHashKeyHashing(false, true);
+        for (String key : KEYS) {
+            byte[] bytes = key.getBytes(UTF8);
+            assertEquals(Integer.toString(factory.hash32().hash(bytes, 0, bytes.length, 0)), hash32.hash(key));
+            assertEquals(Long.toString(factory.hash64().hash(bytes, 0, bytes.length, 0)), hash64.hash(key));
+        }
+    }
+
+    @Test
+    public void testPrefixIsHashedWithoutConcatenation() {
+        KeyHashing[] hashers = new KeyHashing[]{
+                new XXHashKeyHashing(false, true), new XXHashKeyHashing(true, true, true),
+                new MessageDigestHashing(KeyHashing.MD5, 1, false), new NoKeyHashing()
+        };
+        for (KeyHashing hasher : hashers) {
+            for (String key : KEYS) {
+                assertEquals(hasher.hash("prefix\u00e9" + key), hasher.hash("prefix\u00e9", key));
+            }
+        }
+    }
+
+    @Test
+    public void testMessageDigestHashing() throws Exception {
+        MessageDigest md5 = MessageDigest.getInstance(KeyHashing.MD5);
+        MessageDigest sha256 = MessageDigest.getInstance(KeyHashing.SHA256);
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+
+        for (String key : KEYS) {
+            byte[] md5Bytes = md5.digest(key.getBytes(UTF8));
+            byte[] sha256Bytes = sha256.digest(key.getBytes(UTF8));
+
+            assertEquals(LowerCaseToHexString.INSTANCE.bytesToHex(md5Bytes), new MessageDigestHashing(KeyHashing.MD5, 1, false).hash(key));
+            assertEquals(UpperCaseToHexString.INSTANCE.bytesToHex(md5Bytes), new MessageDigestHashing(KeyHashing.MD5).hash(key));
+            assertEquals(32, new MessageDigestHashing(KeyHashing.MD5).hash(key).length());
+
+            String md5Base64 = new MessageDigestHashing(KeyHashing.MD5, Base64ToString.INSTANCE).hash(key);
+            assertEquals(base64.encodeToString(md5Bytes), md5Base64);
+            assertEquals(22, md5Base64.length());
+
+            String sha256Base64 = new MessageDigestHashing(KeyHashing.SHA256, Base64ToString.INSTANCE).hash(key);
+            assertEquals(base64.encodeToString(sha256Bytes), sha256Base64);
+            assertEquals(43, sha256Base64.length());
+        }
+    }
+
+    @Test
+    public void testBase64IsFixedWidth() {
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        long[] values = new long[]{0, 1, -1, Long.MIN_VALUE, Long.MAX_VALUE, 0x0123456789abcdefL};
+        for (long value : values) {
+            String longString = Base64ToString.INSTANCE.longToString(value);
+            assertEquals(base64.encodeToString(ByteBuffer.allocate(8).putLong(value).array()), longString);
+            assertEquals(11, longString.length());
+
+            String intString = Base64ToString.INSTANCE.intToString((int) value);
+            assertEquals(base64.encodeToString(ByteBuffer.allocate(4).putInt((int) value).array()), intString);
+            assertEquals(6, intString.length());
+        }
+
+        byte[] bytes = new byte[]{-1, 0, 1, 2, 3, -128, 127};
+        for (int length = 0; length <= bytes.length; length++) {
+            byte[] expected = new byte[length];
+            System.arraycopy(bytes, 0, expected, 0, length);
+            assertEquals(base64.encodeToString(expected), Base64ToString.INSTANCE.bytesToHex(bytes, 0, length));
+        }
+    }
+}
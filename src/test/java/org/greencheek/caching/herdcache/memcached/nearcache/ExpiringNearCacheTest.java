@@ -0,0 +1,43 @@
+package org.greencheek.caching.herdcache.memcached.nearcache;
+
+import com.googlecode.concurrentlinkedhashmap.Weighers;
+import org.greencheek.caching.herdcache.memcached.metrics.NoOpMetricRecorder;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ExpiringNearCacheTest {
+
+    @Test
+    public void testItemsAreEvictedWhenWeightIsExceeded() {
+        ExpiringNearCache<String> cache = new ExpiringNearCache<>(10, Duration.ofMinutes(1),
+                (Object value) -> ((String)value).length(), new NoOpMetricRecorder());
+
+        cache.put("a","12345",Duration.ofMinutes(1));
+        cache.put("b","12345",Duration.ofMinutes(1));
+        assertEquals(2,cache.size());
+
+        cache.put("c","12345",Duration.ofMinutes(1));
+        assertEquals(2,cache.size());
+        assertNull(cache.get("a"));
+        assertEquals("12345",cache.get("c"));
+    }
+
+    @Test
+    public void testTimeToLiveIsCappedByMemcachedTimeToLive() throws InterruptedException {
+        ExpiringNearCache<String> cache = new ExpiringNearCache<>(10, Duration.ofMinutes(1),
+                Weighers.singleton(), new NoOpMetricRecorder());
+
+        cache.put("a","value",Duration.ofMillis(100));
+        cache.put("b","value",Duration.ZERO);
+        assertEquals("value",cache.get("a"));
+
+        Thread.sleep(200);
+
+        assertNull(cache.get("a"));
+        assertEquals("value",cache.get("b"));
+    }
+}
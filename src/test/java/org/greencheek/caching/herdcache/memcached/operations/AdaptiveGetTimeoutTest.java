@@ -0,0 +1,63 @@
+package org.greencheek.caching.herdcache.memcached.operations;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.greencheek.caching.herdcache.memcached.metrics.NoOpMetricRecorder;
+import org.greencheek.caching.herdcache.memcached.metrics.YammerMetricsRecorder;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveGetTimeoutTest {
+
+    private void recordLatencies(GetTimeout timeout, int count, long millis) {
+        for(int i=0;i<count;i++) {
+            timeout.recordLatency(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    @Test
+    public void testMaxTimeoutIsUsedUntilEnoughLatenciesAreRecorded() {
+        AdaptiveGetTimeout timeout = new AdaptiveGetTimeout(5,1000,3.0,1000,new NoOpMetricRecorder(),"timeout");
+        assertEquals(1000,timeout.getTimeoutInMillis());
+
+        recordLatencies(timeout, RollingPercentile.MIN_SAMPLES-1, 10);
+        assertEquals(1000,timeout.getTimeoutInMillis());
+    }
+
+    @Test
+    public void testTimeoutIsMultipleOfP99() {
+        AdaptiveGetTimeout timeout = new AdaptiveGetTimeout(5,1000,3.0,1000,new NoOpMetricRecorder(),"timeout");
+
+        // 1024 samples, so the p99 is recalculated after the last sample
+        recordLatencies(timeout, 1004, 2);
+        recordLatencies(timeout, 20, 20);
+        assertEquals(60,timeout.getTimeoutInMillis());
+    }
+
+    @Test
+    public void testTimeoutIsBounded() {
+        AdaptiveGetTimeout timeout = new AdaptiveGetTimeout(5,100,3.0,200,new NoOpMetricRecorder(),"timeout");
+
+        recordLatencies(timeout, 256, 1);
+        assertEquals(5,timeout.getTimeoutInMillis());
+
+        recordLatencies(timeout, 256, 500);
+        assertEquals(100,timeout.getTimeoutInMillis());
+    }
+
+    @Test
+    public void testTimeoutIsRecordedAsGauge() {
+        MetricRegistry registry = new MetricRegistry();
+        AdaptiveGetTimeout timeout = new AdaptiveGetTimeout(5,1000,2.0,100,new YammerMetricsRecorder(registry),"timeout");
+
+        Gauge gauge = registry.getGauges().get("timeout");
+        assertEquals(1000L,gauge.getValue());
+
+        recordLatencies(timeout, 192, 10);
+        assertEquals(20L,gauge.getValue());
+        assertEquals(20,timeout.getTimeoutInMillis());
+    }
+}
@@ -0,0 +1,136 @@
+package org.greencheek.caching.herdcache.memcached.operations;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.greencheek.caching.herdcache.memcached.factory.ReferencedClient;
+import org.greencheek.caching.herdcache.memcached.metrics.MetricRecorder;
+import org.greencheek.caching.herdcache.memcached.metrics.YammerMetricsRecorder;
+import org.greencheek.caching.herdcache.memcached.util.CacheMetricStrings;
+import org.greencheek.caching.herdcache.util.ReplicaKeyCreator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class HedgingCacheReadTest {
+
+    /**
+     * Returns the future registered for a key, or an immediate miss
+     */
+    private static class StubCacheRead implements CacheRead<String> {
+        private final Map<String,ListenableFuture<String>> reads = new ConcurrentHashMap<>();
+
+        @Override
+        public String getFromDistributedCache(ReferencedClient client, String key, long timeoutInMillis,
+                                              String cacheType, MetricRecorder metricRecorder) {
+            return Futures.getUnchecked(getFromDistributedCacheAsync(client, key, timeoutInMillis, cacheType, metricRecorder));
+        }
+
+        @Override
+        public ListenableFuture<String> getFromDistributedCacheAsync(ReferencedClient client, String key, long timeoutInMillis,
+                                                                     String cacheType, MetricRecorder metricRecorder) {
+            ListenableFuture<String> read = reads.get(key);
+            return read == null ? Futures.immediateFuture(null) : read;
+        }
+
+        @Override
+        public ListenableFuture<Map<String,String>> getBulkFromDistributedCacheAsync(ReferencedClient client, Collection<String> keys,
+                                                                                    long timeoutInMillis, String cacheType,
+                                                                                    MetricRecorder metricRecorder) {
+            return null;
+        }
+    }
+
+    private ScheduledExecutorService scheduler;
+    private MetricRegistry registry;
+    private StubCacheRead stub;
+    private HedgingCacheRead<String> reader;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        registry = new MetricRegistry();
+        stub = new StubCacheRead();
+        reader = new HedgingCacheRead<>(stub, scheduler, CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE,
+                new RollingPercentile(0.95, 1000, TimeUnit.MILLISECONDS.toNanos(50)),
+                new YammerMetricsRecorder(registry));
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private String read(String key) throws Exception {
+        return reader.getFromDistributedCacheAsync(null, key, 1000, CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE,
+                new YammerMetricsRecorder(registry)).get(2, TimeUnit.SECONDS);
+    }
+
+    private long count(String metricName) {
+        return registry.counter(metricName + "_count").getCount();
+    }
+
+    @Test
+    public void testFastReadIsNotHedged() throws Exception {
+        stub.reads.put("key", Futures.immediateFuture("value"));
+        assertEquals("value", read("key"));
+        Thread.sleep(100);
+        assertEquals(0, count(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_HEDGED_READS_COUNTER));
+    }
+
+    @Test
+    public void testReplicaWinsWhenPrimaryIsSlow() throws Exception {
+        stub.reads.put("key", SettableFuture.create());
+        stub.reads.put(ReplicaKeyCreator.createKey("key"), Futures.immediateFuture("replica"));
+
+        long start = System.nanoTime();
+        assertEquals("replica", read("key"));
+        assertEquals(true, System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        // the win is recorded after the result is set
+        Thread.sleep(50);
+        assertEquals(1, count(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_HEDGED_READS_COUNTER));
+        assertEquals(1, count(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_HEDGED_READ_WINS_COUNTER));
+    }
+
+    @Test
+    public void testReplicaMissWaitsForPrimary() throws Exception {
+        SettableFuture<String> primary = SettableFuture.create();
+        stub.reads.put("key", primary);
+        scheduler.schedule(() -> primary.set("primary"), 200, TimeUnit.MILLISECONDS);
+
+        assertEquals("primary", read("key"));
+        assertEquals(1, count(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_HEDGED_READS_COUNTER));
+        assertEquals(0, count(CacheMetricStrings.CACHE_TYPE_DISTRIBUTED_CACHE_HEDGED_READ_WINS_COUNTER));
+    }
+
+    @Test
+    public void testMissWhenNeitherIsFound() throws Exception {
+        SettableFuture<String> primary = SettableFuture.create();
+        stub.reads.put("key", primary);
+        scheduler.schedule(() -> primary.set(null), 200, TimeUnit.MILLISECONDS);
+
+        assertNull(read("key"));
+    }
+
+    @Test
+    public void testOtherCacheTypesAreNotHedged() throws Exception {
+        stub.reads.put("key", SettableFuture.create());
+        stub.reads.put(ReplicaKeyCreator.createKey("key"), Futures.immediateFuture("replica"));
+
+        ListenableFuture<String> stale = reader.getFromDistributedCacheAsync(null, "key", 1000,
+                CacheMetricStrings.CACHE_TYPE_STALE_CACHE, new YammerMetricsRecorder(registry));
+        Thread.sleep(200);
+        assertEquals(false, stale.isDone());
+    }
+}
@@ -0,0 +1,116 @@
+package org.greencheek.caching.herdcache.memcached.operations;
+
+import com.codahale.metrics.MetricRegistry;
+import org.greencheek.caching.herdcache.memcached.factory.ReferencedClient;
+import org.greencheek.caching.herdcache.memcached.metrics.YammerMetricsRecorder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class WriteBehindCacheWriteTest {
+
+    private final List<String> sets = new CopyOnWriteArrayList<>();
+    private ReferencedClient client;
+    private MetricRegistry registry;
+    private WriteBehindCacheWrite writer;
+
+    @Before
+    public void setUp() {
+        client = (ReferencedClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{ReferencedClient.class},
+                (proxy, method, args) -> {
+                    if(method.getName().equals("set")) {
+                        sets.add(args[0] + "=" + args[2]);
+                    }
+                    return null;
+                });
+        registry = new MetricRegistry();
+    }
+
+    @After
+    public void tearDown() {
+        if(writer!=null) {
+            writer.shutdown();
+        }
+    }
+
+    private WriteBehindCacheWrite createWriter(int maxQueueSize, int maxBatchSize, long flushIntervalInMillis) {
+        return new WriteBehindCacheWrite(new YammerMetricsRecorder(registry), maxQueueSize, maxBatchSize,
+                TimeUnit.MILLISECONDS.toNanos(flushIntervalInMillis));
+    }
+
+    @Test
+    public void testPendingWritesToSameKeyAreCoalesced() throws InterruptedException {
+        writer = createWriter(100, 100, 200);
+
+        writer.writeToDistributedCache(client, "key1", "value1", 60);
+        writer.writeToDistributedCache(client, "key1", "value2", 60);
+        writer.writeToDistributedCache(client, "key2", "value1", 60);
+        writer.writeToDistributedCache(client, "key1", "value3", 60);
+
+        assertEquals("writes should wait for the flush interval", 0, sets.size());
+        Thread.sleep(500);
+
+        assertEquals(2, sets.size());
+        assertEquals("key1=value3", sets.get(0));
+        assertEquals("key2=value1", sets.get(1));
+        assertEquals(2, registry.counter("distributed_cache_write_behind_coalesced_count").getCount());
+        assertEquals(1, registry.histogram("distributed_cache_write_behind_batch_size").getCount());
+    }
+
+    @Test
+    public void testBatchIsSentWhenMaxBatchSizeIsReached() throws InterruptedException {
+        writer = createWriter(100, 2, 10000);
+
+        writer.writeToDistributedCache(client, "key1", "value1", 60);
+        writer.writeToDistributedCache(client, "key2", "value2", 60);
+        Thread.sleep(200);
+
+        assertEquals(2, sets.size());
+    }
+
+    @Test
+    public void testWritesForNewKeysAreDroppedWhenQueueIsFull() throws InterruptedException {
+        writer = createWriter(2, 100, 200);
+
+        writer.writeToDistributedCache(client, "key1", "value1", 60);
+        writer.writeToDistributedCache(client, "key2", "value1", 60);
+        writer.writeToDistributedCache(client, "key3", "value1", 60);
+        writer.writeToDistributedCache(client, "key1", "value2", 60);
+        Thread.sleep(500);
+
+        assertEquals(2, sets.size());
+        assertEquals("key1=value2", sets.get(0));
+        assertEquals(1, registry.counter("distributed_cache_write_behind_dropped_count").getCount());
+    }
+
+    @Test
+    public void testDiscardedWritesAreNotSent() throws InterruptedException {
+        writer = createWriter(100, 100, 200);
+
+        writer.writeToDistributedCache(client, "key1", "value1", 60);
+        writer.writeToDistributedCache(client, "key2", "value1", 60);
+        writer.discard("key1");
+        Thread.sleep(500);
+
+        assertEquals(1, sets.size());
+        assertEquals("key2=value1", sets.get(0));
+    }
+
+    @Test
+    public void testPendingWritesAreSentOnShutdown() {
+        writer = createWriter(100, 100, 10000);
+
+        writer.writeToDistributedCache(client, "key1", "value1", 60);
+        writer.shutdown();
+
+        assertEquals(1, sets.size());
+    }
+}
@@ -0,0 +1,146 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.locator;
+
+import net.spy.memcached.DefaultHashAlgorithm;
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.ops.GetOperation;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationState;
+import net.spy.memcached.ops.StoreOperation;
+import net.spy.memcached.ops.StoreType;
+import org.greencheek.caching.herdcache.memcached.metrics.NoOpMetricRecorder;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class BoundedLoadKetamaNodeLocatorTest {
+
+    private static List<MemcachedNode> nodes(int count) {
+        List<MemcachedNode> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            nodes.add(new CeilingKeyKetamaNodeLocatorTest.KetemaTestingMemcachedNode(11211 + i));
+        }
+        return nodes;
+    }
+
+    /**
+     * An operation on the given node, whose state can be changed
+     */
+    private static Operation operation(Class<? extends Operation> type, StoreType storeType,
+                                       MemcachedNode node, AtomicReference<OperationState> state) {
+        return (Operation) Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getHandlingNode":
+                    return node;
+                case "getState":
+                    return state.get();
+                case "getStoreType":
+                    return storeType;
+                case "isCancelled":
+                case "isTimedOut":
+                    return false;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static Operation set(MemcachedNode node) {
+        return operation(StoreOperation.class, StoreType.set, node, new AtomicReference<>(OperationState.WRITE_QUEUED));
+    }
+
+    private static Operation get(MemcachedNode node) {
+        return operation(GetOperation.class, null, node, new AtomicReference<>(OperationState.WRITE_QUEUED));
+    }
+
+    @Test
+    public void testSetsOverflowFromANodeAtCapacityAndReadsFollow() {
+        List<MemcachedNode> nodes = nodes(4);
+        BoundedLoadKetamaNodeLocator locator = new BoundedLoadKetamaNodeLocator(nodes, DefaultHashAlgorithm.KETAMA_HASH,
+                1.25, 1, 100, new NoOpMetricRecorder());
+
+        MemcachedNode ringNode = locator.getPrimary("key");
+        assertSame(ringNode, locator.getPrimary("key", set(null)));
+        assertEquals(0, locator.getNumberOfOverflowedKeys());
+
+        AtomicReference<OperationState> hotState = new AtomicReference<>(OperationState.READING);
+        for (int i = 0; i < 10; i++) {
+            locator.operationAdded(operation(GetOperation.class, null, ringNode, hotState));
+        }
+        assertEquals(10, locator.getInFlightOperations(ringNode));
+        assertEquals(4, locator.getCapacity(nodes.size()));
+
+        // gets, and the other writes, are not moved
+        assertSame(ringNode, locator.getPrimary("key", get(null)));
+        assertSame(ringNode, locator.getPrimary("key", operation(StoreOperation.class, StoreType.add, null,
+                new AtomicReference<>(OperationState.WRITE_QUEUED))));
+
+        MemcachedNode overflowedTo = locator.getPrimary("key", set(null));
+        assertNotSame(ringNode, overflowedTo);
+        assertEquals(1, locator.getNumberOfOverflowedKeys());
+        assertSame(overflowedTo, locator.getPrimary("key"));
+        assertSame(overflowedTo, locator.getPrimary("key", get(null)));
+
+        // the next set, once the node is no longer at capacity, goes back to the ring node
+        hotState.set(OperationState.COMPLETE);
+        assertEquals(0, locator.getInFlightOperations(ringNode));
+        assertSame(ringNode, locator.getPrimary("key", set(null)));
+        assertEquals(0, locator.getNumberOfOverflowedKeys());
+        assertSame(ringNode, locator.getPrimary("key"));
+    }
+
+    @Test
+    public void testNodesBelowTheMinimumCapacityAreNotAtCapacity() {
+        List<MemcachedNode> nodes = nodes(4);
+        BoundedLoadKetamaNodeLocator locator = new BoundedLoadKetamaNodeLocator(nodes, DefaultHashAlgorithm.KETAMA_HASH);
+
+        MemcachedNode ringNode = locator.getPrimary("key");
+        for (int i = 0; i < BoundedLoadKetamaNodeLocator.DEFAULT_MINIMUM_CAPACITY - 1; i++) {
+            locator.operationAdded(set(ringNode));
+        }
+        assertSame(ringNode, locator.getPrimary("key", set(null)));
+        assertEquals(0, locator.getNumberOfOverflowedKeys());
+    }
+
+    @Test
+    public void testOverflowedKeysAreForgottenWhenTheNodesChange() {
+        List<MemcachedNode> nodes = nodes(4);
+        BoundedLoadKetamaNodeLocator locator = new BoundedLoadKetamaNodeLocator(nodes, DefaultHashAlgorithm.KETAMA_HASH,
+                1.0, 1, 100, null);
+
+        MemcachedNode ringNode = locator.getPrimary("key");
+        for (int i = 0; i < 10; i++) {
+            locator.operationAdded(set(ringNode));
+        }
+        assertNotSame(ringNode, locator.getPrimary("key", set(null)));
+        assertEquals(1, locator.getNumberOfOverflowedKeys());
+
+        List<MemcachedNode> remaining = new ArrayList<>(nodes);
+        remaining.remove(ringNode);
+        locator.updateLocator(remaining);
+        assertEquals(0, locator.getNumberOfOverflowedKeys());
+        assertEquals(0, locator.getInFlightOperations(ringNode));
+    }
+
+    @Test
+    public void testFindFirstAcceptedNodeTestsEachNodeOnce() {
+        List<MemcachedNode> nodes = nodes(4);
+        CeilingKeyKetamaNodeLocator locator = new CeilingKeyKetamaNodeLocator(nodes, DefaultHashAlgorithm.KETAMA_HASH);
+        ArrayBasedCeilRing ring = locator.getRing();
+        long hash = locator.hash("key");
+
+        List<MemcachedNode> tested = new ArrayList<>();
+        assertNull(ring.findFirstAcceptedNode(hash, node -> !tested.add(node)));
+        assertEquals(4, tested.size());
+        assertSame(ring.findClosestNode(hash), tested.get(0));
+        assertSame(ring.findNextDistinctNode(hash), tested.get(1));
+    }
+}
@@ -2,7 +2,9 @@ package org.greencheek.caching.herdcache.memcached.spy.extensions.locator;
 
 import net.spy.memcached.*;
 import net.spy.memcached.ops.Operation;
+import org.greencheek.caching.herdcache.CacheKey;
 import org.greencheek.caching.herdcache.memcached.spy.extensions.hashing.JenkinsHash;
+import org.greencheek.caching.herdcache.util.ReplicaKeyCreator;
 import org.junit.Test;
 
 import java.io.IOException;
@@ -57,6 +59,56 @@ public class CeilingKeyKetamaNodeLocatorTest {
         assertArrayEquals(originalList.toArray(),customList.toArray());
     }
 
+    @Test
+    public void testReplicaKeysAreRoutedToTheNextNode() {
+        NodeLocator locator = new CeilingKeyKetamaNodeLocator(memcachedNodes, new JenkinsHash(), true);
+        for(int i=0;i<10000;i++) {
+            String key = strings.get(i);
+            MemcachedNode primary = locator.getPrimary(key);
+            MemcachedNode replica = locator.getPrimary(ReplicaKeyCreator.createKey(key));
+            assertNotSame(primary,replica);
+            assertSame(replica,locator.getPrimary(ReplicaKeyCreator.createKey(key)));
+            assertSame(replica,locator.getReadonlyCopy().getPrimary(ReplicaKeyCreator.createKey(key)));
+        }
+    }
+
+    @Test
+    public void testReplicaKeysAreLocatedByTheirHashUnlessAskedFor() {
+        KetamaNodeLocator ketama = new KetamaNodeLocator(memcachedNodes, new JenkinsHash());
+        for(int i=0;i<1000;i++) {
+            String key = ReplicaKeyCreator.createKey(strings.get(i));
+            assertSame(ketama.getPrimary(key),customarray.getPrimary(key));
+        }
+        assertSame(ketama.getPrimary("replica:key"),
+                LocatorFactory.KETAMA_CEILING_ARRAY.createNodeLocator(memcachedNodes, new JenkinsHash()).getPrimary("replica:key"));
+    }
+
+    @Test
+    public void testReplicaKeyIsRoutedToTheOnlyNode() {
+        List<MemcachedNode> nodes = new ArrayList<>(memcachedNodes.subList(0,1));
+        NodeLocator locator = new CeilingKeyKetamaNodeLocator(nodes, new JenkinsHash(), true);
+        assertSame(nodes.get(0),locator.getPrimary(ReplicaKeyCreator.createKey(strings.get(0))));
+    }
+
+    @Test
+    public void testPrecomputedHashIsUsedForTheSameKeyInstance() {
+        String key = strings.get(0);
+        String otherKey = strings.get(1);
+        MemcachedNode otherNode = customarray.getPrimary(otherKey);
+
+        // a hash that locates the node of the other key
+        CacheKey cacheKey = CacheKey.prepared(this, key, key, null, new JenkinsHash().hash(otherKey));
+        CacheKey previous = PrecomputedKeyHashes.set(cacheKey);
+        try {
+            assertSame(otherNode, customarray.getPrimary(key));
+            assertSame(customarray.getPrimary(strings.get(2)), original.getPrimary(strings.get(2)));
+            assertSame(original.getPrimary(key), customarray.getPrimary(new String(key)));
+        } finally {
+            PrecomputedKeyHashes.restore(previous);
+        }
+        assertSame(original.getPrimary(key), customarray.getPrimary(key));
+    }
+
 
 
 
@@ -0,0 +1,137 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.locator;
+
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.NodeLocator;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.hashing.JenkinsHash;
+import org.greencheek.caching.herdcache.util.ReplicaKeyCreator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class JumpConsistentHashNodeLocatorTest {
+    private static final int NUM = 100000;
+
+    private static List<MemcachedNode> nodes(int count) {
+        List<MemcachedNode> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            nodes.add(new CeilingKeyKetamaNodeLocatorTest.KetemaTestingMemcachedNode(11211 + i));
+        }
+        return nodes;
+    }
+
+    private static List<String> keys() {
+        List<String> keys = new ArrayList<>(NUM);
+        for (int i = 0; i < NUM; i++) {
+            keys.add(UUID.randomUUID().toString());
+        }
+        return keys;
+    }
+
+    @Test
+    public void testKeysAreSpreadEvenly() {
+        List<MemcachedNode> nodes = nodes(10);
+        NodeLocator locator = new JumpConsistentHashNodeLocator(nodes, new JenkinsHash());
+
+        Map<MemcachedNode, Integer> counts = new HashMap<>();
+        for (String key : keys()) {
+            counts.merge(locator.getPrimary(key), 1, Integer::sum);
+        }
+        assertEquals(10, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(NUM / 10, count, NUM / 100);
+        }
+    }
+
+    @Test
+    public void testOnlyTheKeysOfAnAddedNodeMove() {
+        List<MemcachedNode> nodes = nodes(11);
+        NodeLocator locator = new JumpConsistentHashNodeLocator(nodes.subList(0, 10), new JenkinsHash());
+        List<String> keys = keys();
+        List<MemcachedNode> before = new ArrayList<>();
+        for (String key : keys) {
+            before.add(locator.getPrimary(key));
+        }
+
+        locator.updateLocator(nodes);
+        int moved = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            MemcachedNode after = locator.getPrimary(keys.get(i));
+            if (after != before.get(i)) {
+                assertSame(nodes.get(10), after);
+                moved++;
+            }
+        }
+        assertEquals(NUM / 11, moved, NUM / 100);
+    }
+
+    @Test
+    public void testReplicaKeysAreRoutedToAnotherNode() {
+        NodeLocator locator = LocatorFactory.JUMP_CONSISTENT_HASH.createNodeLocator(nodes(3), new JenkinsHash(), true);
+        for (String key : keys().subList(0, 1000)) {
+            assertNotSame(locator.getPrimary(key), locator.getPrimary(ReplicaKeyCreator.createKey(key)));
+        }
+
+        List<MemcachedNode> single = nodes(1);
+        assertSame(single.get(0), LocatorFactory.JUMP_CONSISTENT_HASH.createNodeLocator(single, new JenkinsHash(), true)
+                .getPrimary(ReplicaKeyCreator.createKey("key")));
+    }
+
+    @Test
+    public void testReplicaKeysAreLocatedByTheirHashUnlessAskedFor() {
+        NodeLocator locator = LocatorFactory.JUMP_CONSISTENT_HASH.createNodeLocator(nodes(3), new JenkinsHash());
+        int sameNode = 0;
+        for (String key : keys().subList(0, 1000)) {
+            if (locator.getPrimary(key) == locator.getPrimary(ReplicaKeyCreator.createKey(key))) {
+                sameNode++;
+            }
+        }
+        assertTrue(sameNode > 0);
+    }
+
+    @Test
+    public void testNodeOrderDoesNotChangeTheNodeOfAKey() {
+        List<MemcachedNode> nodes = nodes(5);
+        NodeLocator locator = new JumpConsistentHashNodeLocator(nodes, new JenkinsHash());
+        List<MemcachedNode> reversed = new ArrayList<>(nodes);
+        Collections.reverse(reversed);
+        NodeLocator reversedLocator = new JumpConsistentHashNodeLocator(reversed, new JenkinsHash());
+
+        for (String key : keys().subList(0, 1000)) {
+            assertSame(locator.getPrimary(key), reversedLocator.getPrimary(key));
+        }
+    }
+
+    @Test
+    public void testNoNodeIsLocatedWhenThereAreNoNodes() {
+        NodeLocator locator = new JumpConsistentHashNodeLocator(nodes(0), new JenkinsHash(), true);
+        try {
+            locator.getPrimary("key");
+            fail("Expected no node to be located");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertFalse(locator.getSequence("key").hasNext());
+        assertTrue(locator.getReadonlyCopy().getAll().isEmpty());
+    }
+
+    @Test
+    public void testJumpHash() {
+        // the bucket of a key only changes to the new bucket as buckets are added
+        for (long key = 0; key < 1000; key++) {
+            int previous = JumpConsistentHashNodeLocator.jumpConsistentHash(key, 1);
+            assertEquals(0, previous);
+            for (int buckets = 2; buckets < 100; buckets++) {
+                int bucket = JumpConsistentHashNodeLocator.jumpConsistentHash(key, buckets);
+                assertTrue(bucket == previous || bucket == buckets - 1);
+                previous = bucket;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.locator;
+
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.NodeLocator;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.hashing.JenkinsHash;
+import org.greencheek.caching.herdcache.util.ReplicaKeyCreator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class MaglevNodeLocatorTest {
+    private static final int NUM = 100000;
+
+    private static List<MemcachedNode> nodes(int count) {
+        List<MemcachedNode> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            nodes.add(new CeilingKeyKetamaNodeLocatorTest.KetemaTestingMemcachedNode(11211 + i));
+        }
+        return nodes;
+    }
+
+    private static List<String> keys() {
+        List<String> keys = new ArrayList<>(NUM);
+        for (int i = 0; i < NUM; i++) {
+            keys.add(UUID.randomUUID().toString());
+        }
+        return keys;
+    }
+
+    @Test
+    public void testTableSizeIsPrime() {
+        assertEquals(MaglevNodeLocator.DEFAULT_TABLE_SIZE, MaglevNodeLocator.tableSizeFor(MaglevNodeLocator.DEFAULT_TABLE_SIZE, 10));
+        assertEquals(100003, MaglevNodeLocator.tableSizeFor(MaglevNodeLocator.DEFAULT_TABLE_SIZE, 1000));
+        assertTrue(MaglevNodeLocator.isPrime(65537));
+        assertFalse(MaglevNodeLocator.isPrime(65535));
+    }
+
+    @Test
+    public void testKeysAreSpreadEvenly() {
+        NodeLocator locator = new MaglevNodeLocator(nodes(10), new JenkinsHash());
+
+        Map<MemcachedNode, Integer> counts = new HashMap<>();
+        for (String key : keys()) {
+            counts.merge(locator.getPrimary(key), 1, Integer::sum);
+        }
+        assertEquals(10, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(NUM / 10, count, NUM / 100);
+        }
+    }
+
+    @Test
+    public void testFewKeysMoveWhenANodeIsAddedOrRemoved() {
+        List<MemcachedNode> nodes = nodes(11);
+        NodeLocator locator = new MaglevNodeLocator(nodes.subList(0, 10), new JenkinsHash());
+        NodeLocator added = new MaglevNodeLocator(nodes, new JenkinsHash());
+        List<MemcachedNode> removedNodes = new ArrayList<>(nodes.subList(0, 10));
+        removedNodes.remove(4);
+        NodeLocator removed = new MaglevNodeLocator(removedNodes, new JenkinsHash());
+
+        int movedOnAdd = 0;
+        int movedOnRemove = 0;
+        for (String key : keys()) {
+            MemcachedNode before = locator.getPrimary(key);
+            if (before != added.getPrimary(key)) {
+                movedOnAdd++;
+            }
+            if (before != removed.getPrimary(key)) {
+                movedOnRemove++;
+            }
+        }
+        // ideally 1/11 and 1/10 of the keys, maglev moves a little more
+        assertEquals(NUM / 11, movedOnAdd, NUM / 40);
+        assertEquals(NUM / 10, movedOnRemove, NUM / 40);
+    }
+
+    @Test
+    public void testNodeOrderDoesNotChangeTheTable() {
+        List<MemcachedNode> nodes = nodes(5);
+        NodeLocator locator = new MaglevNodeLocator(nodes, new JenkinsHash());
+        List<MemcachedNode> reversed = new ArrayList<>(nodes);
+        Collections.reverse(reversed);
+        NodeLocator reversedLocator = new MaglevNodeLocator(reversed, new JenkinsHash());
+
+        for (String key : keys().subList(0, 1000)) {
+            assertSame(locator.getPrimary(key), reversedLocator.getPrimary(key));
+        }
+    }
+
+    @Test
+    public void testReplicaKeysAreRoutedToAnotherNode() {
+        NodeLocator locator = LocatorFactory.MAGLEV.createNodeLocator(nodes(3), new JenkinsHash(), true);
+        for (String key : keys().subList(0, 1000)) {
+            assertNotSame(locator.getPrimary(key), locator.getPrimary(ReplicaKeyCreator.createKey(key)));
+        }
+
+        List<MemcachedNode> single = nodes(1);
+        assertSame(single.get(0), LocatorFactory.MAGLEV.createNodeLocator(single, new JenkinsHash(), true)
+                .getPrimary(ReplicaKeyCreator.createKey("key")));
+    }
+
+    @Test
+    public void testReplicaKeysAreLocatedByTheirHashUnlessAskedFor() {
+        NodeLocator locator = LocatorFactory.MAGLEV.createNodeLocator(nodes(3), new JenkinsHash());
+        int sameNode = 0;
+        for (String key : keys().subList(0, 1000)) {
+            if (locator.getPrimary(key) == locator.getPrimary(ReplicaKeyCreator.createKey(key))) {
+                sameNode++;
+            }
+        }
+        assertTrue(sameNode > 0);
+    }
+}
@@ -0,0 +1,111 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders;
+
+import net.spy.memcached.CachedData;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs.ValueCodecRegistry;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs.ValueCodecs;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.LZ4NativeCompression;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression.SnappyCompression;
+import org.greencheek.caching.herdcache.memcached.util.TestCacheValues;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class FastSerializingTranscoderTest {
+
+    private final FastSerializingTranscoder transcoder = new FastSerializingTranscoder(
+            new FastSerializingTranscoderConfigBuilder().setValueCodecs(ValueCodecRegistry.EXTENDED).build());
+
+    @Test
+    public void testRegisteredTypesAreWrittenWithTheirCodec() {
+        Map<String, String> map = new HashMap<>();
+        map.put("key", "value");
+
+        Object[] values = new Object[]{"string", 1, 2L, (short) 3, 'c', true, 1.5d, 2.5f, (byte) 4, new byte[]{1, 2}, map};
+        for (Object value : values) {
+            CachedData encoded = transcoder.encode(value);
+            assertEquals(0, encoded.getFlags() & SerializingTranscoder.SERIALIZED);
+            assertEquals(ValueCodecRegistry.EXTENDED.codecFor(value).getFlags(), encoded.getFlags());
+
+            Object decoded = transcoder.decode(encoded);
+            if (value instanceof byte[]) {
+                assertArrayEquals((byte[]) value, (byte[]) decoded);
+            } else {
+                assertEquals(value, decoded);
+            }
+        }
+    }
+
+    @Test
+    public void testStringMapIsSmallerThanSerializedMap() {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put("key" + i, "value" + i);
+        }
+
+        FastSerializingTranscoder serializing = new FastSerializingTranscoder(
+                new FastSerializingTranscoderConfigBuilder().setValueCodecs(ValueCodecRegistry.NONE).build());
+
+        CachedData encoded = transcoder.encode(map);
+        CachedData serialized = serializing.encode(map);
+        assertEquals(ValueCodecs.STRING_MAP_FLAGS, encoded.getFlags());
+        assertEquals(SerializingTranscoder.SERIALIZED, serialized.getFlags());
+        assertTrue(encoded.getData().length < serialized.getData().length);
+
+        assertEquals(map, serializing.decode(serialized));
+    }
+
+    @Test
+    public void testDefaultCodecsWriteOnlyTheFlagsOfSpysTranscoder() {
+        FastSerializingTranscoder defaults = new FastSerializingTranscoder(new SnappyCompression());
+        Map<String, String> map = new HashMap<>();
+        map.put("key", "value");
+
+        for (Object value : new Object[]{(short) 3, 'c', map}) {
+            CachedData encoded = defaults.encode(value);
+            assertEquals(SerializingTranscoder.SERIALIZED, encoded.getFlags());
+            assertEquals(value, defaults.decode(encoded));
+            assertEquals(value, transcoder.decode(encoded));
+        }
+        assertEquals(ValueCodecs.LONG_FLAGS, defaults.encode(2L).getFlags());
+    }
+
+    @Test
+    public void testOtherObjectsAreSerialized() {
+        ArrayList<String> value = new ArrayList<>();
+        value.add("one");
+
+        CachedData encoded = transcoder.encode(value);
+        assertEquals(SerializingTranscoder.SERIALIZED, encoded.getFlags());
+        assertEquals(value, transcoder.decode(encoded));
+    }
+
+    @Test
+    public void testLargeValuesAreCompressed() {
+        for (FastSerializingTranscoder compressing : new FastSerializingTranscoder[]{
+                transcoder, new FastSerializingTranscoder(new LZ4NativeCompression())}) {
+
+            CachedData string = compressing.encode(TestCacheValues.LARGE_CACHE_VALUE);
+            assertEquals(SerializingTranscoder.COMPRESSED, string.getFlags());
+            assertEquals(TestCacheValues.LARGE_CACHE_VALUE, compressing.decode(string));
+
+            CachedData bytes = compressing.encode(TestCacheValues.LARGE_CACHE_VALUE_BYTES);
+            assertEquals(ValueCodecs.BYTE_ARRAY_FLAGS | SerializingTranscoder.COMPRESSED, bytes.getFlags());
+            assertArrayEquals(TestCacheValues.LARGE_CACHE_VALUE_BYTES, (byte[]) compressing.decode(bytes));
+
+            ArrayList<String> list = new ArrayList<>();
+            list.add(TestCacheValues.LARGE_CACHE_VALUE);
+            CachedData serialized = compressing.encode(list);
+            assertEquals(SerializingTranscoder.SERIALIZED | SerializingTranscoder.COMPRESSED, serialized.getFlags());
+            assertEquals(list, compressing.decode(serialized));
+        }
+    }
+
+    @Test
+    public void testUnknownFlagsAreNotDecoded() {
+        assertNull(transcoder.decode(new CachedData(200 << 8, new byte[]{1}, CachedData.MAX_SIZE)));
+    }
+}
@@ -0,0 +1,139 @@
+package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.codecs;
+
+import net.spy.memcached.transcoders.TranscoderUtils;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class ValueCodecsTest {
+
+    private final ValueCodecRegistry registry = ValueCodecRegistry.EXTENDED;
+    private final TranscoderUtils tu = new TranscoderUtils(true);
+
+    private Object roundTrip(Object value) {
+        ValueCodec<Object> codec = registry.codecFor(value);
+        assertNotNull("no codec for " + value.getClass(), codec);
+
+        // decode from within a larger array
+        byte[] encoded = codec.encode(value);
+        byte[] padded = new byte[encoded.length + 3];
+        System.arraycopy(encoded, 0, padded, 2, encoded.length);
+        return registry.codecForFlags(codec.getFlags()).decode(padded, 2, encoded.length);
+    }
+
+    @Test
+    public void testNumbersAreWrittenAsSpyTranscoderUtils() {
+        long[] values = new long[]{0, 1, -1, 255, 256, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            assertArrayEquals(tu.encodeLong(value), ValueCodecs.LONG.encode(value));
+            assertArrayEquals(tu.encodeInt((int) value), ValueCodecs.INTEGER.encode((int) value));
+            assertArrayEquals(tu.encodeLong(value), ValueCodecs.DATE.encode(new Date(value)));
+
+            assertEquals(value, roundTrip(value));
+            assertEquals((int) value, roundTrip((int) value));
+            assertEquals((short) value, roundTrip((short) value));
+            assertEquals((byte) value, roundTrip((byte) value));
+            assertEquals((char) value, roundTrip((char) value));
+            assertEquals(value + 0.5d, roundTrip(value + 0.5d));
+            assertEquals(value - 0.25f, roundTrip(value - 0.25f));
+            assertEquals(new Date(value), roundTrip(new Date(value)));
+        }
+    }
+
+    @Test
+    public void testBooleanAndByteAreWrittenAsSpyTranscoderUtils() {
+        assertArrayEquals(tu.encodeBoolean(true), ValueCodecs.BOOLEAN.encode(true));
+        assertArrayEquals(tu.encodeBoolean(false), ValueCodecs.BOOLEAN.encode(false));
+        assertArrayEquals(tu.encodeByte((byte) -3), ValueCodecs.BYTE.encode((byte) -3));
+
+        assertEquals(true, roundTrip(true));
+        assertEquals(false, roundTrip(false));
+    }
+
+    @Test
+    public void testStringsAndByteArrays() {
+        assertEquals("h\u00e9llo", roundTrip("h\u00e9llo"));
+        assertEquals("", roundTrip(""));
+
+        byte[] bytes = new byte[]{1, 2, 3};
+        assertArrayEquals(bytes, (byte[]) roundTrip(bytes));
+        assertSame(bytes, ValueCodecs.BYTE_ARRAY.decode(bytes, 0, bytes.length));
+    }
+
+    @Test
+    public void testSmallStringMaps() {
+        Map<String, String> map = new HashMap<>();
+        map.put("a", "1");
+        map.put("b\u00e9", "");
+        assertEquals(map, roundTrip(map));
+
+        Map<String, String> ordered = new LinkedHashMap<>();
+        for (int i = 0; i < 200; i++) {
+            ordered.put("key" + i, "value" + i);
+        }
+        Object decoded = roundTrip(ordered);
+        assertTrue(decoded instanceof LinkedHashMap);
+        assertEquals(new java.util.ArrayList<>(ordered.keySet()),
+                new java.util.ArrayList<>(((Map<?, ?>) decoded).keySet()));
+    }
+
+    @Test
+    public void testValuesWithoutCodecAreSerialized() {
+        Map<String, String> large = new HashMap<>();
+        for (int i = 0; i <= ValueCodecs.DEFAULT_MAX_STRING_MAP_ENTRIES; i++) {
+            large.put("key" + i, "value" + i);
+        }
+        assertNull(registry.codecFor(large));
+        assertNull(registry.codecFor(new HashMap<>(Collections.singletonMap("a", null))));
+        assertNull(registry.codecFor(new HashMap<>(Collections.singletonMap("a", 1))));
+        assertNull(registry.codecFor(new TreeMap<>(Collections.singletonMap("a", "b"))));
+        assertNull(registry.codecFor(new java.sql.Timestamp(0)));
+        assertNull(ValueCodecRegistry.NONE.codecFor("string"));
+    }
+
+    @Test
+    public void testCodecsCanBeReplaced() {
+        ValueCodecRegistry withLargerMaps = registry.with(ValueCodecs.stringMap(1024));
+
+        Map<String, String> large = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            large.put("key" + i, "value" + i);
+        }
+        assertNull(registry.codecFor(large));
+        assertNotNull(withLargerMaps.codecFor(large));
+        assertEquals(registry.getCodecs().size(), withLargerMaps.getCodecs().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFlagsOutsideOfMaskAreRejected() {
+        new ValueCodecRegistry(Collections.singletonList(new ValueCodec<Object>() {
+            @Override
+            public int getFlags() {
+                return 1;
+            }
+
+            @Override
+            public List<Class<?>> getTypes() {
+                return Collections.singletonList(Object.class);
+            }
+
+            @Override
+            public byte[] encode(Object value) {
+                return new byte[0];
+            }
+
+            @Override
+            public Object decode(byte[] data, int offset, int length) {
+                return null;
+            }
+        }));
+    }
+}
@@ -1,8 +1,11 @@
 package org.greencheek.caching.herdcache.memcached.spy.extensions.transcoders.compression;
 
+import org.greencheek.caching.herdcache.memcached.util.ResizeableByteBuffer;
 import org.greencheek.caching.herdcache.memcached.util.TestCacheValues;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.*;
 
 public class SnappyCompressionTest {
@@ -20,4 +23,32 @@ public class SnappyCompressionTest {
         assertArrayEquals(TestCacheValues.LARGE_CACHE_VALUE_BYTES,compression.decompress(compressed));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testCompressionIntoBuffer() throws Exception {
+        SnappyCompression compression = new SnappyCompression();
+        byte[] value = TestCacheValues.LARGE_CACHE_VALUE_BYTES;
+
+        // compress a range of a larger array, into a buffer that has to grow
+        byte[] padded = new byte[value.length + 20];
+        System.arraycopy(value, 0, padded, 10, value.length);
+        ResizeableByteBuffer compressed = new ResizeableByteBuffer(16, ResizeableByteBuffer.MAX_ARRAY_SIZE);
+        compression.compress(padded, 10, value.length, compressed);
+
+        assertTrue(compressed.size() < value.length);
+        assertArrayEquals(compression.compress(value), compressed.toByteArray());
+
+        ResizeableByteBuffer decompressed = new ResizeableByteBuffer(16, ResizeableByteBuffer.MAX_ARRAY_SIZE);
+        assertTrue(compression.decompress(compressed.toByteArray(), decompressed));
+        assertEquals(value.length, decompressed.size());
+        assertArrayEquals(value, Arrays.copyOf(decompressed.getBuf(), decompressed.size()));
+    }
+
+    @Test
+    public void testDecompressionIntoBufferThatCannotGrow() throws Exception {
+        SnappyCompression compression = new SnappyCompression();
+        byte[] compressed = compression.compress(TestCacheValues.LARGE_CACHE_VALUE_BYTES);
+
+        assertFalse(compression.decompress(compressed, new ResizeableByteBuffer(16, 1024)));
+    }
+
+}
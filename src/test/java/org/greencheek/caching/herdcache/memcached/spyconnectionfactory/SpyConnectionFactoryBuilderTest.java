@@ -0,0 +1,35 @@
+package org.greencheek.caching.herdcache.memcached.spyconnectionfactory;
+
+import net.spy.memcached.ConnectionFactoryBuilder;
+import org.greencheek.caching.herdcache.memcached.config.MemcachedCacheConfig;
+import org.greencheek.caching.herdcache.memcached.config.builder.ElastiCacheCacheConfigBuilder;
+import org.greencheek.caching.herdcache.memcached.spy.extensions.connection.NoValidationConnectionFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpyConnectionFactoryBuilderTest {
+
+    private NoValidationConnectionFactory createConnectionFactory(boolean useQuietWrites) {
+        MemcachedCacheConfig config = new ElastiCacheCacheConfigBuilder()
+                .setProtocol(ConnectionFactoryBuilder.Protocol.BINARY)
+                .buildMemcachedConfig();
+
+        return SpyConnectionFactoryBuilder.createConnectionFactory(
+                config.getFailureMode(),
+                config.getHashAlgorithm(), config.getSerializingTranscoder(),
+                config.getProtocol(), config.getReadBufferSize(), config.getKeyHashType(),
+                config.getLocatorFactory(), config.getKeyValidationType(), null, useQuietWrites);
+    }
+
+    @Test
+    public void testQuietWritesEnableOptimizationOfQueuedSets() {
+        assertTrue(createConnectionFactory(true).shouldOptimize());
+    }
+
+    @Test
+    public void testOperationsAreNotOptimizedByDefault() {
+        assertFalse(createConnectionFactory(false).shouldOptimize());
+    }
+}
@@ -0,0 +1,81 @@
+package org.greencheek.caching.herdcache.memcached.util;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import org.greencheek.caching.herdcache.util.VirtualThreads;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class ThreadLocalResizeableByteBuffersTest {
+
+    @Test
+    public void testBufferIsReusedByTheSameThread() {
+        ThreadLocalResizeableByteBuffers buffers = new ThreadLocalResizeableByteBuffers(16, 1024);
+
+        ResizeableByteBuffer buffer = buffers.acquire();
+        buffer.append(new byte[]{1, 2, 3});
+        buffers.release(buffer);
+
+        ResizeableByteBuffer reused = buffers.acquire();
+        assertSame(buffer, reused);
+        assertEquals(0, reused.size());
+        assertTrue(reused.canWrite());
+    }
+
+    @Test
+    public void testBufferIsNotSharedBetweenThreads() throws InterruptedException {
+        ThreadLocalResizeableByteBuffers buffers = new ThreadLocalResizeableByteBuffers(16, 1024);
+        ResizeableByteBuffer buffer = buffers.acquire();
+
+        AtomicReference<ResizeableByteBuffer> other = new AtomicReference<>();
+        Thread t = new Thread(() -> other.set(buffers.acquire()));
+        t.start();
+        t.join();
+
+        assertNotNull(other.get());
+        assertNotSame(buffer, other.get());
+    }
+
+    @Test
+    public void testBufferThatHasGrownBeyondMaxRetainedCapacityIsDropped() {
+        ThreadLocalResizeableByteBuffers buffers = new ThreadLocalResizeableByteBuffers(16, 1024);
+
+        ResizeableByteBuffer buffer = buffers.acquire();
+        buffer.append(new byte[2048]);
+        buffers.release(buffer);
+
+        ResizeableByteBuffer replaced = buffers.acquire();
+        assertNotSame(buffer, replaced);
+        assertEquals(16, replaced.capacity());
+    }
+
+    @Test
+    public void testBufferIsReusedBetweenVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isAvailable());
+        ThreadLocalResizeableByteBuffers buffers = new ThreadLocalResizeableByteBuffers(16, 1024, 1);
+        ListeningExecutorService virtualThreads = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        try {
+            ResizeableByteBuffer first = virtualThreads.submit(() -> {
+                ResizeableByteBuffer buffer = buffers.acquire();
+                buffer.append(new byte[]{1, 2, 3});
+                buffers.release(buffer);
+                return buffer;
+            }).get();
+
+            ResizeableByteBuffer second = virtualThreads.submit(() -> {
+                ResizeableByteBuffer buffer = buffers.acquire();
+                buffers.release(buffer);
+                return buffer;
+            }).get();
+
+            assertSame(first, second);
+            assertEquals(0, second.size());
+            assertNotSame(first, buffers.acquire());
+        } finally {
+            virtualThreads.shutdownNow();
+        }
+    }
+}